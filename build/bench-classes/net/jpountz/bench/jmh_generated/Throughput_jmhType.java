@@ -0,0 +1,4 @@
+package net.jpountz.bench.jmh_generated;
+public class Throughput_jmhType extends Throughput_jmhType_B3 {
+}
+
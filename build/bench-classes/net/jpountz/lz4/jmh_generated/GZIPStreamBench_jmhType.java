@@ -0,0 +1,4 @@
+package net.jpountz.lz4.jmh_generated;
+public class GZIPStreamBench_jmhType extends GZIPStreamBench_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.jpountz.lz4.jmh_generated;
+public class LZ4BlockStreamBench_jmhType extends LZ4BlockStreamBench_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.jpountz.xxhash.jmh_generated;
+public class ChecksumBench_jmhType extends ChecksumBench_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.jpountz.xxhash.jmh_generated;
+public class StreamingXXHash32Bench_jmhType extends StreamingXXHash32Bench_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package net.jpountz.xxhash.jmh_generated;
+public class XXHash32Bench_jmhType extends XXHash32Bench_jmhType_B3 {
+}
+
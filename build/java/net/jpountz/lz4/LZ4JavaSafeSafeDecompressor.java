@@ -0,0 +1,440 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.lz4;
+
+import static net.jpountz.lz4.LZ4Constants.*;
+import static net.jpountz.lz4.LZ4Utils.*;
+import static net.jpountz.util.Utils.*;
+import static net.jpountz.lz4.LZ4ByteBufferUtils.*;
+import static net.jpountz.util.ByteBufferUtils.*;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decompressor.
+ */
+final class LZ4JavaSafeSafeDecompressor extends LZ4SafeDecompressor {
+
+  public static final LZ4SafeDecompressor INSTANCE = new LZ4JavaSafeSafeDecompressor();
+
+  @Override
+  public int decompress(
+      byte[] src, int srcOff, int srcLen,
+      byte[] dest, int destOff, int destLen) {
+
+
+
+    if (destLen == 0) {
+      if (srcLen != 1 || readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Output buffer too small");
+      }
+      return 0;
+    }
+
+    if (srcLen == 0) {
+      throw new LZ4Exception("Malformed input at " + srcOff);
+    }
+
+    final int srcEnd = srcOff + srcLen;
+
+
+
+
+    final int destEnd = destOff + destLen;
+
+    int sOff = srcOff;
+    int dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final int literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH || sOff + literalLen > srcEnd - COPY_LENGTH) {
+        if (literalCopyEnd > destEnd) {
+          throw new LZ4Exception();
+        } else if (sOff + literalLen != srcEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      int matchOff = dOff - matchDec;
+
+
+      if (matchOff < destOff) {
+        throw new LZ4Exception("Malformed input at " + sOff);
+      }
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final int matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (dOff - destOff);
+
+  }
+
+  @Override
+  public int decompressWithPrefix64k(
+      byte[] src, int srcOff, int srcLen,
+      byte[] dest, int destOff, int destLen) {
+
+
+
+    if (destLen == 0) {
+      if (srcLen != 1 || readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Output buffer too small");
+      }
+      return 0;
+    }
+
+    if (srcLen == 0) {
+      throw new LZ4Exception("Malformed input at " + srcOff);
+    }
+
+    final int srcEnd = srcOff + srcLen;
+
+
+
+
+    final int destEnd = destOff + destLen;
+
+    int sOff = srcOff;
+    int dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final int literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH || sOff + literalLen > srcEnd - COPY_LENGTH) {
+        if (literalCopyEnd > destEnd) {
+          throw new LZ4Exception();
+        } else if (sOff + literalLen != srcEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      int matchOff = dOff - matchDec;
+
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final int matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (dOff - destOff);
+
+  }
+
+  @Override
+  public int decompress(
+      ByteBuffer src, int srcOff, int srcLen,
+      ByteBuffer dest, int destOff, int destLen) {
+
+
+    if (src.hasArray() && dest.hasArray()) {
+      checkRange(src, srcOff, srcLen);
+      checkRange(dest, destOff, destLen);
+      return decompress(src.array(), srcOff + src.arrayOffset(), srcLen,
+          dest.array(), destOff + dest.arrayOffset(), destLen);
+    }
+
+
+
+    if (destLen == 0) {
+      if (srcLen != 1 || readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Output buffer too small");
+      }
+      return 0;
+    }
+
+    if (srcLen == 0) {
+      throw new LZ4Exception("Malformed input at " + srcOff);
+    }
+
+    final int srcEnd = srcOff + srcLen;
+
+
+
+    src = inNativeOrder(src);
+    dest = inNativeOrder(dest);
+
+
+    final int destEnd = destOff + destLen;
+
+    int sOff = srcOff;
+    int dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final int literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH || sOff + literalLen > srcEnd - COPY_LENGTH) {
+        if (literalCopyEnd > destEnd) {
+          throw new LZ4Exception();
+        } else if (sOff + literalLen != srcEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      int matchOff = dOff - matchDec;
+
+
+      if (matchOff < destOff) {
+        throw new LZ4Exception("Malformed input at " + sOff);
+      }
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final int matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (dOff - destOff);
+
+  }
+
+  @Override
+  public int decompressWithPrefix64k(
+      ByteBuffer src, int srcOff, int srcLen,
+      ByteBuffer dest, int destOff, int destLen) {
+
+
+    if (src.hasArray() && dest.hasArray()) {
+      checkRange(src, srcOff, srcLen);
+      checkRange(dest, destOff, destLen);
+      return decompressWithPrefix64k(src.array(), srcOff + src.arrayOffset(), srcLen,
+          dest.array(), destOff + dest.arrayOffset(), destLen);
+    }
+
+
+
+    if (destLen == 0) {
+      if (srcLen != 1 || readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Output buffer too small");
+      }
+      return 0;
+    }
+
+    if (srcLen == 0) {
+      throw new LZ4Exception("Malformed input at " + srcOff);
+    }
+
+    final int srcEnd = srcOff + srcLen;
+
+
+
+    src = inNativeOrder(src);
+    dest = inNativeOrder(dest);
+
+
+    final int destEnd = destOff + destLen;
+
+    int sOff = srcOff;
+    int dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final int literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH || sOff + literalLen > srcEnd - COPY_LENGTH) {
+        if (literalCopyEnd > destEnd) {
+          throw new LZ4Exception();
+        } else if (sOff + literalLen != srcEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      int matchOff = dOff - matchDec;
+
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final int matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (dOff - destOff);
+
+  }
+
+
+}
+
@@ -0,0 +1,293 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.lz4;
+
+import static net.jpountz.lz4.LZ4Constants.*;
+
+import static net.jpountz.lz4.LZ4UnsafeUtils.*;
+import static net.jpountz.util.UnsafeUtils.*;
+
+import static net.jpountz.util.Utils.checkRange;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decompressor.
+ */
+final class LZ4JavaUnsafeFastDecompressor extends LZ4FastDecompressor {
+
+  public static final LZ4FastDecompressor INSTANCE = new LZ4JavaUnsafeFastDecompressor();
+
+  private int decompressUnchecked(
+      byte[] src, int srcOff,
+      byte[] dest, int destOff, int destLen) {
+
+
+
+    if (destLen == 0) {
+      if (readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Malformed input at " + srcOff);
+      }
+      return 1;
+    }
+
+
+
+
+    final int destEnd = destOff + destLen;
+
+    int sOff = srcOff;
+    int dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while ((len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final int literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH) {
+        if (literalCopyEnd != destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      int matchOff = dOff - matchDec;
+
+
+      if (matchOff < destOff) {
+        throw new LZ4Exception("Malformed input at " + sOff);
+      }
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while ((len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final int matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (sOff - srcOff);
+
+  }
+
+
+
+  @Override
+  public int decompress(
+      byte[] src, final int srcOff,
+      byte[] dest, final int destOff, int destLen) {
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+    
+    return decompressUnchecked(src, srcOff, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompress(
+      ByteBuffer srcBuf, final int srcOffBuf,
+      ByteBuffer destBuf, final int destOffBuf, int destLen) {
+    checkRange(srcBuf, srcOffBuf);
+    checkRange(destBuf, destOffBuf, destLen);
+    
+
+    int srcOff = srcOffBuf;
+    int destOff = destOffBuf;
+    byte[] src;
+    if (srcBuf.hasArray()) {
+      src = srcBuf.array();
+      srcOff += srcBuf.arrayOffset();
+    } else {
+      src = null;
+      srcOff += getBufferOffsetFromNull(srcBuf);
+    }
+    byte[] dest;
+    if (destBuf.hasArray()) {
+      dest = destBuf.array();
+      destOff += destBuf.arrayOffset();
+    } else {
+      dest = null;
+      destOff += getBufferOffsetFromNull(destBuf);
+    }
+    return decompressUnchecked(src, srcOff, dest, destOff, destLen);
+
+  }
+
+
+
+  private int decompressWithPrefix64kUnchecked(
+      byte[] src, int srcOff,
+      byte[] dest, int destOff, int destLen) {
+
+
+
+    if (destLen == 0) {
+      if (readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Malformed input at " + srcOff);
+      }
+      return 1;
+    }
+
+
+
+
+    final int destEnd = destOff + destLen;
+
+    int sOff = srcOff;
+    int dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while ((len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final int literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH) {
+        if (literalCopyEnd != destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      int matchOff = dOff - matchDec;
+
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while ((len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final int matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (sOff - srcOff);
+
+  }
+
+
+
+  @Override
+  public int decompressWithPrefix64k(
+      byte[] src, final int srcOff,
+      byte[] dest, final int destOff, int destLen) {
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+    
+    return decompressWithPrefix64kUnchecked(src, srcOff, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(
+      ByteBuffer srcBuf, final int srcOffBuf,
+      ByteBuffer destBuf, final int destOffBuf, int destLen) {
+    checkRange(srcBuf, srcOffBuf);
+    checkRange(destBuf, destOffBuf, destLen);
+    
+
+    int srcOff = srcOffBuf;
+    int destOff = destOffBuf;
+    byte[] src;
+    if (srcBuf.hasArray()) {
+      src = srcBuf.array();
+      srcOff += srcBuf.arrayOffset();
+    } else {
+      src = null;
+      srcOff += getBufferOffsetFromNull(srcBuf);
+    }
+    byte[] dest;
+    if (destBuf.hasArray()) {
+      dest = destBuf.array();
+      destOff += destBuf.arrayOffset();
+    } else {
+      dest = null;
+      destOff += getBufferOffsetFromNull(destBuf);
+    }
+    return decompressWithPrefix64kUnchecked(src, srcOff, dest, destOff, destLen);
+
+  }
+
+
+
+
+}
+
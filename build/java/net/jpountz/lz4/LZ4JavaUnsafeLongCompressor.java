@@ -0,0 +1,483 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.lz4;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import static net.jpountz.lz4.LZ4Constants.*;
+import static net.jpountz.lz4.LZ4UnsafeUtilsLong.*;
+import static net.jpountz.util.UnsafeUtilsLong.*;
+
+import static net.jpountz.lz4.LZ4Utils.hash;
+import static net.jpountz.lz4.LZ4Utils.hash64k;
+import static net.jpountz.util.Utils.checkRange;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+
+/**
+ * Compressor. 
+ */
+final class LZ4JavaUnsafeLongCompressor extends LZ4Compressor {
+
+  public static final LZ4Compressor INSTANCE = new LZ4JavaUnsafeLongCompressor();
+
+
+  static int compress64k(
+      byte[] src, long srcOff, int srcLen,
+      byte[] dest, long destOff, long destEnd) {
+
+
+    final long srcEnd = srcOff + srcLen;
+    final long srcLimit = srcEnd - LAST_LITERALS;
+    final long mflimit = srcEnd - MF_LIMIT;
+
+    long sOff = srcOff, dOff = destOff;
+
+    long anchor = sOff;
+
+    if (srcLen >= MIN_LENGTH) {
+
+
+      final short[] hashTable = new short[HASH_TABLE_SIZE_64K];
+
+
+      ++sOff;
+
+      main:
+      while (true) {
+
+        // find a match
+        long forwardOff = sOff;
+
+        long ref;
+        int step = 1;
+        int searchMatchNb = 1 << SKIP_STRENGTH;
+        do {
+          sOff = forwardOff;
+          forwardOff += step;
+          step = searchMatchNb++ >>> SKIP_STRENGTH;
+
+          if (forwardOff > mflimit) {
+            break main;
+          }
+
+          final int h = hash64k(readInt(src, sOff));
+
+          ref = srcOff + readShort(hashTable, h);
+          writeShort(hashTable, h, sOff - srcOff);
+        } while (!readIntEquals(src, ref, sOff));
+
+
+        // catch up
+        final int excess = (int) commonBytesBackward(src, ref, sOff, srcOff, anchor);
+        sOff -= excess;
+        ref -= excess;
+
+        // sequence == refsequence
+        final int runLen = (int) (sOff - anchor);
+
+        // encode literal length
+        long tokenOff = dOff++;
+
+        if (dOff + runLen + (2 + 1 + LAST_LITERALS) + (runLen >>> 8) > destEnd) {
+          throw new LZ4Exception("maxDestLen is too small");
+        }
+
+        if (runLen >= RUN_MASK) {
+          writeByte(dest, tokenOff, RUN_MASK << ML_BITS);
+          dOff = (long) writeLen(runLen - RUN_MASK, dest, dOff);
+        } else {
+          writeByte(dest, tokenOff, runLen << ML_BITS);
+        }
+
+        // copy literals
+        wildArraycopy(src, anchor, dest, dOff, runLen);
+        dOff += runLen;
+
+        while (true) {
+          // encode offset
+          writeShortLittleEndian(dest, dOff, (short) (sOff - ref));
+          dOff += 2;
+
+          // count nb matches
+          sOff += MIN_MATCH;
+          ref += MIN_MATCH;
+          final int matchLen = (int) commonBytes(src, ref, sOff, srcLimit);
+          if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+            throw new LZ4Exception("maxDestLen is too small");
+          }
+          sOff += matchLen;
+
+          // encode match len
+          if (matchLen >= ML_MASK) {
+            writeByte(dest, tokenOff, readByte(dest, tokenOff) | ML_MASK);
+            dOff = (long) writeLen(matchLen - ML_MASK, dest, dOff);
+          } else {
+            writeByte(dest, tokenOff, readByte(dest, tokenOff) | matchLen);
+          }
+
+          // test end of chunk
+          if (sOff > mflimit) {
+            anchor = sOff;
+            break main;
+          }
+
+          // fill table
+
+          writeShort(hashTable, hash64k(readInt(src, sOff - 2)), sOff - 2 - srcOff);
+
+
+          // test next position
+          final int h = hash64k(readInt(src, sOff));
+
+          ref = srcOff + readShort(hashTable, h);
+          writeShort(hashTable, h, sOff - srcOff);
+
+          if (!readIntEquals(src, sOff, ref)) {
+            break;
+          }
+
+
+          tokenOff = dOff++;
+          writeByte(dest, tokenOff, 0);
+        }
+
+        // prepare next loop
+        anchor = sOff++;
+      }
+    }
+
+    dOff = (long) lastLiterals(src, anchor, (int) (srcEnd - anchor), dest, dOff, destEnd);
+    return (int) (dOff - destOff);
+  }
+
+
+  private int compressUnchecked(
+      byte[] src, final long srcOff, int srcLen,
+      byte[] dest, final long destOff, int maxDestLen) {
+      
+
+
+    final long destEnd = destOff + maxDestLen;
+    final long srcEnd = srcOff + srcLen;
+
+    if (srcLen < LZ4_64K_LIMIT) {
+      return compress64k(src, srcOff, (int) srcLen, dest, destOff, destEnd);
+    }
+
+    final long srcLimit = srcEnd - LAST_LITERALS;
+    final long mflimit = srcEnd - MF_LIMIT;
+
+    long sOff = srcOff, dOff = destOff;
+    long anchor = sOff++;
+
+    final long[] hashTable = new long[HASH_TABLE_SIZE];
+    Arrays.fill(hashTable, anchor);
+
+    main:
+    while (true) {
+
+      // find a match
+      long forwardOff = sOff;
+
+      long ref;
+      int step = 1;
+      int searchMatchNb = 1 << SKIP_STRENGTH;
+      long back;
+      do {
+        sOff = forwardOff;
+        forwardOff += step;
+        step = searchMatchNb++ >>> SKIP_STRENGTH;
+
+        if (forwardOff > mflimit) {
+          break main;
+        }
+
+        final int h = hash(readInt(src, sOff));
+        ref = hashTable[h];
+        back = sOff - ref;
+        hashTable[h] = sOff;
+      } while (back >= MAX_DISTANCE || !readIntEquals(src, ref, sOff));
+
+
+      final int excess = commonBytesBackward(src, ref, sOff, srcOff, anchor);
+      sOff -= excess;
+      ref -= excess;
+
+      // sequence == refsequence
+      final int runLen = (int) (sOff - anchor);
+
+      // encode literal length
+      long tokenOff = dOff++;
+
+      if (dOff + runLen + (2 + 1 + LAST_LITERALS) + (runLen >>> 8) > destEnd) {
+        throw new LZ4Exception("maxDestLen is too small");
+      }
+
+      if (runLen >= RUN_MASK) {
+        writeByte(dest, tokenOff, RUN_MASK << ML_BITS);
+        dOff = (long) writeLen(runLen - RUN_MASK, dest, dOff);
+      } else {
+        writeByte(dest, tokenOff, (int) runLen << ML_BITS);
+      }
+
+      // copy literals
+      wildArraycopy(src, anchor, dest, dOff, runLen);
+      dOff += runLen;
+
+      while (true) {
+        // encode offset
+        writeShortLittleEndian(dest, dOff, back);
+        dOff += 2;
+
+        // count nb matches
+        sOff += MIN_MATCH;
+        final int matchLen = commonBytes(src, ref + MIN_MATCH, sOff, srcLimit);
+        if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+          throw new LZ4Exception("maxDestLen is too small");
+        }
+        sOff += matchLen;
+
+        // encode match len
+        if (matchLen >= ML_MASK) {
+          writeByte(dest, tokenOff, readByte(dest, tokenOff) | ML_MASK);
+          dOff = (long) writeLen(matchLen - ML_MASK, dest, dOff);
+        } else {
+          writeByte(dest, tokenOff, readByte(dest, tokenOff) | (int) matchLen);
+        }
+
+        // test end of chunk
+        if (sOff > mflimit) {
+          anchor = sOff;
+          break main;
+        }
+
+        // fill table
+        hashTable[hash(readInt(src, sOff - 2))] = sOff - 2;
+
+        // test next position
+        final int h = hash(readInt(src, sOff));
+        ref = hashTable[h];
+        hashTable[h] = sOff;
+        back = sOff - ref;
+
+        if (back >= MAX_DISTANCE || !readIntEquals(src, ref, sOff)) {
+          break;
+        }
+
+        tokenOff = dOff++;
+        writeByte(dest, tokenOff, 0);
+      }
+
+      // prepare next loop
+      anchor = sOff++;
+    }
+
+    dOff = (long) lastLiterals(src, anchor, (int) (srcEnd - anchor), dest, dOff, destEnd);
+    return (int) (dOff - destOff);
+  }
+
+
+
+
+  @Override
+  public int compress(
+      byte[] src, final int srcOff, int srcLen,
+      byte[] dest, final int destOff, int destLen) {
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, destLen);
+    
+    return compressUnchecked(src, srcOff, srcLen, dest, destOff, destLen);
+  }
+
+  @Override
+  public int compress(
+      ByteBuffer srcBuf, final int srcOffBuf, int srcLen,
+      ByteBuffer destBuf, final int destOffBuf, int destLen) {
+    checkRange(srcBuf, srcOffBuf, srcLen);
+    checkRange(destBuf, destOffBuf, destLen);
+    
+
+    long srcOff = srcOffBuf;
+    long destOff = destOffBuf;
+    byte[] src;
+    if (srcBuf.hasArray()) {
+      src = srcBuf.array();
+      srcOff += srcBuf.arrayOffset();
+    } else {
+      src = null;
+      srcOff += getBufferOffsetFromNull(srcBuf);
+    }
+    byte[] dest;
+    if (destBuf.hasArray()) {
+      dest = destBuf.array();
+      destOff += destBuf.arrayOffset();
+    } else {
+      dest = null;
+      destOff += getBufferOffsetFromNull(destBuf);
+    }
+    return compressUnchecked(src, srcOff, srcLen, dest, destOff, destLen);
+
+  }
+
+
+
+
+
+  // Same as compress64k but with a hash table that is reused across inputs:
+  // entries are stored as base + offset and those below base belong to
+  // previous inputs, so the table never needs to be cleared.
+  static int compress64kBatch(
+      byte[] src, long srcOff, int srcLen,
+      byte[] dest, long destOff, long destEnd,
+      int[] hashTable, int base) {
+
+
+    final long srcEnd = srcOff + srcLen;
+    final long srcLimit = srcEnd - LAST_LITERALS;
+    final long mflimit = srcEnd - MF_LIMIT;
+
+    long sOff = srcOff, dOff = destOff;
+
+    long anchor = sOff;
+
+    if (srcLen >= MIN_LENGTH) {
+
+
+      ++sOff;
+
+      main:
+      while (true) {
+
+        // find a match
+        long forwardOff = sOff;
+
+        long ref;
+        int step = 1;
+        int searchMatchNb = 1 << SKIP_STRENGTH;
+        do {
+          sOff = forwardOff;
+          forwardOff += step;
+          step = searchMatchNb++ >>> SKIP_STRENGTH;
+
+          if (forwardOff > mflimit) {
+            break main;
+          }
+
+          final int h = hash64k(readInt(src, sOff));
+
+          ref = srcOff + (readInt(hashTable, h) - base);
+          writeInt(hashTable, h, base + (int) (sOff - srcOff));
+        } while (ref < srcOff || !readIntEquals(src, ref, sOff));
+
+
+        // catch up
+        final int excess = (int) commonBytesBackward(src, ref, sOff, srcOff, anchor);
+        sOff -= excess;
+        ref -= excess;
+
+        // sequence == refsequence
+        final int runLen = (int) (sOff - anchor);
+
+        // encode literal length
+        long tokenOff = dOff++;
+
+        if (dOff + runLen + (2 + 1 + LAST_LITERALS) + (runLen >>> 8) > destEnd) {
+          throw new LZ4Exception("maxDestLen is too small");
+        }
+
+        if (runLen >= RUN_MASK) {
+          writeByte(dest, tokenOff, RUN_MASK << ML_BITS);
+          dOff = (long) writeLen(runLen - RUN_MASK, dest, dOff);
+        } else {
+          writeByte(dest, tokenOff, runLen << ML_BITS);
+        }
+
+        // copy literals
+        wildArraycopy(src, anchor, dest, dOff, runLen);
+        dOff += runLen;
+
+        while (true) {
+          // encode offset
+          writeShortLittleEndian(dest, dOff, (short) (sOff - ref));
+          dOff += 2;
+
+          // count nb matches
+          sOff += MIN_MATCH;
+          ref += MIN_MATCH;
+          final int matchLen = (int) commonBytes(src, ref, sOff, srcLimit);
+          if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+            throw new LZ4Exception("maxDestLen is too small");
+          }
+          sOff += matchLen;
+
+          // encode match len
+          if (matchLen >= ML_MASK) {
+            writeByte(dest, tokenOff, readByte(dest, tokenOff) | ML_MASK);
+            dOff = (long) writeLen(matchLen - ML_MASK, dest, dOff);
+          } else {
+            writeByte(dest, tokenOff, readByte(dest, tokenOff) | matchLen);
+          }
+
+          // test end of chunk
+          if (sOff > mflimit) {
+            anchor = sOff;
+            break main;
+          }
+
+          // fill table
+
+          writeInt(hashTable, hash64k(readInt(src, sOff - 2)), base + (int) (sOff - 2 - srcOff));
+
+
+          // test next position
+          final int h = hash64k(readInt(src, sOff));
+
+          ref = srcOff + (readInt(hashTable, h) - base);
+          writeInt(hashTable, h, base + (int) (sOff - srcOff));
+
+          if (ref < srcOff || !readIntEquals(src, sOff, ref)) {
+            break;
+          }
+
+
+          tokenOff = dOff++;
+          writeByte(dest, tokenOff, 0);
+        }
+
+        // prepare next loop
+        anchor = sOff++;
+      }
+    }
+
+    dOff = (long) lastLiterals(src, anchor, (int) (srcEnd - anchor), dest, dOff, destEnd);
+    return (int) (dOff - destOff);
+  }
+
+
+  @Override
+  int compressBatch(byte[][] srcs, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    final int[] hashTable = new int[HASH_TABLE_SIZE_64K];
+    int base = 0;
+
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    for (int i = 0; i < srcs.length; ++i) {
+      final byte[] src = srcs[i];
+      if (src.length < LZ4_64K_LIMIT) {
+        if (base > Integer.MAX_VALUE - LZ4_64K_LIMIT) {
+          Arrays.fill(hashTable, 0);
+          base = 0;
+        }
+        dOff += compress64kBatch(src, 0, src.length, dest, dOff, destEnd, hashTable, base);
+        base += src.length;
+      } else {
+        dOff += compress(src, 0, src.length, dest, dOff, destEnd - dOff);
+      }
+      destOffsets[i + 1] = dOff;
+    }
+    return dOff - destOff;
+  }
+
+
+}
+
@@ -0,0 +1,309 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.lz4;
+
+import static net.jpountz.lz4.LZ4Constants.*;
+
+import static net.jpountz.lz4.LZ4UnsafeUtilsLong.*;
+import static net.jpountz.util.UnsafeUtilsLong.*;
+
+import static net.jpountz.util.Utils.checkRange;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decompressor.
+ */
+final class LZ4JavaUnsafeLongSafeDecompressor extends LZ4SafeDecompressor {
+
+  public static final LZ4SafeDecompressor INSTANCE = new LZ4JavaUnsafeLongSafeDecompressor();
+
+  private int decompressUnchecked(
+      byte[] src, long srcOff, int srcLen,
+      byte[] dest, long destOff, int destLen) {
+
+
+
+    if (destLen == 0) {
+      if (srcLen != 1 || readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Output buffer too small");
+      }
+      return 0;
+    }
+
+    if (srcLen == 0) {
+      throw new LZ4Exception("Malformed input at " + srcOff);
+    }
+
+    final long srcEnd = srcOff + srcLen;
+
+
+
+
+    final long destEnd = destOff + destLen;
+
+    long sOff = srcOff;
+    long dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final long literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH || sOff + literalLen > srcEnd - COPY_LENGTH) {
+        if (literalCopyEnd > destEnd) {
+          throw new LZ4Exception();
+        } else if (sOff + literalLen != srcEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      long matchOff = dOff - matchDec;
+
+
+      if (matchOff < destOff) {
+        throw new LZ4Exception("Malformed input at " + sOff);
+      }
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final long matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (dOff - destOff);
+
+  }
+
+
+
+  @Override
+  public int decompress(
+      byte[] src, final int srcOff, int srcLen,
+      byte[] dest, final int destOff, int destLen) {
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, destLen);
+    
+    return decompressUnchecked(src, srcOff, srcLen, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompress(
+      ByteBuffer srcBuf, final int srcOffBuf, int srcLen,
+      ByteBuffer destBuf, final int destOffBuf, int destLen) {
+    checkRange(srcBuf, srcOffBuf, srcLen);
+    checkRange(destBuf, destOffBuf, destLen);
+    
+
+    long srcOff = srcOffBuf;
+    long destOff = destOffBuf;
+    byte[] src;
+    if (srcBuf.hasArray()) {
+      src = srcBuf.array();
+      srcOff += srcBuf.arrayOffset();
+    } else {
+      src = null;
+      srcOff += getBufferOffsetFromNull(srcBuf);
+    }
+    byte[] dest;
+    if (destBuf.hasArray()) {
+      dest = destBuf.array();
+      destOff += destBuf.arrayOffset();
+    } else {
+      dest = null;
+      destOff += getBufferOffsetFromNull(destBuf);
+    }
+    return decompressUnchecked(src, srcOff, srcLen, dest, destOff, destLen);
+
+  }
+
+
+
+  private int decompressWithPrefix64kUnchecked(
+      byte[] src, long srcOff, int srcLen,
+      byte[] dest, long destOff, int destLen) {
+
+
+
+    if (destLen == 0) {
+      if (srcLen != 1 || readByte(src, srcOff) != 0) {
+        throw new LZ4Exception("Output buffer too small");
+      }
+      return 0;
+    }
+
+    if (srcLen == 0) {
+      throw new LZ4Exception("Malformed input at " + srcOff);
+    }
+
+    final long srcEnd = srcOff + srcLen;
+
+
+
+
+    final long destEnd = destOff + destLen;
+
+    long sOff = srcOff;
+    long dOff = destOff;
+
+    while (true) {
+      final int token = readByte(src, sOff) & 0xFF;
+      ++sOff;
+
+      // literals
+      int literalLen = token >>> ML_BITS;
+      if (literalLen == RUN_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          literalLen += 0xFF;
+        }
+        literalLen += len & 0xFF;
+      }
+
+      final long literalCopyEnd = dOff + literalLen;
+
+      if (literalCopyEnd > destEnd - COPY_LENGTH || sOff + literalLen > srcEnd - COPY_LENGTH) {
+        if (literalCopyEnd > destEnd) {
+          throw new LZ4Exception();
+        } else if (sOff + literalLen != srcEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+
+        } else {
+          safeArraycopy(src, sOff, dest, dOff, literalLen);
+          sOff += literalLen;
+          dOff = literalCopyEnd;
+          break; // EOF
+        }
+      }
+
+      wildArraycopy(src, sOff, dest, dOff, literalLen);
+      sOff += literalLen;
+      dOff = literalCopyEnd;
+
+      // matchs
+      final int matchDec = readShortLittleEndian(src, sOff);
+      sOff += 2;
+      long matchOff = dOff - matchDec;
+
+
+
+      int matchLen = token & ML_MASK;
+      if (matchLen == ML_MASK) {
+        byte len = (byte) 0xFF;
+        while (sOff < srcEnd &&(len = readByte(src, sOff++)) == (byte) 0xFF) {
+          matchLen += 0xFF;
+        }
+        matchLen += len & 0xFF;
+      }
+      matchLen += MIN_MATCH;
+
+      final long matchCopyEnd = dOff + matchLen;
+
+      if (matchCopyEnd > destEnd - COPY_LENGTH) {
+        if (matchCopyEnd > destEnd) {
+          throw new LZ4Exception("Malformed input at " + sOff);
+        }
+        safeIncrementalCopy(dest, matchOff, dOff, matchLen);
+      } else {
+        wildIncrementalCopy(dest, matchOff, dOff, matchCopyEnd);
+      }
+      dOff = matchCopyEnd;
+    }
+
+
+    return (int) (dOff - destOff);
+
+  }
+
+
+
+  @Override
+  public int decompressWithPrefix64k(
+      byte[] src, final int srcOff, int srcLen,
+      byte[] dest, final int destOff, int destLen) {
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, destLen);
+    
+    return decompressWithPrefix64kUnchecked(src, srcOff, srcLen, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(
+      ByteBuffer srcBuf, final int srcOffBuf, int srcLen,
+      ByteBuffer destBuf, final int destOffBuf, int destLen) {
+    checkRange(srcBuf, srcOffBuf, srcLen);
+    checkRange(destBuf, destOffBuf, destLen);
+    
+
+    long srcOff = srcOffBuf;
+    long destOff = destOffBuf;
+    byte[] src;
+    if (srcBuf.hasArray()) {
+      src = srcBuf.array();
+      srcOff += srcBuf.arrayOffset();
+    } else {
+      src = null;
+      srcOff += getBufferOffsetFromNull(srcBuf);
+    }
+    byte[] dest;
+    if (destBuf.hasArray()) {
+      dest = destBuf.array();
+      destOff += destBuf.arrayOffset();
+    } else {
+      dest = null;
+      destOff += getBufferOffsetFromNull(destBuf);
+    }
+    return decompressWithPrefix64kUnchecked(src, srcOff, srcLen, dest, destOff, destLen);
+
+  }
+
+
+
+
+}
+
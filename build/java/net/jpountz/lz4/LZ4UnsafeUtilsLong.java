@@ -0,0 +1,232 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.lz4.LZ4Constants.COPY_LENGTH;
+import static net.jpountz.lz4.LZ4Constants.LAST_LITERALS;
+import static net.jpountz.lz4.LZ4Constants.ML_BITS;
+import static net.jpountz.lz4.LZ4Constants.ML_MASK;
+import static net.jpountz.lz4.LZ4Constants.RUN_MASK;
+import static net.jpountz.util.UnsafeUtilsLong.readByte;
+import static net.jpountz.util.UnsafeUtilsLong.readInt;
+import static net.jpountz.util.UnsafeUtilsLong.readLong;
+import static net.jpountz.util.UnsafeUtilsLong.readShort;
+import static net.jpountz.util.UnsafeUtilsLong.writeByte;
+import static net.jpountz.util.UnsafeUtilsLong.writeInt;
+import static net.jpountz.util.UnsafeUtilsLong.writeLong;
+import static net.jpountz.util.UnsafeUtilsLong.writeShort;
+
+import static net.jpountz.util.Utils.NATIVE_BYTE_ORDER;
+
+
+
+import java.nio.ByteOrder;
+
+enum LZ4UnsafeUtilsLong {
+  ;
+
+
+  static void safeArraycopy(byte[] src, long srcOff, byte[] dest, long destOff, int len) {
+
+    final int fastLen = len & 0xFFFFFFF8;
+    wildArraycopy(src, srcOff, dest, destOff, fastLen);
+    for (int i = 0, slowLen = (int) (len & 0x7); i < slowLen; i += 1) {
+      writeByte(dest, destOff + fastLen + i, readByte(src, srcOff + fastLen + i));
+    }
+  }
+
+  static void wildArraycopy(byte[] src, long srcOff, byte[] dest, long destOff, int len) {
+
+
+    for (int i = 0; i < len; i += 8) {
+      writeLong(dest, destOff + i, readLong(src, srcOff + i));
+    }
+  }
+
+  static void wildIncrementalCopy(byte[] dest, long matchOff, long dOff, long matchCopyEnd) {
+    if (dOff - matchOff < 4) {
+      for (int i = 0; i < 4; ++i) {
+        writeByte(dest, dOff+i, readByte(dest, matchOff+i));
+      }
+      dOff += 4;
+      matchOff += 4;
+      int dec = 0;
+      assert dOff >= matchOff && dOff - matchOff < 8;
+      switch ((int)(dOff - matchOff)) {
+      case 1:
+        matchOff -= 3;
+        break;
+      case 2:
+        matchOff -= 2;
+        break;
+      case 3:
+        matchOff -= 3;
+        dec = -1;
+        break;
+      case 5:
+        dec = 1;
+        break;
+      case 6:
+        dec = 2;
+        break;
+      case 7:
+        dec = 3;
+        break;
+      default:
+        break;
+      }
+      writeInt(dest, dOff, readInt(dest, matchOff));
+      dOff += 4;
+      matchOff -= dec;
+    } else if (dOff - matchOff < COPY_LENGTH) {
+      writeLong(dest, dOff, readLong(dest, matchOff));
+      dOff += dOff - matchOff;
+    }
+
+    while (dOff < matchCopyEnd) {
+      writeLong(dest, dOff, readLong(dest, matchOff));
+      dOff += 8;
+      matchOff += 8;
+    }
+  }
+
+  static void safeIncrementalCopy(byte[] dest, long matchOff, long dOff, int matchLen) {
+    for (int i = 0; i < matchLen; ++i) {
+      writeByte(dest, dOff + i, readByte(dest, matchOff + i));
+    }
+  }
+
+  static int readShortLittleEndian(byte[] buf, long srcOff) {
+    short s = readShort(buf, srcOff);
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      s = Short.reverseBytes(s);
+    }
+    return s & 0xFFFF;
+  }
+
+  static void writeShortLittleEndian(byte[] buf, long destOff, long value) {
+    short s = (short) value;
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      s = Short.reverseBytes(s);
+    }
+    writeShort(buf, destOff, s);
+  }
+
+  static boolean readIntEquals(byte[] src, long ref, long sOff) {
+    return readInt(src, ref) == readInt(src, sOff);
+  }
+
+  static int commonBytes(byte[] buf, long ref, long sOff, long srcLimit) {
+
+    int matchLen = 0;
+    while (sOff <= srcLimit - 8) {
+      if (readLong(buf, sOff) == readLong(buf, ref)) {
+        matchLen += 8;
+        ref += 8;
+        sOff += 8;
+      } else {
+        final int zeroBits;
+        if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+          zeroBits = Long.numberOfLeadingZeros(readLong(buf, sOff) ^ readLong(buf, ref));
+        } else {
+          zeroBits = Long.numberOfTrailingZeros(readLong(buf, sOff) ^ readLong(buf, ref));
+        }
+        return matchLen + (zeroBits >>> 3);
+      }
+    }
+    while (sOff < srcLimit && readByte(buf, ref++) == readByte(buf, sOff++)) {
+      ++matchLen;
+    }
+    return matchLen;
+  }
+
+  static long lastLiterals(byte[] src, long sOff, int srcLen, byte[] dest, long dOff, long destEnd) {
+    final int runLen = srcLen;
+
+    if (dOff + runLen + 1 + (runLen + 255 - RUN_MASK) / 255 > destEnd) {
+      throw new LZ4Exception();
+    }
+
+    if (runLen >= RUN_MASK) {
+      writeByte(dest, dOff++, (byte) (RUN_MASK << ML_BITS));
+      dOff = writeLen(runLen - RUN_MASK, dest, dOff);
+    } else {
+      writeByte(dest, dOff++, (byte) (runLen << ML_BITS));
+    }
+    // copy literals
+    safeArraycopy(src, sOff, dest, dOff, runLen);
+    dOff += runLen;
+
+    return dOff;
+  }
+
+  static long writeLen(int len, byte[] dest, long dOff) {
+    while (len >= 0xFF) {
+      writeByte(dest, dOff++, 0xFF);
+      len -= 0xFF;
+    }
+    writeByte(dest, dOff++, (byte) len);
+    return dOff;
+  }
+
+  static long encodeSequence(byte[] src, long anchor, long matchOff, long matchRef, int matchLen, byte[] dest, long dOff, long destEnd) {
+    final int runLen = (int)(matchOff - anchor);
+    final long tokenOff = dOff++;
+    int token;
+
+    if (runLen >= RUN_MASK) {
+      token = (byte) (RUN_MASK << ML_BITS);
+      dOff = writeLen(runLen - RUN_MASK, dest, dOff);
+    } else {
+      token = (int) runLen << ML_BITS;
+    }
+
+    // copy literals
+    wildArraycopy(src, anchor, dest, dOff, runLen);
+    dOff += runLen;
+
+    // encode offset
+    final int matchDec = (int)(matchOff - matchRef);
+    writeByte(dest, dOff++, (byte) matchDec);
+    writeByte(dest, dOff++, (byte) (matchDec >>> 8));
+
+    // encode match len
+    matchLen -= 4;
+    if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+      throw new LZ4Exception("maxDestLen is too small");
+    }
+    if (matchLen >= ML_MASK) {
+      token |= ML_MASK;
+      dOff = writeLen(matchLen - RUN_MASK, dest, dOff);
+    } else {
+      token |= matchLen;
+    }
+
+    writeByte(dest, tokenOff, (byte) token);
+
+    return dOff;
+  }
+
+  static int commonBytesBackward(byte[] b, long o1, long o2, long l1, long l2) {
+    int count = 0;
+
+    while (o1 > l1 && o2 > l2 && readByte(b, --o1) == readByte(b, --o2)) {
+      ++count;
+    }
+
+    return count;
+  }
+
+}
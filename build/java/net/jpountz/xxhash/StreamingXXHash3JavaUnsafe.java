@@ -0,0 +1,126 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.xxhash;
+
+import static net.jpountz.xxhash.XXHashConstants.*;
+import static net.jpountz.xxhash.XXHash3JavaUnsafe.*;
+
+import static net.jpountz.util.UnsafeUtils.*;
+import static net.jpountz.util.Utils.checkRange;
+
+
+/**
+ * Streaming XXH3.
+ */
+final class StreamingXXHash3JavaUnsafe extends AbstractStreamingXXHash3Java {
+
+  static class Factory implements StreamingXXHash3.Factory {
+
+    public static final StreamingXXHash3.Factory INSTANCE = new Factory();
+
+    @Override
+    public StreamingXXHash3 newStreamingHash(long seed) {
+      return new StreamingXXHash3JavaUnsafe(seed);
+    }
+
+  }
+
+  StreamingXXHash3JavaUnsafe(long seed) {
+    this(seed, customSecret(seed));
+  }
+
+  private StreamingXXHash3JavaUnsafe(long seed, byte[] secret) {
+    super(seed, secret, secretWords(secret));
+  }
+
+  /**
+   * Consume <code>nbStripes</code> stripes of <code>buf</code>, scrambling the
+   * accumulators at the end of each block, and return the new number of
+   * stripes consumed in the current block.
+   */
+  private int consumeStripes(long[] acc, int nbStripesSoFar, byte[] buf, int off, int nbStripes) {
+    final int nbStripesToEndOfBlock = XXH3_STRIPES_PER_BLOCK - nbStripesSoFar;
+    if (nbStripesToEndOfBlock <= nbStripes) {
+      final int nbStripesAfterBlock = nbStripes - nbStripesToEndOfBlock;
+      accumulate(acc, buf, off, secretWords, nbStripesSoFar, nbStripesToEndOfBlock);
+      scramble(acc, secretWords);
+      accumulate(acc, buf, off + nbStripesToEndOfBlock * XXH3_STRIPE_LEN, secretWords, 0, nbStripesAfterBlock);
+      return nbStripesAfterBlock;
+    } else {
+      accumulate(acc, buf, off, secretWords, nbStripesSoFar, nbStripes);
+      return nbStripesSoFar + nbStripes;
+    }
+  }
+
+  @Override
+  public void update(byte[] buf, int off, int len) {
+    checkRange(buf, off, len);
+
+    totalLen += len;
+
+    if (bufferedSize + len <= XXH3_INTERNAL_BUFFER_SIZE) { // fill in tmp buffer
+      System.arraycopy(buf, off, buffer, bufferedSize, len);
+      bufferedSize += len;
+      return;
+    }
+
+    // the last stripe is always kept in the buffer for the digest
+    final int end = off + len;
+    final int nbStripesPerBuffer = XXH3_INTERNAL_BUFFER_SIZE / XXH3_STRIPE_LEN;
+
+    if (bufferedSize > 0) { // data left from previous update
+      final int loadSize = XXH3_INTERNAL_BUFFER_SIZE - bufferedSize;
+      System.arraycopy(buf, off, buffer, bufferedSize, loadSize);
+      off += loadSize;
+      nbStripesSoFar = consumeStripes(acc, nbStripesSoFar, buffer, 0, nbStripesPerBuffer);
+      bufferedSize = 0;
+    }
+
+    if (off + XXH3_INTERNAL_BUFFER_SIZE < end) {
+      final int limit = end - XXH3_INTERNAL_BUFFER_SIZE;
+      do {
+        nbStripesSoFar = consumeStripes(acc, nbStripesSoFar, buf, off, nbStripesPerBuffer);
+        off += XXH3_INTERNAL_BUFFER_SIZE;
+      } while (off < limit);
+      // for the last partial stripe
+      System.arraycopy(buf, off - XXH3_STRIPE_LEN, buffer, XXH3_INTERNAL_BUFFER_SIZE - XXH3_STRIPE_LEN, XXH3_STRIPE_LEN);
+    }
+
+    System.arraycopy(buf, off, buffer, 0, end - off);
+    bufferedSize = end - off;
+  }
+
+  private long[] digestLong() {
+    final long[] acc = this.acc.clone();
+    final int lastStripeSecretOff = XXH3_SECRET_SIZE - XXH3_STRIPE_LEN - XXH3_SECRET_LASTACC_START;
+    if (bufferedSize >= XXH3_STRIPE_LEN) {
+      final int nbStripes = (bufferedSize - 1) / XXH3_STRIPE_LEN;
+      consumeStripes(acc, nbStripesSoFar, buffer, 0, nbStripes);
+      accumulate512(acc, buffer, bufferedSize - XXH3_STRIPE_LEN, secret, lastStripeSecretOff);
+    } else { // the last stripe overlaps the previous buffer
+      final byte[] lastStripe = new byte[XXH3_STRIPE_LEN];
+      final int catchupSize = XXH3_STRIPE_LEN - bufferedSize;
+      System.arraycopy(buffer, XXH3_INTERNAL_BUFFER_SIZE - catchupSize, lastStripe, 0, catchupSize);
+      System.arraycopy(buffer, 0, lastStripe, catchupSize, bufferedSize);
+      accumulate512(acc, lastStripe, 0, secret, lastStripeSecretOff);
+    }
+    return acc;
+  }
+
+  @Override
+  public long getValue() {
+    if (totalLen > XXH3_MIDSIZE_MAX) {
+      return mergeAccs(digestLong(), secret, XXH3_SECRET_MERGEACCS_START, totalLen * PRIME64_1);
+    }
+    return hash64Internal(buffer, 0, (int) totalLen, seed);
+  }
+
+  @Override
+  public Hash128 getValue128() {
+    if (totalLen > XXH3_MIDSIZE_MAX) {
+      return mergeAccs128(digestLong(), secret, totalLen);
+    }
+    return hash128Internal(buffer, 0, (int) totalLen, seed);
+  }
+
+}
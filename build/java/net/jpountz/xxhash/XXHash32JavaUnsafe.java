@@ -0,0 +1,112 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.xxhash;
+
+import static net.jpountz.xxhash.XXHashConstants.*;
+import static java.lang.Integer.rotateLeft;
+
+import static net.jpountz.util.UnsafeUtilsLong.*;
+
+
+
+import static net.jpountz.util.Utils.checkRange;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link XXHash32} implementation.
+ */
+final class XXHash32JavaUnsafe extends XXHash32 {
+
+  public static final XXHash32 INSTANCE = new XXHash32JavaUnsafe();
+
+  @Override
+  public int hash(byte[] buf, int off, int len, int seed) {
+    checkRange(buf, off, len);
+    return hashUnchecked(buf, off, len, seed);
+  }
+
+  @Override
+  public int hash(ByteBuffer buf, int off, int len, int seed) {
+    checkRange(buf, off, len);
+    if (buf.hasArray()) {
+      return hashUnchecked(buf.array(), off + buf.arrayOffset(), len, seed);
+
+    } else if (buf.isDirect()) {
+      return hashUnchecked(null, getBufferOffsetFromNull(buf) + off, len, seed);
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      return XXHash32JavaSafe.INSTANCE.hash(buf, off, len, seed);
+    }
+
+
+
+  }
+
+
+  private static int hashUnchecked(byte[] buf, long off, int len, int seed) {
+    final long end = off + len;
+    int h32;
+
+    if (len >= 16) {
+      final long limit = end - 16;
+      int v1 = seed + PRIME1 + PRIME2;
+      int v2 = seed + PRIME2;
+      int v3 = seed + 0;
+      int v4 = seed - PRIME1;
+      do {
+        v1 += readIntLE(buf, off) * PRIME2;
+        v1 = rotateLeft(v1, 13);
+        v1 *= PRIME1;
+        off += 4;
+
+        v2 += readIntLE(buf, off) * PRIME2;
+        v2 = rotateLeft(v2, 13);
+        v2 *= PRIME1;
+        off += 4;
+
+        v3 += readIntLE(buf, off) * PRIME2;
+        v3 = rotateLeft(v3, 13);
+        v3 *= PRIME1;
+        off += 4;
+
+        v4 += readIntLE(buf, off) * PRIME2;
+        v4 = rotateLeft(v4, 13);
+        v4 *= PRIME1;
+        off += 4;
+      } while (off <= limit);
+
+      h32 = rotateLeft(v1, 1) + rotateLeft(v2, 7) + rotateLeft(v3, 12) + rotateLeft(v4, 18);
+    } else {
+      h32 = seed + PRIME5;
+    }
+
+    h32 += len;
+
+    while (off <= end - 4) {
+      h32 += readIntLE(buf, off) * PRIME3;
+      h32 = rotateLeft(h32, 17) * PRIME4;
+      off += 4;
+    }
+
+    while (off < end) {
+      h32 += (readByte(buf, off) & 0xFF) * PRIME5;
+      h32 = rotateLeft(h32, 11) * PRIME1;
+      ++off;
+    }
+
+    h32 ^= h32 >>> 15;
+    h32 *= PRIME2;
+    h32 ^= h32 >>> 13;
+    h32 *= PRIME3;
+    h32 ^= h32 >>> 16;
+
+    return h32;
+  }
+
+
+
+
+}
+
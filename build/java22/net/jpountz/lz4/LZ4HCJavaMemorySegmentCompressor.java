@@ -0,0 +1,300 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.lz4;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import static net.jpountz.lz4.LZ4Constants.*;
+import static net.jpountz.lz4.LZ4MemorySegmentUtils.*;
+import static net.jpountz.util.MemorySegmentUtils.*;
+
+import static net.jpountz.lz4.LZ4Utils.hashHC;
+
+import net.jpountz.util.MemorySegmentUtils.Match;
+
+
+/**
+ * High compression compression of {@link MemorySegment}s, with <code>long</code> offsets
+ * and lengths.
+ */
+enum LZ4HCJavaMemorySegmentCompressor {
+  ;
+
+  static long compress(
+      MemorySegment src, long srcOff, long srcLen,
+      MemorySegment dest, long destOff, long maxDestLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+
+    return compressUnchecked(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+
+  static class HashTable {
+    static final int MAX_ATTEMPTS = 256;
+    static final int MASK = MAX_DISTANCE - 1;
+    long nextToUpdate;
+    private final long base;
+    private final long[] hashTable;
+    private final short[] chainTable;
+
+    HashTable(long base) {
+      this.base = base;
+      nextToUpdate = base;
+      hashTable = new long[HASH_TABLE_SIZE_HC];
+      Arrays.fill(hashTable, -1);
+      chainTable = new short[MAX_DISTANCE];
+    }
+
+    private long hashPointer(MemorySegment bytes, long off) {
+      final int v = readInt(bytes, off);
+      final int h = hashHC(v);
+      return hashTable[h];
+    }
+
+    private long next(long off) {
+      return off - (chainTable[(int)(off & MASK)] & 0xFFFF);
+    }
+
+    private void addHash(MemorySegment bytes, long off) {
+      final int v = readInt(bytes, off);
+      final int h = hashHC(v);
+      long delta = off - hashTable[h];
+      assert delta > 0 : delta;
+      if (delta >= MAX_DISTANCE) {
+        delta = MAX_DISTANCE - 1;
+      }
+      chainTable[(int)(off & MASK)] = (short) delta;
+      hashTable[h] = off;
+    }
+
+    void insert(long off, MemorySegment bytes) {
+      for (; nextToUpdate < off; ++nextToUpdate) {
+        addHash(bytes, nextToUpdate);
+      }
+    }
+
+    boolean insertAndFindBestMatch(MemorySegment buf, long off, long matchLimit, Match match) {
+      match.start = off;
+      match.len = 0;
+      long delta = 0;
+      long repl = 0;
+
+      insert(off, buf);
+
+      long ref = hashPointer(buf, off);
+
+      if (ref >= off - 4 && ref <= off && ref >= base) { // potential repetition
+        if (readIntEquals(buf, ref, off)) { // confirmed
+          delta = off - ref;
+          repl = match.len = MIN_MATCH + commonBytes(buf, ref + MIN_MATCH, off + MIN_MATCH, matchLimit);
+          match.ref = ref;
+        }
+        ref = next(ref);
+      }
+
+      for (int i = 0; i < MAX_ATTEMPTS; ++i) {
+        if (ref < Math.max(base, off - MAX_DISTANCE + 1) || ref > off) {
+          break;
+        }
+        if (readByte(buf, ref + match.len) == readByte(buf, off + match.len) && readIntEquals(buf, ref, off)) {
+          final long matchLen = MIN_MATCH + commonBytes(buf, ref + MIN_MATCH, off + MIN_MATCH, matchLimit);
+          if (matchLen > match.len) {
+            match.ref = ref;
+            match.len = matchLen;
+          }
+        }
+        ref = next(ref);
+      }
+
+      if (repl != 0) {
+        long ptr = off;
+        final long end = off + repl - (MIN_MATCH - 1);
+        while (ptr < end - delta) {
+          chainTable[(int)(ptr & MASK)] = (short) delta; // pre load
+          ++ptr;
+        }
+        do {
+          chainTable[(int)(ptr & MASK)] = (short) delta;
+          hashTable[hashHC(readInt(buf, ptr))] = ptr;
+          ++ptr;
+        } while (ptr < end);
+        nextToUpdate = end;
+      }
+
+      return match.len != 0;
+    }
+
+    boolean insertAndFindWiderMatch(MemorySegment buf, long off, long startLimit, long matchLimit, long minLen, Match match) {
+      match.len = minLen;
+
+      insert(off, buf);
+
+      final long delta = off - startLimit;
+      long ref = hashPointer(buf, off);
+      for (int i = 0; i < MAX_ATTEMPTS; ++i) {
+        if (ref < Math.max(base, off - MAX_DISTANCE + 1) || ref > off) {
+          break;
+        }
+        if (readByte(buf, ref - delta + match.len) == readByte(buf, startLimit + match.len)
+            && readIntEquals(buf, ref, off)) {
+          final long matchLenForward = MIN_MATCH + commonBytes(buf, ref + MIN_MATCH, off + MIN_MATCH, matchLimit);
+          final long matchLenBackward = commonBytesBackward(buf, ref, off, base, startLimit);
+          final long matchLen = matchLenBackward + matchLenForward;
+          if (matchLen > match.len) {
+            match.len = matchLen;
+            match.ref = ref - matchLenBackward;
+            match.start = off - matchLenBackward;
+          }
+        }
+        ref = next(ref);
+      }
+
+      return match.len > minLen;
+    }
+
+  }
+
+  private static long compressUnchecked(
+      MemorySegment src, long srcOff, long srcLen,
+      MemorySegment dest, long destOff, long maxDestLen) {
+
+    final long srcEnd = srcOff + srcLen;
+    final long destEnd = destOff + maxDestLen;
+    final long mfLimit = srcEnd - MF_LIMIT;
+    final long matchLimit = srcEnd - LAST_LITERALS;
+
+    long sOff = srcOff;
+    long dOff = destOff;
+    long anchor = sOff++;
+
+    final HashTable ht = new HashTable(srcOff);
+    final Match match0 = new Match();
+    final Match match1 = new Match();
+    final Match match2 = new Match();
+    final Match match3 = new Match();
+
+    main:
+    while (sOff < mfLimit) {
+      if (!ht.insertAndFindBestMatch(src, sOff, matchLimit, match1)) {
+        ++sOff;
+        continue;
+      }
+
+      // saved, in case we would skip too much
+      copyTo(match1, match0);
+
+      search2:
+      while (true) {
+        assert match1.start >= anchor;
+        if (match1.end() >= mfLimit
+            || !ht.insertAndFindWiderMatch(src, match1.end() - 2, match1.start + 1, matchLimit, match1.len, match2)) {
+          // no better match
+          dOff = encodeSequence(src, anchor, match1.start, match1.ref, match1.len, dest, dOff, destEnd);
+          anchor = sOff = match1.end();
+          continue main;
+        }
+
+        if (match0.start < match1.start) {
+          if (match2.start < match1.start + match0.len) { // empirical
+            copyTo(match0, match1);
+          }
+        }
+        assert match2.start > match1.start;
+
+        if (match2.start - match1.start < 3) { // First Match too small : removed
+          copyTo(match2, match1);
+          continue search2;
+        }
+
+        search3:
+        while (true) {
+          if (match2.start - match1.start < OPTIMAL_ML) {
+            long newMatchLen = match1.len;
+            if (newMatchLen > OPTIMAL_ML) {
+              newMatchLen = OPTIMAL_ML;
+            }
+            if (match1.start + newMatchLen > match2.end() - MIN_MATCH) {
+              newMatchLen = (long) (match2.start - match1.start + match2.len - MIN_MATCH);
+            }
+            final long correction = newMatchLen - (long) (match2.start - match1.start);
+            if (correction > 0) {
+              match2.fix(correction);
+            }
+          }
+
+          if (match2.start + match2.len >= mfLimit
+              || !ht.insertAndFindWiderMatch(src, match2.end() - 3, match2.start, matchLimit, match2.len, match3)) {
+            // no better match -> 2 sequences to encode
+            if (match2.start < match1.end()) {
+              match1.len = (long) (match2.start - match1.start);
+            }
+            // encode seq 1
+            dOff = encodeSequence(src, anchor, match1.start, match1.ref, match1.len, dest, dOff, destEnd);
+            anchor = sOff = match1.end();
+            // encode seq 2
+            dOff = encodeSequence(src, anchor, match2.start, match2.ref, match2.len, dest, dOff, destEnd);
+            anchor = sOff = match2.end();
+            continue main;
+          }
+
+          if (match3.start < match1.end() + 3) { // Not enough space for match 2 : remove it
+            if (match3.start >= match1.end()) { // // can write Seq1 immediately ==> Seq2 is removed, so Seq3 becomes Seq1
+              if (match2.start < match1.end()) {
+                final long correction = (long) (match1.end() - match2.start);
+                match2.fix(correction);
+                if (match2.len < MIN_MATCH) {
+                  copyTo(match3, match2);
+                }
+              }
+
+              dOff = encodeSequence(src, anchor, match1.start, match1.ref, match1.len, dest, dOff, destEnd);
+              anchor = sOff = match1.end();
+
+              copyTo(match3, match1);
+              copyTo(match2, match0);
+
+              continue search2;
+            }
+
+            copyTo(match3, match2);
+            continue search3;
+          }
+
+          // OK, now we have 3 ascending matches; let's write at least the first one
+          if (match2.start < match1.end()) {
+            if (match2.start - match1.start < ML_MASK) {
+              if (match1.len > OPTIMAL_ML) {
+                match1.len = OPTIMAL_ML;
+              }
+              if (match1.end() > match2.end() - MIN_MATCH) {
+                match1.len = (long) (match2.end() - match1.start - MIN_MATCH);
+              }
+              final long correction = (long) (match1.end() - match2.start);
+              match2.fix(correction);
+            } else {
+              match1.len = (long) (match2.start - match1.start);
+            }
+          }
+
+          dOff = encodeSequence(src, anchor, match1.start, match1.ref, match1.len, dest, dOff, destEnd);
+          anchor = sOff = match1.end();
+
+          copyTo(match2, match1);
+          copyTo(match3, match2);
+
+          continue search3;
+        }
+
+      }
+
+    }
+
+    dOff = lastLiterals(src, anchor, (long) (srcEnd - anchor), dest, dOff, destEnd);
+    return (long) (dOff - destOff);
+  }
+
+
+
+}
@@ -0,0 +1,292 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.lz4;
+
+import java.lang.foreign.MemorySegment;
+import java.util.Arrays;
+import static net.jpountz.lz4.LZ4Constants.*;
+import static net.jpountz.lz4.LZ4MemorySegmentUtils.*;
+import static net.jpountz.util.MemorySegmentUtils.*;
+
+import static net.jpountz.lz4.LZ4Utils.hash;
+import static net.jpountz.lz4.LZ4Utils.hash64k;
+
+
+/**
+ * Fast compression of {@link MemorySegment}s, with <code>long</code> offsets
+ * and lengths.
+ */
+enum LZ4JavaMemorySegmentCompressor {
+  ;
+
+  static long compress(
+      MemorySegment src, long srcOff, long srcLen,
+      MemorySegment dest, long destOff, long maxDestLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+
+    return compressUnchecked(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+
+
+  static int compress64k(
+      MemorySegment src, long srcOff, int srcLen,
+      MemorySegment dest, long destOff, long destEnd) {
+
+
+    final long srcEnd = srcOff + srcLen;
+    final long srcLimit = srcEnd - LAST_LITERALS;
+    final long mflimit = srcEnd - MF_LIMIT;
+
+    long sOff = srcOff, dOff = destOff;
+
+    long anchor = sOff;
+
+    if (srcLen >= MIN_LENGTH) {
+
+
+      final short[] hashTable = new short[HASH_TABLE_SIZE_64K];
+
+
+      ++sOff;
+
+      main:
+      while (true) {
+
+        // find a match
+        long forwardOff = sOff;
+
+        long ref;
+        int step = 1;
+        int searchMatchNb = 1 << SKIP_STRENGTH;
+        do {
+          sOff = forwardOff;
+          forwardOff += step;
+          step = searchMatchNb++ >>> SKIP_STRENGTH;
+
+          if (forwardOff > mflimit) {
+            break main;
+          }
+
+          final int h = hash64k(readInt(src, sOff));
+
+          ref = srcOff + readShort(hashTable, h);
+          writeShort(hashTable, h, sOff - srcOff);
+        } while (!readIntEquals(src, ref, sOff));
+
+
+        // catch up
+        final int excess = (int) commonBytesBackward(src, ref, sOff, srcOff, anchor);
+        sOff -= excess;
+        ref -= excess;
+
+        // sequence == refsequence
+        final int runLen = (int) (sOff - anchor);
+
+        // encode literal length
+        long tokenOff = dOff++;
+
+        if (dOff + runLen + (2 + 1 + LAST_LITERALS) + (runLen >>> 8) > destEnd) {
+          throw new LZ4Exception("maxDestLen is too small");
+        }
+
+        if (runLen >= RUN_MASK) {
+          writeByte(dest, tokenOff, RUN_MASK << ML_BITS);
+          dOff = (long) writeLen(runLen - RUN_MASK, dest, dOff);
+        } else {
+          writeByte(dest, tokenOff, runLen << ML_BITS);
+        }
+
+        // copy literals
+        wildArraycopy(src, anchor, dest, dOff, runLen);
+        dOff += runLen;
+
+        while (true) {
+          // encode offset
+          writeShortLittleEndian(dest, dOff, (short) (sOff - ref));
+          dOff += 2;
+
+          // count nb matches
+          sOff += MIN_MATCH;
+          ref += MIN_MATCH;
+          final int matchLen = (int) commonBytes(src, ref, sOff, srcLimit);
+          if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+            throw new LZ4Exception("maxDestLen is too small");
+          }
+          sOff += matchLen;
+
+          // encode match len
+          if (matchLen >= ML_MASK) {
+            writeByte(dest, tokenOff, readByte(dest, tokenOff) | ML_MASK);
+            dOff = (long) writeLen(matchLen - ML_MASK, dest, dOff);
+          } else {
+            writeByte(dest, tokenOff, readByte(dest, tokenOff) | matchLen);
+          }
+
+          // test end of chunk
+          if (sOff > mflimit) {
+            anchor = sOff;
+            break main;
+          }
+
+          // fill table
+
+          writeShort(hashTable, hash64k(readInt(src, sOff - 2)), sOff - 2 - srcOff);
+
+
+          // test next position
+          final int h = hash64k(readInt(src, sOff));
+
+          ref = srcOff + readShort(hashTable, h);
+          writeShort(hashTable, h, sOff - srcOff);
+
+          if (!readIntEquals(src, sOff, ref)) {
+            break;
+          }
+
+
+          tokenOff = dOff++;
+          writeByte(dest, tokenOff, 0);
+        }
+
+        // prepare next loop
+        anchor = sOff++;
+      }
+    }
+
+    dOff = (long) lastLiterals(src, anchor, (int) (srcEnd - anchor), dest, dOff, destEnd);
+    return (int) (dOff - destOff);
+  }
+
+
+  private static long compressUnchecked(
+      MemorySegment src, final long srcOff, long srcLen,
+      MemorySegment dest, final long destOff, long maxDestLen) {
+      
+
+
+    final long destEnd = destOff + maxDestLen;
+    final long srcEnd = srcOff + srcLen;
+
+    if (srcLen < LZ4_64K_LIMIT) {
+      return compress64k(src, srcOff, (int) srcLen, dest, destOff, destEnd);
+    }
+
+    final long srcLimit = srcEnd - LAST_LITERALS;
+    final long mflimit = srcEnd - MF_LIMIT;
+
+    long sOff = srcOff, dOff = destOff;
+    long anchor = sOff++;
+
+    final long[] hashTable = new long[HASH_TABLE_SIZE];
+    Arrays.fill(hashTable, anchor);
+
+    main:
+    while (true) {
+
+      // find a match
+      long forwardOff = sOff;
+
+      long ref;
+      int step = 1;
+      int searchMatchNb = 1 << SKIP_STRENGTH;
+      long back;
+      do {
+        sOff = forwardOff;
+        forwardOff += step;
+        step = searchMatchNb++ >>> SKIP_STRENGTH;
+
+        if (forwardOff > mflimit) {
+          break main;
+        }
+
+        final int h = hash(readInt(src, sOff));
+        ref = hashTable[h];
+        back = sOff - ref;
+        hashTable[h] = sOff;
+      } while (back >= MAX_DISTANCE || !readIntEquals(src, ref, sOff));
+
+
+      final long excess = commonBytesBackward(src, ref, sOff, srcOff, anchor);
+      sOff -= excess;
+      ref -= excess;
+
+      // sequence == refsequence
+      final long runLen = (long) (sOff - anchor);
+
+      // encode literal length
+      long tokenOff = dOff++;
+
+      if (dOff + runLen + (2 + 1 + LAST_LITERALS) + (runLen >>> 8) > destEnd) {
+        throw new LZ4Exception("maxDestLen is too small");
+      }
+
+      if (runLen >= RUN_MASK) {
+        writeByte(dest, tokenOff, RUN_MASK << ML_BITS);
+        dOff = (long) writeLen(runLen - RUN_MASK, dest, dOff);
+      } else {
+        writeByte(dest, tokenOff, (int) runLen << ML_BITS);
+      }
+
+      // copy literals
+      wildArraycopy(src, anchor, dest, dOff, runLen);
+      dOff += runLen;
+
+      while (true) {
+        // encode offset
+        writeShortLittleEndian(dest, dOff, back);
+        dOff += 2;
+
+        // count nb matches
+        sOff += MIN_MATCH;
+        final long matchLen = commonBytes(src, ref + MIN_MATCH, sOff, srcLimit);
+        if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+          throw new LZ4Exception("maxDestLen is too small");
+        }
+        sOff += matchLen;
+
+        // encode match len
+        if (matchLen >= ML_MASK) {
+          writeByte(dest, tokenOff, readByte(dest, tokenOff) | ML_MASK);
+          dOff = (long) writeLen(matchLen - ML_MASK, dest, dOff);
+        } else {
+          writeByte(dest, tokenOff, readByte(dest, tokenOff) | (int) matchLen);
+        }
+
+        // test end of chunk
+        if (sOff > mflimit) {
+          anchor = sOff;
+          break main;
+        }
+
+        // fill table
+        hashTable[hash(readInt(src, sOff - 2))] = sOff - 2;
+
+        // test next position
+        final int h = hash(readInt(src, sOff));
+        ref = hashTable[h];
+        hashTable[h] = sOff;
+        back = sOff - ref;
+
+        if (back >= MAX_DISTANCE || !readIntEquals(src, ref, sOff)) {
+          break;
+        }
+
+        tokenOff = dOff++;
+        writeByte(dest, tokenOff, 0);
+      }
+
+      // prepare next loop
+      anchor = sOff++;
+    }
+
+    dOff = (long) lastLiterals(src, anchor, (long) (srcEnd - anchor), dest, dOff, destEnd);
+    return (long) (dOff - destOff);
+  }
+
+
+
+
+}
@@ -0,0 +1,252 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.lz4.LZ4Constants.COPY_LENGTH;
+import static net.jpountz.lz4.LZ4Constants.LAST_LITERALS;
+import static net.jpountz.lz4.LZ4Constants.ML_BITS;
+import static net.jpountz.lz4.LZ4Constants.ML_MASK;
+import static net.jpountz.lz4.LZ4Constants.RUN_MASK;
+import static net.jpountz.util.MemorySegmentUtils.readByte;
+import static net.jpountz.util.MemorySegmentUtils.readInt;
+import static net.jpountz.util.MemorySegmentUtils.readLong;
+import static net.jpountz.util.MemorySegmentUtils.readShort;
+import static net.jpountz.util.MemorySegmentUtils.writeByte;
+import static net.jpountz.util.MemorySegmentUtils.writeInt;
+import static net.jpountz.util.MemorySegmentUtils.writeLong;
+import static net.jpountz.util.MemorySegmentUtils.writeShort;
+
+import static net.jpountz.util.Utils.NATIVE_BYTE_ORDER;
+
+
+import static net.jpountz.util.MemorySegmentUtils.arraycopy;
+
+import java.lang.foreign.MemorySegment;
+
+
+import java.nio.ByteOrder;
+
+enum LZ4MemorySegmentUtils {
+  ;
+
+
+  // literal runs at least that long are copied with a single bulk transfer
+  private static final int BULK_COPY_THRESHOLD = 256;
+
+
+  static void safeArraycopy(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long len) {
+
+    if (len >= BULK_COPY_THRESHOLD) {
+      arraycopy(src, srcOff, dest, destOff, len);
+      return;
+    }
+
+    final long fastLen = len & 0xFFFFFFF8;
+    wildArraycopy(src, srcOff, dest, destOff, fastLen);
+    for (int i = 0, slowLen = (int) (len & 0x7); i < slowLen; i += 1) {
+      writeByte(dest, destOff + fastLen + i, readByte(src, srcOff + fastLen + i));
+    }
+  }
+
+  static void wildArraycopy(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long len) {
+
+    if (len >= BULK_COPY_THRESHOLD) {
+      arraycopy(src, srcOff, dest, destOff, len);
+      return;
+    }
+
+
+    for (long i = 0; i < len; i += 8) {
+      writeLong(dest, destOff + i, readLong(src, srcOff + i));
+    }
+  }
+
+  static void wildIncrementalCopy(MemorySegment dest, long matchOff, long dOff, long matchCopyEnd) {
+    if (dOff - matchOff < 4) {
+      for (int i = 0; i < 4; ++i) {
+        writeByte(dest, dOff+i, readByte(dest, matchOff+i));
+      }
+      dOff += 4;
+      matchOff += 4;
+      int dec = 0;
+      assert dOff >= matchOff && dOff - matchOff < 8;
+      switch ((int)(dOff - matchOff)) {
+      case 1:
+        matchOff -= 3;
+        break;
+      case 2:
+        matchOff -= 2;
+        break;
+      case 3:
+        matchOff -= 3;
+        dec = -1;
+        break;
+      case 5:
+        dec = 1;
+        break;
+      case 6:
+        dec = 2;
+        break;
+      case 7:
+        dec = 3;
+        break;
+      default:
+        break;
+      }
+      writeInt(dest, dOff, readInt(dest, matchOff));
+      dOff += 4;
+      matchOff -= dec;
+    } else if (dOff - matchOff < COPY_LENGTH) {
+      writeLong(dest, dOff, readLong(dest, matchOff));
+      dOff += dOff - matchOff;
+    }
+
+    while (dOff < matchCopyEnd) {
+      writeLong(dest, dOff, readLong(dest, matchOff));
+      dOff += 8;
+      matchOff += 8;
+    }
+  }
+
+  static void safeIncrementalCopy(MemorySegment dest, long matchOff, long dOff, long matchLen) {
+    for (long i = 0; i < matchLen; ++i) {
+      writeByte(dest, dOff + i, readByte(dest, matchOff + i));
+    }
+  }
+
+  static int readShortLittleEndian(MemorySegment buf, long srcOff) {
+    short s = readShort(buf, srcOff);
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      s = Short.reverseBytes(s);
+    }
+    return s & 0xFFFF;
+  }
+
+  static void writeShortLittleEndian(MemorySegment buf, long destOff, long value) {
+    short s = (short) value;
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      s = Short.reverseBytes(s);
+    }
+    writeShort(buf, destOff, s);
+  }
+
+  static boolean readIntEquals(MemorySegment src, long ref, long sOff) {
+    return readInt(src, ref) == readInt(src, sOff);
+  }
+
+  static long commonBytes(MemorySegment buf, long ref, long sOff, long srcLimit) {
+
+    long matchLen = 0;
+    while (sOff <= srcLimit - 8) {
+      if (readLong(buf, sOff) == readLong(buf, ref)) {
+        matchLen += 8;
+        ref += 8;
+        sOff += 8;
+      } else {
+        final int zeroBits;
+        if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+          zeroBits = Long.numberOfLeadingZeros(readLong(buf, sOff) ^ readLong(buf, ref));
+        } else {
+          zeroBits = Long.numberOfTrailingZeros(readLong(buf, sOff) ^ readLong(buf, ref));
+        }
+        return matchLen + (zeroBits >>> 3);
+      }
+    }
+    while (sOff < srcLimit && readByte(buf, ref++) == readByte(buf, sOff++)) {
+      ++matchLen;
+    }
+    return matchLen;
+  }
+
+  static long lastLiterals(MemorySegment src, long sOff, long srcLen, MemorySegment dest, long dOff, long destEnd) {
+    final long runLen = srcLen;
+
+    if (dOff + runLen + 1 + (runLen + 255 - RUN_MASK) / 255 > destEnd) {
+      throw new LZ4Exception();
+    }
+
+    if (runLen >= RUN_MASK) {
+      writeByte(dest, dOff++, (byte) (RUN_MASK << ML_BITS));
+      dOff = writeLen(runLen - RUN_MASK, dest, dOff);
+    } else {
+      writeByte(dest, dOff++, (byte) (runLen << ML_BITS));
+    }
+    // copy literals
+    safeArraycopy(src, sOff, dest, dOff, runLen);
+    dOff += runLen;
+
+    return dOff;
+  }
+
+  static long writeLen(long len, MemorySegment dest, long dOff) {
+    while (len >= 0xFF) {
+      writeByte(dest, dOff++, 0xFF);
+      len -= 0xFF;
+    }
+    writeByte(dest, dOff++, (byte) len);
+    return dOff;
+  }
+
+  static long encodeSequence(MemorySegment src, long anchor, long matchOff, long matchRef, long matchLen, MemorySegment dest, long dOff, long destEnd) {
+    final long runLen = (long)(matchOff - anchor);
+    final long tokenOff = dOff++;
+    int token;
+
+    if (runLen >= RUN_MASK) {
+      token = (byte) (RUN_MASK << ML_BITS);
+      dOff = writeLen(runLen - RUN_MASK, dest, dOff);
+    } else {
+      token = (int) runLen << ML_BITS;
+    }
+
+    // copy literals
+    wildArraycopy(src, anchor, dest, dOff, runLen);
+    dOff += runLen;
+
+    // encode offset
+    final int matchDec = (int)(matchOff - matchRef);
+    writeByte(dest, dOff++, (byte) matchDec);
+    writeByte(dest, dOff++, (byte) (matchDec >>> 8));
+
+    // encode match len
+    matchLen -= 4;
+    if (dOff + (1 + LAST_LITERALS) + (matchLen >>> 8) > destEnd) {
+      throw new LZ4Exception("maxDestLen is too small");
+    }
+    if (matchLen >= ML_MASK) {
+      token |= ML_MASK;
+      dOff = writeLen(matchLen - RUN_MASK, dest, dOff);
+    } else {
+      token |= matchLen;
+    }
+
+    writeByte(dest, tokenOff, (byte) token);
+
+    return dOff;
+  }
+
+  static long commonBytesBackward(MemorySegment b, long o1, long o2, long l1, long l2) {
+    long count = 0;
+
+    // C2 of JDK 21 crashes when compiling the decrementing loop below on segments
+    final long maxCount = Math.min(o1 - l1, o2 - l2);
+    while (count < maxCount && readByte(b, o1 - count - 1) == readByte(b, o2 - count - 1)) {
+      ++count;
+    }
+
+    return count;
+  }
+
+}
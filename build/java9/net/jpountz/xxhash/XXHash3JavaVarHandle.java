@@ -0,0 +1,430 @@
+// Auto-generated: DO NOT EDIT
+
+package net.jpountz.xxhash;
+
+import static net.jpountz.xxhash.XXHashConstants.*;
+
+import static net.jpountz.util.VarHandleUtils.*;
+import static net.jpountz.util.Utils.checkRange;
+
+
+/**
+ * {@link XXHash3} implementation.
+ */
+final class XXHash3JavaVarHandle extends XXHash3 {
+
+  public static final XXHash3 INSTANCE = new XXHash3JavaVarHandle();
+
+  @Override
+  public long hash64(byte[] buf, int off, int len, long seed) {
+    checkRange(buf, off, len);
+    return hash64Internal(buf, off, len, seed);
+  }
+
+  @Override
+  public Hash128 hash128(byte[] buf, int off, int len, long seed) {
+    checkRange(buf, off, len);
+    return hash128Internal(buf, off, len, seed);
+  }
+
+  static long hash64Internal(byte[] buf, int off, int len, long seed) {
+    if (len <= 16) {
+      return hash64Len0To16(buf, off, len, seed);
+    } else if (len <= 128) {
+      return hash64Len17To128(buf, off, len, seed);
+    } else if (len <= XXH3_MIDSIZE_MAX) {
+      return hash64Len129To240(buf, off, len, seed);
+    } else {
+      final byte[] secret = customSecret(seed);
+      final long[] acc = hashLong(buf, off, len, secret);
+      return mergeAccs(acc, secret, XXH3_SECRET_MERGEACCS_START, len * PRIME64_1);
+    }
+  }
+
+  static Hash128 hash128Internal(byte[] buf, int off, int len, long seed) {
+    if (len <= 16) {
+      return hash128Len0To16(buf, off, len, seed);
+    } else if (len <= 128) {
+      return hash128Len17To128(buf, off, len, seed);
+    } else if (len <= XXH3_MIDSIZE_MAX) {
+      return hash128Len129To240(buf, off, len, seed);
+    } else {
+      final byte[] secret = customSecret(seed);
+      final long[] acc = hashLong(buf, off, len, secret);
+      return mergeAccs128(acc, secret, len);
+    }
+  }
+
+  // 64 x 64 -> 128 bits multiplications
+
+  static long unsignedMultiplyHigh(long x, long y) {
+
+    return Math.multiplyHigh(x, y) + ((x >> 63) & y) + ((y >> 63) & x);
+
+  }
+
+  static long mul128Fold64(long lhs, long rhs) {
+    return (lhs * rhs) ^ unsignedMultiplyHigh(lhs, rhs);
+  }
+
+  static long xxh64Avalanche(long h64) {
+    h64 ^= h64 >>> 33;
+    h64 *= PRIME64_2;
+    h64 ^= h64 >>> 29;
+    h64 *= PRIME64_3;
+    h64 ^= h64 >>> 32;
+    return h64;
+  }
+
+  static long avalanche(long h64) {
+    h64 ^= h64 >>> 37;
+    h64 *= PRIME_MX1;
+    h64 ^= h64 >>> 32;
+    return h64;
+  }
+
+  static long rrmxmx(long h64, int len) {
+    h64 ^= Long.rotateLeft(h64, 49) ^ Long.rotateLeft(h64, 24);
+    h64 *= PRIME_MX2;
+    h64 ^= (h64 >>> 35) + len;
+    h64 *= PRIME_MX2;
+    h64 ^= h64 >>> 28;
+    return h64;
+  }
+
+  static long mix16B(byte[] buf, int off, long secretLo, long secretHi, long seed) {
+    return mul128Fold64(
+        readLongLE(buf, off) ^ (secretLo + seed),
+        readLongLE(buf, off + 8) ^ (secretHi - seed));
+  }
+
+  static long mix16B(byte[] buf, int off, byte[] secret, int secretOff, long seed) {
+    return mix16B(buf, off, readLongLE(secret, secretOff), readLongLE(secret, secretOff + 8), seed);
+  }
+
+  /** mix16B with the 16 bytes of the default secret at offset 16 * i. */
+  private static long mix16BDefault(byte[] buf, int off, int i, long seed) {
+    return mix16B(buf, off, XXH3_SECRET_WORDS[2 * i], XXH3_SECRET_WORDS[2 * i + 1], seed);
+  }
+
+  // short inputs, 64 bits
+
+  private static long hash64Len0To16(byte[] buf, int off, int len, long seed) {
+    if (len > 8) {
+      final long inputLo = readLongLE(buf, off) ^ (XXH3_BITFLIP_9TO16_LO + seed);
+      final long inputHi = readLongLE(buf, off + len - 8) ^ (XXH3_BITFLIP_9TO16_HI - seed);
+      return avalanche(len + Long.reverseBytes(inputLo) + inputHi + mul128Fold64(inputLo, inputHi));
+    } else if (len >= 4) {
+      seed ^= (long) Integer.reverseBytes((int) seed) << 32;
+      final long input1 = readIntLE(buf, off) & 0xFFFFFFFFL;
+      final long input2 = readIntLE(buf, off + len - 4) & 0xFFFFFFFFL;
+      return rrmxmx((input2 + (input1 << 32)) ^ (XXH3_BITFLIP_4TO8 - seed), len);
+    } else if (len > 0) {
+      final int c1 = buf[off] & 0xFF;
+      final int c2 = buf[off + (len >> 1)] & 0xFF;
+      final int c3 = buf[off + len - 1] & 0xFF;
+      final int combined = (c1 << 16) | (c2 << 24) | c3 | (len << 8);
+      return xxh64Avalanche((combined & 0xFFFFFFFFL) ^ (XXH3_BITFLIP_1TO3 + seed));
+    } else {
+      return xxh64Avalanche(seed ^ XXH3_BITFLIP_0);
+    }
+  }
+
+  private static long hash64Len17To128(byte[] buf, int off, int len, long seed) {
+    long acc = len * PRIME64_1;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          acc += mix16BDefault(buf, off + 48, 6, seed);
+          acc += mix16BDefault(buf, off + len - 64, 7, seed);
+        }
+        acc += mix16BDefault(buf, off + 32, 4, seed);
+        acc += mix16BDefault(buf, off + len - 48, 5, seed);
+      }
+      acc += mix16BDefault(buf, off + 16, 2, seed);
+      acc += mix16BDefault(buf, off + len - 32, 3, seed);
+    }
+    acc += mix16BDefault(buf, off, 0, seed);
+    acc += mix16BDefault(buf, off + len - 16, 1, seed);
+    return avalanche(acc);
+  }
+
+  private static long hash64Len129To240(byte[] buf, int off, int len, long seed) {
+    final byte[] secret = XXH3_SECRET;
+    final int nbRounds = len / 16;
+    long acc = len * PRIME64_1;
+    for (int i = 0; i < 8; ++i) {
+      acc += mix16BDefault(buf, off + 16 * i, i, seed);
+    }
+    acc = avalanche(acc);
+    for (int i = 8; i < nbRounds; ++i) {
+      acc += mix16B(buf, off + 16 * i, secret, 16 * (i - 8) + XXH3_MIDSIZE_STARTOFFSET, seed);
+    }
+    // last bytes
+    acc += mix16B(buf, off + len - 16, secret, XXH3_SECRET_SIZE_MIN - XXH3_MIDSIZE_LASTOFFSET, seed);
+    return avalanche(acc);
+  }
+
+  // short inputs, 128 bits
+
+  private static Hash128 hash128Len0To16(byte[] buf, int off, int len, long seed) {
+    if (len > 8) {
+      final long inputLo = readLongLE(buf, off);
+      long inputHi = readLongLE(buf, off + len - 8);
+      final long m = inputLo ^ inputHi ^ (XXH3_128_BITFLIP_9TO16_LO - seed);
+      long mLow = m * PRIME64_1;
+      long mHigh = unsignedMultiplyHigh(m, PRIME64_1);
+      mLow += (long) (len - 1) << 54;
+      inputHi ^= XXH3_128_BITFLIP_9TO16_HI + seed;
+      mHigh += inputHi + (inputHi & 0xFFFFFFFFL) * (PRIME32_2 - 1);
+      mLow ^= Long.reverseBytes(mHigh);
+      final long hLow = mLow * PRIME64_2;
+      final long hHigh = unsignedMultiplyHigh(mLow, PRIME64_2) + mHigh * PRIME64_2;
+      return new Hash128(avalanche(hLow), avalanche(hHigh));
+    } else if (len >= 4) {
+      seed ^= (long) Integer.reverseBytes((int) seed) << 32;
+      final long inputLo = readIntLE(buf, off) & 0xFFFFFFFFL;
+      final long inputHi = readIntLE(buf, off + len - 4) & 0xFFFFFFFFL;
+      final long keyed = (inputLo + (inputHi << 32)) ^ (XXH3_128_BITFLIP_4TO8 + seed);
+      final long mul = PRIME64_1 + ((long) len << 2);
+      long mLow = keyed * mul;
+      long mHigh = unsignedMultiplyHigh(keyed, mul);
+      mHigh += mLow << 1;
+      mLow ^= mHigh >>> 3;
+      mLow ^= mLow >>> 35;
+      mLow *= PRIME_MX2;
+      mLow ^= mLow >>> 28;
+      return new Hash128(mLow, avalanche(mHigh));
+    } else if (len > 0) {
+      final int c1 = buf[off] & 0xFF;
+      final int c2 = buf[off + (len >> 1)] & 0xFF;
+      final int c3 = buf[off + len - 1] & 0xFF;
+      final int combinedLo = (c1 << 16) | (c2 << 24) | c3 | (len << 8);
+      final int combinedHi = Integer.rotateLeft(Integer.reverseBytes(combinedLo), 13);
+      return new Hash128(
+          xxh64Avalanche((combinedLo & 0xFFFFFFFFL) ^ (XXH3_128_BITFLIP_1TO3_LO + seed)),
+          xxh64Avalanche((combinedHi & 0xFFFFFFFFL) ^ (XXH3_128_BITFLIP_1TO3_HI - seed)));
+    } else {
+      return new Hash128(
+          xxh64Avalanche(seed ^ XXH3_128_BITFLIP_0_LO),
+          xxh64Avalanche(seed ^ XXH3_128_BITFLIP_0_HI));
+    }
+  }
+
+  private static Hash128 hash128Len17To128(byte[] buf, int off, int len, long seed) {
+    long accLo = len * PRIME64_1;
+    long accHi = 0;
+    if (len > 32) {
+      if (len > 64) {
+        if (len > 96) {
+          accLo += mix16BDefault(buf, off + 48, 6, seed);
+          accLo ^= readLongLE(buf, off + len - 64) + readLongLE(buf, off + len - 56);
+          accHi += mix16BDefault(buf, off + len - 64, 7, seed);
+          accHi ^= readLongLE(buf, off + 48) + readLongLE(buf, off + 56);
+        }
+        accLo += mix16BDefault(buf, off + 32, 4, seed);
+        accLo ^= readLongLE(buf, off + len - 48) + readLongLE(buf, off + len - 40);
+        accHi += mix16BDefault(buf, off + len - 48, 5, seed);
+        accHi ^= readLongLE(buf, off + 32) + readLongLE(buf, off + 40);
+      }
+      accLo += mix16BDefault(buf, off + 16, 2, seed);
+      accLo ^= readLongLE(buf, off + len - 32) + readLongLE(buf, off + len - 24);
+      accHi += mix16BDefault(buf, off + len - 32, 3, seed);
+      accHi ^= readLongLE(buf, off + 16) + readLongLE(buf, off + 24);
+    }
+    accLo += mix16BDefault(buf, off, 0, seed);
+    accLo ^= readLongLE(buf, off + len - 16) + readLongLE(buf, off + len - 8);
+    accHi += mix16BDefault(buf, off + len - 16, 1, seed);
+    accHi ^= readLongLE(buf, off) + readLongLE(buf, off + 8);
+    return finalize128(accLo, accHi, len, seed);
+  }
+
+  private static Hash128 hash128Len129To240(byte[] buf, int off, int len, long seed) {
+    final byte[] secret = XXH3_SECRET;
+    final int nbRounds = len / 32;
+    long accLo = len * PRIME64_1;
+    long accHi = 0;
+    for (int i = 0; i < 4; ++i) {
+      final int in1 = off + 32 * i, in2 = in1 + 16;
+      accLo += mix16BDefault(buf, in1, 2 * i, seed);
+      accLo ^= readLongLE(buf, in2) + readLongLE(buf, in2 + 8);
+      accHi += mix16BDefault(buf, in2, 2 * i + 1, seed);
+      accHi ^= readLongLE(buf, in1) + readLongLE(buf, in1 + 8);
+    }
+    accLo = avalanche(accLo);
+    accHi = avalanche(accHi);
+    for (int i = 4; i < nbRounds; ++i) {
+      final int in1 = off + 32 * i, in2 = in1 + 16;
+      final int secretOff = XXH3_MIDSIZE_STARTOFFSET + 32 * (i - 4);
+      accLo += mix16B(buf, in1, secret, secretOff, seed);
+      accLo ^= readLongLE(buf, in2) + readLongLE(buf, in2 + 8);
+      accHi += mix16B(buf, in2, secret, secretOff + 16, seed);
+      accHi ^= readLongLE(buf, in1) + readLongLE(buf, in1 + 8);
+    }
+    // last bytes
+    {
+      final int in1 = off + len - 16, in2 = off + len - 32;
+      final int secretOff = XXH3_SECRET_SIZE_MIN - XXH3_MIDSIZE_LASTOFFSET - 16;
+      accLo += mix16B(buf, in1, secret, secretOff, -seed);
+      accLo ^= readLongLE(buf, in2) + readLongLE(buf, in2 + 8);
+      accHi += mix16B(buf, in2, secret, secretOff + 16, -seed);
+      accHi ^= readLongLE(buf, in1) + readLongLE(buf, in1 + 8);
+    }
+    return finalize128(accLo, accHi, len, seed);
+  }
+
+  private static Hash128 finalize128(long accLo, long accHi, int len, long seed) {
+    final long low = accLo + accHi;
+    final long high = accLo * PRIME64_1 + accHi * PRIME64_4 + (len - seed) * PRIME64_2;
+    return new Hash128(avalanche(low), -avalanche(high));
+  }
+
+  // long inputs
+
+  static byte[] customSecret(long seed) {
+    if (seed == 0) {
+      return XXH3_SECRET;
+    }
+    final byte[] secret = new byte[XXH3_SECRET_SIZE];
+    for (int i = 0; i < XXH3_SECRET_SIZE; i += 16) {
+      writeLongLE(secret, i, readLongLE(XXH3_SECRET, i) + seed);
+      writeLongLE(secret, i + 8, readLongLE(XXH3_SECRET, i + 8) - seed);
+    }
+    return secret;
+  }
+
+  static long[] secretWords(byte[] secret) {
+    if (secret == XXH3_SECRET) {
+      return XXH3_SECRET_WORDS;
+    }
+    final long[] words = new long[XXH3_SECRET_SIZE / 8];
+    for (int i = 0; i < words.length; ++i) {
+      words[i] = readLongLE(secret, 8 * i);
+    }
+    return words;
+  }
+
+  private static void writeLongLE(byte[] buf, int off, long v) {
+    for (int i = 0; i < 8; ++i) {
+      buf[off + i] = (byte) (v >>> (8 * i));
+    }
+  }
+
+  static void initAcc(long[] acc) {
+    acc[0] = PRIME32_3;
+    acc[1] = PRIME64_1;
+    acc[2] = PRIME64_2;
+    acc[3] = PRIME64_3;
+    acc[4] = PRIME64_4;
+    acc[5] = PRIME32_2;
+    acc[6] = PRIME64_5;
+    acc[7] = PRIME32_1;
+  }
+
+  static void accumulate512(long[] acc, byte[] buf, int off, byte[] secret, int secretOff) {
+    for (int i = 0; i < 8; ++i) {
+      final long dataVal = readLongLE(buf, off + 8 * i);
+      final long dataKey = dataVal ^ readLongLE(secret, secretOff + 8 * i);
+      acc[i ^ 1] += dataVal;
+      acc[i] += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+    }
+  }
+
+  static void accumulate(long[] acc, byte[] buf, int off, long[] secretWords, int firstStripe, int nbStripes) {
+    // accumulators are kept in locals and the secret is read as words: going
+    // through the array for every stripe and reading the secret with unaligned
+    // reads both make the loop much slower
+    long acc0 = acc[0], acc1 = acc[1], acc2 = acc[2], acc3 = acc[3];
+    long acc4 = acc[4], acc5 = acc[5], acc6 = acc[6], acc7 = acc[7];
+    for (int n = 0; n < nbStripes; ++n) {
+      final int in = off + n * XXH3_STRIPE_LEN;
+      final int sec = firstStripe + n;
+      long dataVal, dataKey;
+      dataVal = readLongLE(buf, in);
+      dataKey = dataVal ^ secretWords[sec];
+      acc1 += dataVal;
+      acc0 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 8);
+      dataKey = dataVal ^ secretWords[sec + 1];
+      acc0 += dataVal;
+      acc1 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 16);
+      dataKey = dataVal ^ secretWords[sec + 2];
+      acc3 += dataVal;
+      acc2 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 24);
+      dataKey = dataVal ^ secretWords[sec + 3];
+      acc2 += dataVal;
+      acc3 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 32);
+      dataKey = dataVal ^ secretWords[sec + 4];
+      acc5 += dataVal;
+      acc4 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 40);
+      dataKey = dataVal ^ secretWords[sec + 5];
+      acc4 += dataVal;
+      acc5 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 48);
+      dataKey = dataVal ^ secretWords[sec + 6];
+      acc7 += dataVal;
+      acc6 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+
+      dataVal = readLongLE(buf, in + 56);
+      dataKey = dataVal ^ secretWords[sec + 7];
+      acc6 += dataVal;
+      acc7 += (dataKey & 0xFFFFFFFFL) * (dataKey >>> 32);
+    }
+    acc[0] = acc0; acc[1] = acc1; acc[2] = acc2; acc[3] = acc3;
+    acc[4] = acc4; acc[5] = acc5; acc[6] = acc6; acc[7] = acc7;
+  }
+
+  static void scramble(long[] acc, long[] secretWords) {
+    final int firstWord = (XXH3_SECRET_SIZE - XXH3_STRIPE_LEN) / 8;
+    for (int i = 0; i < 8; ++i) {
+      long a = acc[i];
+      a ^= a >>> 47;
+      a ^= secretWords[firstWord + i];
+      acc[i] = a * PRIME32_1;
+    }
+  }
+
+  private static long[] hashLong(byte[] buf, int off, int len, byte[] secret) {
+    final long[] secretWords = secretWords(secret);
+    final long[] acc = new long[8];
+    initAcc(acc);
+    final int nbBlocks = (len - 1) / XXH3_BLOCK_LEN;
+    for (int n = 0; n < nbBlocks; ++n) {
+      accumulate(acc, buf, off + n * XXH3_BLOCK_LEN, secretWords, 0, XXH3_STRIPES_PER_BLOCK);
+      scramble(acc, secretWords);
+    }
+    // last partial block
+    final int nbStripes = ((len - 1) - XXH3_BLOCK_LEN * nbBlocks) / XXH3_STRIPE_LEN;
+    accumulate(acc, buf, off + nbBlocks * XXH3_BLOCK_LEN, secretWords, 0, nbStripes);
+    // last stripe
+    accumulate512(acc, buf, off + len - XXH3_STRIPE_LEN, secret, XXH3_SECRET_SIZE - XXH3_STRIPE_LEN - XXH3_SECRET_LASTACC_START);
+    return acc;
+  }
+
+  static long mergeAccs(long[] acc, byte[] secret, int secretOff, long start) {
+    long result64 = start;
+    for (int i = 0; i < 4; ++i) {
+      result64 += mul128Fold64(
+          acc[2 * i] ^ readLongLE(secret, secretOff + 16 * i),
+          acc[2 * i + 1] ^ readLongLE(secret, secretOff + 16 * i + 8));
+    }
+    return avalanche(result64);
+  }
+
+  static Hash128 mergeAccs128(long[] acc, byte[] secret, long len) {
+    return new Hash128(
+        mergeAccs(acc, secret, XXH3_SECRET_MERGEACCS_START, len * PRIME64_1),
+        mergeAccs(acc, secret, XXH3_SECRET_SIZE - XXH3_STRIPE_LEN - XXH3_SECRET_MERGEACCS_START, ~(len * PRIME64_2)));
+  }
+
+}
@@ -0,0 +1,101 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class net_jpountz_lz4_LZ4JNI */
+
+#ifndef _Included_net_jpountz_lz4_LZ4JNI
+#define _Included_net_jpountz_lz4_LZ4JNI
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    init
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_lz4_LZ4JNI_init
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compress_limitedOutput
+ * Signature: ([BLjava/nio/ByteBuffer;II[BLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compress_1limitedOutput
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jint, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compressHC
+ * Signature: ([BLjava/nio/ByteBuffer;II[BLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compressHC
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jint, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_decompress_fast
+ * Signature: ([BLjava/nio/ByteBuffer;I[BLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1decompress_1fast
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_decompress_fast_withPrefix64k
+ * Signature: ([BLjava/nio/ByteBuffer;I[BLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1decompress_1fast_1withPrefix64k
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_decompress_safe
+ * Signature: ([BLjava/nio/ByteBuffer;II[BLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1decompress_1safe
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jint, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_decompress_safe_withPrefix64k
+ * Signature: ([BLjava/nio/ByteBuffer;II[BLjava/nio/ByteBuffer;II)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1decompress_1safe_1withPrefix64k
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jint, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compress_limitedOutput_batch
+ * Signature: ([[BII[BII[I)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compress_1limitedOutput_1batch
+  (JNIEnv *, jclass, jobjectArray, jint, jint, jbyteArray, jint, jint, jintArray);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compressHC_batch
+ * Signature: ([[BII[BII[I)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compressHC_1batch
+  (JNIEnv *, jclass, jobjectArray, jint, jint, jbyteArray, jint, jint, jintArray);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_decompress_safe_batch
+ * Signature: ([B[III[BII[I)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1decompress_1safe_1batch
+  (JNIEnv *, jclass, jbyteArray, jintArray, jint, jint, jbyteArray, jint, jint, jintArray);
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compressBound
+ * Signature: (I)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compressBound
+  (JNIEnv *, jclass, jint);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
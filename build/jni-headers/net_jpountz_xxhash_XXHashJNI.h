@@ -0,0 +1,181 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class net_jpountz_xxhash_XXHashJNI */
+
+#ifndef _Included_net_jpountz_xxhash_XXHashJNI
+#define _Included_net_jpountz_xxhash_XXHashJNI
+#ifdef __cplusplus
+extern "C" {
+#endif
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    init
+ * Signature: ()V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_init
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32
+ * Signature: ([BLjava/nio/ByteBuffer;III)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32
+  (JNIEnv *, jclass, jbyteArray, jobject, jint, jint, jint);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_sizeofState
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1sizeofState
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_resetState
+ * Signature: ([JI)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1resetState
+  (JNIEnv *, jclass, jlongArray, jint);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_update
+ * Signature: ([J[BLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1update
+  (JNIEnv *, jclass, jlongArray, jbyteArray, jobject, jint, jint);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_intermediateDigest
+ * Signature: ([J)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1intermediateDigest
+  (JNIEnv *, jclass, jlongArray);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_batchIsVectorized
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1batchIsVectorized
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_batch
+ * Signature: ([[BII[B[II[I)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1batch
+  (JNIEnv *, jclass, jobjectArray, jint, jint, jbyteArray, jintArray, jint, jintArray);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64
+ * Signature: ([BIIJ)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64
+  (JNIEnv *, jclass, jbyteArray, jint, jint, jlong);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_sizeofState
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1sizeofState
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_resetState
+ * Signature: ([JJ)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1resetState
+  (JNIEnv *, jclass, jlongArray, jlong);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_update
+ * Signature: ([J[BII)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1update
+  (JNIEnv *, jclass, jlongArray, jbyteArray, jint, jint);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_intermediateDigest
+ * Signature: ([J)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1intermediateDigest
+  (JNIEnv *, jclass, jlongArray);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_batch
+ * Signature: ([[BII[B[IJ[J)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1batch
+  (JNIEnv *, jclass, jobjectArray, jint, jint, jbyteArray, jintArray, jlong, jlongArray);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_64
+ * Signature: ([BIIJ)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_164
+  (JNIEnv *, jclass, jbyteArray, jint, jint, jlong);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_128
+ * Signature: ([BIIJ[J)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1128
+  (JNIEnv *, jclass, jbyteArray, jint, jint, jlong, jlongArray);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_sizeofState
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1sizeofState
+  (JNIEnv *, jclass);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_resetState
+ * Signature: ([JJ)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1resetState
+  (JNIEnv *, jclass, jlongArray, jlong);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_update
+ * Signature: ([J[BII)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1update
+  (JNIEnv *, jclass, jlongArray, jbyteArray, jint, jint);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_digest64
+ * Signature: ([J)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1digest64
+  (JNIEnv *, jclass, jlongArray);
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_digest128
+ * Signature: ([J[J)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1digest128
+  (JNIEnv *, jclass, jlongArray, jlongArray);
+
+#ifdef __cplusplus
+}
+#endif
+#endif
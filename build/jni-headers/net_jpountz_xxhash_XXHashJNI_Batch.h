@@ -0,0 +1,23 @@
+/* DO NOT EDIT THIS FILE - it is machine generated */
+#include <jni.h>
+/* Header for class net_jpountz_xxhash_XXHashJNI_Batch */
+
+#ifndef _Included_net_jpountz_xxhash_XXHashJNI_Batch
+#define _Included_net_jpountz_xxhash_XXHashJNI_Batch
+#ifdef __cplusplus
+extern "C" {
+#endif
+#undef net_jpountz_xxhash_XXHashJNI_Batch_SIZE
+#define net_jpountz_xxhash_XXHashJNI_Batch_SIZE 65536L
+#undef net_jpountz_xxhash_XXHashJNI_Batch_MAX_COUNT
+#define net_jpountz_xxhash_XXHashJNI_Batch_MAX_COUNT 4096L
+#undef net_jpountz_xxhash_XXHashJNI_Batch_PACK_THRESHOLD
+#define net_jpountz_xxhash_XXHashJNI_Batch_PACK_THRESHOLD 512L
+#undef net_jpountz_xxhash_XXHashJNI_Batch_PINNED
+#define net_jpountz_xxhash_XXHashJNI_Batch_PINNED -1L
+#undef net_jpountz_xxhash_XXHashJNI_Batch_SKIPPED
+#define net_jpountz_xxhash_XXHashJNI_Batch_SKIPPED -2L
+#ifdef __cplusplus
+}
+#endif
+#endif
@@ -0,0 +1,139 @@
+package net.jpountz.bench;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.util.DataGenerator;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Inputs and instances of the benchmarks of all packages, named by their
+ * <code>@Param</code> values.
+ */
+public final class BenchInputs {
+
+  private BenchInputs() {}
+
+  /** Length of the synthetic inputs. */
+  public static final int SYNTHETIC_LENGTH = 1 << 20;
+
+  /** Seed of the hash benchmarks. */
+  public static final int SEED = 0x9747b28c;
+
+  /**
+   * Return the LZ4 instance named <code>JNI</code>, <code>Unsafe</code>,
+   * <code>Safe</code>, <code>VarHandle</code> (Java 9+),
+   * <code>Foreign</code> (Java 22+) or <code>Hybrid</code>.
+   */
+  public static LZ4Factory lz4Factory(String name) {
+    if ("JNI".equals(name)) {
+      return LZ4Factory.nativeInstance();
+    } else if ("Unsafe".equals(name)) {
+      return LZ4Factory.unsafeInstance();
+    } else if ("Safe".equals(name)) {
+      return LZ4Factory.safeInstance();
+    } else if ("VarHandle".equals(name)) {
+      return LZ4Factory.varHandleInstance();
+    } else if ("Foreign".equals(name)) {
+      return LZ4Factory.foreignInstance();
+    } else if ("Hybrid".equals(name)) {
+      return LZ4Factory.hybridInstance();
+    } else {
+      throw new IllegalArgumentException("Unknown factory: " + name);
+    }
+  }
+
+  /**
+   * Return the xxhash instance named <code>JNI</code>, <code>Unsafe</code>,
+   * <code>Safe</code> or <code>VarHandle</code> (Java 9+).
+   */
+  public static XXHashFactory xxHashFactory(String name) {
+    if ("JNI".equals(name)) {
+      return XXHashFactory.nativeInstance();
+    } else if ("Unsafe".equals(name)) {
+      return XXHashFactory.unsafeInstance();
+    } else if ("Safe".equals(name)) {
+      return XXHashFactory.safeInstance();
+    } else if ("VarHandle".equals(name)) {
+      return XXHashFactory.varHandleInstance();
+    } else {
+      throw new IllegalArgumentException("Unknown factory: " + name);
+    }
+  }
+
+  /** Return <code>len</code> random bytes, the same ones on every call. */
+  public static byte[] randomBytes(int len) {
+    final byte[] bytes = new byte[len];
+    new Random(0).nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * Return a file of the calgary corpus (<code>book1</code>, <code>geo</code>
+   * or <code>pic</code>), or synthetic data: <code>datagen&lt;p&gt;</code> is
+   * the output of {@link DataGenerator} with a compressibility of
+   * <code>p</code>% (<code>datagen50</code> compresses about 2x like text) and
+   * <code>random</code> doesn't compress.
+   */
+  public static byte[] data(String name) throws IOException {
+    if (name.startsWith("datagen")) {
+      final int percent = Integer.parseInt(name.substring("datagen".length()));
+      return DataGenerator.generate(SYNTHETIC_LENGTH, 0, percent / 100.);
+    } else if ("random".equals(name)) {
+      return randomBytes(SYNTHETIC_LENGTH);
+    }
+    final InputStream is = BenchInputs.class.getResourceAsStream("/calgary/" + name);
+    if (is == null) {
+      throw new IllegalArgumentException("Unknown data: " + name);
+    }
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buf = new byte[1 << 16];
+      for (int read = is.read(buf); read != -1; read = is.read(buf)) {
+        out.write(buf, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      is.close();
+    }
+  }
+
+  /**
+   * Return a copy of <code>bytes</code> in a buffer of the given storage,
+   * <code>heap</code> or <code>direct</code>, or <code>null</code> for
+   * <code>array</code>, to use <code>bytes</code> itself.
+   */
+  public static ByteBuffer buffer(byte[] bytes, String storage) {
+    final ByteBuffer buf;
+    if ("array".equals(storage)) {
+      return null;
+    } else if ("heap".equals(storage)) {
+      buf = ByteBuffer.allocate(bytes.length);
+    } else if ("direct".equals(storage)) {
+      buf = ByteBuffer.allocateDirect(bytes.length);
+    } else {
+      throw new IllegalArgumentException("Unknown storage: " + storage);
+    }
+    buf.put(bytes).clear();
+    return buf;
+  }
+
+}
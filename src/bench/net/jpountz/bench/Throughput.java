@@ -0,0 +1,44 @@
+package net.jpountz.bench;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary results of the benchmarks, which JMH reports per second next to
+ * the operations per second: <code>mb</code> is the throughput in MB/s of
+ * uncompressed data and <code>compressedMb</code> the one of compressed data,
+ * so that their ratio is the compression ratio. Hash benchmarks only count
+ * <code>mb</code>: JMH ignores the counters of superclasses, so that both
+ * kinds of benchmarks share this class.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class Throughput {
+
+  public double mb;
+  public double compressedMb;
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    mb = 0;
+    compressedMb = 0;
+  }
+
+}
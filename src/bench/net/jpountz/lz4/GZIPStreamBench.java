@@ -0,0 +1,123 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import net.jpountz.bench.BenchInputs;
+import net.jpountz.bench.Throughput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Baseline of {@link LZ4BlockStreamBench}: the same writes and reads with
+ * {@link GZIPOutputStream} and {@link GZIPInputStream}, at the fastest
+ * deflate level and at the default one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class GZIPStreamBench {
+
+  @Param({ "1", "6" })
+  public int level;
+
+  @Param({ "1", "65536" })
+  public int chunkSize;
+
+  @Param({ "book1" })
+  public String data;
+
+  private byte[] src, compressed, chunk;
+  private double mb, compressedMb;
+
+  @Setup
+  public void setUp() throws IOException {
+    src = BenchInputs.data(data);
+    chunk = new byte[chunkSize];
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    write(out);
+    compressed = out.toByteArray();
+    mb = src.length / 1e6;
+    compressedMb = compressed.length / 1e6;
+  }
+
+  private void write(OutputStream sink) throws IOException {
+    final OutputStream out = new GZIPOutputStream(sink, 1 << 16) {
+      {
+        def.setLevel(level);
+      }
+    };
+    for (int off = 0; off < src.length; ) {
+      if (chunkSize == 1) {
+        out.write(src[off++]);
+      } else {
+        final int len = Math.min(chunkSize, src.length - off);
+        out.write(src, off, len);
+        off += len;
+      }
+    }
+    out.close();
+  }
+
+  @Benchmark
+  public long write(Throughput throughput) throws IOException {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    final LZ4BlockStreamBench.CountingOutputStream sink = new LZ4BlockStreamBench.CountingOutputStream();
+    write(sink);
+    return sink.count;
+  }
+
+  @Benchmark
+  public long read(Throughput throughput) throws IOException {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    final InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed), 1 << 16);
+    long sum = 0;
+    if (chunkSize == 1) {
+      for (int b = in.read(); b != -1; b = in.read()) {
+        sum += b;
+      }
+    } else {
+      for (int read = in.read(chunk); read != -1; read = in.read(chunk)) {
+        sum += read;
+      }
+    }
+    in.close();
+    return sum;
+  }
+
+}
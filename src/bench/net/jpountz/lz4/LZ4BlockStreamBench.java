@@ -0,0 +1,228 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import net.jpountz.bench.BenchInputs;
+import net.jpountz.bench.Throughput;
+import net.jpountz.xxhash.XXHashFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing a whole input to a {@link LZ4BlockOutputStream} and reading it
+ * back from a {@link LZ4BlockInputStream}, <code>chunkSize</code> bytes at a
+ * time (1 for {@link OutputStream#write(int)} and {@link InputStream#read()}).
+ * <p>
+ * The parameters split the time between copying, checksumming and
+ * compression: the <code>none</code> compressor stores every block
+ * uncompressed, so that only copies remain, and the <code>none</code>
+ * checksum skips checksumming (<code>crc32</code> is also available). With
+ * <code>syncFlush</code>, the writer flushes every {@link #FLUSH_INTERVAL}
+ * bytes, which ends a block each time.
+ * {@link GZIPStreamBench} is the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LZ4BlockStreamBench {
+
+  static final int FLUSH_INTERVAL = 4096;
+
+  @Param({ "JNI" })
+  public String factory;
+
+  @Param({ "fast", "none" })
+  public String compressor;
+
+  @Param({ "xxhash", "none" })
+  public String checksum;
+
+  @Param({ "4096", "65536", "1048576" })
+  public int blockSize;
+
+  @Param({ "false", "true" })
+  public boolean syncFlush;
+
+  @Param({ "1", "65536" })
+  public int chunkSize;
+
+  @Param({ "book1" })
+  public String data;
+
+  private LZ4Compressor c;
+  private LZ4FastDecompressor decompressor;
+  private byte[] src, compressed, chunk;
+  private double mb, compressedMb;
+
+  @Setup
+  public void setUp() throws IOException {
+    final LZ4Factory f = BenchInputs.lz4Factory(factory);
+    if ("fast".equals(compressor)) {
+      c = f.fastCompressor();
+    } else if ("HC".equals(compressor)) {
+      c = f.highCompressor();
+    } else if ("none".equals(compressor)) {
+      c = StoringCompressor.INSTANCE;
+    } else {
+      throw new IllegalArgumentException("Unknown compressor: " + compressor);
+    }
+    decompressor = f.fastDecompressor();
+    src = BenchInputs.data(data);
+    chunk = new byte[chunkSize];
+
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    write(out);
+    compressed = out.toByteArray();
+    mb = src.length / 1e6;
+    compressedMb = compressed.length / 1e6;
+  }
+
+  private Checksum newChecksum() {
+    if ("xxhash".equals(checksum)) {
+      return XXHashFactory.fastestInstance().newStreamingHash32(LZ4BlockOutputStream.DEFAULT_SEED).asChecksum();
+    } else if ("crc32".equals(checksum)) {
+      return new CRC32();
+    } else if ("none".equals(checksum)) {
+      return NoChecksum.INSTANCE;
+    } else {
+      throw new IllegalArgumentException("Unknown checksum: " + checksum);
+    }
+  }
+
+  private void write(OutputStream sink) throws IOException {
+    final LZ4BlockOutputStream out = new LZ4BlockOutputStream(sink, blockSize, c, newChecksum(), syncFlush);
+    int flushed = 0;
+    for (int off = 0; off < src.length; ) {
+      if (chunkSize == 1) {
+        out.write(src[off++]);
+      } else {
+        final int len = Math.min(chunkSize, src.length - off);
+        out.write(src, off, len);
+        off += len;
+      }
+      if (syncFlush && off - flushed >= FLUSH_INTERVAL) {
+        out.flush();
+        flushed = off;
+      }
+    }
+    out.close();
+  }
+
+  @Benchmark
+  public long write(Throughput throughput) throws IOException {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    final CountingOutputStream sink = new CountingOutputStream();
+    write(sink);
+    return sink.count;
+  }
+
+  @Benchmark
+  public long read(Throughput throughput) throws IOException {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    final InputStream in = new LZ4BlockInputStream(new ByteArrayInputStream(compressed), decompressor, newChecksum());
+    long sum = 0;
+    if (chunkSize == 1) {
+      for (int b = in.read(); b != -1; b = in.read()) {
+        sum += b;
+      }
+    } else {
+      for (int read = in.read(chunk); read != -1; read = in.read(chunk)) {
+        sum += read;
+      }
+    }
+    in.close();
+    return sum;
+  }
+
+  /** Discards what is written to it and counts it. */
+  static final class CountingOutputStream extends OutputStream {
+
+    long count;
+
+    @Override
+    public void write(int b) {
+      ++count;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+
+  }
+
+  /** Pretends that no block can be compressed, so that they are all stored as is. */
+  static final class StoringCompressor extends LZ4Compressor {
+
+    static final LZ4Compressor INSTANCE = new StoringCompressor();
+
+    @Override
+    public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+      return srcLen;
+    }
+
+    @Override
+    public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+      return srcLen;
+    }
+
+  }
+
+  static final class NoChecksum implements Checksum {
+
+    static final Checksum INSTANCE = new NoChecksum();
+
+    @Override
+    public void update(int b) {}
+
+    @Override
+    public void update(byte[] b, int off, int len) {}
+
+    @Override
+    public long getValue() {
+      return 0;
+    }
+
+    @Override
+    public void reset() {}
+
+  }
+
+}
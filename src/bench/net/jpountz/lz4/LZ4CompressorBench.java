@@ -0,0 +1,101 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import net.jpountz.bench.BenchInputs;
+import net.jpountz.bench.Throughput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compression of a whole input in blocks of <code>blockSize</code> bytes,
+ * like {@link LZ4BlockOutputStream} does, by every instance and compressor
+ * with arrays, heap buffers and direct buffers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LZ4CompressorBench {
+
+  @Param({ "JNI", "Unsafe", "Safe" })
+  public String factory;
+
+  @Param({ "fast", "HC" })
+  public String compressor;
+
+  @Param({ "array", "heap", "direct" })
+  public String storage;
+
+  @Param({ "book1", "geo", "pic", "datagen50", "random" })
+  public String data;
+
+  @Param({ "65536" })
+  public int blockSize;
+
+  private LZ4Compressor c;
+  private byte[] src, dest;
+  private ByteBuffer srcBuf, destBuf;
+  private double mb, compressedMb;
+
+  @Setup
+  public void setUp() throws IOException {
+    final LZ4Factory f = BenchInputs.lz4Factory(factory);
+    c = "HC".equals(compressor) ? f.highCompressor() : f.fastCompressor();
+    src = BenchInputs.data(data);
+    dest = new byte[c.maxCompressedLength(blockSize)];
+    srcBuf = BenchInputs.buffer(src, storage);
+    destBuf = BenchInputs.buffer(dest, storage);
+    mb = src.length / 1e6;
+    compressedMb = compress() / 1e6;
+  }
+
+  private int compress() {
+    int compressedLen = 0;
+    for (int off = 0; off < src.length; off += blockSize) {
+      final int len = Math.min(blockSize, src.length - off);
+      if (srcBuf == null) {
+        compressedLen += c.compress(src, off, len, dest, 0, dest.length);
+      } else {
+        compressedLen += c.compress(srcBuf, off, len, destBuf, 0, destBuf.capacity());
+      }
+    }
+    return compressedLen;
+  }
+
+  @Benchmark
+  public int compress(Throughput throughput) {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    return compress();
+  }
+
+}
@@ -0,0 +1,135 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import net.jpountz.bench.BenchInputs;
+import net.jpountz.bench.Throughput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decompression of an input compressed in blocks of <code>blockSize</code>
+ * bytes by the fast or HC native compressor, by every instance and
+ * decompressor with arrays, heap buffers and direct buffers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LZ4DecompressorBench {
+
+  @Param({ "JNI", "Unsafe", "Safe" })
+  public String factory;
+
+  @Param({ "fast", "HC" })
+  public String compressor;
+
+  @Param({ "array", "heap", "direct" })
+  public String storage;
+
+  @Param({ "book1", "geo", "pic", "datagen50", "random" })
+  public String data;
+
+  @Param({ "65536" })
+  public int blockSize;
+
+  private LZ4FastDecompressor fastDecompressor;
+  private LZ4SafeDecompressor safeDecompressor;
+  // blocks are stored back to back, block i starts at compressedOffsets[i]
+  private byte[] compressed, dest;
+  private int[] compressedOffsets;
+  private ByteBuffer compressedBuf, destBuf;
+  private int srcLen;
+  private double mb, compressedMb;
+
+  @Setup
+  public void setUp() throws IOException {
+    final LZ4Factory f = BenchInputs.lz4Factory(factory);
+    fastDecompressor = f.fastDecompressor();
+    safeDecompressor = f.safeDecompressor();
+
+    final LZ4Compressor c = "HC".equals(compressor)
+        ? LZ4Factory.fastestInstance().highCompressor()
+        : LZ4Factory.fastestInstance().fastCompressor();
+    final byte[] src = BenchInputs.data(data);
+    srcLen = src.length;
+    final int blocks = (srcLen + blockSize - 1) / blockSize;
+    compressed = new byte[blocks * c.maxCompressedLength(blockSize)];
+    compressedOffsets = new int[blocks + 1];
+    for (int i = 0; i < blocks; ++i) {
+      final int off = i * blockSize;
+      final int len = Math.min(blockSize, srcLen - off);
+      compressedOffsets[i + 1] = compressedOffsets[i]
+          + c.compress(src, off, len, compressed, compressedOffsets[i]);
+    }
+    compressed = Arrays.copyOf(compressed, compressedOffsets[blocks]);
+    dest = new byte[blockSize];
+    compressedBuf = BenchInputs.buffer(compressed, storage);
+    destBuf = BenchInputs.buffer(dest, storage);
+    mb = srcLen / 1e6;
+    compressedMb = compressed.length / 1e6;
+  }
+
+  @Benchmark
+  public int decompressFast(Throughput throughput) {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    int read = 0;
+    for (int i = 0, off = 0; off < srcLen; ++i, off += blockSize) {
+      final int len = Math.min(blockSize, srcLen - off);
+      if (compressedBuf == null) {
+        read += fastDecompressor.decompress(compressed, compressedOffsets[i], dest, 0, len);
+      } else {
+        read += fastDecompressor.decompress(compressedBuf, compressedOffsets[i], destBuf, 0, len);
+      }
+    }
+    return read;
+  }
+
+  @Benchmark
+  public int decompressSafe(Throughput throughput) {
+    throughput.mb += mb;
+    throughput.compressedMb += compressedMb;
+    int decompressedLen = 0;
+    for (int i = 0; i < compressedOffsets.length - 1; ++i) {
+      final int off = compressedOffsets[i];
+      final int len = compressedOffsets[i + 1] - off;
+      if (compressedBuf == null) {
+        decompressedLen += safeDecompressor.decompress(compressed, off, len, dest, 0, dest.length);
+      } else {
+        decompressedLen += safeDecompressor.decompress(compressedBuf, off, len, destBuf, 0, destBuf.capacity());
+      }
+    }
+    return decompressedLen;
+  }
+
+}
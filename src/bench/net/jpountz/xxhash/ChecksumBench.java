@@ -0,0 +1,91 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Adler32;
+import java.util.zip.CRC32;
+import java.util.zip.Checksum;
+
+import net.jpountz.bench.BenchInputs;
+import net.jpountz.bench.Throughput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link Checksum}s that the block streams can use, as they use them:
+ * reset, then update with a whole block of <code>size</code> bytes and get
+ * the value. <code>xxhash</code> is {@link StreamingXXHash32#asChecksum()} of
+ * the given factory, the default of the block streams. <code>crc32c</code>
+ * requires Java 9+ and is hardware accelerated on most CPUs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ChecksumBench {
+
+  @Param({ "xxhash", "crc32", "crc32c", "adler32" })
+  public String checksum;
+
+  @Param({ "JNI" })
+  public String factory;
+
+  @Param({ "4096", "65536", "1048576" })
+  public int size;
+
+  private Checksum c;
+  private byte[] data;
+  private double mb;
+
+  @Setup
+  public void setUp() throws Exception {
+    if ("xxhash".equals(checksum)) {
+      c = BenchInputs.xxHashFactory(factory).newStreamingHash32(BenchInputs.SEED).asChecksum();
+    } else if ("crc32".equals(checksum)) {
+      c = new CRC32();
+    } else if ("crc32c".equals(checksum)) {
+      // Java 9+, looked up by name so that the benchmarks also build on older JDKs
+      c = (Checksum) Class.forName("java.util.zip.CRC32C").newInstance();
+    } else if ("adler32".equals(checksum)) {
+      c = new Adler32();
+    } else {
+      throw new IllegalArgumentException("Unknown checksum: " + checksum);
+    }
+    data = BenchInputs.randomBytes(size);
+    mb = size / 1e6;
+  }
+
+  @Benchmark
+  public long checksum(Throughput throughput) {
+    throughput.mb += mb;
+    c.reset();
+    c.update(data, 0, size);
+    return c.getValue();
+  }
+
+}
@@ -0,0 +1,79 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+import net.jpountz.bench.BenchInputs;
+import net.jpountz.bench.Throughput;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link StreamingXXHash32} of every instance, which hash an input of
+ * <code>size</code> bytes with calls to
+ * {@link StreamingXXHash32#update(byte[], int, int)} of
+ * <code>chunkSize</code> bytes. Small chunks measure the cost per call,
+ * including the JNI transition of the native instance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StreamingXXHash32Bench {
+
+  @Param({ "JNI", "Unsafe", "Safe" })
+  public String factory;
+
+  @Param({ "1048576" })
+  public int size;
+
+  @Param({ "1", "8", "64", "1024", "65536" })
+  public int chunkSize;
+
+  private StreamingXXHash32 hash;
+  private byte[] data;
+  private double mb;
+
+  @Setup
+  public void setUp() {
+    hash = BenchInputs.xxHashFactory(factory).newStreamingHash32(BenchInputs.SEED);
+    data = BenchInputs.randomBytes(size);
+    mb = size / 1e6;
+  }
+
+  @Benchmark
+  public int update(Throughput throughput) {
+    throughput.mb += mb;
+    hash.reset();
+    for (int off = 0; off < size; off += chunkSize) {
+      hash.update(data, off, Math.min(chunkSize, size - off));
+    }
+    return hash.getValue();
+  }
+
+}
@@ -0,0 +1,162 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+import static net.jpountz.util.Utils.checkRange;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Compresses many independent inputs into a single output buffer.
+ * <p>
+ * The i-th input is compressed as a regular LZ4 block which ends up in
+ * <code>dest[destOffsets[i]:destOffsets[i+1]]</code>, so that the offsets can
+ * be passed as is to {@link LZ4BatchDecompressor}. Compressing byte arrays
+ * costs a single JNI call per batch with the native instance, and the Java
+ * instances reuse the same hash table for every input instead of allocating a
+ * new one, which makes batches of small inputs much faster to compress than
+ * with one {@link LZ4Compressor} call per input. Buffers are not batched:
+ * {@link #compress(ByteBuffer[], ByteBuffer, int, int, int[])} makes one
+ * {@link LZ4Compressor} call per input.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class LZ4BatchCompressor {
+
+  private final LZ4Compressor compressor;
+
+  LZ4BatchCompressor(LZ4Compressor compressor) {
+    this.compressor = compressor;
+  }
+
+  /** Return the {@link LZ4Compressor} that compresses every input. */
+  public LZ4Compressor compressor() {
+    return compressor;
+  }
+
+  /**
+   * Return the maximum length of the compressed output of <code>srcs</code>.
+   *
+   * @throws IllegalArgumentException if it does not fit in an int
+   */
+  public int maxCompressedLength(byte[][] srcs) {
+    long maxCompressedLength = 0;
+    for (byte[] src : srcs) {
+      maxCompressedLength += LZ4Utils.maxCompressedLength(src.length);
+    }
+    return checkMaxCompressedLength(maxCompressedLength);
+  }
+
+  /**
+   * Return the maximum length of the compressed output of the remaining bytes
+   * of <code>srcs</code>.
+   *
+   * @throws IllegalArgumentException if it does not fit in an int
+   */
+  public int maxCompressedLength(ByteBuffer[] srcs) {
+    long maxCompressedLength = 0;
+    for (ByteBuffer src : srcs) {
+      maxCompressedLength += LZ4Utils.maxCompressedLength(src.remaining());
+    }
+    return checkMaxCompressedLength(maxCompressedLength);
+  }
+
+  private static int checkMaxCompressedLength(long maxCompressedLength) {
+    if (maxCompressedLength > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("batch is too large: " + maxCompressedLength + " bytes");
+    }
+    return (int) maxCompressedLength;
+  }
+
+  private static void checkOffsets(int[] offsets, int count) {
+    if (offsets.length <= count) {
+      throw new IllegalArgumentException("offsets must have at least " + (count + 1) + " entries");
+    }
+  }
+
+  /**
+   * Compress every array of <code>srcs</code> into
+   * <code>dest[destOff:destOff+maxDestLen]</code>, one after the other, and
+   * return the total compressed length. The i-th compressed block is stored
+   * in <code>dest[destOffsets[i]:destOffsets[i+1]]</code>, so
+   * <code>destOffsets</code> must have at least <code>srcs.length + 1</code>
+   * entries.
+   * <p>
+   * To make sure that no {@link LZ4Exception} is thrown, <code>maxDestLen</code>
+   * should be at least {@link #maxCompressedLength(byte[][]) maxCompressedLength(srcs)}.
+   *
+   * @throws LZ4Exception if maxDestLen is too small
+   * @return the total compressed size
+   */
+  public int compress(byte[][] srcs, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    checkRange(dest, destOff, maxDestLen);
+    checkOffsets(destOffsets, srcs.length);
+    for (byte[] src : srcs) {
+      if (src == null) {
+        throw new NullPointerException();
+      }
+    }
+    destOffsets[0] = destOff;
+    return compressor.compressBatch(srcs, dest, destOff, maxDestLen, destOffsets);
+  }
+
+  /**
+   * Convenience method which compresses <code>srcs</code> into
+   * <code>dest[destOff:]</code> and returns the offsets of the compressed
+   * blocks, as computed by
+   * {@link #compress(byte[][], byte[], int, int, int[])}.
+   */
+  public int[] compress(byte[][] srcs, byte[] dest, int destOff) {
+    final int[] destOffsets = new int[srcs.length + 1];
+    compress(srcs, dest, destOff, dest.length - destOff, destOffsets);
+    return destOffsets;
+  }
+
+  /**
+   * Same as {@link #compress(byte[][], byte[], int, int, int[])} but with the
+   * remaining bytes of every buffer of <code>srcs</code> as inputs. No
+   * position is moved.
+   * <p>
+   * This is only a convenience: every buffer is compressed with its own
+   * {@link LZ4Compressor#compress(ByteBuffer, int, int, ByteBuffer, int, int)}
+   * call, so each one costs a JNI call with the native instance and a new hash
+   * table with the Java instances. Copy small inputs to byte arrays to benefit
+   * from batching.
+   */
+  public int compress(ByteBuffer[] srcs, ByteBuffer dest, int destOff, int maxDestLen, int[] destOffsets) {
+    checkNotReadOnly(dest);
+    checkRange(dest, destOff, maxDestLen);
+    checkOffsets(destOffsets, srcs.length);
+
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    destOffsets[0] = dOff;
+    for (int i = 0; i < srcs.length; ++i) {
+      final ByteBuffer src = srcs[i];
+      dOff += compressor.compress(src, src.position(), src.remaining(), dest, dOff, destEnd - dOff);
+      destOffsets[i + 1] = dOff;
+    }
+    return dOff - destOff;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + ":" + compressor;
+  }
+
+}
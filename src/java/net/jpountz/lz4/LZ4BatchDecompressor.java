@@ -0,0 +1,127 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+import static net.jpountz.util.Utils.checkRange;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Decompresses many independent LZ4 blocks stored one after the other, such
+ * as the output of {@link LZ4BatchCompressor}, into a single output buffer.
+ * <p>
+ * The i-th block is read from <code>src[srcOffsets[i]:srcOffsets[i+1]]</code>
+ * and decompressed into <code>dest[destOffsets[i]:destOffsets[i+1]]</code>.
+ * Decompressing byte arrays costs a single JNI call per batch with the native
+ * instance.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public final class LZ4BatchDecompressor {
+
+  private final LZ4SafeDecompressor decompressor;
+
+  LZ4BatchDecompressor(LZ4SafeDecompressor decompressor) {
+    this.decompressor = decompressor;
+  }
+
+  /** Return the {@link LZ4SafeDecompressor} that decompresses every block. */
+  public LZ4SafeDecompressor decompressor() {
+    return decompressor;
+  }
+
+  private static void checkOffsets(int srcLength, int[] srcOffsets, int count, int[] destOffsets) {
+    if (count < 0) {
+      throw new IllegalArgumentException("count must be >= 0");
+    }
+    if (srcOffsets.length <= count || destOffsets.length <= count) {
+      throw new IllegalArgumentException("offsets must have at least " + (count + 1) + " entries");
+    }
+    int prev = srcOffsets[0];
+    if (prev < 0) {
+      throw new ArrayIndexOutOfBoundsException(prev);
+    }
+    for (int i = 1; i <= count; ++i) {
+      final int off = srcOffsets[i];
+      if (off < prev) {
+        throw new IllegalArgumentException("srcOffsets must be non-decreasing");
+      }
+      prev = off;
+    }
+    if (prev > srcLength) {
+      throw new ArrayIndexOutOfBoundsException(prev);
+    }
+  }
+
+  /**
+   * Decompress the blocks <code>src[srcOffsets[i]:srcOffsets[i+1]]</code> for
+   * every i in <code>[0, count)</code> into
+   * <code>dest[destOff:destOff+maxDestLen]</code>, one after the other, and
+   * return the total decompressed length. The i-th block is decompressed into
+   * <code>dest[destOffsets[i]:destOffsets[i+1]]</code>, so
+   * <code>destOffsets</code> must have at least <code>count + 1</code> entries.
+   *
+   * @throws LZ4Exception if a block is malformed or maxDestLen is too small
+   * @return the total decompressed size
+   */
+  public int decompress(byte[] src, int[] srcOffsets, int count, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    checkOffsets(src.length, srcOffsets, count, destOffsets);
+    checkRange(dest, destOff, maxDestLen);
+    destOffsets[0] = destOff;
+    return decompressor.decompressBatch(src, srcOffsets, count, dest, destOff, maxDestLen, destOffsets);
+  }
+
+  /**
+   * Convenience method which decompresses all the blocks delimited by
+   * <code>srcOffsets</code> into <code>dest[destOff:]</code> and returns the
+   * offsets of the decompressed blocks, as computed by
+   * {@link #decompress(byte[], int[], int, byte[], int, int, int[])}.
+   */
+  public int[] decompress(byte[] src, int[] srcOffsets, byte[] dest, int destOff) {
+    final int count = srcOffsets.length - 1;
+    final int[] destOffsets = new int[srcOffsets.length];
+    decompress(src, srcOffsets, count, dest, destOff, dest.length - destOff, destOffsets);
+    return destOffsets;
+  }
+
+  /**
+   * Same as {@link #decompress(byte[], int[], int, byte[], int, int, int[])}
+   * but with {@link ByteBuffer}s. Offsets are absolute and no position is
+   * moved.
+   */
+  public int decompress(ByteBuffer src, int[] srcOffsets, int count, ByteBuffer dest, int destOff, int maxDestLen, int[] destOffsets) {
+    checkOffsets(src.capacity(), srcOffsets, count, destOffsets);
+    checkNotReadOnly(dest);
+    checkRange(dest, destOff, maxDestLen);
+
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    destOffsets[0] = dOff;
+    for (int i = 0; i < count; ++i) {
+      dOff += decompressor.decompress(src, srcOffsets[i], srcOffsets[i + 1] - srcOffsets[i], dest, dOff, destEnd - dOff);
+      destOffsets[i + 1] = dOff;
+    }
+    return dOff - destOff;
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + ":" + decompressor;
+  }
+
+}
@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.Checksum;
 
+import net.jpountz.util.Events;
 import net.jpountz.util.Utils;
 import net.jpountz.xxhash.StreamingXXHash32;
 import net.jpountz.xxhash.XXHash32;
@@ -177,6 +178,7 @@ public final class LZ4BlockInputStream extends FilterInputStream {
       finished = true;
       return;
     }
+    final Object event = Events.begin(Events.BLOCK_REFILL, originalLen);
     if (buffer.length < originalLen) {
       buffer = new byte[Math.max(originalLen, buffer.length * 3 / 2)];
     }
@@ -206,6 +208,9 @@ public final class LZ4BlockInputStream extends FilterInputStream {
     if ((int) checksum.getValue() != check) {
       throw new IOException("Stream is corrupted");
     }
+    if (event != null) {
+      Events.commit(event, decompressor, this, HEADER_LENGTH + compressedLen, originalLen);
+    }
     o = 0;
   }
 
@@ -19,6 +19,7 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.zip.Checksum;
 
+import net.jpountz.util.Events;
 import net.jpountz.util.Utils;
 import net.jpountz.xxhash.StreamingXXHash32;
 import net.jpountz.xxhash.XXHashFactory;
@@ -184,6 +185,7 @@ public final class LZ4BlockOutputStream extends FilterOutputStream {
     if (o == 0) {
       return;
     }
+    final Object event = Events.begin(Events.BLOCK_FLUSH, o);
     checksum.reset();
     checksum.update(buffer, 0, o);
     final int check = (int) checksum.getValue();
@@ -203,6 +205,9 @@ public final class LZ4BlockOutputStream extends FilterOutputStream {
     writeIntLE(check, compressedBuffer, MAGIC_LENGTH + 9);
     assert MAGIC_LENGTH + 13 == HEADER_LENGTH;
     out.write(compressedBuffer, 0, HEADER_LENGTH + compressedLength);
+    if (event != null) {
+      Events.commit(event, compressor, this, o, HEADER_LENGTH + compressedLength);
+    }
     o = 0;
   }
 
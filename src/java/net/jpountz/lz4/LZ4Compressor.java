@@ -22,7 +22,7 @@ import java.util.Arrays;
  * <p>
  * Instances of this class are thread-safe.
  */
-public abstract class LZ4Compressor {
+public abstract class LZ4Compressor extends LZ4CompressorBase {
 
   /** Return the maximum compressed length for an input of size <code>length</code>. */
   @SuppressWarnings("static-method")
@@ -116,6 +116,23 @@ public abstract class LZ4Compressor {
     dest.position(dest.position() + result);
   }
 
+  /**
+   * Compress every array of <code>srcs</code> one after the other into
+   * <code>dest</code>, starting at <code>destOff</code>, and store the end
+   * offset of the i-th compressed block into <code>destOffsets[i+1]</code>.
+   * Arguments have been checked by {@link LZ4BatchCompressor}, implementations
+   * only need to override this method to amortize per-call costs.
+   */
+  int compressBatch(byte[][] srcs, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    for (int i = 0; i < srcs.length; ++i) {
+      dOff += compress(srcs[i], 0, srcs[i].length, dest, dOff, destEnd - dOff);
+      destOffsets[i + 1] = dOff;
+    }
+    return dOff - destOff;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
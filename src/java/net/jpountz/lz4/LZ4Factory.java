@@ -17,6 +17,7 @@ package net.jpountz.lz4;
 import java.lang.reflect.Field;
 import java.util.Arrays;
 
+import net.jpountz.util.Events;
 import net.jpountz.util.Native;
 import net.jpountz.util.UnsafeBase;
 import net.jpountz.util.Utils;
@@ -24,13 +25,20 @@ import net.jpountz.util.Utils;
 /**
  * Entry point for the LZ4 API.
  * <p>
- * This class has 3 instances<ul>
+ * This class has 6 instances<ul>
  * <li>a {@link #nativeInstance() native} instance which is a JNI binding to
  * <a href="http://code.google.com/p/lz4/">the original LZ4 C implementation</a>.
+ * <li>a {@link #foreignInstance() foreign} instance which calls the same
+ * native library through the foreign function API, only available on
+ * Java 22+.
  * <li>a {@link #safeInstance() safe Java} instance which is a pure Java port
  * of the original C library,</li>
  * <li>an {@link #unsafeInstance() unsafe Java} instance which is a Java port
  * using the unofficial {@link sun.misc.Unsafe} API.
+ * <li>a {@link #varHandleInstance() VarHandle Java} instance which is a Java
+ * port using <code>VarHandle</code>s, only available on Java 9+.
+ * <li>a {@link #hybridInstance() hybrid} instance which uses the fastest Java
+ * instance for small inputs and the native instance for large ones.
  * </ul>
  * <p>
  * Only the {@link #safeInstance() safe instance} is guaranteed to work on your
@@ -52,8 +60,11 @@ public final class LZ4Factory {
   }
 
   private static LZ4Factory NATIVE_INSTANCE,
+                            FOREIGN_INSTANCE,
                             JAVA_UNSAFE_INSTANCE,
-                            JAVA_SAFE_INSTANCE;
+                            JAVA_VARHANDLE_INSTANCE,
+                            JAVA_SAFE_INSTANCE,
+                            HYBRID_INSTANCE;
 
   /**
    * Return a {@link LZ4Factory} instance that returns compressors and
@@ -80,6 +91,25 @@ public final class LZ4Factory {
     return NATIVE_INSTANCE;
   }
 
+  /**
+   * Return a {@link LZ4Factory} instance that returns compressors and
+   * decompressors that call the native library of the
+   * {@link #nativeInstance() native instance} through downcalls of the
+   * foreign function API instead of JNI. Calls skip the thread state
+   * transitions and the array pinning of JNI, so their fixed cost is lower,
+   * which matters most for inputs of a few KB or less. Like JNI critical
+   * sections, a call delays garbage collections until it returns.
+   * <p>
+   * This instance is only available on Java 22+ and has the same traps as
+   * the {@link #nativeInstance() native instance}.
+   */
+  public static synchronized LZ4Factory foreignInstance() {
+    if (FOREIGN_INSTANCE == null) {
+      FOREIGN_INSTANCE = instance("Foreign");
+    }
+    return FOREIGN_INSTANCE;
+  }
+
   /** Return a {@link LZ4Factory} instance that returns compressors and
    *  decompressors that are written with Java's official API. */
   public static synchronized LZ4Factory safeInstance() {
@@ -99,21 +129,36 @@ public final class LZ4Factory {
     return JAVA_UNSAFE_INSTANCE;
   }
 
+  /** Return a {@link LZ4Factory} instance that returns compressors and
+   *  decompressors that use <code>VarHandle</code>s to speed up
+   *  compression and decompression. This instance is only available on
+   *  Java 9+. */
+  public static synchronized LZ4Factory varHandleInstance() {
+    if (JAVA_VARHANDLE_INSTANCE == null) {
+      JAVA_VARHANDLE_INSTANCE = instance("JavaVarHandle");
+    }
+    return JAVA_VARHANDLE_INSTANCE;
+  }
+
   /**
    * Return the fastest available {@link LZ4Factory} instance which does not
    * rely on JNI bindings. It first tries to load the
-   * {@link #unsafeInstance() unsafe instance}, and then the
-   * {@link #safeInstance() safe Java instance} if the JVM doesn't have a
-   * working {@link sun.misc.Unsafe}.
+   * {@link #unsafeInstance() unsafe instance}, then the
+   * {@link #varHandleInstance() VarHandle instance} if the JVM doesn't have a
+   * working {@link sun.misc.Unsafe}, and finally the
+   * {@link #safeInstance() safe Java instance} on JVMs older than Java 9.
    */
   public static LZ4Factory fastestJavaInstance() {
     if (Utils.isUnalignedAccessAllowed()) {
       try {
         return unsafeInstance();
       } catch (Throwable t) {
-        return safeInstance();
+        // try the next instance
       }
-    } else {
+    }
+    try {
+      return varHandleInstance();
+    } catch (Throwable t) {
       return safeInstance();
     }
   }
@@ -141,6 +186,55 @@ public final class LZ4Factory {
     }
   }
 
+  /**
+   * Return a {@link LZ4Factory} instance whose compressors and decompressors
+   * call the {@link #fastestJavaInstance() fastest Java instance} on small
+   * inputs and the {@link #nativeInstance() native instance} on large ones.
+   * The JNI transition and the pinning of arrays make the native instance
+   * slower than the Java ones when decompressing small inputs, while it is
+   * faster on larger inputs, and when compressing, since the Java compressors
+   * allocate their hash table on every call.
+   * <p>
+   * The input length from which the native instance is used depends on the
+   * operation and on whether buffers are direct. These thresholds default to
+   * values measured on x86-64 Linux, and can be measured on the current
+   * machine the first time this method is called, by a benchmark of up to a
+   * few seconds that holds the lock of this method, when the
+   * <code>net.jpountz.lz4.hybrid.calibrate</code> system property is
+   * <code>true</code>. They can also be set with system properties: in bytes of
+   * uncompressed data for compressors and fast decompressors, of compressed
+   * data for safe decompressors, with
+   * <code>net.jpountz.lz4.hybrid.threshold.&lt;operation&gt;.&lt;storage&gt;</code>
+   * where the operation is <code>compress</code>, <code>compressHC</code>,
+   * <code>decompressFast</code> or <code>decompressSafe</code> and the storage
+   * <code>array</code> (arrays and heap buffers) or <code>direct</code>, or
+   * with <code>net.jpountz.lz4.hybrid.threshold</code> for all of them.
+   * Batch compressors and decompressors always use the native instance.
+   * <p>
+   * If {@link #fastestInstance()} would not return the native instance, this
+   * method returns the {@link #fastestJavaInstance() fastest Java instance}.
+   */
+  public static synchronized LZ4Factory hybridInstance() {
+    if (HYBRID_INSTANCE == null) {
+      final LZ4Factory java = fastestJavaInstance();
+      final LZ4Factory jni = fastestInstance();
+      if (jni == java) {
+        return java;
+      }
+      final LZ4HybridThresholds t = LZ4HybridThresholds.load(java, jni);
+      HYBRID_INSTANCE = new LZ4Factory("Hybrid",
+          new LZ4HybridCompressor(java.fastCompressor(), jni.fastCompressor(),
+              t.array(LZ4HybridThresholds.COMPRESS), t.direct(LZ4HybridThresholds.COMPRESS)),
+          new LZ4HybridCompressor(java.highCompressor(), jni.highCompressor(),
+              t.array(LZ4HybridThresholds.COMPRESS_HC), t.direct(LZ4HybridThresholds.COMPRESS_HC)),
+          new LZ4HybridFastDecompressor(java.fastDecompressor(), jni.fastDecompressor(),
+              t.array(LZ4HybridThresholds.DECOMPRESS_FAST), t.direct(LZ4HybridThresholds.DECOMPRESS_FAST)),
+          new LZ4HybridSafeDecompressor(java.safeDecompressor(), jni.safeDecompressor(),
+              t.array(LZ4HybridThresholds.DECOMPRESS_SAFE), t.direct(LZ4HybridThresholds.DECOMPRESS_SAFE)));
+    }
+    return HYBRID_INSTANCE;
+  }
+
   @SuppressWarnings("unchecked")
   private static <T> T classInstance(String cls) throws NoSuchFieldException, SecurityException, ClassNotFoundException, IllegalArgumentException, IllegalAccessException {
     final Class<?> c = Class.forName(cls);
@@ -153,13 +247,42 @@ public final class LZ4Factory {
   private final LZ4Compressor highCompressor;
   private final LZ4FastDecompressor fastDecompressor;
   private final LZ4SafeDecompressor safeDecompressor;
+  private final LZ4BatchCompressor fastBatchCompressor;
+  private final LZ4BatchCompressor highBatchCompressor;
+  private final LZ4BatchDecompressor batchDecompressor;
 
   private LZ4Factory(String impl) throws ClassNotFoundException, NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
+    this(impl,
+        recording(LZ4Factory.<LZ4Compressor>classInstance("net.jpountz.lz4.LZ4" + impl + "Compressor")),
+        recording(LZ4Factory.<LZ4Compressor>classInstance("net.jpountz.lz4.LZ4HC" + impl + "Compressor")),
+        recording(LZ4Factory.<LZ4FastDecompressor>classInstance("net.jpountz.lz4.LZ4" + impl + "FastDecompressor")),
+        recording(LZ4Factory.<LZ4SafeDecompressor>classInstance("net.jpountz.lz4.LZ4" + impl + "SafeDecompressor")));
+  }
+
+  // when JFR events are enabled, record the calls of the instances of the
+  // factories of an implementation, which the hybrid instance reuses
+  private static LZ4Compressor recording(LZ4Compressor compressor) {
+    return Events.enabled() ? LZ4Recording.compressor(compressor) : compressor;
+  }
+
+  private static LZ4FastDecompressor recording(LZ4FastDecompressor decompressor) {
+    return Events.enabled() ? LZ4Recording.fastDecompressor(decompressor) : decompressor;
+  }
+
+  private static LZ4SafeDecompressor recording(LZ4SafeDecompressor decompressor) {
+    return Events.enabled() ? LZ4Recording.safeDecompressor(decompressor) : decompressor;
+  }
+
+  private LZ4Factory(String impl, LZ4Compressor fastCompressor, LZ4Compressor highCompressor,
+      LZ4FastDecompressor fastDecompressor, LZ4SafeDecompressor safeDecompressor) {
     this.impl = impl;
-    fastCompressor = classInstance("net.jpountz.lz4.LZ4" + impl + "Compressor");
-    highCompressor = classInstance("net.jpountz.lz4.LZ4HC" + impl + "Compressor");
-    fastDecompressor = classInstance("net.jpountz.lz4.LZ4" + impl + "FastDecompressor");
-    safeDecompressor = classInstance("net.jpountz.lz4.LZ4" + impl + "SafeDecompressor");
+    this.fastCompressor = fastCompressor;
+    this.highCompressor = highCompressor;
+    this.fastDecompressor = fastDecompressor;
+    this.safeDecompressor = safeDecompressor;
+    fastBatchCompressor = new LZ4BatchCompressor(fastCompressor);
+    highBatchCompressor = new LZ4BatchCompressor(highCompressor);
+    batchDecompressor = new LZ4BatchDecompressor(safeDecompressor);
 
     // quickly test that everything works as expected
     final byte[] original = new byte[] {'a','b','c','d',' ',' ',' ',' ',' ',' ','a','b','c','d','e','f','g','h','i','j'};
@@ -202,6 +325,21 @@ public final class LZ4Factory {
     return safeDecompressor;
   }
 
+  /** Return a {@link LZ4BatchCompressor} based on {@link #fastCompressor()}. */
+  public LZ4BatchCompressor fastBatchCompressor() {
+    return fastBatchCompressor;
+  }
+
+  /** Return a {@link LZ4BatchCompressor} based on {@link #highCompressor()}. */
+  public LZ4BatchCompressor highBatchCompressor() {
+    return highBatchCompressor;
+  }
+
+  /** Return a {@link LZ4BatchDecompressor} based on {@link #safeDecompressor()}. */
+  public LZ4BatchDecompressor batchDecompressor() {
+    return batchDecompressor;
+  }
+
   /** Return a {@link LZ4UnknownSizeDecompressor} instance.
    * @deprecated use {@link #safeDecompressor()} */
   public LZ4UnknownSizeDecompressor unknownSizeDecompressor() {
@@ -218,6 +356,12 @@ public final class LZ4Factory {
   public static void main(String[] args) {
     System.out.println("Fastest instance is " + fastestInstance());
     System.out.println("Fastest Java instance is " + fastestJavaInstance());
+    final LZ4Factory hybrid = hybridInstance();
+    System.out.println("Hybrid instance is " + hybrid);
+    System.out.println("  " + hybrid.fastCompressor());
+    System.out.println("  " + hybrid.highCompressor());
+    System.out.println("  " + hybrid.fastDecompressor());
+    System.out.println("  " + hybrid.safeDecompressor());
   }
 
   @Override
@@ -23,7 +23,7 @@ import java.nio.ByteBuffer;
  * <p>
  * Instances of this class are thread-safe.
  */
-public abstract class LZ4FastDecompressor implements LZ4Decompressor {
+public abstract class LZ4FastDecompressor extends LZ4FastDecompressorBase implements LZ4Decompressor {
 
   /** Decompress <code>src[srcOff:]</code> into <code>dest[destOff:destOff+destLen]</code>
    * and return the number of bytes read from <code>src</code>.
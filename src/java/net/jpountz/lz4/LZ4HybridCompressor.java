@@ -0,0 +1,65 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link LZ4Compressor} of the {@link LZ4Factory#hybridInstance() hybrid
+ * instance}: inputs of less than a threshold are compressed with a Java
+ * compressor, larger ones with a native one.
+ */
+final class LZ4HybridCompressor extends LZ4Compressor {
+
+  private final LZ4Compressor java, jni;
+  private final int arrayThreshold, directThreshold;
+
+  LZ4HybridCompressor(LZ4Compressor java, LZ4Compressor jni, int arrayThreshold, int directThreshold) {
+    this.java = java;
+    this.jni = jni;
+    this.arrayThreshold = arrayThreshold;
+    this.directThreshold = directThreshold;
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    final LZ4Compressor compressor = srcLen < arrayThreshold ? java : jni;
+    return compressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  @Override
+  public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    final int threshold = LZ4HybridThresholds.threshold(src, dest, arrayThreshold, directThreshold);
+    final LZ4Compressor compressor = srcLen < threshold ? java : jni;
+    return compressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  // a batch costs a single JNI call
+  @Override
+  int compressBatch(byte[][] srcs, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    return jni.compressBatch(srcs, dest, destOff, maxDestLen, destOffsets);
+  }
+
+  @Override
+  boolean isHighCompression() {
+    return java.isHighCompression();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(" + java + " < " + arrayThreshold + "/" + directThreshold + " <= " + jni + ")";
+  }
+
+}
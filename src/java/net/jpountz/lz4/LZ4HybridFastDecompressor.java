@@ -0,0 +1,67 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link LZ4FastDecompressor} of the {@link LZ4Factory#hybridInstance()
+ * hybrid instance}: blocks that decompress to less than a threshold are
+ * decompressed with a Java decompressor, larger ones with a native one.
+ */
+final class LZ4HybridFastDecompressor extends LZ4FastDecompressor {
+
+  private final LZ4FastDecompressor java, jni;
+  private final int arrayThreshold, directThreshold;
+
+  LZ4HybridFastDecompressor(LZ4FastDecompressor java, LZ4FastDecompressor jni, int arrayThreshold, int directThreshold) {
+    this.java = java;
+    this.jni = jni;
+    this.arrayThreshold = arrayThreshold;
+    this.directThreshold = directThreshold;
+  }
+
+  @Override
+  public int decompress(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
+    final LZ4FastDecompressor decompressor = destLen < arrayThreshold ? java : jni;
+    return decompressor.decompress(src, srcOff, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
+    final LZ4FastDecompressor decompressor = destLen < arrayThreshold ? java : jni;
+    return decompressor.decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompress(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
+    final int threshold = LZ4HybridThresholds.threshold(src, dest, arrayThreshold, directThreshold);
+    final LZ4FastDecompressor decompressor = destLen < threshold ? java : jni;
+    return decompressor.decompress(src, srcOff, dest, destOff, destLen);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
+    final int threshold = LZ4HybridThresholds.threshold(src, dest, arrayThreshold, directThreshold);
+    final LZ4FastDecompressor decompressor = destLen < threshold ? java : jni;
+    return decompressor.decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(" + java + " < " + arrayThreshold + "/" + directThreshold + " <= " + jni + ")";
+  }
+
+}
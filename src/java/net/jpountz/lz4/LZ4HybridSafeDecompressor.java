@@ -0,0 +1,75 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link LZ4SafeDecompressor} of the {@link LZ4Factory#hybridInstance()
+ * hybrid instance}: compressed blocks of less than a threshold are
+ * decompressed with a Java decompressor, larger ones with a native one. The
+ * decompressed length is unknown, so the threshold applies to the compressed
+ * length.
+ */
+final class LZ4HybridSafeDecompressor extends LZ4SafeDecompressor {
+
+  private final LZ4SafeDecompressor java, jni;
+  private final int arrayThreshold, directThreshold;
+
+  LZ4HybridSafeDecompressor(LZ4SafeDecompressor java, LZ4SafeDecompressor jni, int arrayThreshold, int directThreshold) {
+    this.java = java;
+    this.jni = jni;
+    this.arrayThreshold = arrayThreshold;
+    this.directThreshold = directThreshold;
+  }
+
+  @Override
+  public int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    final LZ4SafeDecompressor decompressor = srcLen < arrayThreshold ? java : jni;
+    return decompressor.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    final LZ4SafeDecompressor decompressor = srcLen < arrayThreshold ? java : jni;
+    return decompressor.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  @Override
+  public int decompress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    final int threshold = LZ4HybridThresholds.threshold(src, dest, arrayThreshold, directThreshold);
+    final LZ4SafeDecompressor decompressor = srcLen < threshold ? java : jni;
+    return decompressor.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    final int threshold = LZ4HybridThresholds.threshold(src, dest, arrayThreshold, directThreshold);
+    final LZ4SafeDecompressor decompressor = srcLen < threshold ? java : jni;
+    return decompressor.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  // a batch costs a single JNI call
+  @Override
+  int decompressBatch(byte[] src, int[] srcOffsets, int count, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    return jni.decompressBatch(src, srcOffsets, count, dest, destOff, maxDestLen, destOffsets);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(" + java + " < " + arrayThreshold + "/" + directThreshold + " <= " + jni + ")";
+  }
+
+}
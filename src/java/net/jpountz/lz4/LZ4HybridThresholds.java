@@ -0,0 +1,265 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+/**
+ * Thresholds of the {@link LZ4Factory#hybridInstance() hybrid instance}: the
+ * input length from which an operation is faster with the native instance
+ * than with the fastest Java instance, once for arrays and heap buffers and
+ * once for direct buffers, which the native instance doesn't need to pin.
+ * Inputs are uncompressed data, except for safe decompressors, which don't
+ * know the decompressed length and compare the compressed one.
+ * <p>
+ * Every threshold can be set in bytes with the
+ * <code>net.jpountz.lz4.hybrid.threshold.&lt;operation&gt;.&lt;storage&gt;</code>
+ * system property, where the operation is one of {@link #OPERATIONS} and the
+ * storage is <code>array</code> or <code>direct</code>, and all of them at
+ * once with <code>net.jpountz.lz4.hybrid.threshold</code>. The other ones are
+ * defaults measured on x86-64 Linux, unless
+ * <code>net.jpountz.lz4.hybrid.calibrate</code> is <code>true</code>: they
+ * are then measured by a benchmark that runs until its timings stabilize,
+ * which takes up to a few seconds.
+ */
+final class LZ4HybridThresholds {
+
+  static final String PROPERTY = "net.jpountz.lz4.hybrid.threshold";
+  static final String CALIBRATE_PROPERTY = "net.jpountz.lz4.hybrid.calibrate";
+  static final String[] OPERATIONS = { "compress", "compressHC", "decompressFast", "decompressSafe" };
+  static final int COMPRESS = 0, COMPRESS_HC = 1, DECOMPRESS_FAST = 2, DECOMPRESS_SAFE = 3;
+
+  // medians of the calibration on JDK 8, 11 and 17 on x86-64 Linux: the
+  // native compressors win whatever the input length, since the Java ones
+  // allocate their hash table on every call
+  private static final int[] DEFAULT_ARRAY = { 0, 0, 128, 100 };
+  private static final int[] DEFAULT_DIRECT = { 0, 0, 128, 100 };
+
+  // input lengths of the benchmark: thresholds are rounded to the geometric
+  // mean of two consecutive ones
+  private static final int[] LENGTHS = { 64, 256, 1 << 10, 4 << 10, 16 << 10, 64 << 10 };
+  // an operation is measured in rounds of MEASURE_NANOS until its best
+  // round has not improved by more than 1/STABLE_RATIO for STABLE_ROUNDS
+  // rounds, which only happens once the JIT has compiled it
+  private static final long MEASURE_NANOS = 1000000L;
+  private static final int STABLE_ROUNDS = 10;
+  private static final int STABLE_RATIO = 50;
+  private static final long MAX_NANOS = 50000000L;
+
+  /**
+   * Return the threshold to use with <code>src</code> and <code>dest</code>.
+   * The native instance pins heap arrays unless both buffers are direct,
+   * and hands read-only heap buffers to the safe Java instance.
+   */
+  static int threshold(ByteBuffer src, ByteBuffer dest, int arrayThreshold, int directThreshold) {
+    if (src.isDirect() && dest.isDirect()) {
+      return directThreshold;
+    } else if ((src.hasArray() || src.isDirect()) && (dest.hasArray() || dest.isDirect())) {
+      return arrayThreshold;
+    } else {
+      return Integer.MAX_VALUE;
+    }
+  }
+
+  static LZ4HybridThresholds load(LZ4Factory java, LZ4Factory jni) {
+    final boolean calibrate = Boolean.getBoolean(CALIBRATE_PROPERTY);
+    final LZ4HybridThresholds thresholds = new LZ4HybridThresholds(java, jni);
+    for (int op = 0; op < OPERATIONS.length; ++op) {
+      thresholds.array[op] = thresholds.load(op, false, calibrate);
+      thresholds.direct[op] = thresholds.load(op, true, calibrate);
+    }
+    return thresholds;
+  }
+
+  private final LZ4Factory java, jni;
+  private final int[] array = new int[OPERATIONS.length];
+  private final int[] direct = new int[OPERATIONS.length];
+  // benchmark inputs and outputs, created on first use
+  private byte[][] data, compressed;
+  private ByteBuffer[] directData, directCompressed;
+  private byte[] destArray;
+  private ByteBuffer destBuffer;
+
+  private LZ4HybridThresholds(LZ4Factory java, LZ4Factory jni) {
+    this.java = java;
+    this.jni = jni;
+  }
+
+  int array(int op) {
+    return array[op];
+  }
+
+  int direct(int op) {
+    return direct[op];
+  }
+
+  private int load(int op, boolean direct, boolean calibrate) {
+    final String storage = direct ? "direct" : "array";
+    final int threshold = Integer.getInteger(PROPERTY + "." + OPERATIONS[op] + "." + storage,
+        Integer.getInteger(PROPERTY, -1));
+    if (threshold >= 0) {
+      return threshold;
+    } else if (calibrate) {
+      return measure(op, direct);
+    } else {
+      return direct ? DEFAULT_DIRECT[op] : DEFAULT_ARRAY[op];
+    }
+  }
+
+  private int measure(int op, boolean direct) {
+    if (data == null) {
+      createInputs();
+    }
+    int first = -1; // first length of the run of lengths where JNI wins
+    for (int i = 0; i < LENGTHS.length; ++i) {
+      final long javaNanos = nanosPerCall(java, op, direct, i);
+      final long jniNanos = nanosPerCall(jni, op, direct, i);
+      if (jniNanos < javaNanos) {
+        if (first < 0) {
+          first = i;
+        } else {
+          break; // JNI won twice in a row, assume that it wins on larger inputs
+        }
+      } else {
+        first = -1;
+      }
+    }
+    if (first < 0) {
+      return Integer.MAX_VALUE;
+    } else if (first == 0) {
+      return 0;
+    } else {
+      return (int) Math.sqrt((double) inputLength(op, first - 1) * inputLength(op, first));
+    }
+  }
+
+  // the length that the hybrid instance compares to its threshold
+  private int inputLength(int op, int i) {
+    return op == DECOMPRESS_SAFE ? compressed[i].length : LENGTHS[i];
+  }
+
+  private long nanosPerCall(LZ4Factory factory, int op, boolean direct, int i) {
+    final long start = System.nanoTime();
+    long best = Long.MAX_VALUE;
+    for (int stableRounds = 0; stableRounds < STABLE_ROUNDS && System.nanoTime() - start < MAX_NANOS; ) {
+      final long nanos = run(factory, op, direct, i, MEASURE_NANOS);
+      if (nanos < best - best / STABLE_RATIO) {
+        stableRounds = 0;
+      } else {
+        ++stableRounds;
+      }
+      best = Math.min(best, nanos);
+    }
+    return best;
+  }
+
+  // run the operation for at least the given time and return the average
+  // time per call
+  private long run(LZ4Factory factory, int op, boolean direct, int i, long nanos) {
+    final long start = System.nanoTime();
+    long elapsed;
+    int calls = 0;
+    do {
+      run(factory, op, direct, i);
+      ++calls;
+    } while ((elapsed = System.nanoTime() - start) < nanos);
+    return elapsed / calls;
+  }
+
+  private void run(LZ4Factory factory, int op, boolean direct, int i) {
+    final int len = LENGTHS[i];
+    final int compressedLen = compressed[i].length;
+    if (direct) {
+      final int maxDestLen = destBuffer.capacity();
+      switch (op) {
+      case COMPRESS:
+        factory.fastCompressor().compress(directData[i], 0, len, destBuffer, 0, maxDestLen);
+        break;
+      case COMPRESS_HC:
+        factory.highCompressor().compress(directData[i], 0, len, destBuffer, 0, maxDestLen);
+        break;
+      case DECOMPRESS_FAST:
+        factory.fastDecompressor().decompress(directCompressed[i], 0, destBuffer, 0, len);
+        break;
+      case DECOMPRESS_SAFE:
+        factory.safeDecompressor().decompress(directCompressed[i], 0, compressedLen, destBuffer, 0, maxDestLen);
+        break;
+      default:
+        throw new AssertionError();
+      }
+    } else {
+      final int maxDestLen = destArray.length;
+      switch (op) {
+      case COMPRESS:
+        factory.fastCompressor().compress(data[i], 0, len, destArray, 0, maxDestLen);
+        break;
+      case COMPRESS_HC:
+        factory.highCompressor().compress(data[i], 0, len, destArray, 0, maxDestLen);
+        break;
+      case DECOMPRESS_FAST:
+        factory.fastDecompressor().decompress(compressed[i], 0, destArray, 0, len);
+        break;
+      case DECOMPRESS_SAFE:
+        factory.safeDecompressor().decompress(compressed[i], 0, compressedLen, destArray, 0, maxDestLen);
+        break;
+      default:
+        throw new AssertionError();
+      }
+    }
+  }
+
+  private void createInputs() {
+    final Random random = new Random(0);
+    data = new byte[LENGTHS.length][];
+    compressed = new byte[LENGTHS.length][];
+    directData = new ByteBuffer[LENGTHS.length];
+    directCompressed = new ByteBuffer[LENGTHS.length];
+    for (int i = 0; i < LENGTHS.length; ++i) {
+      data[i] = compressibleBytes(random, LENGTHS[i]);
+      compressed[i] = jni.fastCompressor().compress(data[i]);
+      directData[i] = copyToDirect(data[i]);
+      directCompressed[i] = copyToDirect(compressed[i]);
+    }
+    final int maxDestLen = LZ4Utils.maxCompressedLength(LENGTHS[LENGTHS.length - 1]);
+    destArray = new byte[maxDestLen];
+    destBuffer = ByteBuffer.allocateDirect(maxDestLen);
+  }
+
+  // random literals and back references, which compress about 2x like text
+  private static byte[] compressibleBytes(Random random, int len) {
+    final byte[] bytes = new byte[len];
+    int i = 0;
+    while (i < len) {
+      if (i >= 64 && random.nextBoolean()) {
+        final int distance = 1 + random.nextInt(64);
+        final int end = Math.min(len, i + 4 + random.nextInt(12));
+        for (; i < end; ++i) {
+          bytes[i] = bytes[i - distance];
+        }
+      } else {
+        bytes[i++] = (byte) random.nextInt(256);
+      }
+    }
+    return bytes;
+  }
+
+  private static ByteBuffer copyToDirect(byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+    buf.put(bytes).clear();
+    return buf;
+  }
+
+}
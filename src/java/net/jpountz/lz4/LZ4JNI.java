@@ -37,6 +37,9 @@ enum LZ4JNI {
   static native int LZ4_decompress_fast_withPrefix64k(byte[] srcArray, ByteBuffer srcBuffer, int srcOff, byte[] destArray, ByteBuffer destBuffer, int destOff, int destLen);
   static native int LZ4_decompress_safe(byte[] srcArray, ByteBuffer srcBuffer, int srcOff, int srcLen, byte[] destArray, ByteBuffer destBuffer, int destOff, int maxDestLen);
   static native int LZ4_decompress_safe_withPrefix64k(byte[] srcArray, ByteBuffer srcBuffer, int srcOff, int srcLen, byte[] destArray, ByteBuffer destBuffer, int destOff, int maxDestLen);
+  static native int LZ4_compress_limitedOutput_batch(byte[][] srcs, int start, int end, byte[] dest, int destOff, int maxDestLen, int[] destOffsets);
+  static native int LZ4_compressHC_batch(byte[][] srcs, int start, int end, byte[] dest, int destOff, int maxDestLen, int[] destOffsets);
+  static native int LZ4_decompress_safe_batch(byte[] src, int[] srcOffsets, int start, int end, byte[] dest, int destOff, int maxDestLen, int[] destOffsets);
   static native int LZ4_compressBound(int len);
 
 }
@@ -14,12 +14,13 @@ package net.jpountz.lz4;
  * limitations under the License.
  */
 
+import static net.jpountz.lz4.LZ4JNIStaging.CRITICAL_THRESHOLD;
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
 import static net.jpountz.util.Utils.checkRange;
 
 import java.nio.ByteBuffer;
 
-import net.jpountz.util.ByteBufferUtils;
-
 /**
  * Fast {@link LZ4FastCompressor}s implemented with JNI bindings to the original C
  * implementation of LZ4.
@@ -32,21 +33,81 @@ final class LZ4JNICompressor extends LZ4Compressor {
   public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
     checkRange(src, srcOff, srcLen);
     checkRange(dest, destOff, maxDestLen);
-    final int result = LZ4JNI.LZ4_compress_limitedOutput(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen);
+    final int result = srcLen > CRITICAL_THRESHOLD
+        ? compressStaged(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen)
+        : LZ4JNI.LZ4_compress_limitedOutput(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen);
     if (result <= 0) {
       throw new LZ4Exception("maxDestLen is too small");
     }
     return result;
   }
 
+  // copies heap arrays from and to direct buffers instead of pinning them
+  private static int compressStaged(byte[] srcArr, ByteBuffer src, int srcOff, int srcLen, byte[] destArr, ByteBuffer dest, int destOff, int maxDestLen) {
+    if (srcArr != null) {
+      src = LZ4JNIStaging.input(srcArr, srcOff, srcLen);
+      srcOff = 0;
+    }
+    final int arrayDestOff = destOff;
+    if (destArr != null) {
+      maxDestLen = Math.min(maxDestLen, LZ4Utils.maxCompressedLength(srcLen));
+      dest = LZ4JNIStaging.output(destArr, destOff, 0, maxDestLen);
+      destOff = 0;
+    }
+    final int result = LZ4JNI.LZ4_compress_limitedOutput(null, src, srcOff, srcLen, null, dest, destOff, maxDestLen);
+    if (destArr != null && result > 0) {
+      LZ4JNIStaging.copyOutput(dest, 0, destArr, arrayDestOff, result);
+    }
+    return result;
+  }
+
   @Override
   public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
-    int result = LZ4JNI.LZ4_compress_limitedOutput(
-        ByteBufferUtils.getArray(src), src, srcOff, srcLen,
-        ByteBufferUtils.getArray(dest), dest, destOff, maxDestLen);
-    if (result <= 0) {
-      throw new LZ4Exception();
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+
+    if ((src.hasArray() || src.isDirect()) && (dest.hasArray() || dest.isDirect())) {
+      byte[] srcArr = null, destArr = null;
+      if (src.hasArray()) {
+        srcArr = src.array();
+        srcOff += src.arrayOffset();
+      }
+      if (dest.hasArray()) {
+        destArr = dest.array();
+        destOff += dest.arrayOffset();
+      }
+
+      final int result = (srcArr != null || destArr != null) && srcLen > CRITICAL_THRESHOLD
+          ? compressStaged(srcArr, src, srcOff, srcLen, destArr, dest, destOff, maxDestLen)
+          : LZ4JNI.LZ4_compress_limitedOutput(srcArr, src, srcOff, srcLen, destArr, dest, destOff, maxDestLen);
+      if (result <= 0) {
+        throw new LZ4Exception("maxDestLen is too small");
+      }
+      return result;
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      return LZ4Factory.safeInstance().fastCompressor().compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
     }
-    return result;
+  }
+
+  @Override
+  int compressBatch(byte[][] srcs, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    for (int start = 0, end; start < srcs.length; start = end) {
+      end = LZ4JNIStaging.batchEnd(srcs, start);
+      if (srcs[start].length > CRITICAL_THRESHOLD) {
+        dOff += compress(srcs[start], 0, srcs[start].length, dest, dOff, destEnd - dOff);
+        destOffsets[end] = dOff;
+      } else {
+        final int result = LZ4JNI.LZ4_compress_limitedOutput_batch(srcs, start, end, dest, dOff, destEnd - dOff, destOffsets);
+        if (result < 0) {
+          throw new LZ4Exception("maxDestLen is too small");
+        }
+        dOff += result;
+      }
+    }
+    return dOff - destOff;
   }
 }
@@ -14,12 +14,13 @@ package net.jpountz.lz4;
  * limitations under the License.
  */
 
+import static net.jpountz.lz4.LZ4JNIStaging.CRITICAL_THRESHOLD;
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
 import static net.jpountz.util.Utils.checkRange;
 
 import java.nio.ByteBuffer;
 
-import net.jpountz.util.ByteBufferUtils;
-
 /**
  * {@link LZ4FastDecompressor} implemented with JNI bindings to the original C
  * implementation of LZ4.
@@ -32,7 +33,9 @@ final class LZ4JNIFastDecompressor extends LZ4FastDecompressor {
   public final int decompress(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
     checkRange(src, srcOff);
     checkRange(dest, destOff, destLen);
-    final int result = LZ4JNI.LZ4_decompress_fast(src, null, srcOff, dest, null, destOff, destLen);
+    final int result = destLen > CRITICAL_THRESHOLD
+        ? decompressStaged(false, src, null, srcOff, dest, null, destOff, destLen)
+        : LZ4JNI.LZ4_decompress_fast(src, null, srcOff, dest, null, destOff, destLen);
     if (result < 0) {
       throw new LZ4Exception("Error decoding offset " + (srcOff - result) + " of input buffer");
     }
@@ -43,33 +46,98 @@ final class LZ4JNIFastDecompressor extends LZ4FastDecompressor {
   public final int decompressWithPrefix64k(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
     checkRange(src, srcOff);
     checkRange(dest, destOff, destLen);
-    final int result = LZ4JNI.LZ4_decompress_fast_withPrefix64k(src, null, srcOff, dest, null, destOff, destLen);
+    final int result = destLen > CRITICAL_THRESHOLD
+        ? decompressStaged(true, src, null, srcOff, dest, null, destOff, destLen)
+        : LZ4JNI.LZ4_decompress_fast_withPrefix64k(src, null, srcOff, dest, null, destOff, destLen);
     if (result < 0) {
       throw new LZ4Exception("Error decoding offset " + (srcOff - result) + " of input buffer");
     }
     return result;
   }
   
+  // copies heap arrays from and to direct buffers instead of pinning them
+  private static int decompressStaged(boolean withPrefix64k, byte[] srcArr, ByteBuffer src, int srcOff, byte[] destArr, ByteBuffer dest, int destOff, int destLen) {
+    if (srcArr != null) {
+      // the compressed length is unknown but cannot exceed this bound
+      final int srcLen = Math.min(srcArr.length - srcOff, LZ4Utils.maxCompressedLength(destLen));
+      src = LZ4JNIStaging.input(srcArr, srcOff, srcLen);
+      srcOff = 0;
+    }
+    final int arrayDestOff = destOff;
+    if (destArr != null) {
+      final int prefixLen = withPrefix64k ? Math.min(destOff, 1 << 16) : 0;
+      dest = LZ4JNIStaging.output(destArr, destOff, prefixLen, destLen);
+      destOff = prefixLen;
+    }
+    final int result = withPrefix64k
+        ? LZ4JNI.LZ4_decompress_fast_withPrefix64k(null, src, srcOff, null, dest, destOff, destLen)
+        : LZ4JNI.LZ4_decompress_fast(null, src, srcOff, null, dest, destOff, destLen);
+    if (destArr != null && result >= 0) {
+      LZ4JNIStaging.copyOutput(dest, destOff, destArr, arrayDestOff, destLen);
+    }
+    return result;
+  }
+
   @Override
   public int decompress(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
-    int result = LZ4JNI.LZ4_decompress_fast(
-        ByteBufferUtils.getArray(src), src, srcOff,
-        ByteBufferUtils.getArray(dest), dest, destOff, destLen);
-    if (result < 0) {
-      throw new LZ4Exception("Error decoding offset " + (src.position() - result) + " of input buffer");
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+
+    if ((src.hasArray() || src.isDirect()) && (dest.hasArray() || dest.isDirect())) {
+      final int originalSrcOff = srcOff;
+      byte[] srcArr = null, destArr = null;
+      if (src.hasArray()) {
+        srcArr = src.array();
+        srcOff += src.arrayOffset();
+      }
+      if (dest.hasArray()) {
+        destArr = dest.array();
+        destOff += dest.arrayOffset();
+      }
+
+      final int result = (srcArr != null || destArr != null) && destLen > CRITICAL_THRESHOLD
+          ? decompressStaged(false, srcArr, src, srcOff, destArr, dest, destOff, destLen)
+          : LZ4JNI.LZ4_decompress_fast(srcArr, src, srcOff, destArr, dest, destOff, destLen);
+      if (result < 0) {
+        throw new LZ4Exception("Error decoding offset " + (originalSrcOff - result) + " of input buffer");
+      }
+      return result;
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      return LZ4Factory.safeInstance().fastDecompressor().decompress(src, srcOff, dest, destOff, destLen);
     }
-    return result;
   }
 
   @Override
   public int decompressWithPrefix64k(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
-    int result = LZ4JNI.LZ4_decompress_fast_withPrefix64k(
-        ByteBufferUtils.getArray(src), src, srcOff,
-        ByteBufferUtils.getArray(dest), dest, destOff, destLen);
-    if (result < 0) {
-      throw new LZ4Exception("Error decoding offset " + (src.position() - result) + " of input buffer");
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+
+    if ((src.hasArray() || src.isDirect()) && (dest.hasArray() || dest.isDirect())) {
+      final int originalSrcOff = srcOff;
+      byte[] srcArr = null, destArr = null;
+      if (src.hasArray()) {
+        srcArr = src.array();
+        srcOff += src.arrayOffset();
+      }
+      if (dest.hasArray()) {
+        destArr = dest.array();
+        destOff += dest.arrayOffset();
+      }
+
+      final int result = (srcArr != null || destArr != null) && destLen > CRITICAL_THRESHOLD
+          ? decompressStaged(true, srcArr, src, srcOff, destArr, dest, destOff, destLen)
+          : LZ4JNI.LZ4_decompress_fast_withPrefix64k(srcArr, src, srcOff, destArr, dest, destOff, destLen);
+      if (result < 0) {
+        throw new LZ4Exception("Error decoding offset " + (originalSrcOff - result) + " of input buffer");
+      }
+      return result;
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      return LZ4Factory.safeInstance().fastDecompressor().decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
     }
-    return result;
   }
   
 }
@@ -14,12 +14,13 @@ package net.jpountz.lz4;
  * limitations under the License.
  */
 
+import static net.jpountz.lz4.LZ4JNIStaging.CRITICAL_THRESHOLD;
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
 import static net.jpountz.util.Utils.checkRange;
 
 import java.nio.ByteBuffer;
 
-import net.jpountz.util.ByteBufferUtils;
-
 /**
  * {@link LZ4SafeDecompressor} implemented with JNI bindings to the original C
  * implementation of LZ4.
@@ -32,7 +33,9 @@ final class LZ4JNISafeDecompressor extends LZ4SafeDecompressor {
   public final int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
     checkRange(src, srcOff, srcLen);
     checkRange(dest, destOff, maxDestLen);
-    final int result = LZ4JNI.LZ4_decompress_safe(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen);
+    final int result = srcLen > CRITICAL_THRESHOLD
+        ? decompressStaged(false, src, null, srcOff, srcLen, dest, null, destOff, maxDestLen)
+        : LZ4JNI.LZ4_decompress_safe(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen);
     if (result < 0) {
       throw new LZ4Exception("Error decoding offset " + (srcOff - result) + " of input buffer");
     }
@@ -43,32 +46,122 @@ final class LZ4JNISafeDecompressor extends LZ4SafeDecompressor {
   public final int decompressWithPrefix64k(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
     checkRange(src, srcOff, srcLen);
     checkRange(dest, destOff, maxDestLen);
-    final int result = LZ4JNI.LZ4_decompress_safe_withPrefix64k(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen);
+    final int result = srcLen > CRITICAL_THRESHOLD
+        ? decompressStaged(true, src, null, srcOff, srcLen, dest, null, destOff, maxDestLen)
+        : LZ4JNI.LZ4_decompress_safe_withPrefix64k(src, null, srcOff, srcLen, dest, null, destOff, maxDestLen);
     if (result < 0) {
       throw new LZ4Exception("Error decoding offset " + (srcOff - result) + " of input buffer");
     }
     return result;
   }
 
+  // copies heap arrays from and to direct buffers instead of pinning them
+  private static int decompressStaged(boolean withPrefix64k, byte[] srcArr, ByteBuffer src, int srcOff, int srcLen, byte[] destArr, ByteBuffer dest, int destOff, int maxDestLen) {
+    if (srcArr != null) {
+      src = LZ4JNIStaging.input(srcArr, srcOff, srcLen);
+      srcOff = 0;
+    }
+    if (destArr == null) {
+      return decompressDirect(withPrefix64k, src, srcOff, srcLen, dest, destOff, maxDestLen);
+    }
+    // a single output buffer of the largest length the block may
+    // decompress to, so that a negative result is always an error
+    final int prefixLen = withPrefix64k ? Math.min(destOff, 1 << 16) : 0;
+    final int len = LZ4JNIStaging.maxDecompressedLength(srcLen, maxDestLen);
+    final ByteBuffer buf = LZ4JNIStaging.output(destArr, destOff, prefixLen, len);
+    final int result = decompressDirect(withPrefix64k, src, srcOff, srcLen, buf, prefixLen, len);
+    if (result >= 0) {
+      LZ4JNIStaging.copyOutput(buf, prefixLen, destArr, destOff, result);
+    }
+    return result;
+  }
+
+  private static int decompressDirect(boolean withPrefix64k, ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    return withPrefix64k
+        ? LZ4JNI.LZ4_decompress_safe_withPrefix64k(null, src, srcOff, srcLen, null, dest, destOff, maxDestLen)
+        : LZ4JNI.LZ4_decompress_safe(null, src, srcOff, srcLen, null, dest, destOff, maxDestLen);
+  }
+
   @Override
   public int decompress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
-    int result = LZ4JNI.LZ4_decompress_safe(
-        ByteBufferUtils.getArray(src), src, srcOff, srcLen,
-        ByteBufferUtils.getArray(dest), dest, destOff, maxDestLen);
-    if (result < 0) {
-      throw new LZ4Exception("Error decoding offset " + (src.position() - result) + " of input buffer");
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+
+    if ((src.hasArray() || src.isDirect()) && (dest.hasArray() || dest.isDirect())) {
+      final int originalSrcOff = srcOff;
+      byte[] srcArr = null, destArr = null;
+      if (src.hasArray()) {
+        srcArr = src.array();
+        srcOff += src.arrayOffset();
+      }
+      if (dest.hasArray()) {
+        destArr = dest.array();
+        destOff += dest.arrayOffset();
+      }
+
+      final int result = (srcArr != null || destArr != null) && srcLen > CRITICAL_THRESHOLD
+          ? decompressStaged(false, srcArr, src, srcOff, srcLen, destArr, dest, destOff, maxDestLen)
+          : LZ4JNI.LZ4_decompress_safe(srcArr, src, srcOff, srcLen, destArr, dest, destOff, maxDestLen);
+      if (result < 0) {
+        throw new LZ4Exception("Error decoding offset " + (originalSrcOff - result) + " of input buffer");
+      }
+      return result;
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      return LZ4Factory.safeInstance().safeDecompressor().decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
     }
-    return result;
   }
 
   @Override
   public int decompressWithPrefix64k(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
-    int result = LZ4JNI.LZ4_decompress_safe_withPrefix64k(
-        ByteBufferUtils.getArray(src), src, srcOff, srcLen,
-        ByteBufferUtils.getArray(dest), dest, destOff, maxDestLen);
-    if (result < 0) {
-      throw new LZ4Exception("Error decoding offset " + (src.position() - result) + " of input buffer");
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+
+    if ((src.hasArray() || src.isDirect()) && (dest.hasArray() || dest.isDirect())) {
+      final int originalSrcOff = srcOff;
+      byte[] srcArr = null, destArr = null;
+      if (src.hasArray()) {
+        srcArr = src.array();
+        srcOff += src.arrayOffset();
+      }
+      if (dest.hasArray()) {
+        destArr = dest.array();
+        destOff += dest.arrayOffset();
+      }
+
+      final int result = (srcArr != null || destArr != null) && srcLen > CRITICAL_THRESHOLD
+          ? decompressStaged(true, srcArr, src, srcOff, srcLen, destArr, dest, destOff, maxDestLen)
+          : LZ4JNI.LZ4_decompress_safe_withPrefix64k(srcArr, src, srcOff, srcLen, destArr, dest, destOff, maxDestLen);
+      if (result < 0) {
+        throw new LZ4Exception("Error decoding offset " + (originalSrcOff - result) + " of input buffer");
+      }
+      return result;
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      return LZ4Factory.safeInstance().safeDecompressor().decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
     }
-    return result;
+  }
+
+  @Override
+  int decompressBatch(byte[] src, int[] srcOffsets, int count, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    for (int start = 0, end; start < count; start = end) {
+      end = LZ4JNIStaging.batchEnd(srcOffsets, start, count, destEnd - dOff);
+      final int srcLen = srcOffsets[start + 1] - srcOffsets[start];
+      if (LZ4JNIStaging.isLarge(srcLen, destEnd - dOff)) {
+        dOff += decompress(src, srcOffsets[start], srcLen, dest, dOff, destEnd - dOff);
+        destOffsets[end] = dOff;
+      } else {
+        final int result = LZ4JNI.LZ4_decompress_safe_batch(src, srcOffsets, start, end, dest, dOff, destEnd - dOff, destOffsets);
+        if (result < 0) {
+          throw new LZ4Exception("Error decoding block " + (-result - 1) + " at offset " + srcOffsets[-result - 1] + " of input buffer");
+        }
+        dOff += result;
+      }
+    }
+    return dOff - destOff;
   }
 }
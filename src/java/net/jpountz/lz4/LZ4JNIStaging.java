@@ -0,0 +1,147 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.nio.ByteBuffer;
+
+/**
+ * Thread-local direct buffers that large heap arrays are copied to and from
+ * before calling the JNI bindings, so that they don't need to be pinned with
+ * <code>GetPrimitiveArrayCritical</code>, which may block garbage collections
+ * for as long as the native call runs. The JVM copies between arrays and
+ * direct buffers in chunks and may reach a safepoint between two chunks, so
+ * that garbage collections are never blocked for longer than it takes to
+ * process {@link #CRITICAL_THRESHOLD} bytes.
+ * <p>
+ * The threshold defaults to 1 MB and can be configured with the
+ * <code>net.jpountz.lz4.jni.criticalThreshold</code> system property, in
+ * bytes. A negative value disables staging.
+ * <p>
+ * Calls are staged when their input is longer than the threshold. The output
+ * of a staged safe decompression goes to a single buffer of
+ * {@link #maxDecompressedLength(int, int)} bytes, so that the block is
+ * decompressed once.
+ * <p>
+ * Every thread keeps its buffers for later calls as long as they are at most
+ * {@link #MAX_RETAINED_SIZE} bytes, 16 MB by default, which can be configured
+ * with the <code>net.jpountz.lz4.jni.maxRetainedSize</code> system property.
+ * Larger buffers are allocated for a single call.
+ */
+enum LZ4JNIStaging {
+  ;
+
+  static final int CRITICAL_THRESHOLD;
+  static {
+    final int threshold = Integer.getInteger("net.jpountz.lz4.jni.criticalThreshold", 1 << 20);
+    CRITICAL_THRESHOLD = threshold < 0 ? Integer.MAX_VALUE : threshold;
+  }
+
+  static final int MAX_RETAINED_SIZE = Integer.getInteger("net.jpountz.lz4.jni.maxRetainedSize", 1 << 24);
+
+  private static final ThreadLocal<ByteBuffer[]> BUFFERS = new ThreadLocal<ByteBuffer[]>() {
+    @Override
+    protected ByteBuffer[] initialValue() {
+      return new ByteBuffer[2];
+    }
+  };
+
+  private static ByteBuffer buffer(int slot, int len) {
+    if (len > MAX_RETAINED_SIZE) {
+      return ByteBuffer.allocateDirect(len);
+    }
+    final ByteBuffer[] buffers = BUFFERS.get();
+    ByteBuffer buf = buffers[slot];
+    if (buf == null || buf.capacity() < len) {
+      buffers[slot] = null; // let the previous buffer be reclaimed if the allocation fails
+      buf = ByteBuffer.allocateDirect(len);
+      buffers[slot] = buf;
+    }
+    buf.clear();
+    return buf;
+  }
+
+  /**
+   * Return an upper bound of the decompressed length of
+   * <code>srcLen</code> compressed bytes: every compressed byte decompresses
+   * to less than 255 bytes.
+   */
+  static int maxDecompressedLength(int srcLen, int maxDestLen) {
+    return (int) Math.min(maxDestLen, 255L * srcLen);
+  }
+
+  /**
+   * Return whether the safe decompression of <code>srcLen</code> bytes may
+   * process more than {@link #CRITICAL_THRESHOLD} bytes.
+   */
+  static boolean isLarge(int srcLen, int maxDestLen) {
+    return srcLen > CRITICAL_THRESHOLD || maxDecompressedLength(srcLen, maxDestLen) > CRITICAL_THRESHOLD;
+  }
+
+  /**
+   * Return the end of the longest run of arrays of <code>srcs</code> that
+   * starts at <code>start</code> and whose lengths sum up to at most
+   * {@link #CRITICAL_THRESHOLD}, or <code>start + 1</code> if there is none.
+   */
+  static int batchEnd(byte[][] srcs, int start) {
+    long len = srcs[start].length;
+    int end = start + 1;
+    while (end < srcs.length && (len += srcs[end].length) <= CRITICAL_THRESHOLD) {
+      ++end;
+    }
+    return end;
+  }
+
+  /**
+   * Return the end of the longest run of the blocks delimited by
+   * <code>offsets[0:count+1]</code> that starts at <code>start</code> and
+   * whose safe decompression into at most <code>maxDestLen</code> bytes is
+   * not {@link #isLarge(int, int) large}, or <code>start + 1</code> if there
+   * is none.
+   */
+  static int batchEnd(int[] offsets, int start, int count, int maxDestLen) {
+    int end = start + 1;
+    while (end < count && !isLarge(offsets[end + 1] - offsets[start], maxDestLen)) {
+      ++end;
+    }
+    return end;
+  }
+
+  /** Return a direct buffer that starts with <code>src[srcOff:srcOff+srcLen]</code>. */
+  static ByteBuffer input(byte[] src, int srcOff, int srcLen) {
+    final ByteBuffer buf = buffer(0, srcLen);
+    buf.put(src, srcOff, srcLen);
+    return buf;
+  }
+
+  /**
+   * Return a direct buffer of at least <code>prefixLen + len</code> bytes
+   * that starts with the <code>prefixLen</code> bytes before
+   * <code>destOff</code> in <code>dest</code>.
+   */
+  static ByteBuffer output(byte[] dest, int destOff, int prefixLen, int len) {
+    final ByteBuffer buf = buffer(1, prefixLen + len);
+    buf.put(dest, destOff - prefixLen, prefixLen);
+    return buf;
+  }
+
+  /** Copy <code>buf[off:off+len]</code> to <code>dest[destOff:destOff+len]</code>. */
+  static void copyOutput(ByteBuffer buf, int off, byte[] dest, int destOff, int len) {
+    buf.clear();
+    buf.position(off);
+    buf.get(dest, destOff, len);
+  }
+
+}
@@ -0,0 +1,36 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Wraps instances into the LZ4Recording* classes. The Java 22+ variant of this
+ * class returns subclasses that also record the MemorySegment methods.
+ */
+enum LZ4Recording {
+  ;
+
+  static LZ4Compressor compressor(LZ4Compressor compressor) {
+    return new LZ4RecordingCompressor(compressor);
+  }
+
+  static LZ4FastDecompressor fastDecompressor(LZ4FastDecompressor decompressor) {
+    return new LZ4RecordingFastDecompressor(decompressor);
+  }
+
+  static LZ4SafeDecompressor safeDecompressor(LZ4SafeDecompressor decompressor) {
+    return new LZ4RecordingSafeDecompressor(decompressor);
+  }
+
+}
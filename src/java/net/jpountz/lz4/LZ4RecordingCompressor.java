@@ -0,0 +1,78 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+import net.jpountz.util.Events;
+
+/**
+ * {@link LZ4Compressor} that records its calls as JDK Flight Recorder events
+ * when {@link Events} are enabled.
+ */
+class LZ4RecordingCompressor extends LZ4Compressor {
+
+  final LZ4Compressor compressor;
+
+  LZ4RecordingCompressor(LZ4Compressor compressor) {
+    this.compressor = compressor;
+  }
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    final Object event = Events.begin(Events.COMPRESS, srcLen);
+    final int compressedLen = compressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    if (event != null) {
+      Events.commit(event, compressor, null, srcLen, compressedLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    final Object event = Events.begin(Events.COMPRESS, srcLen);
+    final int compressedLen = compressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    if (event != null) {
+      Events.commit(event, compressor, null, srcLen, compressedLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  boolean isHighCompression() {
+    return compressor.isHighCompression();
+  }
+
+  // a batch is recorded as a single event
+  @Override
+  int compressBatch(byte[][] srcs, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    long srcLen = 0;
+    for (byte[] src : srcs) {
+      srcLen += src.length;
+    }
+    final Object event = Events.begin(Events.COMPRESS, srcLen);
+    final int compressedLen = compressor.compressBatch(srcs, dest, destOff, maxDestLen, destOffsets);
+    if (event != null) {
+      Events.commit(event, compressor, null, srcLen, compressedLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  public String toString() {
+    return compressor.toString();
+  }
+
+}
@@ -0,0 +1,79 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+import net.jpountz.util.Events;
+
+/**
+ * {@link LZ4FastDecompressor} that records its calls as JDK Flight Recorder
+ * events when {@link Events} are enabled. The compressed length is only
+ * known after the call, so the threshold applies to the decompressed length.
+ */
+class LZ4RecordingFastDecompressor extends LZ4FastDecompressor {
+
+  final LZ4FastDecompressor decompressor;
+
+  LZ4RecordingFastDecompressor(LZ4FastDecompressor decompressor) {
+    this.decompressor = decompressor;
+  }
+
+  @Override
+  public int decompress(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, destLen);
+    final int compressedLen = decompressor.decompress(src, srcOff, dest, destOff, destLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, compressedLen, destLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  public int decompressWithPrefix64k(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, destLen);
+    final int compressedLen = decompressor.decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, compressedLen, destLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  public int decompress(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, destLen);
+    final int compressedLen = decompressor.decompress(src, srcOff, dest, destOff, destLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, compressedLen, destLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  public int decompressWithPrefix64k(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, destLen);
+    final int compressedLen = decompressor.decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, compressedLen, destLen);
+    }
+    return compressedLen;
+  }
+
+  @Override
+  public String toString() {
+    return decompressor.toString();
+  }
+
+}
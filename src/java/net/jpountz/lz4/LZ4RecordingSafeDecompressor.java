@@ -0,0 +1,90 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+import net.jpountz.util.Events;
+
+/**
+ * {@link LZ4SafeDecompressor} that records its calls as JDK Flight Recorder
+ * events when {@link Events} are enabled.
+ */
+class LZ4RecordingSafeDecompressor extends LZ4SafeDecompressor {
+
+  final LZ4SafeDecompressor decompressor;
+
+  LZ4RecordingSafeDecompressor(LZ4SafeDecompressor decompressor) {
+    this.decompressor = decompressor;
+  }
+
+  @Override
+  public int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+    final int decompressedLen = decompressor.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, srcLen, decompressedLen);
+    }
+    return decompressedLen;
+  }
+
+  @Override
+  public int decompressWithPrefix64k(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+    final int decompressedLen = decompressor.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, srcLen, decompressedLen);
+    }
+    return decompressedLen;
+  }
+
+  @Override
+  public int decompress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+    final int decompressedLen = decompressor.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, srcLen, decompressedLen);
+    }
+    return decompressedLen;
+  }
+
+  @Override
+  public int decompressWithPrefix64k(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+    final int decompressedLen = decompressor.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    if (event != null) {
+      Events.commit(event, decompressor, null, srcLen, decompressedLen);
+    }
+    return decompressedLen;
+  }
+
+  // a batch is recorded as a single event
+  @Override
+  int decompressBatch(byte[] src, int[] srcOffsets, int count, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    final int srcLen = srcOffsets[count] - srcOffsets[0];
+    final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+    final int decompressedLen = decompressor.decompressBatch(src, srcOffsets, count, dest, destOff, maxDestLen, destOffsets);
+    if (event != null) {
+      Events.commit(event, decompressor, null, srcLen, decompressedLen);
+    }
+    return decompressedLen;
+  }
+
+  @Override
+  public String toString() {
+    return decompressor.toString();
+  }
+
+}
@@ -24,7 +24,7 @@ import java.util.Arrays;
  * {@link LZ4FastDecompressor} but do not require the size of the original data to
  * be known.
  */
-public abstract class LZ4SafeDecompressor implements LZ4UnknownSizeDecompressor {
+public abstract class LZ4SafeDecompressor extends LZ4SafeDecompressorBase implements LZ4UnknownSizeDecompressor {
 
   /**
    * Uncompress <code>src[srcOff:srcLen]</code> into
@@ -149,6 +149,25 @@ public abstract class LZ4SafeDecompressor implements LZ4UnknownSizeDecompressor
     return decompress(src, srcOff, srcLen, dest, destOff, dest.capacity() - destOff);
   }
   
+  /**
+   * Decompress the blocks <code>src[srcOffsets[i]:srcOffsets[i+1]]</code> for
+   * every i in <code>[0, count)</code> one after the other into
+   * <code>dest</code>, starting at <code>destOff</code>, and store the end
+   * offset of the i-th decompressed block into <code>destOffsets[i+1]</code>.
+   * Arguments have been checked by {@link LZ4BatchDecompressor},
+   * implementations only need to override this method to amortize per-call
+   * costs.
+   */
+  int decompressBatch(byte[] src, int[] srcOffsets, int count, byte[] dest, int destOff, int maxDestLen, int[] destOffsets) {
+    final int destEnd = destOff + maxDestLen;
+    int dOff = destOff;
+    for (int i = 0; i < count; ++i) {
+      dOff += decompress(src, srcOffsets[i], srcOffsets[i + 1] - srcOffsets[i], dest, dOff, destEnd - dOff);
+      destOffsets[i + 1] = dOff;
+    }
+    return dOff - destOff;
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
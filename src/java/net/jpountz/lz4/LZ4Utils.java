@@ -27,7 +27,7 @@ import static net.jpountz.util.Utils.readInt;
 enum LZ4Utils {
   ;
 
-  private static final int MAX_INPUT_SIZE = 0x7E000000;
+  static final int MAX_INPUT_SIZE = 0x7E000000;
 
   static int maxCompressedLength(int length) {
     if (length < 0) {
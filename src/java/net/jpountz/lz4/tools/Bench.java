@@ -0,0 +1,416 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+
+/**
+ * The <code>bench</code> command, after <code>fullbench</code> of LZ4:
+ * compression and decompression speeds and the ratio of files, by instance,
+ * compressor, storage, block size and number of threads.
+ * <p>
+ * Files are compressed in independent blocks. Every thread compresses or
+ * decompresses the whole file over and over again for the duration of a
+ * measurement, after a warm-up of the same duration, and speeds are the
+ * total over all threads, in MB/s of uncompressed data. Decompression uses
+ * the safe decompressor, and its output is checked once before it is
+ * measured.
+ */
+final class Bench {
+
+  private Bench() {}
+
+  static final String USAGE =
+      "Usage: java -jar lz4-java.jar bench [options] <file>...\n"
+      + "\n"
+      + "Options, which take comma-separated lists:\n"
+      + "  --instances <names>    JNI, Unsafe, Safe, VarHandle, Foreign, Hybrid\n"
+      + "                         (default: all that are available)\n"
+      + "  --compressors <names>  fast, HC (default: fast,HC)\n"
+      + "  --buffers <types>      array, heap, direct (default: array,heap,direct)\n"
+      + "  --block-sizes <sizes>  block sizes with an optional K or M suffix\n"
+      + "                         (default: 64K)\n"
+      + "  --threads <counts>     numbers of threads (default: 1)\n"
+      + "  --time <ms>            duration of a measurement (default: 1000)\n";
+
+  static final String[] INSTANCES = { "JNI", "Unsafe", "Safe", "VarHandle", "Foreign", "Hybrid" };
+
+  private static final String HEADER_FORMAT = "%-24s %-9s %-4s %-6s %6s %7s %7s %11s %11s%n";
+  private static final String ROW_FORMAT = "%-24s %-9s %-4s %-6s %6s %7d %7.3f %11.1f %11.1f%n";
+
+  static int run(String[] args, PrintStream out) throws IOException, InterruptedException, ExecutionException {
+    final Options options = new Options(args,
+        new String[] { "--help" },
+        new String[] { "--instances", "--compressors", "--buffers", "--block-sizes", "--threads", "--time" });
+    if (options.has("--help")) {
+      out.print(USAGE);
+      return 0;
+    }
+    if (options.arguments().isEmpty()) {
+      throw new IllegalArgumentException("No files to benchmark\n\n" + USAGE);
+    }
+
+    final List<String> instanceNames;
+    if (options.get("--instances", null) == null) {
+      instanceNames = new ArrayList<String>();
+      for (String name : INSTANCES) {
+        try {
+          Main.factory(name);
+          instanceNames.add(name);
+        } catch (Throwable t) {
+          // not available on this platform or JVM
+        }
+      }
+    } else {
+      instanceNames = options.getList("--instances", null);
+    }
+    final List<LZ4Factory> factories = new ArrayList<LZ4Factory>();
+    for (String name : instanceNames) {
+      factories.add(Main.factory(name));
+    }
+    final List<String> compressors = options.getList("--compressors", "fast,HC");
+    for (String compressor : compressors) {
+      if (!"fast".equals(compressor) && !"HC".equals(compressor)) {
+        throw new IllegalArgumentException("Unknown compressor: " + compressor);
+      }
+    }
+    final List<String> buffers = options.getList("--buffers", "array,heap,direct");
+    for (String buffer : buffers) {
+      if (!Arrays.asList("array", "heap", "direct").contains(buffer)) {
+        throw new IllegalArgumentException("Unknown buffer type: " + buffer);
+      }
+    }
+    final List<Integer> blockSizes = new ArrayList<Integer>();
+    for (String size : options.getList("--block-sizes", "64K")) {
+      final long blockSize = Options.parseSize(size);
+      if (blockSize <= 0 || blockSize > 1 << 30) {
+        throw new IllegalArgumentException("Invalid block size: " + size);
+      }
+      blockSizes.add((int) blockSize);
+    }
+    final List<Integer> threadCounts = new ArrayList<Integer>();
+    for (String threads : options.getList("--threads", "1")) {
+      try {
+        threadCounts.add(Integer.parseInt(threads));
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid number of threads: " + threads);
+      }
+      if (threadCounts.get(threadCounts.size() - 1) <= 0) {
+        throw new IllegalArgumentException("Invalid number of threads: " + threads);
+      }
+    }
+    final int timeMs = options.getInt("--time", 1000);
+    if (timeMs <= 0) {
+      throw new IllegalArgumentException("Invalid --time: " + timeMs);
+    }
+
+    out.printf(Locale.ROOT, HEADER_FORMAT,
+        "file", "instance", "comp", "buffer", "block", "threads", "ratio", "comp MB/s", "decomp MB/s");
+    for (String fileName : options.arguments()) {
+      final byte[] data = readFile(new File(fileName));
+      for (int f = 0; f < factories.size(); ++f) {
+        final LZ4Factory factory = factories.get(f);
+        for (String compressorName : compressors) {
+          final LZ4Compressor compressor = "HC".equals(compressorName) ? factory.highCompressor() : factory.fastCompressor();
+          for (int blockSize : blockSizes) {
+            final Blocks blocks = new Blocks(data, Math.min(blockSize, Math.max(1, data.length)), compressor);
+            for (String buffer : buffers) {
+              final Storage storage = new Storage(blocks, buffer);
+              storage.check(factory.safeDecompressor());
+              for (int threads : threadCounts) {
+                final double compressSpeed = mbPerSecond(blocks.srcLen, threads, timeMs, new PassFactory() {
+                  @Override
+                  public Pass newPass() {
+                    return storage.compressPass(compressor);
+                  }
+                });
+                final LZ4SafeDecompressor decompressor = factory.safeDecompressor();
+                final double decompressSpeed = mbPerSecond(blocks.srcLen, threads, timeMs, new PassFactory() {
+                  @Override
+                  public Pass newPass() {
+                    return storage.decompressPass(decompressor);
+                  }
+                });
+                out.printf(Locale.ROOT, ROW_FORMAT,
+                    new File(fileName).getName(), instanceNames.get(f), compressorName, buffer,
+                    formatSize(blockSize), threads, blocks.ratio(), compressSpeed, decompressSpeed);
+              }
+            }
+          }
+        }
+      }
+    }
+    return 0;
+  }
+
+  static byte[] readFile(File file) throws IOException {
+    final RandomAccessFile raf = new RandomAccessFile(file, "r");
+    try {
+      final long length = raf.length();
+      if (length > Integer.MAX_VALUE - 8) {
+        throw new IllegalArgumentException(file + " is too large to benchmark: " + length + " bytes");
+      }
+      final byte[] data = new byte[(int) length];
+      raf.readFully(data);
+      return data;
+    } finally {
+      raf.close();
+    }
+  }
+
+  private static String formatSize(int size) {
+    if (size % (1 << 20) == 0) {
+      return (size >>> 20) + "M";
+    } else if (size % (1 << 10) == 0) {
+      return (size >>> 10) + "K";
+    } else {
+      return Integer.toString(size);
+    }
+  }
+
+  /** A file, split in blocks and compressed back to back. */
+  private static final class Blocks {
+
+    final byte[] src;
+    final int srcLen, blockSize;
+    // block i is compressed[compressedOffsets[i]:compressedOffsets[i+1]]
+    final byte[] compressed;
+    final int[] compressedOffsets;
+
+    Blocks(byte[] src, int blockSize, LZ4Compressor compressor) {
+      this.src = src;
+      this.srcLen = src.length;
+      this.blockSize = blockSize;
+      final int blockCount = (srcLen + blockSize - 1) / blockSize;
+      final byte[] dest = new byte[compressor.maxCompressedLength(blockSize)];
+      final byte[][] blocks = new byte[blockCount][];
+      compressedOffsets = new int[blockCount + 1];
+      for (int i = 0; i < blockCount; ++i) {
+        final int off = i * blockSize;
+        final int len = compressor.compress(src, off, Math.min(blockSize, srcLen - off), dest, 0, dest.length);
+        blocks[i] = Arrays.copyOf(dest, len);
+        compressedOffsets[i + 1] = compressedOffsets[i] + len;
+      }
+      compressed = new byte[compressedOffsets[blockCount]];
+      for (int i = 0; i < blockCount; ++i) {
+        System.arraycopy(blocks[i], 0, compressed, compressedOffsets[i], blocks[i].length);
+      }
+    }
+
+    int count() {
+      return compressedOffsets.length - 1;
+    }
+
+    double ratio() {
+      return compressed.length == 0 ? 1 : (double) srcLen / compressed.length;
+    }
+
+  }
+
+  /** The blocks in arrays, heap buffers or direct buffers. */
+  private static final class Storage {
+
+    final Blocks blocks;
+    final String type;
+    final ByteBuffer src, compressed;
+
+    Storage(Blocks blocks, String type) {
+      this.blocks = blocks;
+      this.type = type;
+      src = buffer(blocks.src, type);
+      compressed = buffer(blocks.compressed, type);
+    }
+
+    private static ByteBuffer buffer(byte[] bytes, String type) {
+      final ByteBuffer buf;
+      if ("array".equals(type)) {
+        return null;
+      } else if ("heap".equals(type)) {
+        buf = ByteBuffer.allocate(bytes.length);
+      } else {
+        buf = ByteBuffer.allocateDirect(bytes.length);
+      }
+      buf.put(bytes).clear();
+      return buf;
+    }
+
+    private ByteBuffer newBuffer(int capacity) {
+      return "direct".equals(type) ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    // one pass per thread, each with its own destination
+    Pass compressPass(final LZ4Compressor compressor) {
+      final int blockSize = blocks.blockSize, srcLen = blocks.srcLen;
+      final int maxDestLen = compressor.maxCompressedLength(blockSize);
+      if (src == null) {
+        final byte[] srcArray = blocks.src;
+        final byte[] dest = new byte[maxDestLen];
+        return new Pass() {
+          @Override
+          public void run() {
+            for (int off = 0; off < srcLen; off += blockSize) {
+              compressor.compress(srcArray, off, Math.min(blockSize, srcLen - off), dest, 0, maxDestLen);
+            }
+          }
+        };
+      } else {
+        final ByteBuffer srcBuf = src.duplicate();
+        final ByteBuffer dest = newBuffer(maxDestLen);
+        return new Pass() {
+          @Override
+          public void run() {
+            for (int off = 0; off < srcLen; off += blockSize) {
+              compressor.compress(srcBuf, off, Math.min(blockSize, srcLen - off), dest, 0, maxDestLen);
+            }
+          }
+        };
+      }
+    }
+
+    Pass decompressPass(final LZ4SafeDecompressor decompressor) {
+      final int blockSize = blocks.blockSize, count = blocks.count();
+      final int[] offsets = blocks.compressedOffsets;
+      if (compressed == null) {
+        final byte[] compressedArray = blocks.compressed;
+        final byte[] dest = new byte[blockSize];
+        return new Pass() {
+          @Override
+          public void run() {
+            for (int i = 0; i < count; ++i) {
+              decompressor.decompress(compressedArray, offsets[i], offsets[i + 1] - offsets[i], dest, 0, blockSize);
+            }
+          }
+        };
+      } else {
+        final ByteBuffer compressedBuf = compressed.duplicate();
+        final ByteBuffer dest = newBuffer(blockSize);
+        return new Pass() {
+          @Override
+          public void run() {
+            for (int i = 0; i < count; ++i) {
+              decompressor.decompress(compressedBuf, offsets[i], offsets[i + 1] - offsets[i], dest, 0, blockSize);
+            }
+          }
+        };
+      }
+    }
+
+    /** Check that every block decompresses to the original data. */
+    void check(LZ4SafeDecompressor decompressor) {
+      final int blockSize = blocks.blockSize;
+      final int[] offsets = blocks.compressedOffsets;
+      final byte[] restored = new byte[blocks.srcLen];
+      final ByteBuffer dest = compressed == null ? null : newBuffer(blockSize);
+      for (int i = 0; i < blocks.count(); ++i) {
+        final int off = i * blockSize;
+        final int len;
+        if (compressed == null) {
+          len = decompressor.decompress(blocks.compressed, offsets[i], offsets[i + 1] - offsets[i],
+              restored, off, Math.min(blockSize, blocks.srcLen - off));
+        } else {
+          len = decompressor.decompress(compressed, offsets[i], offsets[i + 1] - offsets[i], dest, 0, blockSize);
+          dest.get(restored, off, len).clear();
+        }
+        if (len != Math.min(blockSize, blocks.srcLen - off)) {
+          throw new IllegalStateException(decompressor + " restored " + len + " bytes of block " + i);
+        }
+      }
+      if (!Arrays.equals(blocks.src, restored)) {
+        throw new IllegalStateException(decompressor + " corrupted the data with " + type + " storage");
+      }
+    }
+
+  }
+
+  private interface Pass {
+    void run();
+  }
+
+  private interface PassFactory {
+    Pass newPass();
+  }
+
+  /**
+   * Run passes over <code>len</code> bytes on <code>threads</code> threads,
+   * for a warm-up and then a measurement of <code>timeMs</code> each, and
+   * return the total speed of the measurement.
+   */
+  private static double mbPerSecond(int len, int threads, int timeMs, PassFactory passFactory)
+      throws InterruptedException, ExecutionException {
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      final List<Pass> passes = new ArrayList<Pass>();
+      for (int i = 0; i < threads; ++i) {
+        passes.add(passFactory.newPass());
+      }
+      measure(executor, passes, timeMs);
+      final long start = System.nanoTime();
+      final long count = measure(executor, passes, timeMs);
+      final double seconds = (System.nanoTime() - start) / 1e9;
+      return count * (double) len / 1e6 / seconds;
+    } finally {
+      executor.shutdown();
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    }
+  }
+
+  // run all passes repeatedly for timeMs and return how many runs completed
+  private static long measure(ExecutorService executor, List<Pass> passes, final int timeMs)
+      throws InterruptedException, ExecutionException {
+    final CountDownLatch start = new CountDownLatch(1);
+    final List<Future<Long>> counts = new ArrayList<Future<Long>>();
+    for (final Pass pass : passes) {
+      counts.add(executor.submit(new Callable<Long>() {
+        @Override
+        public Long call() throws InterruptedException {
+          start.await();
+          final long deadline = System.nanoTime() + timeMs * 1000000L;
+          long count = 0;
+          do {
+            pass.run();
+            ++count;
+          } while (System.nanoTime() - deadline < 0);
+          return count;
+        }
+      }));
+    }
+    start.countDown();
+    long total = 0;
+    for (Future<Long> count : counts) {
+      total += count.get();
+    }
+    return total;
+  }
+
+}
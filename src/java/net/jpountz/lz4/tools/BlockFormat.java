@@ -0,0 +1,196 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Callable;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import net.jpountz.xxhash.XXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * The format of {@link LZ4BlockOutputStream} and {@link LZ4BlockInputStream}
+ * with their default xxhash checksum: a header before every block, and an
+ * empty block at the end.
+ */
+final class BlockFormat {
+
+  private BlockFormat() {}
+
+  // as in LZ4BlockOutputStream
+  static final byte[] MAGIC = new byte[] { 'L', 'Z', '4', 'B', 'l', 'o', 'c', 'k' };
+  private static final int HEADER_LENGTH = MAGIC.length + 1 + 4 + 4 + 4;
+  private static final int COMPRESSION_LEVEL_BASE = 10;
+  static final int MIN_BLOCK_SIZE = 64;
+  static final int MAX_BLOCK_SIZE = 1 << (COMPRESSION_LEVEL_BASE + 0x0F);
+  private static final int COMPRESSION_METHOD_RAW = 0x10;
+  private static final int COMPRESSION_METHOD_LZ4 = 0x20;
+  private static final int DEFAULT_SEED = 0x9747b28c;
+
+  /** The first 4 bytes of {@link #MAGIC} as a little-endian int. */
+  static final int MAGIC_INT = ByteBuffer.wrap(MAGIC).order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+
+  private static final XXHash32 HASH32 = XXHashFactory.fastestInstance().hash32();
+
+  // the xxhash of StreamingXXHash32.asChecksum(), on 28 bits
+  private static int checksum(ByteBuffer buf, int len) {
+    return HASH32.hash(buf, 0, len, DEFAULT_SEED) & 0xFFFFFFF;
+  }
+
+  // LZ4Utils.maxCompressedLength, which is not public, so that a corrupted
+  // length is rejected before its block is read
+  private static int maxCompressedLength(int len) {
+    return len + len / 255 + 16;
+  }
+
+  static final class BlockEncoder implements Encoder {
+
+    private final LZ4Compressor compressor;
+    private final int blockSize;
+    private final int compressionLevel;
+
+    BlockEncoder(LZ4Compressor compressor, int blockSize) {
+      if (blockSize < MIN_BLOCK_SIZE || blockSize > MAX_BLOCK_SIZE) {
+        throw new IllegalArgumentException("The block size must be in [64, 32M], got " + blockSize);
+      }
+      this.compressor = compressor;
+      this.blockSize = blockSize;
+      // ceil of log2
+      compressionLevel = Math.max(0, 32 - Integer.numberOfLeadingZeros(blockSize - 1) - COMPRESSION_LEVEL_BASE);
+    }
+
+    @Override
+    public int blockSize() {
+      return blockSize;
+    }
+
+    @Override
+    public ByteBuffer header(long contentSize) {
+      return ByteBuffer.allocate(0);
+    }
+
+    private ByteBuffer header(int method, int compressedLen, int originalLen, int checksum, int capacity) {
+      final ByteBuffer buf = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+      buf.put(MAGIC);
+      buf.put((byte) (method | compressionLevel));
+      buf.putInt(compressedLen);
+      buf.putInt(originalLen);
+      buf.putInt(checksum);
+      return buf;
+    }
+
+    @Override
+    public Callable<ByteBuffer> encode(final ByteBuffer src) {
+      return new Callable<ByteBuffer>() {
+        @Override
+        public ByteBuffer call() {
+          final int len = src.remaining();
+          final int maxCompressedLen = compressor.maxCompressedLength(len);
+          final ByteBuffer dest = header(COMPRESSION_METHOD_LZ4, 0, len, checksum(src, len),
+              HEADER_LENGTH + Math.max(len, maxCompressedLen));
+          final int compressedLen = compressor.compress(src, 0, len, dest, HEADER_LENGTH, maxCompressedLen);
+          if (compressedLen >= len) {
+            dest.put(MAGIC.length, (byte) (COMPRESSION_METHOD_RAW | compressionLevel));
+            dest.putInt(MAGIC.length + 1, len);
+            dest.position(HEADER_LENGTH);
+            dest.put(src.duplicate());
+          } else {
+            dest.putInt(MAGIC.length + 1, compressedLen);
+            dest.position(HEADER_LENGTH + compressedLen);
+          }
+          dest.flip();
+          return dest;
+        }
+      };
+    }
+
+    @Override
+    public ByteBuffer trailer() {
+      final ByteBuffer buf = header(COMPRESSION_METHOD_RAW, 0, 0, 0, HEADER_LENGTH);
+      buf.flip();
+      return buf;
+    }
+
+  }
+
+  /**
+   * Decode a stream whose first 4 bytes have just been read and schedule
+   * the decompression of its blocks on <code>pipeline</code>.
+   */
+  static void decode(Input input, Pipeline pipeline, final LZ4SafeDecompressor decompressor) throws IOException {
+    int magicOffset = 4;
+    while (true) {
+      final ByteBuffer magic = input.readFully(MAGIC.length - magicOffset);
+      for (int i = magicOffset; i < MAGIC.length; ++i) {
+        if (magic.get(i - magicOffset) != MAGIC[i]) {
+          throw new IOException("Stream is corrupted");
+        }
+      }
+      magicOffset = 0;
+      final int token = input.readFully(1).get(0) & 0xFF;
+      final int method = token & 0xF0;
+      final int maxLen = 1 << (COMPRESSION_LEVEL_BASE + (token & 0x0F));
+      final int compressedLen = input.readIntLE();
+      final int originalLen = input.readIntLE();
+      final int checksum = input.readIntLE();
+      // the checks of LZ4BlockInputStream
+      if ((method != COMPRESSION_METHOD_RAW && method != COMPRESSION_METHOD_LZ4)
+          || originalLen > maxLen
+          || originalLen < 0
+          || compressedLen < 0
+          || compressedLen > maxCompressedLength(maxLen)
+          || (originalLen == 0 && compressedLen != 0)
+          || (originalLen != 0 && compressedLen == 0)
+          || (method == COMPRESSION_METHOD_RAW && originalLen != compressedLen)) {
+        throw new IOException("Stream is corrupted");
+      }
+      if (originalLen == 0) {
+        if (checksum != 0) {
+          throw new IOException("Stream is corrupted");
+        }
+        return;
+      }
+      final ByteBuffer block = input.readFully(compressedLen);
+      pipeline.submit(new Callable<ByteBuffer>() {
+        @Override
+        public ByteBuffer call() throws IOException {
+          ByteBuffer dest = block;
+          if (method == COMPRESSION_METHOD_LZ4) {
+            dest = ByteBuffer.allocate(originalLen);
+            try {
+              if (decompressor.decompress(block, 0, compressedLen, dest, 0, originalLen) != originalLen) {
+                throw new IOException("Stream is corrupted");
+              }
+            } catch (LZ4Exception e) {
+              throw new IOException("Stream is corrupted", e);
+            }
+          }
+          if (checksum(dest, originalLen) != checksum) {
+            throw new IOException("Stream is corrupted");
+          }
+          return dest;
+        }
+      });
+    }
+  }
+
+}
@@ -0,0 +1,308 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * The <code>compress</code> and <code>decompress</code> commands, after the
+ * <code>lz4</code> command-line tool, in the LZ4 frame format or the format
+ * of {@link net.jpountz.lz4.LZ4BlockOutputStream}.
+ * <p>
+ * Blocks are independent, so that they are compressed and decompressed in
+ * parallel on all cores by default, while the input is read and the output
+ * is written in order. Regular input files are memory-mapped and their blocks
+ * are compressed straight from the mapping, without copies.
+ */
+final class Compress {
+
+  private Compress() {}
+
+  static final String COMPRESS_USAGE =
+      "Usage: java -jar lz4-java.jar compress [options] [input [output]]\n"
+      + "\n"
+      + "Compresses input, or standard input if it is missing or -, to output,\n"
+      + "input.lz4 if it is missing, or standard output for -c or standard input.\n"
+      + "\n"
+      + "Options:\n"
+      + "  -1, -9                 compression level: -1 for the fast compressor and\n"
+      + "                         -9 for the HC compressor (default: -1); the other\n"
+      + "                         levels of lz4 are accepted with a warning\n"
+      + "  --format <format>      frame (the format of lz4) or block (the format of\n"
+      + "                         LZ4BlockOutputStream) (default: frame)\n"
+      + "  -B4, -B5, -B6, -B7     blocks of 64K, 256K, 1M or 4M\n"
+      + "  --block-size <size>    block size with an optional K or M suffix\n"
+      + "                         (default: 4M for frames, 64K for blocks)\n"
+      + "  -BX                    frame: add block checksums\n"
+      + "  --no-frame-crc         frame: don't add the content checksum\n"
+      + "  --content-size         frame: add the size of the input file\n"
+      + "  --threads <count>      compression threads (default: all cores)\n"
+      + "  --instance <name>      JNI, Unsafe, Safe, VarHandle, Foreign or Hybrid\n"
+      + "                         (default: the fastest)\n"
+      + "  -c, --stdout           write to standard output\n"
+      + "  -f, --force            overwrite output\n";
+
+  static final String DECOMPRESS_USAGE =
+      "Usage: java -jar lz4-java.jar decompress [options] [input [output]]\n"
+      + "\n"
+      + "Decompresses LZ4 frames or LZ4BlockOutputStream streams from input, or\n"
+      + "standard input if it is missing or -, to output, input without its .lz4\n"
+      + "extension if it is missing, or standard output for -c or standard input.\n"
+      + "\n"
+      + "Options:\n"
+      + "  --threads <count>      decompression threads (default: all cores)\n"
+      + "  --instance <name>      JNI, Unsafe, Safe, VarHandle, Foreign or Hybrid\n"
+      + "                         (default: the fastest)\n"
+      + "  -c, --stdout           write to standard output\n"
+      + "  -f, --force            overwrite output\n";
+
+  private static final String EXTENSION = ".lz4";
+
+  private static final String[] COMMON_FLAGS = { "--help", "-c", "--stdout", "-f", "--force" };
+  private static final String[] COMMON_OPTIONS = { "--threads", "--instance" };
+
+  private static String[] concat(String[] a, String... b) {
+    final String[] result = new String[a.length + b.length];
+    System.arraycopy(a, 0, result, 0, a.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  static int compress(String[] args, InputStream in, PrintStream out, PrintStream err) throws IOException {
+    final Options options = new Options(args,
+        concat(COMMON_FLAGS, "-1", "-2", "-3", "-4", "-5", "-6", "-7", "-8", "-9", "-10", "-11", "-12",
+            "-B4", "-B5", "-B6", "-B7", "-BX", "--no-frame-crc", "--content-size"),
+        concat(COMMON_OPTIONS, "--format", "--block-size"));
+    if (options.has("--help")) {
+      out.print(COMPRESS_USAGE);
+      return 0;
+    }
+    int level = 1;
+    for (int i = 1; i <= 12; ++i) {
+      if (options.has("-" + i)) {
+        level = i;
+      }
+    }
+    // the compressors have no levels: other levels compress like the closest one
+    if (level != 1 && level != 9) {
+      err.println("Warning: level -" + level + " is not supported, compressing with -" + (level >= 3 ? 9 : 1));
+    }
+    final LZ4Factory factory = factory(options);
+    final LZ4Compressor compressor = level >= 3 ? factory.highCompressor() : factory.fastCompressor();
+
+    final String format = options.get("--format", "frame");
+    int blockSize = -1;
+    for (int id = FrameFormat.MIN_BLOCK_SIZE_ID; id <= FrameFormat.MAX_BLOCK_SIZE_ID; ++id) {
+      if (options.has("-B" + id)) {
+        blockSize = FrameFormat.blockSize(id);
+      }
+    }
+    if (options.get("--block-size", null) != null) {
+      final long size = Options.parseSize(options.get("--block-size", null));
+      blockSize = (int) Math.min(size, Integer.MAX_VALUE);
+    }
+    final Encoder encoder;
+    if ("frame".equals(format)) {
+      encoder = new FrameFormat.FrameEncoder(compressor,
+          FrameFormat.blockSizeId(blockSize == -1 ? FrameFormat.blockSize(FrameFormat.MAX_BLOCK_SIZE_ID) : blockSize),
+          options.has("-BX"), options.has("--content-size"), !options.has("--no-frame-crc"));
+    } else if ("block".equals(format)) {
+      if (options.has("-BX") || options.has("--no-frame-crc") || options.has("--content-size")) {
+        throw new IllegalArgumentException("-BX, --no-frame-crc and --content-size only apply to frames");
+      }
+      encoder = new BlockFormat.BlockEncoder(compressor, blockSize == -1 ? 1 << 16 : blockSize);
+    } else {
+      throw new IllegalArgumentException("Unknown format: " + format);
+    }
+
+    final Files files = new Files(options, in, out, false);
+    final ExecutorService executor = executor(options);
+    boolean success = false;
+    try {
+      final Pipeline pipeline = new Pipeline(executor, 2 * threads(options), files.output);
+      pipeline.write(encoder.header(files.input.size()));
+      long read = 0;
+      for (ByteBuffer block = files.input.read(encoder.blockSize()); block.hasRemaining();
+          block = files.input.read(encoder.blockSize())) {
+        read += block.remaining();
+        pipeline.submit(encoder.encode(block));
+      }
+      pipeline.write(encoder.trailer());
+      if (!files.toStdout) {
+        err.printf(Locale.ROOT, "Compressed %d bytes into %d bytes (%.2f%%)%n",
+            read, pipeline.written(), read == 0 ? 100. : 100. * pipeline.written() / read);
+      }
+      success = true;
+    } finally {
+      shutdown(executor);
+      files.close(success);
+    }
+    return 0;
+  }
+
+  static int decompress(String[] args, InputStream in, PrintStream out, PrintStream err) throws IOException {
+    final Options options = new Options(args, COMMON_FLAGS, COMMON_OPTIONS);
+    if (options.has("--help")) {
+      out.print(DECOMPRESS_USAGE);
+      return 0;
+    }
+    final LZ4Factory factory = factory(options);
+    final Files files = new Files(options, in, out, true);
+    final ExecutorService executor = executor(options);
+    boolean success = false;
+    try {
+      final Pipeline pipeline = new Pipeline(executor, 2 * threads(options), files.output);
+      boolean first = true;
+      for (ByteBuffer magic = files.input.read(4); magic.hasRemaining(); magic = files.input.read(4)) {
+        if (magic.remaining() != 4) {
+          throw new IOException("Unexpected end of input");
+        }
+        final int magicInt = magic.order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+        if (magicInt == FrameFormat.MAGIC) {
+          FrameFormat.decode(files.input, pipeline, factory.safeDecompressor());
+        } else if ((magicInt & 0xFFFFFFF0) == FrameFormat.SKIPPABLE_MAGIC) {
+          files.input.skip(files.input.readIntLE() & 0xFFFFFFFFL);
+        } else if (magicInt == BlockFormat.MAGIC_INT) {
+          BlockFormat.decode(files.input, pipeline, factory.safeDecompressor());
+        } else if (first) {
+          throw new IOException("Input is neither an LZ4 frame nor an LZ4BlockOutputStream stream");
+        } else {
+          throw new IOException("Unexpected data after the end of the compressed stream");
+        }
+        first = false;
+      }
+      pipeline.drain();
+      if (!files.toStdout) {
+        err.printf(Locale.ROOT, "Decompressed %d bytes%n", pipeline.written());
+      }
+      success = true;
+    } finally {
+      shutdown(executor);
+      files.close(success);
+    }
+    return 0;
+  }
+
+  private static LZ4Factory factory(Options options) {
+    final String name = options.get("--instance", null);
+    return name == null ? LZ4Factory.fastestInstance() : Main.factory(name);
+  }
+
+  private static int threads(Options options) {
+    final int threads = options.getInt("--threads", Runtime.getRuntime().availableProcessors());
+    if (threads <= 0) {
+      throw new IllegalArgumentException("Invalid number of threads: " + threads);
+    }
+    return threads;
+  }
+
+  private static ExecutorService executor(Options options) {
+    return Executors.newFixedThreadPool(threads(options));
+  }
+
+  private static void shutdown(ExecutorService executor) {
+    executor.shutdownNow();
+    try {
+      executor.awaitTermination(1, TimeUnit.MINUTES);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /** The input and output of a command. */
+  private static final class Files {
+
+    final Input input;
+    final WritableByteChannel output;
+    final boolean toStdout;
+    private final File outputFile;
+    private final PrintStream out;
+
+    Files(Options options, InputStream in, PrintStream out, boolean decompress) throws IOException {
+      final List<String> arguments = options.arguments();
+      if (arguments.size() > 2) {
+        throw new IllegalArgumentException("Too many arguments: " + arguments);
+      }
+      final File inputFile = arguments.isEmpty() || "-".equals(arguments.get(0)) ? null : new File(arguments.get(0));
+      if (arguments.size() == 2) {
+        outputFile = "-".equals(arguments.get(1)) ? null : new File(arguments.get(1));
+      } else if (inputFile == null || options.has("-c") || options.has("--stdout")) {
+        outputFile = null;
+      } else if (!decompress) {
+        outputFile = new File(inputFile.getPath() + EXTENSION);
+      } else if (inputFile.getName().endsWith(EXTENSION) && inputFile.getName().length() > EXTENSION.length()) {
+        final String path = inputFile.getPath();
+        outputFile = new File(path.substring(0, path.length() - EXTENSION.length()));
+      } else {
+        throw new IllegalArgumentException("Can't guess the output of " + inputFile
+            + " without a " + EXTENSION + " extension, give it or use -c");
+      }
+      if (inputFile != null && !inputFile.exists()) {
+        throw new IllegalArgumentException(inputFile + " doesn't exist");
+      }
+      if (outputFile != null) {
+        if (inputFile != null && outputFile.getCanonicalFile().equals(inputFile.getCanonicalFile())) {
+          throw new IllegalArgumentException("The input and the output are the same file");
+        }
+        if (outputFile.exists() && !options.has("-f") && !options.has("--force")) {
+          throw new IllegalArgumentException(outputFile + " already exists, use -f to overwrite it");
+        }
+      }
+
+      this.out = out;
+      toStdout = outputFile == null;
+      input = Input.open(inputFile, in);
+      if (toStdout) {
+        output = Channels.newChannel(out);
+      } else {
+        output = new FileOutputStream(outputFile).getChannel();
+      }
+    }
+
+    /** Close the input and the output, which is deleted on failure. */
+    void close(boolean success) throws IOException {
+      try {
+        input.close();
+      } finally {
+        if (toStdout) {
+          out.flush();
+        } else {
+          output.close();
+          if (!success) {
+            outputFile.delete();
+          }
+        }
+      }
+    }
+
+  }
+
+}
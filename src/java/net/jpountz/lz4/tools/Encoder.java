@@ -0,0 +1,44 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.Callable;
+
+/**
+ * Writes a compressed format: a header, blocks of at most
+ * {@link #blockSize()} bytes that can be compressed in parallel, and a
+ * trailer.
+ */
+interface Encoder {
+
+  int blockSize();
+
+  /**
+   * Return the header of a stream of <code>contentSize</code> bytes, or of
+   * an unknown size if it is negative.
+   */
+  ByteBuffer header(long contentSize);
+
+  /**
+   * Return a task that compresses <code>src</code> into a block. Called in
+   * the order of the blocks, the tasks may then run concurrently.
+   */
+  Callable<ByteBuffer> encode(ByteBuffer src);
+
+  /** Return what follows the last block. */
+  ByteBuffer trailer();
+
+}
@@ -0,0 +1,237 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.Callable;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import net.jpountz.xxhash.StreamingXXHash32;
+import net.jpountz.xxhash.XXHash32;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * The LZ4 frame format of the <code>lz4</code> command-line tool, see
+ * <a href="https://github.com/lz4/lz4/blob/dev/doc/lz4_Frame_format.md">lz4_Frame_format.md</a>.
+ * Frames are written with independent blocks so that blocks can be
+ * compressed and decompressed in parallel, and frames of linked blocks
+ * (<code>lz4 -BD</code>) or with a dictionary can't be read.
+ */
+final class FrameFormat {
+
+  private FrameFormat() {}
+
+  static final int MAGIC = 0x184D2204;
+  /** Skippable frames have magic numbers from this one to this one + 15. */
+  static final int SKIPPABLE_MAGIC = 0x184D2A50;
+
+  private static final int VERSION = 1;
+  private static final int FLG_BLOCK_INDEPENDENCE = 0x20;
+  private static final int FLG_BLOCK_CHECKSUM = 0x10;
+  private static final int FLG_CONTENT_SIZE = 0x08;
+  private static final int FLG_CONTENT_CHECKSUM = 0x04;
+  private static final int FLG_RESERVED = 0x02;
+  private static final int FLG_DICT_ID = 0x01;
+  private static final int BD_RESERVED = 0x8F;
+
+  /** The block sizes of the identifiers 4 to 7, from 64 KB to 4 MB. */
+  static final int MIN_BLOCK_SIZE_ID = 4, MAX_BLOCK_SIZE_ID = 7;
+
+  private static final int UNCOMPRESSED = 0x80000000;
+
+  private static final XXHash32 HASH32 = XXHashFactory.fastestInstance().hash32();
+
+  static int blockSize(int blockSizeId) {
+    return 1 << (8 + 2 * blockSizeId);
+  }
+
+  /** Return the identifier of <code>blockSize</code>. */
+  static int blockSizeId(int blockSize) {
+    for (int id = MIN_BLOCK_SIZE_ID; id <= MAX_BLOCK_SIZE_ID; ++id) {
+      if (blockSize(id) == blockSize) {
+        return id;
+      }
+    }
+    throw new IllegalArgumentException("The block size of frames must be 64K, 256K, 1M or 4M, got " + blockSize);
+  }
+
+  // the header checksum: the second byte of the hash of the descriptor
+  private static byte headerChecksum(ByteBuffer buf, int off, int len) {
+    return (byte) (HASH32.hash(buf, off, len, 0) >>> 8);
+  }
+
+  static final class FrameEncoder implements Encoder {
+
+    private final LZ4Compressor compressor;
+    private final int blockSizeId;
+    private final boolean blockChecksum;
+    private final boolean contentSize;
+    private final StreamingXXHash32 contentHash;
+
+    FrameEncoder(LZ4Compressor compressor, int blockSizeId, boolean blockChecksum, boolean contentSize,
+        boolean contentChecksum) {
+      this.compressor = compressor;
+      this.blockSizeId = blockSizeId;
+      this.blockChecksum = blockChecksum;
+      this.contentSize = contentSize;
+      this.contentHash = contentChecksum ? XXHashFactory.fastestInstance().newStreamingHash32(0) : null;
+    }
+
+    @Override
+    public int blockSize() {
+      return FrameFormat.blockSize(blockSizeId);
+    }
+
+    @Override
+    public ByteBuffer header(long size) {
+      final ByteBuffer buf = ByteBuffer.allocate(4 + 2 + 8 + 1).order(ByteOrder.LITTLE_ENDIAN);
+      buf.putInt(MAGIC);
+      final boolean writeSize = contentSize && size >= 0;
+      buf.put((byte) (VERSION << 6 | FLG_BLOCK_INDEPENDENCE
+          | (blockChecksum ? FLG_BLOCK_CHECKSUM : 0)
+          | (writeSize ? FLG_CONTENT_SIZE : 0)
+          | (contentHash != null ? FLG_CONTENT_CHECKSUM : 0)));
+      buf.put((byte) (blockSizeId << 4));
+      if (writeSize) {
+        buf.putLong(size);
+      }
+      buf.put(headerChecksum(buf, 4, buf.position() - 4));
+      buf.flip();
+      return buf;
+    }
+
+    @Override
+    public Callable<ByteBuffer> encode(final ByteBuffer src) {
+      final int len = src.remaining();
+      if (contentHash != null) {
+        contentHash.update(src, 0, len);
+      }
+      return new Callable<ByteBuffer>() {
+        @Override
+        public ByteBuffer call() {
+          final int maxCompressedLen = compressor.maxCompressedLength(len);
+          final ByteBuffer dest = ByteBuffer.allocate(4 + maxCompressedLen + 4).order(ByteOrder.LITTLE_ENDIAN);
+          int compressedLen = compressor.compress(src, 0, len, dest, 4, maxCompressedLen);
+          if (compressedLen >= len) {
+            // incompressible, stored as is
+            final ByteBuffer raw = dest.duplicate();
+            raw.position(4);
+            raw.put(src.duplicate());
+            compressedLen = len;
+            dest.putInt(0, len | UNCOMPRESSED);
+          } else {
+            dest.putInt(0, compressedLen);
+          }
+          int end = 4 + compressedLen;
+          if (blockChecksum) {
+            dest.putInt(end, HASH32.hash(dest, 4, compressedLen, 0));
+            end += 4;
+          }
+          dest.limit(end);
+          return dest;
+        }
+      };
+    }
+
+    @Override
+    public ByteBuffer trailer() {
+      final ByteBuffer buf = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+      buf.putInt(0); // end mark
+      if (contentHash != null) {
+        buf.putInt(contentHash.getValue());
+      }
+      buf.flip();
+      return buf;
+    }
+
+  }
+
+  /**
+   * Decode a frame whose magic number has just been read and schedule the
+   * decompression of its blocks on <code>pipeline</code>.
+   */
+  static void decode(Input input, Pipeline pipeline, final LZ4SafeDecompressor decompressor) throws IOException {
+    final ByteBuffer descriptor = ByteBuffer.allocate(2 + 8 + 4).order(ByteOrder.LITTLE_ENDIAN);
+    descriptor.put(input.readFully(2));
+    final int flg = descriptor.get(0) & 0xFF;
+    final int bd = descriptor.get(1) & 0xFF;
+    if (flg >>> 6 != VERSION) {
+      throw new IOException("Unsupported frame version: " + (flg >>> 6));
+    }
+    if ((flg & FLG_RESERVED) != 0 || (bd & BD_RESERVED) != 0 || (bd >>> 4) < MIN_BLOCK_SIZE_ID) {
+      throw new IOException("Frame header is corrupted");
+    }
+    if ((flg & FLG_BLOCK_INDEPENDENCE) == 0) {
+      throw new IOException("Frames of linked blocks are not supported");
+    }
+    if ((flg & FLG_DICT_ID) != 0) {
+      throw new IOException("Frames with a dictionary are not supported");
+    }
+    final boolean blockChecksum = (flg & FLG_BLOCK_CHECKSUM) != 0;
+    final boolean contentChecksum = (flg & FLG_CONTENT_CHECKSUM) != 0;
+    final int maxBlockSize = blockSize(bd >>> 4);
+    long contentSize = -1;
+    if ((flg & FLG_CONTENT_SIZE) != 0) {
+      descriptor.put(input.readFully(8));
+      contentSize = descriptor.getLong(2);
+    }
+    if (input.readFully(1).get(0) != headerChecksum(descriptor, 0, descriptor.position())) {
+      throw new IOException("Frame header is corrupted");
+    }
+
+    final StreamingXXHash32 contentHash = contentChecksum ? XXHashFactory.fastestInstance().newStreamingHash32(0) : null;
+    pipeline.track(contentHash);
+    for (int size = input.readIntLE(); size != 0; size = input.readIntLE()) {
+      final boolean uncompressed = (size & UNCOMPRESSED) != 0;
+      final int len = size & ~UNCOMPRESSED;
+      if (len > maxBlockSize) {
+        throw new IOException("Block is corrupted: " + len + " bytes");
+      }
+      final ByteBuffer block = input.readFully(len);
+      final int checksum = blockChecksum ? input.readIntLE() : 0;
+      pipeline.submit(new Callable<ByteBuffer>() {
+        @Override
+        public ByteBuffer call() throws IOException {
+          if (blockChecksum && HASH32.hash(block, 0, len, 0) != checksum) {
+            throw new IOException("Block checksum mismatch");
+          }
+          if (uncompressed) {
+            return block;
+          }
+          final ByteBuffer dest = ByteBuffer.allocate(maxBlockSize);
+          try {
+            dest.limit(decompressor.decompress(block, 0, len, dest, 0, maxBlockSize));
+          } catch (LZ4Exception e) {
+            throw new IOException("Block is corrupted", e);
+          }
+          return dest;
+        }
+      });
+    }
+    final long count = pipeline.count();
+    if (contentChecksum && input.readIntLE() != contentHash.getValue()) {
+      throw new IOException("Content checksum mismatch");
+    }
+    if (contentSize >= 0 && count != contentSize) {
+      throw new IOException("Frame has " + count + " bytes instead of " + contentSize);
+    }
+    pipeline.track(null);
+  }
+
+}
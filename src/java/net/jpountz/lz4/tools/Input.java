@@ -0,0 +1,156 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * The input of a command, read in slices: regular files are memory-mapped
+ * and their slices are views of the mapping, other inputs such as pipes are
+ * read into new arrays. Slices are never modified afterwards, so that they
+ * can be handed to other threads.
+ */
+abstract class Input implements Closeable {
+
+  /** Open <code>file</code>, or <code>in</code> if it is <code>null</code>. */
+  static Input open(File file, InputStream in) throws IOException {
+    if (file == null) {
+      return new StreamInput(in);
+    } else if (file.isFile()) {
+      return new MappedInput(file);
+    } else {
+      // named pipes and devices can't be mapped
+      return new StreamInput(new FileInputStream(file));
+    }
+  }
+
+  /**
+   * Return the next <code>len</code> bytes in a buffer whose position is 0,
+   * or fewer at the end of the input.
+   */
+  abstract ByteBuffer read(int len) throws IOException;
+
+  /** Return the size of the input, or -1 if it is unknown. */
+  abstract long size();
+
+  /** Return exactly <code>len</code> bytes. */
+  final ByteBuffer readFully(int len) throws IOException {
+    final ByteBuffer buf = read(len);
+    if (buf.remaining() != len) {
+      throw new EOFException("Unexpected end of input");
+    }
+    return buf;
+  }
+
+  final int readIntLE() throws IOException {
+    return readFully(4).order(ByteOrder.LITTLE_ENDIAN).getInt(0);
+  }
+
+  /** Skip exactly <code>len</code> bytes. */
+  final void skip(long len) throws IOException {
+    while (len > 0) {
+      final int n = (int) Math.min(len, 1 << 20);
+      readFully(n);
+      len -= n;
+    }
+  }
+
+  private static final class StreamInput extends Input {
+
+    private final InputStream in;
+
+    StreamInput(InputStream in) {
+      this.in = in;
+    }
+
+    @Override
+    ByteBuffer read(int len) throws IOException {
+      final byte[] bytes = new byte[len];
+      int off = 0;
+      while (off < len) {
+        final int n = in.read(bytes, off, len - off);
+        if (n == -1) {
+          break;
+        }
+        off += n;
+      }
+      return ByteBuffer.wrap(bytes, 0, off);
+    }
+
+    @Override
+    long size() {
+      return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+
+  }
+
+  private static final class MappedInput extends Input {
+
+    // maps this much of the file at once, so that 32-bits JVMs can read large files too
+    private static final int WINDOW = 1 << 28;
+
+    private final RandomAccessFile file;
+    private final FileChannel channel;
+    private final long size;
+    private MappedByteBuffer window;
+    private long windowStart, pos;
+
+    MappedInput(File file) throws IOException {
+      this.file = new RandomAccessFile(file, "r");
+      channel = this.file.getChannel();
+      size = channel.size();
+    }
+
+    @Override
+    ByteBuffer read(int len) throws IOException {
+      len = (int) Math.min(len, size - pos);
+      if (window == null || pos + len > windowStart + window.capacity()) {
+        windowStart = pos;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(Math.max(WINDOW, len), size - pos));
+      }
+      final ByteBuffer slice = window.duplicate();
+      slice.position((int) (pos - windowStart)).limit((int) (pos - windowStart) + len);
+      pos += len;
+      return slice.slice();
+    }
+
+    @Override
+    long size() {
+      return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+      file.close();
+    }
+
+  }
+
+}
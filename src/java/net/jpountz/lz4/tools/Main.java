@@ -0,0 +1,103 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+import net.jpountz.lz4.LZ4Factory;
+
+/**
+ * Entry point of <code>java -jar lz4-java.jar</code>, which runs the command
+ * named by its first argument.
+ */
+public final class Main {
+
+  private Main() {}
+
+  static final String USAGE =
+      "Usage: java -jar lz4-java.jar <command> [options] [arguments]\n"
+      + "\n"
+      + "Commands:\n"
+      + "  compress    compress a file or standard input\n"
+      + "  decompress  decompress a file or standard input\n"
+      + "  bench       benchmark compression and decompression of files\n"
+      + "\n"
+      + "Run a command with --help for its options.\n";
+
+  public static void main(String[] args) {
+    final int status = run(args, System.in, System.out, System.err);
+    if (status != 0) {
+      System.exit(status);
+    }
+  }
+
+  /**
+   * Return the instance named <code>JNI</code>, <code>Unsafe</code>,
+   * <code>Safe</code>, <code>VarHandle</code>, <code>Foreign</code> or
+   * <code>Hybrid</code>.
+   */
+  static LZ4Factory factory(String name) {
+    if ("JNI".equals(name)) {
+      return LZ4Factory.nativeInstance();
+    } else if ("Unsafe".equals(name)) {
+      return LZ4Factory.unsafeInstance();
+    } else if ("Safe".equals(name)) {
+      return LZ4Factory.safeInstance();
+    } else if ("VarHandle".equals(name)) {
+      return LZ4Factory.varHandleInstance();
+    } else if ("Foreign".equals(name)) {
+      return LZ4Factory.foreignInstance();
+    } else if ("Hybrid".equals(name)) {
+      return LZ4Factory.hybridInstance();
+    } else {
+      throw new IllegalArgumentException("Unknown instance: " + name);
+    }
+  }
+
+  /** Run the command of <code>args</code> and return its exit status. */
+  static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+    if (args.length == 0) {
+      err.print(USAGE);
+      return 1;
+    }
+    final String command = args[0];
+    final String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
+    try {
+      if ("compress".equals(command)) {
+        return Compress.compress(commandArgs, in, out, err);
+      } else if ("decompress".equals(command)) {
+        return Compress.decompress(commandArgs, in, out, err);
+      } else if ("bench".equals(command)) {
+        return Bench.run(commandArgs, out);
+      } else if ("--help".equals(command) || "-h".equals(command)) {
+        out.print(USAGE);
+        return 0;
+      } else {
+        err.println("Unknown command: " + command);
+        err.print(USAGE);
+        return 1;
+      }
+    } catch (IllegalArgumentException e) {
+      err.println(e.getMessage());
+      return 1;
+    } catch (Exception e) {
+      err.println(command + " failed: " + e);
+      return 2;
+    }
+  }
+
+}
@@ -0,0 +1,141 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command-line options: flags, options that take a value as
+ * <code>--name value</code> or <code>--name=value</code>, and the remaining
+ * arguments. Invalid options throw an {@link IllegalArgumentException} whose
+ * message is meant for the user.
+ */
+final class Options {
+
+  private final Set<String> flags = new HashSet<String>();
+  private final Map<String, String> values = new HashMap<String, String>();
+  private final List<String> arguments = new ArrayList<String>();
+
+  /**
+   * Parse <code>args</code>, where <code>flags</code> and
+   * <code>valued</code> are the names of the options, such as
+   * <code>--force</code>, that take no value and a value.
+   */
+  Options(String[] args, String[] flags, String[] valued) {
+    final List<String> flagNames = Arrays.asList(flags);
+    final List<String> valuedNames = Arrays.asList(valued);
+    for (int i = 0; i < args.length; ++i) {
+      final String arg = args[i];
+      if ("--".equals(arg)) {
+        arguments.addAll(Arrays.asList(args).subList(i + 1, args.length));
+        break;
+      } else if (arg.length() > 1 && arg.charAt(0) == '-') {
+        final int eq = arg.indexOf('=');
+        final String name = eq == -1 ? arg : arg.substring(0, eq);
+        if (flagNames.contains(name) && eq == -1) {
+          this.flags.add(name);
+        } else if (valuedNames.contains(name)) {
+          if (eq != -1) {
+            values.put(name, arg.substring(eq + 1));
+          } else if (i + 1 < args.length) {
+            values.put(name, args[++i]);
+          } else {
+            throw new IllegalArgumentException("Missing value for " + name);
+          }
+        } else {
+          throw new IllegalArgumentException("Unknown option: " + arg);
+        }
+      } else {
+        arguments.add(arg);
+      }
+    }
+  }
+
+  boolean has(String flag) {
+    return flags.contains(flag);
+  }
+
+  String get(String name, String defaultValue) {
+    final String value = values.get(name);
+    return value == null ? defaultValue : value;
+  }
+
+  int getInt(String name, int defaultValue) {
+    final String value = values.get(name);
+    if (value == null) {
+      return defaultValue;
+    }
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid " + name + ": " + value);
+    }
+  }
+
+  /** Return the comma-separated values of <code>name</code>. */
+  List<String> getList(String name, String defaultValue) {
+    final List<String> list = new ArrayList<String>();
+    for (String value : get(name, defaultValue).split(",")) {
+      if (!value.isEmpty()) {
+        list.add(value);
+      }
+    }
+    if (list.isEmpty()) {
+      throw new IllegalArgumentException("Empty " + name);
+    }
+    return list;
+  }
+
+  List<String> arguments() {
+    return arguments;
+  }
+
+  /** Parse a size in bytes with an optional <code>K</code>, <code>M</code> or <code>G</code> suffix. */
+  static long parseSize(String size) {
+    if (size.isEmpty()) {
+      throw new IllegalArgumentException("Invalid size: " + size);
+    }
+    int shift = 0;
+    switch (Character.toUpperCase(size.charAt(size.length() - 1))) {
+      case 'K':
+        shift = 10;
+        break;
+      case 'M':
+        shift = 20;
+        break;
+      case 'G':
+        shift = 30;
+        break;
+      default:
+        break;
+    }
+    try {
+      final long value = Long.parseLong(shift == 0 ? size : size.substring(0, size.length() - 1));
+      if (value < 0 || value > Long.MAX_VALUE >> shift) {
+        throw new IllegalArgumentException("Invalid size: " + size);
+      }
+      return value << shift;
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid size: " + size);
+    }
+  }
+
+}
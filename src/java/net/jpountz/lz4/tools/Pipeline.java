@@ -0,0 +1,126 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import net.jpountz.xxhash.StreamingXXHash32;
+
+/**
+ * Runs tasks that each produce a block on a thread pool and writes their
+ * results in submission order. At most <code>window</code> tasks are pending
+ * at a time, which bounds memory usage to a few blocks per thread.
+ */
+final class Pipeline {
+
+  private final ExecutorService executor;
+  private final int window;
+  private final WritableByteChannel out;
+  private final ArrayDeque<Future<ByteBuffer>> pending = new ArrayDeque<Future<ByteBuffer>>();
+  private StreamingXXHash32 hash;
+  private long count, written;
+
+  Pipeline(ExecutorService executor, int window, WritableByteChannel out) {
+    this.executor = executor;
+    this.window = window;
+    this.out = out;
+  }
+
+  /** Schedule <code>task</code>, whose result is written after those of the previous tasks. */
+  void submit(Callable<ByteBuffer> task) throws IOException {
+    if (pending.size() >= window) {
+      writeNext();
+    }
+    pending.add(executor.submit(task));
+  }
+
+  /** Write <code>buf</code> after the results of the pending tasks. */
+  void write(ByteBuffer buf) throws IOException {
+    drain();
+    writeFully(buf);
+  }
+
+  /** Wait for the pending tasks and write their results. */
+  void drain() throws IOException {
+    while (!pending.isEmpty()) {
+      writeNext();
+    }
+  }
+
+  /**
+   * From now on, count the bytes that tasks produce and hash them with
+   * <code>hash</code>, if not <code>null</code>.
+   */
+  void track(StreamingXXHash32 hash) throws IOException {
+    drain();
+    this.hash = hash;
+    count = 0;
+  }
+
+  /** Return the number of bytes that tasks produced since {@link #track(StreamingXXHash32)}. */
+  long count() throws IOException {
+    drain();
+    return count;
+  }
+
+  private void writeNext() throws IOException {
+    final ByteBuffer buf = get(pending.poll());
+    if (hash != null) {
+      hash.update(buf, buf.position(), buf.remaining());
+    }
+    count += buf.remaining();
+    writeFully(buf);
+  }
+
+  /** Return the number of bytes written so far. */
+  long written() {
+    return written;
+  }
+
+  private void writeFully(ByteBuffer buf) throws IOException {
+    written += buf.remaining();
+    while (buf.hasRemaining()) {
+      out.write(buf);
+    }
+  }
+
+  private static ByteBuffer get(Future<ByteBuffer> future) throws IOException {
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new IOException(cause);
+    }
+  }
+
+}
@@ -19,6 +19,7 @@ import static net.jpountz.util.Utils.NATIVE_BYTE_ORDER;
 
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
 
 public enum ByteBufferUtils {
   ;
@@ -37,6 +38,12 @@ public enum ByteBufferUtils {
     }
   }
 
+  public static void checkNotReadOnly(ByteBuffer buf) {
+    if (buf.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+  }
+
   public static void checkLength(int len) {
     if (len < 0) {
       throw new IllegalArgumentException("lengths must be >= 0");
@@ -83,6 +90,21 @@ public enum ByteBufferUtils {
     dest.put(tokenOff, (byte) i);
   }
 
+  /**
+   * Copy <code>src[srcOff:srcOff+len]</code> to
+   * <code>dest[destOff:destOff+len]</code> with a single bulk transfer. Neither
+   * buffer's position or limit is modified. The ranges must not overlap.
+   */
+  public static void arraycopy(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int len) {
+    final ByteBuffer srcSlice = src.duplicate();
+    srcSlice.limit(srcOff + len);
+    srcSlice.position(srcOff);
+    final ByteBuffer destSlice = dest.duplicate();
+    destSlice.limit(destOff + len);
+    destSlice.position(destOff);
+    destSlice.put(srcSlice);
+  }
+
   public static byte[] getArray(ByteBuffer buf) {
     return buf.hasArray() ? buf.array() : null;
   }
@@ -0,0 +1,79 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * FOR INTERNAL USE ONLY
+ * <p>
+ * Hooks that record JDK Flight Recorder events of compression, decompression
+ * and hashing. JFR only exists on Java 11+, where the multi-release JAR
+ * replaces this class with one that records the events that a recording
+ * enables: this version records nothing, and its hooks compile to nothing.
+ * <p>
+ * An operation is recorded as:
+ * <pre>
+ * final Object event = Events.begin(Events.COMPRESS, srcLen);
+ * final int compressedLen = ...;
+ * if (event != null) {
+ *   Events.commit(event, compressor, null, srcLen, compressedLen);
+ * }
+ * </pre>
+ */
+public enum Events {
+  ;
+
+  /**
+   * The system property that makes factories return instances that record
+   * their calls, when <code>true</code>. Block streams don't need it.
+   */
+  public static final String PROPERTY = "net.jpountz.jfr";
+
+  /**
+   * The kinds of events, whose minimum input size in bytes can be set with
+   * the <code>net.jpountz.jfr.threshold.&lt;kind&gt;</code> system property,
+   * where the kind is <code>compress</code>, <code>decompress</code>,
+   * <code>blockFlush</code>, <code>blockRefill</code> or <code>hash</code>,
+   * and for all kinds at once with <code>net.jpountz.jfr.threshold</code>.
+   * Blocks of streams are recorded whatever their size by default, other
+   * operations from 64 KB.
+   */
+  public static final int COMPRESS = 0, DECOMPRESS = 1, BLOCK_FLUSH = 2, BLOCK_REFILL = 3, HASH = 4;
+
+  /**
+   * Return whether factories should return instances that record their
+   * calls: events can be recorded and {@link #PROPERTY} is <code>true</code>.
+   */
+  public static boolean enabled() {
+    return false;
+  }
+
+  /**
+   * Start an event of the given kind on an input of <code>len</code> bytes
+   * and return it, or return <code>null</code> if it is not recorded.
+   */
+  public static Object begin(int kind, long len) {
+    return null;
+  }
+
+  /**
+   * Commit an event returned by {@link #begin(int, long)}.
+   *
+   * @param implementation the instance that did the work, whose class is recorded
+   * @param stream the stream of the operation, or <code>null</code>
+   */
+  public static void commit(Object event, Object implementation, Object stream, long inputSize, long outputSize) {
+  }
+
+}
@@ -14,10 +14,27 @@ package net.jpountz.util;
  * limitations under the License.
  */
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
 
 /** FOR INTERNAL USE ONLY */
 public enum Native {
@@ -54,13 +71,79 @@ public enum Native {
     }
   }
 
-  private static String resourceName() {
+  private static String resourceName(String variant) {
     OS os = os();
-    return "/" + os.name + "/" + arch() + "/liblz4-java." + os.libExtension;
+    return "/" + os.name + "/" + arch() + "/liblz4-java" + (variant.isEmpty() ? "" : "-" + variant) + "." + os.libExtension;
   }
 
+  // CPU features that code compiled with -march=x86-64-v3 may use, as
+  // reported by /proc/cpuinfo
+  private static final String[] X86_64_V3_FLAGS = {
+    "avx", "avx2", "bmi1", "bmi2", "f16c", "fma", "abm", "movbe", "xsave"
+  };
+
+  /**
+   * Return the library variants that can run on a CPU with the given
+   * <code>/proc/cpuinfo</code> content, best first. The empty string stands
+   * for the baseline library, which runs everywhere.
+   */
+  static List<String> variants(String arch, String cpuinfo) {
+    final List<String> variants = new ArrayList<String>();
+    if (("amd64".equals(arch) || "x86_64".equals(arch)) && cpuinfo != null) {
+      final Set<String> flags = new HashSet<String>();
+      for (String line : cpuinfo.split("\n")) {
+        if (line.startsWith("flags")) {
+          flags.addAll(Arrays.asList(line.substring(line.indexOf(':') + 1).trim().split("\\s+")));
+          break;
+        }
+      }
+      if (flags.containsAll(Arrays.asList(X86_64_V3_FLAGS))) {
+        variants.add("x86-64-v3");
+      }
+    }
+    variants.add("");
+    return variants;
+  }
+
+  private static String cpuinfo() {
+    if (os() != OS.LINUX) {
+      return null;
+    }
+    try {
+      return new String(readFully(new FileInputStream("/proc/cpuinfo")), "US-ASCII");
+    } catch (IOException e) {
+      return null;
+    }
+  }
+
+  /**
+   * System property with the path of a native library to load instead of
+   * the one bundled with this library, for example when it has been
+   * preinstalled on the system.
+   */
+  public static final String LIBRARY_PROPERTY = "net.jpountz.jni.library";
+
+  /**
+   * System property with the directory where the bundled native library is
+   * extracted to. It defaults to a user-specific directory in
+   * <code>java.io.tmpdir</code>.
+   */
+  public static final String CACHE_DIR_PROPERTY = "net.jpountz.jni.cacheDir";
+
+  /**
+   * System property with the name of the bundled native library variant to
+   * load, or the empty string for the baseline library. By default, the best
+   * variant for the current CPU is picked.
+   */
+  public static final String VARIANT_PROPERTY = "net.jpountz.jni.variant";
+
   private static boolean loaded = false;
 
+  // GraalVM native images only embed the resources they are told to
+  private static boolean inNativeImage() {
+    return System.getProperty("org.graalvm.nativeimage.imagecode") != null;
+  }
+
   public static synchronized boolean isLoaded() {
     return loaded;
   }
@@ -69,41 +152,56 @@ public enum Native {
     if (loaded) {
       return;
     }
-    String resourceName = resourceName();
-    InputStream is = Native.class.getResourceAsStream(resourceName);
+    final String library = System.getProperty(LIBRARY_PROPERTY);
+    if (library != null) {
+      System.load(new File(library).getAbsolutePath());
+      loaded = true;
+      return;
+    }
+
+    final String variant = System.getProperty(VARIANT_PROPERTY);
+    final List<String> variants = variant != null
+        ? Collections.singletonList(variant)
+        : variants(arch(), cpuinfo());
+    String resourceName = null;
+    InputStream is = null;
+    for (int i = 0; i < variants.size() && is == null; ++i) {
+      resourceName = resourceName(variants.get(i));
+      is = Native.class.getResourceAsStream(resourceName);
+    }
     if (is == null) {
+      if (inNativeImage()) {
+        throw new UnsupportedOperationException("Cannot find " + resourceName + " in the native image. Please include it with -H:IncludeResources or set " + LIBRARY_PROPERTY + ".");
+      }
       throw new UnsupportedOperationException("Unsupported OS/arch, cannot find " + resourceName + ". Please try building from source.");
     }
+    final byte[] bytes;
+    try {
+      bytes = readFully(is);
+    } catch (IOException e) {
+      throw new ExceptionInInitializerError("Cannot unpack liblz4-java");
+    }
+
+    File cached = null;
+    try {
+      cached = extract(cacheDir(), bytes);
+    } catch (IOException e) {
+      // the cache directory is not usable or not safe, fall back to a temporary file
+    }
+    if (cached != null) {
+      System.load(cached.getAbsolutePath());
+      loaded = true;
+      return;
+    }
+
     File tempLib;
     try {
       tempLib = File.createTempFile("liblz4-java", "." + os().libExtension);
-      // copy to tempLib
-      FileOutputStream out = new FileOutputStream(tempLib);
       try {
-        byte[] buf = new byte[4096];
-        while (true) {
-          int read = is.read(buf);
-          if (read == -1) {
-            break;
-          }
-          out.write(buf, 0, read);
-        }
-        try {
-          out.close();
-          out = null;
-        } catch (IOException e) {
-          // ignore
-        }
+        write(tempLib, bytes);
         System.load(tempLib.getAbsolutePath());
         loaded = true;
       } finally {
-        try {
-          if (out != null) {
-            out.close();
-          }
-        } catch (IOException e) {
-          // ignore
-        }
         if (tempLib != null && tempLib.exists()) {
           if (!loaded) {
             tempLib.delete();
@@ -118,4 +216,166 @@ public enum Native {
     }
   }
 
+  private static File cacheDir() {
+    final String cacheDir = System.getProperty(CACHE_DIR_PROPERTY);
+    if (cacheDir != null) {
+      return new File(cacheDir);
+    }
+    final String user = System.getProperty("user.name", "").replaceAll("[^A-Za-z0-9._-]", "_");
+    return new File(System.getProperty("java.io.tmpdir"), "lz4-java-" + user);
+  }
+
+  /**
+   * Extract <code>library</code> to <code>dir</code> unless it is already
+   * there, and return its path. Files are named after a checksum of their
+   * content so that JVMs using different versions of this library can share
+   * the same directory, and they are written to a temporary file first and
+   * then renamed so that concurrent JVMs never load a partially written
+   * file.
+   * <p>
+   * Since the library is loaded from there, <code>dir</code> must only be
+   * writable by the current user: it is created with owner-only permissions,
+   * and an existing directory that is owned by another user or writable by
+   * other users is refused. An existing file is only reused if its content
+   * is the same as <code>library</code>.
+   *
+   * @throws IOException if <code>dir</code> can't be used, including on
+   *     Java 6, which can't tell who owns it
+   */
+  static File extract(File dir, byte[] library) throws IOException {
+    try {
+      PrivateDirectory.create(dir);
+      if (!PrivateDirectory.isPrivate(dir)) {
+        throw new IOException(dir + " is not owned by the current user or is writable by other users");
+      }
+    } catch (LinkageError e) {
+      throw new IOException("File owners and permissions require Java 7+");
+    }
+    final File file = new File(dir, "liblz4-java-" + checksum(library) + "." + os().libExtension);
+    if (hasContent(file, library)) {
+      return file;
+    }
+    final File tmp = File.createTempFile("liblz4-java-", ".tmp", dir);
+    try {
+      write(tmp, library);
+      // renaming fails on Windows if another JVM extracted the library first
+      if (!tmp.renameTo(file) && !hasContent(file, library)) {
+        throw new IOException("Cannot rename " + tmp + " to " + file);
+      }
+    } finally {
+      tmp.delete();
+    }
+    return file;
+  }
+
+  private static boolean hasContent(File file, byte[] content) throws IOException {
+    return file.isFile() && file.length() == content.length
+        && Arrays.equals(readFully(new FileInputStream(file)), content);
+  }
+
+  // a CRC32 rather than a cryptographic hash, whose initialization would
+  // cost more than extracting the library: files are compared byte by byte
+  // before being reused anyway
+  private static String checksum(byte[] bytes) {
+    final CRC32 crc32 = new CRC32();
+    crc32.update(bytes);
+    return Long.toHexString(crc32.getValue()) + "-" + Integer.toHexString(bytes.length);
+  }
+
+  /**
+   * Owner and permission checks of the extraction directory, which need
+   * java.nio.file: this class must only be loaded where a LinkageError is
+   * caught, since the rest of this library still runs on Java 6.
+   */
+  private static final class PrivateDirectory {
+
+    private static final Set<PosixFilePermission> OWNER_ONLY = PosixFilePermissions.fromString("rwx------");
+
+    /** Create <code>dir</code> with owner-only permissions, unless it exists. */
+    static void create(File dir) throws IOException {
+      final Path path = dir.toPath();
+      if (Files.exists(path, LinkOption.NOFOLLOW_LINKS)) {
+        return;
+      }
+      final Path parent = path.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      try {
+        if (Files.getFileStore(parent).supportsFileAttributeView(PosixFileAttributeView.class)) {
+          Files.createDirectory(path, PosixFilePermissions.asFileAttribute(OWNER_ONLY));
+        } else {
+          Files.createDirectory(path);
+        }
+      } catch (FileAlreadyExistsException e) {
+        // another JVM created it first, it is checked like any existing directory
+      }
+    }
+
+    /**
+     * Return whether <code>dir</code> is a directory, not a symbolic link,
+     * that is owned by the current user and that neither its group nor
+     * other users can write to.
+     */
+    static boolean isPrivate(File dir) throws IOException {
+      final Path path = dir.toPath();
+      if (!Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+        return false;
+      }
+      if (!currentUser(path).equals(Files.getOwner(path, LinkOption.NOFOLLOW_LINKS))) {
+        return false;
+      }
+      final PosixFileAttributeView posix = Files.getFileAttributeView(path, PosixFileAttributeView.class, LinkOption.NOFOLLOW_LINKS);
+      if (posix == null) {
+        // Windows: the owner has been checked, ACLs are not
+        return true;
+      }
+      final Set<PosixFilePermission> permissions = posix.readAttributes().permissions();
+      return !permissions.contains(PosixFilePermission.GROUP_WRITE)
+          && !permissions.contains(PosixFilePermission.OTHERS_WRITE);
+    }
+
+    // user.name may not name a user, for example in containers that run
+    // with an arbitrary uid, but the files we create are always ours
+    private static UserPrincipal currentUser(Path dir) throws IOException {
+      final Path probe = Files.createTempFile(dir, "liblz4-java-", ".tmp");
+      try {
+        return Files.getOwner(probe);
+      } finally {
+        Files.delete(probe);
+      }
+    }
+
+  }
+
+  static byte[] readFully(InputStream is) throws IOException {
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      while (true) {
+        int read = is.read(buf);
+        if (read == -1) {
+          break;
+        }
+        out.write(buf, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      try {
+        is.close();
+      } catch (IOException e) {
+        // ignore
+      }
+    }
+  }
+
+  private static void write(File file, byte[] bytes) throws IOException {
+    final FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(bytes);
+    } finally {
+      out.close();
+    }
+  }
+
 }
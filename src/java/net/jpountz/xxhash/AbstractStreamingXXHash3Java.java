@@ -0,0 +1,53 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.xxhash.XXHashConstants.*;
+
+abstract class AbstractStreamingXXHash3Java extends StreamingXXHash3 {
+
+  final long[] acc;
+  final byte[] buffer;
+  final byte[] secret;
+  final long[] secretWords;
+  int bufferedSize;
+  int nbStripesSoFar;
+  long totalLen;
+
+  AbstractStreamingXXHash3Java(long seed, byte[] secret, long[] secretWords) {
+    super(seed);
+    this.secret = secret;
+    this.secretWords = secretWords;
+    acc = new long[8];
+    buffer = new byte[XXH3_INTERNAL_BUFFER_SIZE];
+    reset();
+  }
+
+  @Override
+  public void reset() {
+    acc[0] = PRIME32_3;
+    acc[1] = PRIME64_1;
+    acc[2] = PRIME64_2;
+    acc[3] = PRIME64_3;
+    acc[4] = PRIME64_4;
+    acc[5] = PRIME32_2;
+    acc[6] = PRIME64_5;
+    acc[7] = PRIME32_1;
+    bufferedSize = 0;
+    nbStripesSoFar = 0;
+    totalLen = 0;
+  }
+
+}
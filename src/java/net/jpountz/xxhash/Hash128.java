@@ -0,0 +1,78 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A 128-bits hash value, as returned by {@link XXHash3#hash128} and
+ * {@link StreamingXXHash3#getValue128()}.
+ * <p>
+ * Instances of this class are immutable.
+ */
+public final class Hash128 {
+
+  private final long low64;
+  private final long high64;
+
+  /**
+   * Create a new instance from the low and high 64 bits of the hash.
+   */
+  public Hash128(long low64, long high64) {
+    this.low64 = low64;
+    this.high64 = high64;
+  }
+
+  /**
+   * Return the low 64 bits of the hash.
+   */
+  public long low64() {
+    return low64;
+  }
+
+  /**
+   * Return the high 64 bits of the hash.
+   */
+  public long high64() {
+    return high64;
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (!(obj instanceof Hash128)) {
+      return false;
+    }
+    final Hash128 other = (Hash128) obj;
+    return low64 == other.low64 && high64 == other.high64;
+  }
+
+  @Override
+  public int hashCode() {
+    return (int) (low64 ^ (low64 >>> 32));
+  }
+
+  /**
+   * Return the hash as 32 hexadecimal digits, high bits first, as printed by
+   * <code>xxhsum -H2</code>.
+   */
+  @Override
+  public String toString() {
+    return hex(high64) + hex(low64);
+  }
+
+  private static String hex(long l) {
+    final String s = Long.toHexString(l);
+    return "0000000000000000".substring(s.length()) + s;
+  }
+
+}
@@ -0,0 +1,117 @@
+package net.jpountz.xxhash;
+
+import java.util.zip.Checksum;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Streaming interface for {@link XXHash3}.
+ * <p>
+ * This API is compatible with the {@link XXHash3 block API} and the following
+ * code samples are equivalent:
+ * <pre class="prettyprint">
+ *   long hash(XXHashFactory xxhashFactory, byte[] buf, int off, int len, long seed) {
+ *     return xxhashFactory.xxh3().hash64(buf, off, len, seed);
+ *   }
+ * </pre>
+ * <pre class="prettyprint">
+ *   long hash(XXHashFactory xxhashFactory, byte[] buf, int off, int len, long seed) {
+ *     StreamingXXHash3 sh3 = xxhashFactory.newStreamingXXH3(seed);
+ *     sh3.update(buf, off, len);
+ *     return sh3.getValue();
+ *   }
+ * </pre>
+ * The same instance can compute both the 64 and the 128-bits hashes of the
+ * data it has been fed with.
+ * <p>
+ * Instances of this class are <b>not</b> thread-safe.
+ */
+public abstract class StreamingXXHash3 {
+
+  interface Factory {
+
+    StreamingXXHash3 newStreamingHash(long seed);
+
+  }
+
+  final long seed;
+
+  StreamingXXHash3(long seed) {
+    this.seed = seed;
+  }
+
+  /**
+   * Get the 64-bits hash of the data seen so far.
+   */
+  public abstract long getValue();
+
+  /**
+   * Get the 128-bits hash of the data seen so far.
+   */
+  public abstract Hash128 getValue128();
+
+  /**
+   * Update the value of the hash with buf[off:off+len].
+   */
+  public abstract void update(byte[] buf, int off, int len);
+
+  /**
+   * Reset this instance to the state it had right after instantiation. The
+   * seed remains unchanged.
+   */
+  public abstract void reset();
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(seed=" + seed + ")";
+  }
+
+  /**
+   * Return a {@link Checksum} view of this instance, whose value is the
+   * 64-bits hash. Modifications to the view will modify this instance too and
+   * vice-versa.
+   */
+  public final Checksum asChecksum() {
+    return new Checksum() {
+
+      @Override
+      public long getValue() {
+        return StreamingXXHash3.this.getValue();
+      }
+
+      @Override
+      public void reset() {
+        StreamingXXHash3.this.reset();
+      }
+
+      @Override
+      public void update(int b) {
+        StreamingXXHash3.this.update(new byte[] {(byte) b}, 0, 1);
+      }
+
+      @Override
+      public void update(byte[] b, int off, int len) {
+        StreamingXXHash3.this.update(b, off, len);
+      }
+
+      @Override
+      public String toString() {
+        return StreamingXXHash3.this.toString();
+      }
+
+    };
+  }
+
+}
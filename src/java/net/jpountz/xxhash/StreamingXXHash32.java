@@ -1,5 +1,6 @@
 package net.jpountz.xxhash;
 
+import java.nio.ByteBuffer;
 import java.util.zip.Checksum;
 
 /*
@@ -62,6 +63,13 @@ public abstract class StreamingXXHash32 {
    */
   public abstract void update(byte[] buf, int off, int len);
 
+  /**
+   * Update the value of the hash with buf[off:off+len].
+   * {@link ByteBuffer#position() position} and {@link ByteBuffer#limit() limit}
+   * are not modified. Direct buffers are read in place.
+   */
+  public abstract void update(ByteBuffer buf, int off, int len);
+
   /**
    * Reset this instance to the state it had right after instantiation. The
    * seed remains unchanged.
@@ -14,6 +14,10 @@ package net.jpountz.xxhash;
  * limitations under the License.
  */
 
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+import static net.jpountz.util.Utils.checkRange;
+
+import java.nio.ByteBuffer;
 
 final class StreamingXXHash32JNI extends StreamingXXHash32 {
 
@@ -28,44 +32,48 @@ final class StreamingXXHash32JNI extends StreamingXXHash32 {
 
   }
 
-  private long state;
+  private static final int SIZEOF_STATE = XXHashJNI.XXH32_sizeofState();
+
+  private final long[] state;
 
   StreamingXXHash32JNI(int seed) {
     super(seed);
-    state = XXHashJNI.XXH32_init(seed);
-  }
-
-  private void checkState() {
-    if (state == 0) {
-      throw new AssertionError("Already finalized");
-    }
+    state = XXHashJNI.newState(SIZEOF_STATE);
+    XXHashJNI.XXH32_resetState(state, seed);
   }
 
   @Override
   public void reset() {
-    checkState();
-    XXHashJNI.XXH32_free(state);
-    state = XXHashJNI.XXH32_init(seed);
+    XXHashJNI.XXH32_resetState(state, seed);
   }
 
   @Override
   public int getValue() {
-    checkState();
     return XXHashJNI.XXH32_intermediateDigest(state);
   }
 
   @Override
   public void update(byte[] bytes, int off, int len) {
-    checkState();
-    XXHashJNI.XXH32_update(state, bytes, off, len);
+    checkRange(bytes, off, len);
+    XXHashJNI.XXH32_update(state, bytes, null, off, len);
   }
 
   @Override
-  protected void finalize() throws Throwable {
-    super.finalize();
-    // free memory
-    XXHashJNI.XXH32_free(state);
-    state = 0;
+  public void update(ByteBuffer buf, int off, int len) {
+    checkRange(buf, off, len);
+    if (buf.isDirect()) {
+      XXHashJNI.XXH32_update(state, null, buf, off, len);
+    } else if (buf.hasArray()) {
+      XXHashJNI.XXH32_update(state, buf.array(), null, off + buf.arrayOffset(), len);
+    } else {
+      // read-only heap buffers expose neither their array nor an address
+      final ByteBuffer slice = buf.duplicate();
+      slice.limit(off + len);
+      slice.position(off);
+      final byte[] bytes = new byte[len];
+      slice.get(bytes);
+      XXHashJNI.XXH32_update(state, bytes, null, 0, len);
+    }
   }
 
 }
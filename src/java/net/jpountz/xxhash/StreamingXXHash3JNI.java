@@ -0,0 +1,65 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.Utils.checkRange;
+
+final class StreamingXXHash3JNI extends StreamingXXHash3 {
+
+  static class Factory implements StreamingXXHash3.Factory {
+
+    public static final StreamingXXHash3.Factory INSTANCE = new Factory();
+
+    @Override
+    public StreamingXXHash3 newStreamingHash(long seed) {
+      return new StreamingXXHash3JNI(seed);
+    }
+
+  }
+
+  private static final int SIZEOF_STATE = XXHashJNI.XXH3_sizeofState();
+
+  private final long[] state;
+
+  StreamingXXHash3JNI(long seed) {
+    super(seed);
+    state = XXHashJNI.newState(SIZEOF_STATE);
+    XXHashJNI.XXH3_resetState(state, seed);
+  }
+
+  @Override
+  public void reset() {
+    XXHashJNI.XXH3_resetState(state, seed);
+  }
+
+  @Override
+  public long getValue() {
+    return XXHashJNI.XXH3_digest64(state);
+  }
+
+  @Override
+  public Hash128 getValue128() {
+    final long[] hash = new long[2];
+    XXHashJNI.XXH3_digest128(state, hash);
+    return new Hash128(hash[0], hash[1]);
+  }
+
+  @Override
+  public void update(byte[] bytes, int off, int len) {
+    checkRange(bytes, off, len);
+    XXHashJNI.XXH3_update(state, bytes, off, len);
+  }
+
+}
@@ -0,0 +1,58 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.Utils.checkRange;
+
+final class StreamingXXHash64JNI extends StreamingXXHash64 {
+
+  static class Factory implements StreamingXXHash64.Factory {
+
+    public static final StreamingXXHash64.Factory INSTANCE = new Factory();
+
+    @Override
+    public StreamingXXHash64 newStreamingHash(long seed) {
+      return new StreamingXXHash64JNI(seed);
+    }
+
+  }
+
+  private static final int SIZEOF_STATE = XXHashJNI.XXH64_sizeofState();
+
+  private final long[] state;
+
+  StreamingXXHash64JNI(long seed) {
+    super(seed);
+    state = XXHashJNI.newState(SIZEOF_STATE);
+    XXHashJNI.XXH64_resetState(state, seed);
+  }
+
+  @Override
+  public void reset() {
+    XXHashJNI.XXH64_resetState(state, seed);
+  }
+
+  @Override
+  public long getValue() {
+    return XXHashJNI.XXH64_intermediateDigest(state);
+  }
+
+  @Override
+  public void update(byte[] bytes, int off, int len) {
+    checkRange(bytes, off, len);
+    XXHashJNI.XXH64_update(state, bytes, off, len);
+  }
+
+}
@@ -0,0 +1,43 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * XXH3, a 64 and 128-bits hash which is especially fast on small inputs such
+ * as hash table keys. Hashes are those of the reference implementation
+ * (xxHash 0.8 and later) for the same seed.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public abstract class XXHash3 {
+
+  /**
+   * Compute the 64-bits XXH3 hash of <code>buf[off:off+len]</code> using seed
+   * <code>seed</code>.
+   */
+  public abstract long hash64(byte[] buf, int off, int len, long seed);
+
+  /**
+   * Compute the 128-bits XXH3 hash of <code>buf[off:off+len]</code> using seed
+   * <code>seed</code>.
+   */
+  public abstract Hash128 hash128(byte[] buf, int off, int len, long seed);
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
+}
@@ -14,12 +14,16 @@ package net.jpountz.xxhash;
  * limitations under the License.
  */
 
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+
+import java.nio.ByteBuffer;
+
 /**
  * A 32-bits hash.
  * <p>
  * Instances of this class are thread-safe.
  */
-public abstract class XXHash32 {
+public abstract class XXHash32 extends XXHash32Base {
 
   /**
    * Compute the 32-bits hash of <code>buf[off:off+len]</code> using seed
@@ -27,6 +31,105 @@ public abstract class XXHash32 {
    */
   public abstract int hash(byte[] buf, int off, int len, int seed);
 
+  /**
+   * Compute the hash of the given slice of the {@link ByteBuffer}.
+   * {@link ByteBuffer#position() position} and {@link ByteBuffer#limit() limit}
+   * are not modified. Direct buffers are hashed in place, without copying
+   * their content to the heap.
+   */
+  public int hash(ByteBuffer buf, int off, int len, int seed) {
+    checkRange(buf, off, len);
+    if (buf.hasArray()) {
+      return hash(buf.array(), off + buf.arrayOffset(), len, seed);
+    }
+    return XXHashFactory.safeInstance().hash32().hash(buf, off, len, seed);
+  }
+
+  /**
+   * Compute the hash of the 4 little-endian bytes of <code>value</code>,
+   * without allocating.
+   */
+  public final int hashInt(int value, int seed) {
+    return XXHashPrimitives.xxh32Int(value, seed);
+  }
+
+  /**
+   * Compute the hash of the 8 little-endian bytes of <code>value</code>,
+   * without allocating.
+   */
+  public final int hashLong(long value, int seed) {
+    return XXHashPrimitives.xxh32Long(value, seed);
+  }
+
+  /**
+   * Compute the hash of the UTF-16LE encoding of <code>chars</code> (2 bytes
+   * per char, unpaired surrogates included), without allocating.
+   */
+  public final int hashChars(CharSequence chars, int seed) {
+    return XXHashPrimitives.xxh32Chars(chars, seed);
+  }
+
+  /**
+   * Compute the hash of the Latin-1 (ISO-8859-1) encoding of
+   * <code>chars</code>, without allocating. Only the low 8 bits of every char
+   * are hashed, so chars above <code>'&#92;u00FF'</code> don't hash like
+   * {@link String#getBytes(String)} encodes them.
+   */
+  public final int hashLatin1(CharSequence chars, int seed) {
+    return XXHashPrimitives.xxh32Latin1(chars, seed);
+  }
+
+  /**
+   * Compute the hashes of all arrays of <code>inputs</code> using seed
+   * <code>seed</code>, and store the hash of <code>inputs[i]</code> in
+   * <code>out[i]</code>. The native instance hashes the whole batch with a
+   * single JNI call, and hashes several arrays of at least 128 bytes in
+   * lockstep with vector instructions when the CPU supports them (such as
+   * x86-64-v3). The Java instances hash the arrays one by one.
+   *
+   * @throws IllegalArgumentException if <code>out</code> has less than
+   *         <code>inputs.length</code> entries
+   */
+  public final void hashBatch(byte[][] inputs, int seed, int[] out) {
+    checkBatch(inputs, out.length);
+    hashBatchUnchecked(inputs, seed, out);
+  }
+
+  /**
+   * Same as {@link #hashBatch(byte[][], int, int[])} with the remaining bytes
+   * of every buffer of <code>inputs</code>. No position is moved. The native
+   * instance copies the buffers of less than 512 bytes, direct or not, into a
+   * single array that it hashes with one JNI call, and hashes larger buffers
+   * one by one.
+   */
+  public final void hashBatch(ByteBuffer[] inputs, int seed, int[] out) {
+    checkBatch(inputs, out.length);
+    hashBatchUnchecked(inputs, seed, out);
+  }
+
+  private static void checkBatch(Object[] inputs, int outLen) {
+    for (Object input : inputs) {
+      if (input == null) {
+        throw new NullPointerException();
+      }
+    }
+    if (outLen < inputs.length) {
+      throw new IllegalArgumentException("out must have at least " + inputs.length + " entries");
+    }
+  }
+
+  void hashBatchUnchecked(byte[][] inputs, int seed, int[] out) {
+    for (int i = 0; i < inputs.length; ++i) {
+      out[i] = hash(inputs[i], 0, inputs[i].length, seed);
+    }
+  }
+
+  void hashBatchUnchecked(ByteBuffer[] inputs, int seed, int[] out) {
+    for (int i = 0; i < inputs.length; ++i) {
+      out[i] = hash(inputs[i], inputs[i].position(), inputs[i].remaining(), seed);
+    }
+  }
+
   @Override
   public String toString() {
     return getClass().getSimpleName();
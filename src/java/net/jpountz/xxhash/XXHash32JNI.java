@@ -14,16 +14,64 @@ package net.jpountz.xxhash;
  * limitations under the License.
  */
 
+import static net.jpountz.util.ByteBufferUtils.checkRange;
 import static net.jpountz.util.Utils.checkRange;
 
+import java.nio.ByteBuffer;
+
 final class XXHash32JNI extends XXHash32 {
 
   public static final XXHash32 INSTANCE = new XXHash32JNI();
 
+  private static final boolean PIN_LARGE = XXHashJNI.XXH32_batchIsVectorized();
+
   @Override
   public int hash(byte[] buf, int off, int len, int seed) {
     checkRange(buf, off, len);
-    return XXHashJNI.XXH32(buf, off, len, seed);
+    return XXHashJNI.XXH32(buf, null, off, len, seed);
+  }
+
+  @Override
+  public int hash(ByteBuffer buf, int off, int len, int seed) {
+    if (buf.isDirect()) {
+      checkRange(buf, off, len);
+      return XXHashJNI.XXH32(null, buf, off, len, seed);
+    } else {
+      // heap buffers hash their backing array, read-only ones fall back to Java
+      return super.hash(buf, off, len, seed);
+    }
+  }
+
+  @Override
+  void hashBatchUnchecked(byte[][] inputs, int seed, int[] out) {
+    final XXHashJNI.Batch batch = XXHashJNI.Batch.get();
+    for (int i = 0; i < inputs.length; ) {
+      final int end = batch.pack(inputs, i, PIN_LARGE);
+      XXHashJNI.XXH32_batch(inputs, i, end, batch.packed, batch.ends, seed, out);
+      for (int j = i; j < end; ++j) {
+        if (batch.ends[j - i] == XXHashJNI.Batch.SKIPPED) {
+          out[j] = hash(inputs[j], 0, inputs[j].length, seed);
+        }
+      }
+      i = end;
+    }
+  }
+
+  // small buffers are packed whatever their kind, large ones are hashed one by
+  // one since buffers can't be pinned by the batch
+  @Override
+  void hashBatchUnchecked(ByteBuffer[] inputs, int seed, int[] out) {
+    final XXHashJNI.Batch batch = XXHashJNI.Batch.get();
+    for (int i = 0; i < inputs.length; ) {
+      final int end = batch.pack(inputs, i);
+      XXHashJNI.XXH32_batch(null, i, end, batch.packed, batch.ends, seed, out);
+      for (int j = i; j < end; ++j) {
+        if (batch.ends[j - i] == XXHashJNI.Batch.SKIPPED) {
+          out[j] = hash(inputs[j], inputs[j].position(), inputs[j].remaining(), seed);
+        }
+      }
+      i = end;
+    }
   }
 
 }
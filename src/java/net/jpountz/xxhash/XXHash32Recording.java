@@ -0,0 +1,85 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+import net.jpountz.util.Events;
+
+/**
+ * {@link XXHash32} that records its calls as JDK Flight Recorder events when
+ * {@link Events} are enabled.
+ */
+class XXHash32Recording extends XXHash32 {
+
+  final XXHash32 hash;
+
+  XXHash32Recording(XXHash32 hash) {
+    this.hash = hash;
+  }
+
+  @Override
+  public int hash(byte[] buf, int off, int len, int seed) {
+    final Object event = Events.begin(Events.HASH, len);
+    final int h = hash.hash(buf, off, len, seed);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 4);
+    }
+    return h;
+  }
+
+  @Override
+  public int hash(ByteBuffer buf, int off, int len, int seed) {
+    final Object event = Events.begin(Events.HASH, len);
+    final int h = hash.hash(buf, off, len, seed);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 4);
+    }
+    return h;
+  }
+
+  // a batch is recorded as a single event
+  @Override
+  void hashBatchUnchecked(byte[][] inputs, int seed, int[] out) {
+    long len = 0;
+    for (byte[] input : inputs) {
+      len += input.length;
+    }
+    final Object event = Events.begin(Events.HASH, len);
+    hash.hashBatchUnchecked(inputs, seed, out);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 4L * inputs.length);
+    }
+  }
+
+  @Override
+  void hashBatchUnchecked(ByteBuffer[] inputs, int seed, int[] out) {
+    long len = 0;
+    for (ByteBuffer input : inputs) {
+      len += input.remaining();
+    }
+    final Object event = Events.begin(Events.HASH, len);
+    hash.hashBatchUnchecked(inputs, seed, out);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 4L * inputs.length);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return hash.toString();
+  }
+
+}
@@ -0,0 +1,37 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.Utils.checkRange;
+
+final class XXHash3JNI extends XXHash3 {
+
+  public static final XXHash3 INSTANCE = new XXHash3JNI();
+
+  @Override
+  public long hash64(byte[] buf, int off, int len, long seed) {
+    checkRange(buf, off, len);
+    return XXHashJNI.XXH3_64(buf, off, len, seed);
+  }
+
+  @Override
+  public Hash128 hash128(byte[] buf, int off, int len, long seed) {
+    checkRange(buf, off, len);
+    final long[] hash = new long[2];
+    XXHashJNI.XXH3_128(buf, off, len, seed, hash);
+    return new Hash128(hash[0], hash[1]);
+  }
+
+}
@@ -0,0 +1,56 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.jpountz.util.Events;
+
+/**
+ * {@link XXHash3} that records its calls as JDK Flight Recorder events when
+ * {@link Events} are enabled.
+ */
+final class XXHash3Recording extends XXHash3 {
+
+  private final XXHash3 hash;
+
+  XXHash3Recording(XXHash3 hash) {
+    this.hash = hash;
+  }
+
+  @Override
+  public long hash64(byte[] buf, int off, int len, long seed) {
+    final Object event = Events.begin(Events.HASH, len);
+    final long h = hash.hash64(buf, off, len, seed);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 8);
+    }
+    return h;
+  }
+
+  @Override
+  public Hash128 hash128(byte[] buf, int off, int len, long seed) {
+    final Object event = Events.begin(Events.HASH, len);
+    final Hash128 h = hash.hash128(buf, off, len, seed);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 16);
+    }
+    return h;
+  }
+
+  @Override
+  public String toString() {
+    return hash.toString();
+  }
+
+}
@@ -0,0 +1,96 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * A 64-bits hash.
+ * <p>
+ * Instances of this class are thread-safe.
+ */
+public abstract class XXHash64 {
+
+  /**
+   * Compute the 64-bits hash of <code>buf[off:off+len]</code> using seed
+   * <code>seed</code>.
+   */
+  public abstract long hash(byte[] buf, int off, int len, long seed);
+
+  /**
+   * Compute the hash of the 4 little-endian bytes of <code>value</code>,
+   * without allocating.
+   */
+  public final long hashInt(int value, long seed) {
+    return XXHashPrimitives.xxh64Int(value, seed);
+  }
+
+  /**
+   * Compute the hash of the 8 little-endian bytes of <code>value</code>,
+   * without allocating.
+   */
+  public final long hashLong(long value, long seed) {
+    return XXHashPrimitives.xxh64Long(value, seed);
+  }
+
+  /**
+   * Compute the hash of the UTF-16LE encoding of <code>chars</code> (2 bytes
+   * per char, unpaired surrogates included), without allocating.
+   */
+  public final long hashChars(CharSequence chars, long seed) {
+    return XXHashPrimitives.xxh64Chars(chars, seed);
+  }
+
+  /**
+   * Compute the hash of the Latin-1 (ISO-8859-1) encoding of
+   * <code>chars</code>, without allocating. Only the low 8 bits of every char
+   * are hashed, so chars above <code>'&#92;u00FF'</code> don't hash like
+   * {@link String#getBytes(String)} encodes them.
+   */
+  public final long hashLatin1(CharSequence chars, long seed) {
+    return XXHashPrimitives.xxh64Latin1(chars, seed);
+  }
+
+  /**
+   * Compute the hashes of all arrays of <code>inputs</code> using seed
+   * <code>seed</code>, and store the hash of <code>inputs[i]</code> in
+   * <code>out[i]</code>. The native instance hashes the whole batch with a
+   * single JNI call.
+   *
+   * @throws IllegalArgumentException if <code>out</code> has less than
+   *         <code>inputs.length</code> entries
+   */
+  public final void hashBatch(byte[][] inputs, long seed, long[] out) {
+    for (byte[] input : inputs) {
+      if (input == null) {
+        throw new NullPointerException();
+      }
+    }
+    if (out.length < inputs.length) {
+      throw new IllegalArgumentException("out must have at least " + inputs.length + " entries");
+    }
+    hashBatchUnchecked(inputs, seed, out);
+  }
+
+  void hashBatchUnchecked(byte[][] inputs, long seed, long[] out) {
+    for (int i = 0; i < inputs.length; ++i) {
+      out[i] = hash(inputs[i], 0, inputs[i].length, seed);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName();
+  }
+
+}
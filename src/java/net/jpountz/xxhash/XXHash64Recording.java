@@ -0,0 +1,60 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import net.jpountz.util.Events;
+
+/**
+ * {@link XXHash64} that records its calls as JDK Flight Recorder events when
+ * {@link Events} are enabled.
+ */
+final class XXHash64Recording extends XXHash64 {
+
+  private final XXHash64 hash;
+
+  XXHash64Recording(XXHash64 hash) {
+    this.hash = hash;
+  }
+
+  @Override
+  public long hash(byte[] buf, int off, int len, long seed) {
+    final Object event = Events.begin(Events.HASH, len);
+    final long h = hash.hash(buf, off, len, seed);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 8);
+    }
+    return h;
+  }
+
+  // a batch is recorded as a single event
+  @Override
+  void hashBatchUnchecked(byte[][] inputs, long seed, long[] out) {
+    long len = 0;
+    for (byte[] input : inputs) {
+      len += input.length;
+    }
+    final Object event = Events.begin(Events.HASH, len);
+    hash.hashBatchUnchecked(inputs, seed, out);
+    if (event != null) {
+      Events.commit(event, hash, null, len, 8L * inputs.length);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return hash.toString();
+  }
+
+}
@@ -14,6 +14,9 @@ package net.jpountz.xxhash;
  * limitations under the License.
  */
 
+import static net.jpountz.util.Utils.readIntLE;
+import static net.jpountz.util.Utils.readLongLE;
+
 enum XXHashConstants {
   ;
 
@@ -23,4 +26,69 @@ enum XXHashConstants {
   static final int PRIME4 = 668265263;
   static final int PRIME5 = 374761393;
 
+  static final long PRIME64_1 = -7046029288634856825L; //11400714785074694791
+  static final long PRIME64_2 = -4417276706812531889L; //14029467366897019727
+  static final long PRIME64_3 = 1609587929392839161L;
+  static final long PRIME64_4 = -8796714831421723037L; //9650029242287828579
+  static final long PRIME64_5 = 2870177450012600261L;
+
+  // XXH3: the 32-bits primes are used as unsigned 64-bits values
+  static final long PRIME32_1 = 0x9E3779B1L;
+  static final long PRIME32_2 = 0x85EBCA77L;
+  static final long PRIME32_3 = 0xC2B2AE3DL;
+  static final long PRIME_MX1 = 0x165667919E3779F9L;
+  static final long PRIME_MX2 = 0x9FB21C651E98DF25L;
+
+  static final int XXH3_SECRET_SIZE = 192;
+  static final int XXH3_SECRET_SIZE_MIN = 136;
+  static final int XXH3_STRIPE_LEN = 64;
+  static final int XXH3_SECRET_CONSUME_RATE = 8;
+  static final int XXH3_STRIPES_PER_BLOCK = (XXH3_SECRET_SIZE - XXH3_STRIPE_LEN) / XXH3_SECRET_CONSUME_RATE;
+  static final int XXH3_BLOCK_LEN = XXH3_STRIPE_LEN * XXH3_STRIPES_PER_BLOCK;
+  static final int XXH3_SECRET_LASTACC_START = 7;
+  static final int XXH3_SECRET_MERGEACCS_START = 11;
+  static final int XXH3_MIDSIZE_MAX = 240;
+  static final int XXH3_MIDSIZE_STARTOFFSET = 3;
+  static final int XXH3_MIDSIZE_LASTOFFSET = 17;
+  static final int XXH3_INTERNAL_BUFFER_SIZE = 256;
+
+  /** Default secret of XXH3 (kSecret). Must never be modified. */
+  static final byte[] XXH3_SECRET = new byte[] {
+      -72, -2, 108, 57, 35, -92, 75, -66, 124, 1, -127, 44, -9, 33, -83, 28,
+      -34, -44, 109, -23, -125, -112, -105, -37, 114, 64, -92, -92, -73, -77, 103, 31,
+      -53, 121, -26, 78, -52, -64, -27, 120, -126, 90, -48, 125, -52, -1, 114, 33,
+      -72, 8, 70, 116, -9, 67, 36, -114, -32, 53, -112, -26, -127, 58, 38, 76,
+      60, 40, 82, -69, -111, -61, 0, -53, -120, -48, 101, -117, 27, 83, 46, -93,
+      113, 100, 72, -105, -94, 13, -7, 78, 56, 25, -17, 70, -87, -34, -84, -40,
+      -88, -6, 118, 63, -29, -100, 52, 63, -7, -36, -69, -57, -57, 11, 79, 29,
+      -118, 81, -32, 75, -51, -76, 89, 49, -56, -97, 126, -55, -39, 120, 115, 100,
+      -22, -59, -84, -125, 52, -45, -21, -61, -59, -127, -96, -1, -6, 19, 99, -21,
+      23, 13, -35, 81, -73, -16, -38, 73, -45, 22, 85, 38, 41, -44, 104, -98,
+      43, 22, -66, 88, 125, 71, -95, -4, -113, -8, -72, -47, 122, -48, 49, -50,
+      69, -53, 58, -113, -107, 22, 4, 40, -81, -41, -5, -54, -69, 75, 64, 126,
+  };
+
+  /** The default secret as little-endian words. Must never be modified. */
+  static final long[] XXH3_SECRET_WORDS = new long[XXH3_SECRET_SIZE / 8];
+  static {
+    for (int i = 0; i < XXH3_SECRET_WORDS.length; ++i) {
+      XXH3_SECRET_WORDS[i] = readLongLE(XXH3_SECRET, 8 * i);
+    }
+  }
+
+  // inputs of at most 16 bytes only use fixed pairs of words of the default
+  // secret: the XORs of these pairs are precomputed
+  static final long XXH3_BITFLIP_0 = readLongLE(XXH3_SECRET, 56) ^ readLongLE(XXH3_SECRET, 64);
+  static final long XXH3_BITFLIP_1TO3 = (readIntLE(XXH3_SECRET, 0) ^ readIntLE(XXH3_SECRET, 4)) & 0xFFFFFFFFL;
+  static final long XXH3_BITFLIP_4TO8 = readLongLE(XXH3_SECRET, 8) ^ readLongLE(XXH3_SECRET, 16);
+  static final long XXH3_BITFLIP_9TO16_LO = readLongLE(XXH3_SECRET, 24) ^ readLongLE(XXH3_SECRET, 32);
+  static final long XXH3_BITFLIP_9TO16_HI = readLongLE(XXH3_SECRET, 40) ^ readLongLE(XXH3_SECRET, 48);
+  static final long XXH3_128_BITFLIP_0_LO = readLongLE(XXH3_SECRET, 64) ^ readLongLE(XXH3_SECRET, 72);
+  static final long XXH3_128_BITFLIP_0_HI = readLongLE(XXH3_SECRET, 80) ^ readLongLE(XXH3_SECRET, 88);
+  static final long XXH3_128_BITFLIP_1TO3_LO = XXH3_BITFLIP_1TO3;
+  static final long XXH3_128_BITFLIP_1TO3_HI = (readIntLE(XXH3_SECRET, 8) ^ readIntLE(XXH3_SECRET, 12)) & 0xFFFFFFFFL;
+  static final long XXH3_128_BITFLIP_4TO8 = readLongLE(XXH3_SECRET, 16) ^ readLongLE(XXH3_SECRET, 24);
+  static final long XXH3_128_BITFLIP_9TO16_LO = readLongLE(XXH3_SECRET, 32) ^ readLongLE(XXH3_SECRET, 40);
+  static final long XXH3_128_BITFLIP_9TO16_HI = readLongLE(XXH3_SECRET, 48) ^ readLongLE(XXH3_SECRET, 56);
+
 }
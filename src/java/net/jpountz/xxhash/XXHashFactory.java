@@ -17,19 +17,24 @@ package net.jpountz.xxhash;
 import java.lang.reflect.Field;
 import java.util.Random;
 
+import net.jpountz.util.Events;
 import net.jpountz.util.Native;
 import net.jpountz.util.Utils;
 
 /**
- * Entry point to get {@link XXHash32} and {@link StreamingXXHash32} instances.
+ * Entry point to get {@link XXHash32}, {@link StreamingXXHash32},
+ * {@link XXHash64}, {@link StreamingXXHash64}, {@link XXHash3} and
+ * {@link StreamingXXHash3} instances.
  * <p>
- * This class has 3 instances<ul>
+ * This class has 4 instances<ul>
  * <li>a {@link #nativeInstance() native} instance which is a JNI binding to
  * <a href="http://code.google.com/p/xxhash/">the original LZ4 C implementation</a>.
  * <li>a {@link #safeInstance() safe Java} instance which is a pure Java port
  * of the original C library,</li>
  * <li>an {@link #unsafeInstance() unsafe Java} instance which is a Java port
  * using the unofficial {@link sun.misc.Unsafe} API.
+ * <li>a {@link #varHandleInstance() VarHandle Java} instance which is a Java
+ * port using <code>VarHandle</code>s, only available on Java 9+.
  * </ul>
  * <p>
  * Only the {@link #safeInstance() safe instance} is guaranteed to work on your
@@ -52,6 +57,7 @@ public final class XXHashFactory {
 
   private static XXHashFactory NATIVE_INSTANCE,
                                JAVA_UNSAFE_INSTANCE,
+                               JAVA_VARHANDLE_INSTANCE,
                                JAVA_SAFE_INSTANCE;
 
   /** Return a {@link XXHashFactory} that returns {@link XXHash32} instances that
@@ -96,21 +102,35 @@ public final class XXHashFactory {
     return JAVA_UNSAFE_INSTANCE;
   }
 
+  /** Return a {@link XXHashFactory} that returns {@link XXHash32} instances that
+   *  use <code>VarHandle</code>s to speed up hashing. This
+   *  instance is only available on Java 9+. */
+  public static synchronized XXHashFactory varHandleInstance() {
+    if (JAVA_VARHANDLE_INSTANCE == null) {
+      JAVA_VARHANDLE_INSTANCE = instance("JavaVarHandle");
+    }
+    return JAVA_VARHANDLE_INSTANCE;
+  }
+
   /**
    * Return the fastest available {@link XXHashFactory} instance which does not
    * rely on JNI bindings. It first tries to load the
-   * {@link #unsafeInstance() unsafe instance}, and then the
-   * {@link #safeInstance() safe Java instance} if the JVM doesn't have a
-   * working {@link sun.misc.Unsafe}.
+   * {@link #unsafeInstance() unsafe instance}, then the
+   * {@link #varHandleInstance() VarHandle instance} if the JVM doesn't have a
+   * working {@link sun.misc.Unsafe}, and finally the
+   * {@link #safeInstance() safe Java instance} on JVMs older than Java 9.
    */
   public static XXHashFactory fastestJavaInstance() {
     if (Utils.isUnalignedAccessAllowed()) {
       try {
         return unsafeInstance();
       } catch (Throwable t) {
-        return safeInstance();
+        // try the next instance
       }
-    } else {
+    }
+    try {
+      return varHandleInstance();
+    } catch (Throwable t) {
       return safeInstance();
     }
   }
@@ -148,11 +168,19 @@ public final class XXHashFactory {
   private final String impl;
   private final XXHash32 hash32;
   private final StreamingXXHash32.Factory streamingHash32Factory;
+  private final XXHash64 hash64;
+  private final StreamingXXHash64.Factory streamingHash64Factory;
+  private final XXHash3 xxh3;
+  private final StreamingXXHash3.Factory streamingXXH3Factory;
 
   private XXHashFactory(String impl) throws ClassNotFoundException, NoSuchFieldException, SecurityException, IllegalArgumentException, IllegalAccessException {
     this.impl = impl;
-    hash32 = classInstance("net.jpountz.xxhash.XXHash32" + impl);
+    hash32 = recording(XXHashFactory.<XXHash32>classInstance("net.jpountz.xxhash.XXHash32" + impl));
     streamingHash32Factory = classInstance("net.jpountz.xxhash.StreamingXXHash32" + impl + "$Factory");
+    hash64 = recording(XXHashFactory.<XXHash64>classInstance("net.jpountz.xxhash.XXHash64" + impl));
+    streamingHash64Factory = classInstance("net.jpountz.xxhash.StreamingXXHash64" + impl + "$Factory");
+    xxh3 = recording(XXHashFactory.<XXHash3>classInstance("net.jpountz.xxhash.XXHash3" + impl));
+    streamingXXH3Factory = classInstance("net.jpountz.xxhash.StreamingXXHash3" + impl + "$Factory");
 
     // make sure it can run
     final byte[] bytes = new byte[100];
@@ -167,6 +195,35 @@ public final class XXHashFactory {
     if (h1 != h2) {
       throw new AssertionError();
     }
+
+    final long h3 = hash64.hash(bytes, 0, bytes.length, seed);
+    final StreamingXXHash64 streamingHash64 = newStreamingHash64(seed);
+    streamingHash64.update(bytes, 0, bytes.length);
+    final long h4 = streamingHash64.getValue();
+    if (h3 != h4) {
+      throw new AssertionError();
+    }
+
+    final Hash128 h5 = xxh3.hash128(bytes, 0, bytes.length, seed);
+    final StreamingXXHash3 streamingXXH3 = newStreamingXXH3(seed);
+    streamingXXH3.update(bytes, 0, bytes.length);
+    final Hash128 h6 = streamingXXH3.getValue128();
+    if (!h5.equals(h6) || xxh3.hash64(bytes, 0, bytes.length, seed) != streamingXXH3.getValue()) {
+      throw new AssertionError();
+    }
+  }
+
+  // when JFR events are enabled, record the calls of the one-shot hashes
+  private static XXHash32 recording(XXHash32 hash) {
+    return Events.enabled() ? XXHashRecording.hash32(hash) : hash;
+  }
+
+  private static XXHash64 recording(XXHash64 hash) {
+    return Events.enabled() ? new XXHash64Recording(hash) : hash;
+  }
+
+  private static XXHash3 recording(XXHash3 hash) {
+    return Events.enabled() ? new XXHash3Recording(hash) : hash;
   }
 
   /** Return a {@link XXHash32} instance. */
@@ -181,6 +238,30 @@ public final class XXHashFactory {
     return streamingHash32Factory.newStreamingHash(seed);
   }
 
+  /** Return a {@link XXHash64} instance. */
+  public XXHash64 hash64() {
+    return hash64;
+  }
+
+  /**
+   * Return a new {@link StreamingXXHash64} instance.
+   */
+  public StreamingXXHash64 newStreamingHash64(long seed) {
+    return streamingHash64Factory.newStreamingHash(seed);
+  }
+
+  /** Return a {@link XXHash3} instance. */
+  public XXHash3 xxh3() {
+    return xxh3;
+  }
+
+  /**
+   * Return a new {@link StreamingXXHash3} instance.
+   */
+  public StreamingXXHash3 newStreamingXXH3(long seed) {
+    return streamingXXH3Factory.newStreamingHash(seed);
+  }
+
   /** Prints the fastest instance. */
   public static void main(String[] args) {
     System.out.println("Fastest instance is " + fastestInstance());
@@ -14,6 +14,8 @@ package net.jpountz.xxhash;
  * limitations under the License.
  */
 
+import java.nio.ByteBuffer;
+
 import net.jpountz.util.Native;
 
 enum XXHashJNI {
@@ -25,11 +27,118 @@ enum XXHashJNI {
   }
 
   private static native void init();
-  static native int XXH32(byte[] input, int offset, int len, int seed);
-  static native long XXH32_init(int seed);
-  static native void XXH32_update(long state, byte[] input, int offset, int len);
-  static native int XXH32_intermediateDigest(long state);
-  static native int XXH32_digest(long state);
-  static native void XXH32_free(long state);
+
+  // streaming states live in Java long[]s (aligned for 64-bits fields) rather
+  // than in native memory, so that they need neither a free() nor a finalizer;
+  // they hold no pointers, so the GC may move them between calls
+  static long[] newState(int sizeofState) {
+    return new long[(sizeofState + 7) >>> 3];
+  }
+
+  /**
+   * Small inputs of a batch are copied back to back into a thread-local array,
+   * so that a JNI call pins a single array for them instead of fetching and
+   * pinning every input, which costs about as much as hashing it with its own
+   * JNI call. Larger inputs would cost more to copy: they are pinned if the
+   * native code hashes them in lockstep with vector instructions, and are
+   * skipped by the native code and hashed one by one otherwise.
+   */
+  static final class Batch {
+
+    static final int SIZE = 1 << 16;
+    static final int MAX_COUNT = 1 << 12;
+    static final int PACK_THRESHOLD = 512;
+    static final int PINNED = -1;
+    static final int SKIPPED = -2;
+
+    private static final ThreadLocal<Batch> BATCHES = new ThreadLocal<Batch>() {
+      @Override
+      protected Batch initialValue() {
+        return new Batch();
+      }
+    };
+
+    static Batch get() {
+      return BATCHES.get();
+    }
+
+    final byte[] packed = new byte[SIZE];
+    // ends[i] is the end offset in packed of the input start+i, or PINNED or
+    // SKIPPED
+    final int[] ends = new int[MAX_COUNT];
+
+    /**
+     * Copy the small inputs of the longest run of inputs that starts at
+     * <code>start</code> and fits into this batch, and return its end. Large
+     * inputs are marked as pinned if <code>pinLarge</code> is true and as
+     * skipped otherwise.
+     */
+    int pack(byte[][] inputs, int start, boolean pinLarge) {
+      int off = 0;
+      int i = start;
+      for (; i < inputs.length && i - start < MAX_COUNT; ++i) {
+        final int len = inputs[i].length;
+        if (len >= PACK_THRESHOLD) {
+          ends[i - start] = pinLarge ? PINNED : SKIPPED;
+        } else if (len <= SIZE - off) {
+          System.arraycopy(inputs[i], 0, packed, off, len);
+          off += len;
+          ends[i - start] = off;
+        } else {
+          break;
+        }
+      }
+      return i;
+    }
+
+    /**
+     * Same as {@link #pack(byte[][], int, boolean)} with the remaining bytes
+     * of every buffer of <code>inputs</code>, large inputs being skipped.
+     */
+    int pack(ByteBuffer[] inputs, int start) {
+      int off = 0;
+      int i = start;
+      for (; i < inputs.length && i - start < MAX_COUNT; ++i) {
+        final ByteBuffer input = inputs[i];
+        final int len = input.remaining();
+        if (len >= PACK_THRESHOLD) {
+          ends[i - start] = SKIPPED;
+        } else if (len <= SIZE - off) {
+          if (input.hasArray()) {
+            System.arraycopy(input.array(), input.arrayOffset() + input.position(), packed, off, len);
+          } else {
+            input.duplicate().get(packed, off, len);
+          }
+          off += len;
+          ends[i - start] = off;
+        } else {
+          break;
+        }
+      }
+      return i;
+    }
+
+  }
+
+  static native int XXH32(byte[] input, ByteBuffer inputBuffer, int offset, int len, int seed);
+  static native int XXH32_sizeofState();
+  static native void XXH32_resetState(long[] state, int seed);
+  static native void XXH32_update(long[] state, byte[] input, ByteBuffer inputBuffer, int offset, int len);
+  static native int XXH32_intermediateDigest(long[] state);
+  static native boolean XXH32_batchIsVectorized();
+  static native void XXH32_batch(byte[][] inputs, int start, int end, byte[] packed, int[] ends, int seed, int[] out);
+  static native long XXH64(byte[] input, int offset, int len, long seed);
+  static native int XXH64_sizeofState();
+  static native void XXH64_resetState(long[] state, long seed);
+  static native void XXH64_update(long[] state, byte[] input, int offset, int len);
+  static native long XXH64_intermediateDigest(long[] state);
+  static native void XXH64_batch(byte[][] inputs, int start, int end, byte[] packed, int[] ends, long seed, long[] out);
+  static native long XXH3_64(byte[] input, int offset, int len, long seed);
+  static native void XXH3_128(byte[] input, int offset, int len, long seed, long[] hash);
+  static native int XXH3_sizeofState();
+  static native void XXH3_resetState(long[] state, long seed);
+  static native void XXH3_update(long[] state, byte[] input, int offset, int len);
+  static native long XXH3_digest64(long[] state);
+  static native void XXH3_digest128(long[] state, long[] hash);
 
 }
@@ -0,0 +1,305 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.lang.Integer.rotateLeft;
+import static net.jpountz.xxhash.XXHashConstants.*;
+
+/**
+ * XXH32 and XXH64 of primitives and char sequences, computed without
+ * encoding them to a byte[]. Ints and longs are hashed as their little-endian
+ * bytes, chars either as their UTF-16LE bytes or as one Latin-1 byte (the low
+ * 8 bits of the char). They don't read memory, so all instances share them.
+ */
+enum XXHashPrimitives {
+  ;
+
+  // XXH32
+
+  private static int round32(int acc, int input) {
+    acc += input * PRIME2;
+    acc = rotateLeft(acc, 13);
+    return acc * PRIME1;
+  }
+
+  private static int merge32(int v1, int v2, int v3, int v4) {
+    return rotateLeft(v1, 1) + rotateLeft(v2, 7) + rotateLeft(v3, 12) + rotateLeft(v4, 18);
+  }
+
+  private static int word32(int h32, int input) {
+    h32 += input * PRIME3;
+    return rotateLeft(h32, 17) * PRIME4;
+  }
+
+  private static int byte32(int h32, int input) {
+    h32 += input * PRIME5;
+    return rotateLeft(h32, 11) * PRIME1;
+  }
+
+  private static int avalanche32(int h32) {
+    h32 ^= h32 >>> 15;
+    h32 *= PRIME2;
+    h32 ^= h32 >>> 13;
+    h32 *= PRIME3;
+    h32 ^= h32 >>> 16;
+    return h32;
+  }
+
+  static int xxh32Int(int value, int seed) {
+    return avalanche32(word32(seed + PRIME5 + 4, value));
+  }
+
+  static int xxh32Long(long value, int seed) {
+    int h32 = seed + PRIME5 + 8;
+    h32 = word32(h32, (int) value);
+    h32 = word32(h32, (int) (value >>> 32));
+    return avalanche32(h32);
+  }
+
+  // the 4 bytes of the UTF-16LE encoding of chars i and i+1
+  private static int utf16Int(CharSequence chars, int i) {
+    return chars.charAt(i) | (chars.charAt(i + 1) << 16);
+  }
+
+  // the 4 bytes of the Latin-1 encoding of chars i to i+3
+  private static int latin1Int(CharSequence chars, int i) {
+    return (chars.charAt(i) & 0xFF)
+        | ((chars.charAt(i + 1) & 0xFF) << 8)
+        | ((chars.charAt(i + 2) & 0xFF) << 16)
+        | ((chars.charAt(i + 3) & 0xFF) << 24);
+  }
+
+  static int xxh32Chars(CharSequence chars, int seed) {
+    final int n = chars.length();
+    int i = 0;
+    int h32;
+
+    // 16-bytes stripes are 8 chars
+    if (n >= 8) {
+      int v1 = seed + PRIME1 + PRIME2;
+      int v2 = seed + PRIME2;
+      int v3 = seed + 0;
+      int v4 = seed - PRIME1;
+      do {
+        v1 = round32(v1, utf16Int(chars, i));
+        v2 = round32(v2, utf16Int(chars, i + 2));
+        v3 = round32(v3, utf16Int(chars, i + 4));
+        v4 = round32(v4, utf16Int(chars, i + 6));
+        i += 8;
+      } while (i <= n - 8);
+      h32 = merge32(v1, v2, v3, v4);
+    } else {
+      h32 = seed + PRIME5;
+    }
+
+    // the byte length modulo 2^32, as in C
+    h32 += n << 1;
+
+    for (; i <= n - 2; i += 2) {
+      h32 = word32(h32, utf16Int(chars, i));
+    }
+
+    if (i < n) {
+      final char c = chars.charAt(i);
+      h32 = byte32(h32, c & 0xFF);
+      h32 = byte32(h32, c >>> 8);
+    }
+
+    return avalanche32(h32);
+  }
+
+  static int xxh32Latin1(CharSequence chars, int seed) {
+    final int n = chars.length();
+    int i = 0;
+    int h32;
+
+    if (n >= 16) {
+      int v1 = seed + PRIME1 + PRIME2;
+      int v2 = seed + PRIME2;
+      int v3 = seed + 0;
+      int v4 = seed - PRIME1;
+      do {
+        v1 = round32(v1, latin1Int(chars, i));
+        v2 = round32(v2, latin1Int(chars, i + 4));
+        v3 = round32(v3, latin1Int(chars, i + 8));
+        v4 = round32(v4, latin1Int(chars, i + 12));
+        i += 16;
+      } while (i <= n - 16);
+      h32 = merge32(v1, v2, v3, v4);
+    } else {
+      h32 = seed + PRIME5;
+    }
+
+    h32 += n;
+
+    for (; i <= n - 4; i += 4) {
+      h32 = word32(h32, latin1Int(chars, i));
+    }
+
+    for (; i < n; ++i) {
+      h32 = byte32(h32, chars.charAt(i) & 0xFF);
+    }
+
+    return avalanche32(h32);
+  }
+
+  // XXH64
+
+  private static long round64(long acc, long input) {
+    acc += input * PRIME64_2;
+    acc = Long.rotateLeft(acc, 31);
+    return acc * PRIME64_1;
+  }
+
+  private static long mergeRound64(long h64, long v) {
+    h64 ^= round64(0, v);
+    return h64 * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long merge64(long v1, long v2, long v3, long v4) {
+    long h64 = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+    h64 = mergeRound64(h64, v1);
+    h64 = mergeRound64(h64, v2);
+    h64 = mergeRound64(h64, v3);
+    h64 = mergeRound64(h64, v4);
+    return h64;
+  }
+
+  private static long word64(long h64, long input) {
+    h64 ^= round64(0, input);
+    return Long.rotateLeft(h64, 27) * PRIME64_1 + PRIME64_4;
+  }
+
+  private static long int64(long h64, int input) {
+    h64 ^= (input & 0xFFFFFFFFL) * PRIME64_1;
+    return Long.rotateLeft(h64, 23) * PRIME64_2 + PRIME64_3;
+  }
+
+  private static long byte64(long h64, int input) {
+    h64 ^= input * PRIME64_5;
+    return Long.rotateLeft(h64, 11) * PRIME64_1;
+  }
+
+  private static long avalanche64(long h64) {
+    h64 ^= h64 >>> 33;
+    h64 *= PRIME64_2;
+    h64 ^= h64 >>> 29;
+    h64 *= PRIME64_3;
+    h64 ^= h64 >>> 32;
+    return h64;
+  }
+
+  static long xxh64Int(int value, long seed) {
+    return avalanche64(int64(seed + PRIME64_5 + 4, value));
+  }
+
+  static long xxh64Long(long value, long seed) {
+    return avalanche64(word64(seed + PRIME64_5 + 8, value));
+  }
+
+  // the 8 bytes of the UTF-16LE encoding of chars i to i+3
+  private static long utf16Long(CharSequence chars, int i) {
+    return (utf16Int(chars, i) & 0xFFFFFFFFL) | ((long) utf16Int(chars, i + 2) << 32);
+  }
+
+  // the 8 bytes of the Latin-1 encoding of chars i to i+7
+  private static long latin1Long(CharSequence chars, int i) {
+    return (latin1Int(chars, i) & 0xFFFFFFFFL) | ((long) latin1Int(chars, i + 4) << 32);
+  }
+
+  static long xxh64Chars(CharSequence chars, long seed) {
+    final int n = chars.length();
+    int i = 0;
+    long h64;
+
+    // 32-bytes stripes are 16 chars
+    if (n >= 16) {
+      long v1 = seed + PRIME64_1 + PRIME64_2;
+      long v2 = seed + PRIME64_2;
+      long v3 = seed + 0;
+      long v4 = seed - PRIME64_1;
+      do {
+        v1 = round64(v1, utf16Long(chars, i));
+        v2 = round64(v2, utf16Long(chars, i + 4));
+        v3 = round64(v3, utf16Long(chars, i + 8));
+        v4 = round64(v4, utf16Long(chars, i + 12));
+        i += 16;
+      } while (i <= n - 16);
+      h64 = merge64(v1, v2, v3, v4);
+    } else {
+      h64 = seed + PRIME64_5;
+    }
+
+    h64 += 2L * n;
+
+    for (; i <= n - 4; i += 4) {
+      h64 = word64(h64, utf16Long(chars, i));
+    }
+
+    if (i <= n - 2) {
+      h64 = int64(h64, utf16Int(chars, i));
+      i += 2;
+    }
+
+    if (i < n) {
+      final char c = chars.charAt(i);
+      h64 = byte64(h64, c & 0xFF);
+      h64 = byte64(h64, c >>> 8);
+    }
+
+    return avalanche64(h64);
+  }
+
+  static long xxh64Latin1(CharSequence chars, long seed) {
+    final int n = chars.length();
+    int i = 0;
+    long h64;
+
+    if (n >= 32) {
+      long v1 = seed + PRIME64_1 + PRIME64_2;
+      long v2 = seed + PRIME64_2;
+      long v3 = seed + 0;
+      long v4 = seed - PRIME64_1;
+      do {
+        v1 = round64(v1, latin1Long(chars, i));
+        v2 = round64(v2, latin1Long(chars, i + 8));
+        v3 = round64(v3, latin1Long(chars, i + 16));
+        v4 = round64(v4, latin1Long(chars, i + 24));
+        i += 32;
+      } while (i <= n - 32);
+      h64 = merge64(v1, v2, v3, v4);
+    } else {
+      h64 = seed + PRIME64_5;
+    }
+
+    h64 += n;
+
+    for (; i <= n - 8; i += 8) {
+      h64 = word64(h64, latin1Long(chars, i));
+    }
+
+    if (i <= n - 4) {
+      h64 = int64(h64, latin1Int(chars, i));
+      i += 4;
+    }
+
+    for (; i < n; ++i) {
+      h64 = byte64(h64, chars.charAt(i) & 0xFF);
+    }
+
+    return avalanche64(h64);
+  }
+
+}
@@ -0,0 +1,29 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+/**
+ * Wraps hashes into the XXHash*Recording classes. The Java 22+ variant of this
+ * class returns a subclass of {@link XXHash32Recording} that also records the
+ * MemorySegment method.
+ */
+enum XXHashRecording {
+  ;
+
+  static XXHash32 hash32(XXHash32 hash) {
+    return new XXHash32Recording(hash);
+  }
+
+}
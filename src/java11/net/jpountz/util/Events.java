@@ -0,0 +1,249 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * FOR INTERNAL USE ONLY
+ * <p>
+ * Hooks that record JDK Flight Recorder events of compression, decompression
+ * and hashing. Events record the class of the instance that did the work, the
+ * input and output sizes, the compression ratio and the throughput, besides
+ * the duration, thread and stack trace of every JFR event. Events of block
+ * streams also record the identity hash code of their stream, to aggregate
+ * them per stream in JMC.
+ * <p>
+ * Block streams call the hooks directly, while compressors, decompressors
+ * and hashes only do when the <code>net.jpountz.jfr</code> system property
+ * is <code>true</code>, since the instances that record their calls add an
+ * indirection to every call. Inputs of less than the threshold of their
+ * kind only cost a comparison, and larger ones are only timed while a
+ * recording enables their event.
+ * <p>
+ * Only available on Java 11+.
+ */
+public enum Events {
+  ;
+
+  public static final String PROPERTY = "net.jpountz.jfr";
+
+  public static final int COMPRESS = 0, DECOMPRESS = 1, BLOCK_FLUSH = 2, BLOCK_REFILL = 3, HASH = 4;
+  private static final String[] KINDS = { "compress", "decompress", "blockFlush", "blockRefill", "hash" };
+
+  // blocks of streams are recorded whatever their size, other operations from 64 KB
+  private static final int[] DEFAULT_THRESHOLDS = { 1 << 16, 1 << 16, 0, 0, 1 << 16 };
+
+  private static final boolean AVAILABLE = jfrAvailable();
+  private static final boolean ENABLED = AVAILABLE && Boolean.getBoolean(PROPERTY);
+  private static final long[] THRESHOLDS = thresholds();
+  // an event of each kind, never begun, that tells whether a recording
+  // enables its kind without allocating an event per operation
+  private static final OperationEvent[] PROBES = AVAILABLE ? probes() : null;
+
+  // jlinked runtimes may lack the jdk.jfr module
+  private static boolean jfrAvailable() {
+    try {
+      Class.forName("jdk.jfr.Event");
+      return true;
+    } catch (ClassNotFoundException e) {
+      return false;
+    }
+  }
+
+  private static long[] thresholds() {
+    final long[] thresholds = new long[KINDS.length];
+    for (int kind = 0; kind < KINDS.length; ++kind) {
+      thresholds[kind] = Long.getLong(PROPERTY + ".threshold." + KINDS[kind],
+          Long.getLong(PROPERTY + ".threshold", DEFAULT_THRESHOLDS[kind]));
+    }
+    return thresholds;
+  }
+
+  private static OperationEvent[] probes() {
+    final OperationEvent[] probes = new OperationEvent[KINDS.length];
+    for (int kind = 0; kind < KINDS.length; ++kind) {
+      probes[kind] = newEvent(kind);
+    }
+    return probes;
+  }
+
+  private static OperationEvent newEvent(int kind) {
+    switch (kind) {
+    case COMPRESS:
+      return new LZ4CompressEvent();
+    case DECOMPRESS:
+      return new LZ4DecompressEvent();
+    case BLOCK_FLUSH:
+      return new LZ4BlockFlushEvent();
+    case BLOCK_REFILL:
+      return new LZ4BlockRefillEvent();
+    case HASH:
+      return new XXHashEvent();
+    default:
+      throw new AssertionError();
+    }
+  }
+
+  public static boolean enabled() {
+    return ENABLED;
+  }
+
+  public static Object begin(int kind, long len) {
+    if (!AVAILABLE || len < THRESHOLDS[kind] || !PROBES[kind].isEnabled()) {
+      return null;
+    }
+    final OperationEvent event = newEvent(kind);
+    event.start();
+    return event;
+  }
+
+  public static void commit(Object event, Object implementation, Object stream, long inputSize, long outputSize) {
+    ((OperationEvent) event).record(implementation, stream, inputSize, outputSize);
+  }
+
+  @Category("LZ4 Java")
+  abstract static class OperationEvent extends Event {
+
+    @Label("Implementation")
+    @Description("Class of the compressor, decompressor or hash that did the work")
+    Class<?> implementation;
+
+    @Label("Input Size")
+    @DataAmount
+    long inputSize;
+
+    @Label("Throughput")
+    @Description("Input bytes per second")
+    @DataAmount
+    @Frequency
+    long throughput;
+
+    private transient long startNanos;
+
+    final void start() {
+      begin();
+      startNanos = System.nanoTime();
+    }
+
+    final void record(Object implementation, Object stream, long inputSize, long outputSize) {
+      final long nanos = System.nanoTime() - startNanos;
+      end();
+      if (shouldCommit()) {
+        this.implementation = implementation.getClass();
+        this.inputSize = inputSize;
+        throughput = (long) (inputSize * 1e9 / Math.max(1, nanos));
+        setOutput(stream, inputSize, outputSize);
+        commit();
+      }
+    }
+
+    abstract void setOutput(Object stream, long inputSize, long outputSize);
+
+  }
+
+  abstract static class LZ4Event extends OperationEvent {
+
+    @Label("Output Size")
+    @DataAmount
+    long outputSize;
+
+    @Label("Compression Ratio")
+    @Description("Uncompressed size divided by compressed size")
+    double ratio;
+
+    // whether the input is uncompressed
+    abstract boolean compresses();
+
+    @Override
+    void setOutput(Object stream, long inputSize, long outputSize) {
+      this.outputSize = outputSize;
+      final long compressed = compresses() ? outputSize : inputSize;
+      final long uncompressed = compresses() ? inputSize : outputSize;
+      ratio = compressed == 0 ? 0 : (double) uncompressed / compressed;
+    }
+
+  }
+
+  abstract static class LZ4BlockEvent extends LZ4Event {
+
+    @Label("Stream")
+    @Description("Identity hash code of the stream")
+    int stream;
+
+    @Override
+    void setOutput(Object stream, long inputSize, long outputSize) {
+      super.setOutput(stream, inputSize, outputSize);
+      this.stream = System.identityHashCode(stream);
+    }
+
+  }
+
+  @Name("net.jpountz.LZ4Compress")
+  @Label("LZ4 Compress")
+  @Description("Compression of a buffer")
+  static final class LZ4CompressEvent extends LZ4Event {
+    @Override
+    boolean compresses() {
+      return true;
+    }
+  }
+
+  @Name("net.jpountz.LZ4Decompress")
+  @Label("LZ4 Decompress")
+  @Description("Decompression of a buffer")
+  static final class LZ4DecompressEvent extends LZ4Event {
+    @Override
+    boolean compresses() {
+      return false;
+    }
+  }
+
+  @Name("net.jpountz.LZ4BlockFlush")
+  @Label("LZ4 Block Flush")
+  @Description("Compression and write of a block of an LZ4BlockOutputStream")
+  static final class LZ4BlockFlushEvent extends LZ4BlockEvent {
+    @Override
+    boolean compresses() {
+      return true;
+    }
+  }
+
+  @Name("net.jpountz.LZ4BlockRefill")
+  @Label("LZ4 Block Refill")
+  @Description("Read and decompression of a block of an LZ4BlockInputStream")
+  static final class LZ4BlockRefillEvent extends LZ4BlockEvent {
+    @Override
+    boolean compresses() {
+      return false;
+    }
+  }
+
+  @Name("net.jpountz.XXHash")
+  @Label("XXHash")
+  @Description("Hash of a buffer")
+  static final class XXHashEvent extends OperationEvent {
+    @Override
+    void setOutput(Object stream, long inputSize, long outputSize) {
+    }
+  }
+
+}
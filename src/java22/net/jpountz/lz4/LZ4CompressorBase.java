@@ -0,0 +1,66 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.MemorySegment;
+
+// Java 22+ variant of src/java/net/jpountz/lz4/LZ4CompressorBase.java, keep both in sync.
+
+/**
+ * Superclass of {@link LZ4Compressor} for the methods that depend on the Java
+ * version.
+ */
+abstract class LZ4CompressorBase {
+
+  /**
+   * Whether this compressor is a high compression one, so that segments are
+   * compressed with the same algorithm as arrays and buffers.
+   */
+  boolean isHighCompression() {
+    return false;
+  }
+
+  /**
+   * Return the maximum compressed length for an input of size
+   * <code>length</code>, which may be larger than 2 GB.
+   */
+  @SuppressWarnings("static-method")
+  public final long maxCompressedLength(long length) {
+    if (length < 0) {
+      throw new IllegalArgumentException("length must be >= 0, got " + length);
+    }
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compress <code>src[srcOff:srcOff+srcLen]</code> into
+   * <code>dest[destOff:destOff+maxDestLen]</code> and return the compressed
+   * length. Neither offsets nor lengths are limited to 2 GB.
+   * <p>
+   * Native segments and heap segments of any array type are accessed in
+   * place. Unless the implementation binds the native library through the
+   * foreign function API, segments are compressed in Java.
+   *
+   * @throws LZ4Exception if maxDestLen is too small
+   * @return the compressed size
+   */
+  public long compress(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+    if (isHighCompression()) {
+      return LZ4HCJavaMemorySegmentCompressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    }
+    return LZ4JavaMemorySegmentCompressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+}
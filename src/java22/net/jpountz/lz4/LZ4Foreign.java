@@ -0,0 +1,124 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.lang.foreign.ValueLayout.ADDRESS;
+import static java.lang.foreign.ValueLayout.JAVA_INT;
+
+import java.lang.foreign.FunctionDescriptor;
+import java.lang.foreign.Linker;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.SymbolLookup;
+import java.lang.invoke.MethodHandle;
+
+import net.jpountz.util.Native;
+
+/**
+ * Downcall bindings to the original C implementation of LZ4, using the
+ * symbols of the library loaded by {@link Native}.
+ * <p>
+ * Calls are critical: they skip the thread state transition of a JNI call and
+ * accept heap segments, which the JVM neither moves nor collects for the
+ * duration of the call.
+ */
+enum LZ4Foreign {
+  ;
+
+  private static final MethodHandle COMPRESS_LIMITED_OUTPUT;
+  private static final MethodHandle COMPRESS_HC_LIMITED_OUTPUT;
+  private static final MethodHandle DECOMPRESS_FAST;
+  private static final MethodHandle DECOMPRESS_FAST_WITH_PREFIX64K;
+  private static final MethodHandle DECOMPRESS_SAFE;
+  private static final MethodHandle DECOMPRESS_SAFE_WITH_PREFIX64K;
+
+  static {
+    Native.load();
+    // (src, dest, len) -> int
+    final FunctionDescriptor fast = FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT);
+    // (src, dest, srcLen, maxDestLen) -> int
+    final FunctionDescriptor bounded = FunctionDescriptor.of(JAVA_INT, ADDRESS, ADDRESS, JAVA_INT, JAVA_INT);
+    COMPRESS_LIMITED_OUTPUT = downcall("LZ4_compress_limitedOutput", bounded);
+    COMPRESS_HC_LIMITED_OUTPUT = downcall("LZ4_compressHC_limitedOutput", bounded);
+    DECOMPRESS_FAST = downcall("LZ4_decompress_fast", fast);
+    DECOMPRESS_FAST_WITH_PREFIX64K = downcall("LZ4_decompress_fast_withPrefix64k", fast);
+    DECOMPRESS_SAFE = downcall("LZ4_decompress_safe", bounded);
+    DECOMPRESS_SAFE_WITH_PREFIX64K = downcall("LZ4_decompress_safe_withPrefix64k", bounded);
+  }
+
+  private static MethodHandle downcall(String name, FunctionDescriptor descriptor) {
+    final MemorySegment symbol = SymbolLookup.loaderLookup().find(name)
+        .orElseThrow(() -> new UnsatisfiedLinkError("Cannot find symbol " + name));
+    return Linker.nativeLinker().downcallHandle(symbol, descriptor, Linker.Option.critical(true));
+  }
+
+  private static RuntimeException propagate(Throwable t) {
+    if (t instanceof RuntimeException) {
+      return (RuntimeException) t;
+    }
+    if (t instanceof Error) {
+      throw (Error) t;
+    }
+    throw new AssertionError(t);
+  }
+
+  static int LZ4_compress_limitedOutput(MemorySegment src, MemorySegment dest, int srcLen, int maxDestLen) {
+    try {
+      return (int) COMPRESS_LIMITED_OUTPUT.invokeExact(src, dest, srcLen, maxDestLen);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  static int LZ4_compressHC_limitedOutput(MemorySegment src, MemorySegment dest, int srcLen, int maxDestLen) {
+    try {
+      return (int) COMPRESS_HC_LIMITED_OUTPUT.invokeExact(src, dest, srcLen, maxDestLen);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  static int LZ4_decompress_fast(MemorySegment src, MemorySegment dest, int destLen) {
+    try {
+      return (int) DECOMPRESS_FAST.invokeExact(src, dest, destLen);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  static int LZ4_decompress_fast_withPrefix64k(MemorySegment src, MemorySegment dest, int destLen) {
+    try {
+      return (int) DECOMPRESS_FAST_WITH_PREFIX64K.invokeExact(src, dest, destLen);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  static int LZ4_decompress_safe(MemorySegment src, MemorySegment dest, int srcLen, int maxDestLen) {
+    try {
+      return (int) DECOMPRESS_SAFE.invokeExact(src, dest, srcLen, maxDestLen);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  static int LZ4_decompress_safe_withPrefix64k(MemorySegment src, MemorySegment dest, int srcLen, int maxDestLen) {
+    try {
+      return (int) DECOMPRESS_SAFE_WITH_PREFIX64K.invokeExact(src, dest, srcLen, maxDestLen);
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+}
@@ -0,0 +1,69 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+import static net.jpountz.util.MemorySegmentUtils.asSegment;
+import static net.jpountz.util.MemorySegmentUtils.checkNotReadOnly;
+import static net.jpountz.util.MemorySegmentUtils.checkRange;
+import static net.jpountz.util.Utils.checkRange;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+/**
+ * Fast {@link LZ4Compressor} implemented with downcalls to the original C
+ * implementation of LZ4.
+ */
+final class LZ4ForeignCompressor extends LZ4Compressor {
+
+  public static final LZ4Compressor INSTANCE = new LZ4ForeignCompressor();
+
+  @Override
+  public int compress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return compress(MemorySegment.ofArray(src).asSlice(srcOff), MemorySegment.ofArray(dest).asSlice(destOff), srcLen, maxDestLen);
+  }
+
+  @Override
+  public int compress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return compress(asSegment(src, srcOff, srcLen), asSegment(dest, destOff, maxDestLen), srcLen, maxDestLen);
+  }
+
+  @Override
+  public long compress(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+    if (srcLen >= LZ4Utils.MAX_INPUT_SIZE) {
+      // too large for a single call to the C library
+      return super.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    }
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return compress(src.asSlice(srcOff), dest.asSlice(destOff), (int) srcLen, (int) Math.min(maxDestLen, Integer.MAX_VALUE));
+  }
+
+  private static int compress(MemorySegment src, MemorySegment dest, int srcLen, int maxDestLen) {
+    final int result = LZ4Foreign.LZ4_compress_limitedOutput(src, dest, srcLen, maxDestLen);
+    if (result <= 0) {
+      throw new LZ4Exception("maxDestLen is too small");
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,100 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+import static net.jpountz.util.MemorySegmentUtils.asSegment;
+import static net.jpountz.util.MemorySegmentUtils.checkNotReadOnly;
+import static net.jpountz.util.MemorySegmentUtils.checkRange;
+import static net.jpountz.util.Utils.checkRange;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link LZ4FastDecompressor} implemented with downcalls to the original C
+ * implementation of LZ4.
+ * <p>
+ * The prefix of the <code>withPrefix64k</code> methods is read from the
+ * 64 KB in front of <code>destOff</code> in the same array, buffer or segment.
+ */
+final class LZ4ForeignFastDecompressor extends LZ4FastDecompressor {
+
+  public static final LZ4FastDecompressor INSTANCE = new LZ4ForeignFastDecompressor();
+
+  @Override
+  public int decompress(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+    return decompress(MemorySegment.ofArray(src).asSlice(srcOff), srcOff, MemorySegment.ofArray(dest).asSlice(destOff), destLen, false);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(byte[] src, int srcOff, byte[] dest, int destOff, int destLen) {
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+    return decompress(MemorySegment.ofArray(src).asSlice(srcOff), srcOff, MemorySegment.ofArray(dest).asSlice(destOff), destLen, true);
+  }
+
+  @Override
+  public int decompress(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+    return decompress(asSegment(src, srcOff, src.capacity() - srcOff), srcOff, asSegment(dest, destOff, destLen), destLen, false);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(ByteBuffer src, int srcOff, ByteBuffer dest, int destOff, int destLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff);
+    checkRange(dest, destOff, destLen);
+    return decompress(asSegment(src, srcOff, src.capacity() - srcOff), srcOff, asSegment(dest, destOff, destLen), destLen, true);
+  }
+
+  @Override
+  public long decompress(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long destLen) {
+    if (destLen >= LZ4Utils.MAX_INPUT_SIZE) {
+      // too large for a single call to the C library
+      return super.decompress(src, srcOff, dest, destOff, destLen);
+    }
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, 1);
+    checkRange(dest, destOff, destLen);
+    return decompress(src.asSlice(srcOff), srcOff, dest.asSlice(destOff), (int) destLen, false);
+  }
+
+  @Override
+  public long decompressWithPrefix64k(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long destLen) {
+    if (destLen >= LZ4Utils.MAX_INPUT_SIZE) {
+      return super.decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
+    }
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, 1);
+    checkRange(dest, destOff, destLen);
+    return decompress(src.asSlice(srcOff), srcOff, dest.asSlice(destOff), (int) destLen, true);
+  }
+
+  private static int decompress(MemorySegment src, long srcOff, MemorySegment dest, int destLen, boolean prefix) {
+    final int result = prefix
+        ? LZ4Foreign.LZ4_decompress_fast_withPrefix64k(src, dest, destLen)
+        : LZ4Foreign.LZ4_decompress_fast(src, dest, destLen);
+    if (result < 0) {
+      throw new LZ4Exception("Error decoding offset " + (srcOff - result) + " of input buffer");
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,100 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static net.jpountz.util.ByteBufferUtils.checkNotReadOnly;
+import static net.jpountz.util.ByteBufferUtils.checkRange;
+import static net.jpountz.util.MemorySegmentUtils.asSegment;
+import static net.jpountz.util.MemorySegmentUtils.checkNotReadOnly;
+import static net.jpountz.util.MemorySegmentUtils.checkRange;
+import static net.jpountz.util.Utils.checkRange;
+
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+
+/**
+ * {@link LZ4SafeDecompressor} implemented with downcalls to the original C
+ * implementation of LZ4.
+ * <p>
+ * The prefix of the <code>withPrefix64k</code> methods is read from the
+ * 64 KB in front of <code>destOff</code> in the same array, buffer or segment.
+ */
+final class LZ4ForeignSafeDecompressor extends LZ4SafeDecompressor {
+
+  public static final LZ4SafeDecompressor INSTANCE = new LZ4ForeignSafeDecompressor();
+
+  @Override
+  public int decompress(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return decompress(MemorySegment.ofArray(src).asSlice(srcOff), srcOff, srcLen, MemorySegment.ofArray(dest).asSlice(destOff), maxDestLen, false);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(byte[] src, int srcOff, int srcLen, byte[] dest, int destOff, int maxDestLen) {
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return decompress(MemorySegment.ofArray(src).asSlice(srcOff), srcOff, srcLen, MemorySegment.ofArray(dest).asSlice(destOff), maxDestLen, true);
+  }
+
+  @Override
+  public int decompress(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return decompress(asSegment(src, srcOff, srcLen), srcOff, srcLen, asSegment(dest, destOff, maxDestLen), maxDestLen, false);
+  }
+
+  @Override
+  public int decompressWithPrefix64k(ByteBuffer src, int srcOff, int srcLen, ByteBuffer dest, int destOff, int maxDestLen) {
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return decompress(asSegment(src, srcOff, srcLen), srcOff, srcLen, asSegment(dest, destOff, maxDestLen), maxDestLen, true);
+  }
+
+  @Override
+  public long decompress(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+    if (srcLen > Integer.MAX_VALUE || maxDestLen > Integer.MAX_VALUE) {
+      // the C library reads and writes at most 2 GB per call
+      return super.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    }
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return decompress(src.asSlice(srcOff), srcOff, (int) srcLen, dest.asSlice(destOff), (int) maxDestLen, false);
+  }
+
+  @Override
+  public long decompressWithPrefix64k(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+    if (srcLen > Integer.MAX_VALUE || maxDestLen > Integer.MAX_VALUE) {
+      return super.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+    }
+    checkNotReadOnly(dest);
+    checkRange(src, srcOff, srcLen);
+    checkRange(dest, destOff, maxDestLen);
+    return decompress(src.asSlice(srcOff), srcOff, (int) srcLen, dest.asSlice(destOff), (int) maxDestLen, true);
+  }
+
+  private static int decompress(MemorySegment src, long srcOff, int srcLen, MemorySegment dest, int maxDestLen, boolean prefix) {
+    final int result = prefix
+        ? LZ4Foreign.LZ4_decompress_safe_withPrefix64k(src, dest, srcLen, maxDestLen)
+        : LZ4Foreign.LZ4_decompress_safe(src, dest, srcLen, maxDestLen);
+    if (result < 0) {
+      throw new LZ4Exception("Error decoding offset " + (srcOff - result) + " of input buffer");
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,117 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.MemorySegment;
+
+import net.jpountz.util.Events;
+
+// Java 22+ variant of src/java/net/jpountz/lz4/LZ4Recording.java, keep both in sync.
+
+/**
+ * Wraps instances into subclasses of the LZ4Recording* classes that also
+ * record the MemorySegment methods, which the LZ4Recording* classes can't
+ * override.
+ */
+enum LZ4Recording {
+  ;
+
+  static LZ4Compressor compressor(LZ4Compressor compressor) {
+    return new Compressor(compressor);
+  }
+
+  static LZ4FastDecompressor fastDecompressor(LZ4FastDecompressor decompressor) {
+    return new FastDecompressor(decompressor);
+  }
+
+  static LZ4SafeDecompressor safeDecompressor(LZ4SafeDecompressor decompressor) {
+    return new SafeDecompressor(decompressor);
+  }
+
+  private static final class Compressor extends LZ4RecordingCompressor {
+
+    Compressor(LZ4Compressor compressor) {
+      super(compressor);
+    }
+
+    @Override
+    public long compress(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+      final Object event = Events.begin(Events.COMPRESS, srcLen);
+      final long compressedLen = compressor.compress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+      if (event != null) {
+        Events.commit(event, compressor, null, srcLen, compressedLen);
+      }
+      return compressedLen;
+    }
+
+  }
+
+  private static final class FastDecompressor extends LZ4RecordingFastDecompressor {
+
+    FastDecompressor(LZ4FastDecompressor decompressor) {
+      super(decompressor);
+    }
+
+    @Override
+    public long decompress(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long destLen) {
+      final Object event = Events.begin(Events.DECOMPRESS, destLen);
+      final long compressedLen = decompressor.decompress(src, srcOff, dest, destOff, destLen);
+      if (event != null) {
+        Events.commit(event, decompressor, null, compressedLen, destLen);
+      }
+      return compressedLen;
+    }
+
+    @Override
+    public long decompressWithPrefix64k(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long destLen) {
+      final Object event = Events.begin(Events.DECOMPRESS, destLen);
+      final long compressedLen = decompressor.decompressWithPrefix64k(src, srcOff, dest, destOff, destLen);
+      if (event != null) {
+        Events.commit(event, decompressor, null, compressedLen, destLen);
+      }
+      return compressedLen;
+    }
+
+  }
+
+  private static final class SafeDecompressor extends LZ4RecordingSafeDecompressor {
+
+    SafeDecompressor(LZ4SafeDecompressor decompressor) {
+      super(decompressor);
+    }
+
+    @Override
+    public long decompress(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+      final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+      final long decompressedLen = decompressor.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+      if (event != null) {
+        Events.commit(event, decompressor, null, srcLen, decompressedLen);
+      }
+      return decompressedLen;
+    }
+
+    @Override
+    public long decompressWithPrefix64k(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+      final Object event = Events.begin(Events.DECOMPRESS, srcLen);
+      final long decompressedLen = decompressor.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+      if (event != null) {
+        Events.commit(event, decompressor, null, srcLen, decompressedLen);
+      }
+      return decompressedLen;
+    }
+
+  }
+
+}
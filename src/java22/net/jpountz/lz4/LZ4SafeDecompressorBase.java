@@ -0,0 +1,55 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.MemorySegment;
+
+// Java 22+ variant of src/java/net/jpountz/lz4/LZ4SafeDecompressorBase.java, keep both in sync.
+
+/**
+ * Superclass of {@link LZ4SafeDecompressor} for the methods that depend on the
+ * Java version.
+ */
+abstract class LZ4SafeDecompressorBase {
+
+  /**
+   * Decompress <code>src[srcOff:srcOff+srcLen]</code> into
+   * <code>dest[destOff:destOff+maxDestLen]</code> and returns the number of
+   * decompressed bytes written into <code>dest</code>. Neither offsets nor
+   * lengths are limited to 2 GB.
+   * <p>
+   * Native segments and heap segments of any array type are accessed in
+   * place. Unless the implementation binds the native library through the
+   * foreign function API, segments are decompressed in Java.
+   *
+   * @param srcLen the exact size of the compressed stream
+   * @return the original input size
+   * @throws LZ4Exception if maxDestLen is too small
+   */
+  public long decompress(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+    return LZ4JavaMemorySegmentSafeDecompressor.decompress(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+  /**
+   * Same as {@link #decompress(MemorySegment, long, long, MemorySegment, long, long)}
+   * except that up to 64 KB before <code>destOff</code> in <code>dest</code>
+   * may be referenced. This is useful for providing LZ4 with a dictionary that
+   * can be reused during decompression.
+   */
+  public long decompressWithPrefix64k(MemorySegment src, long srcOff, long srcLen, MemorySegment dest, long destOff, long maxDestLen) {
+    return LZ4JavaMemorySegmentSafeDecompressor.decompressWithPrefix64k(src, srcOff, srcLen, dest, destOff, maxDestLen);
+  }
+
+}
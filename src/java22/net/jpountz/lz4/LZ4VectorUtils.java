@@ -0,0 +1,116 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import static net.jpountz.lz4.LZ4Constants.COPY_LENGTH;
+import static net.jpountz.util.Utils.NATIVE_BYTE_ORDER;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// Java 22+ variant of src/java9/net/jpountz/lz4/LZ4VectorUtils.java, keep both in sync.
+
+/**
+ * Vector API variants of some of the {@link LZ4VarHandleUtils} methods. Copies
+ * move 16 bytes at a time and comparisons look at 32 bytes at a time when the
+ * CPU supports it, 16 otherwise.
+ * <p>
+ * They are only enabled when the <code>jdk.incubator.vector</code> module has
+ * been added to the boot layer (<code>--add-modules jdk.incubator.vector</code>)
+ * and the CPU has vectors of at least 128 bits, since the API falls back to
+ * much slower scalar code otherwise.
+ */
+enum LZ4VectorUtils {
+  ;
+
+  static final boolean ENABLED = isEnabled();
+
+  private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, NATIVE_BYTE_ORDER);
+
+  private static boolean isEnabled() {
+    if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+      return false;
+    }
+    try {
+      return ByteVector.SPECIES_PREFERRED.vectorBitSize() >= 128;
+    } catch (LinkageError e) {
+      return false;
+    }
+  }
+
+  /** Same as {@link LZ4VarHandleUtils#wildArraycopy}: may write up to
+   *  {@link LZ4Constants#COPY_LENGTH} - 1 bytes past <code>len</code>. */
+  static void wildArraycopy(byte[] src, int srcOff, byte[] dest, int destOff, int len) {
+    final int vectorLen = Vectors.COPY.length();
+    int i = 0;
+    for (; i <= len - vectorLen; i += vectorLen) {
+      ByteVector.fromArray(Vectors.COPY, src, srcOff + i).intoArray(dest, destOff + i);
+    }
+    for (; i < len; i += COPY_LENGTH) {
+      LONG.set(dest, destOff + i, (long) LONG.get(src, srcOff + i));
+    }
+  }
+
+  /** Same as the end of {@link LZ4VarHandleUtils#wildIncrementalCopy}, once
+   *  <code>matchOff</code> is at least {@link LZ4Constants#COPY_LENGTH} bytes
+   *  before <code>dOff</code>. */
+  static void wildIncrementalCopy(byte[] dest, int matchOff, int dOff, int matchCopyEnd) {
+    if (dOff - matchOff >= Vectors.COPY.length()) {
+      // every vector is read after the bytes it overlaps with have been written
+      wildArraycopy(dest, matchOff, dest, dOff, matchCopyEnd - dOff);
+    } else {
+      while (dOff < matchCopyEnd) {
+        LONG.set(dest, dOff, (long) LONG.get(dest, matchOff));
+        dOff += COPY_LENGTH;
+        matchOff += COPY_LENGTH;
+      }
+    }
+  }
+
+  static int commonBytes(byte[] buf, int ref, int sOff, int srcLimit) {
+    final int vectorLen = Vectors.COMPARE.length();
+    int matchLen = 0;
+    while (sOff <= srcLimit - vectorLen) {
+      final int i = ByteVector.fromArray(Vectors.COMPARE, buf, sOff)
+          .compare(VectorOperators.NE, ByteVector.fromArray(Vectors.COMPARE, buf, ref))
+          .firstTrue();
+      if (i != vectorLen) {
+        return matchLen + i;
+      }
+      matchLen += vectorLen;
+      ref += vectorLen;
+      sOff += vectorLen;
+    }
+    while (sOff < srcLimit && buf[ref++] == buf[sOff++]) {
+      ++matchLen;
+    }
+    return matchLen;
+  }
+
+  /** Holds the species so that they are only initialized when enabled. */
+  private static final class Vectors {
+
+    static final VectorSpecies<Byte> COPY = ByteVector.SPECIES_128;
+
+    static final VectorSpecies<Byte> COMPARE = ByteVector.SPECIES_PREFERRED.vectorBitSize() >= 256
+        ? ByteVector.SPECIES_256
+        : ByteVector.SPECIES_128;
+
+  }
+
+}
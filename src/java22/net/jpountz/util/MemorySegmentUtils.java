@@ -0,0 +1,138 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+/**
+ * Same accessors as UnsafeUtils, for {@link MemorySegment}s and with
+ * <code>long</code> offsets. Accesses go through unaligned native-order
+ * {@link ValueLayout}s: they are bounds-checked and work on native segments
+ * as well as on heap segments, whatever the type of their backing array.
+ * <p>
+ * Only available on Java 22+.
+ */
+public enum MemorySegmentUtils {
+  ;
+
+  private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG_UNALIGNED;
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED;
+  private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED;
+
+  public static void checkRange(MemorySegment seg, long off, long len) {
+    if (len < 0) {
+      throw new IllegalArgumentException("lengths must be >= 0");
+    }
+    if (off < 0 || off > seg.byteSize() - len) {
+      throw new ArrayIndexOutOfBoundsException("Range [" + off + ", " + off + " + " + len
+          + ") out of bounds for segment of size " + seg.byteSize());
+    }
+  }
+
+  public static void checkNotReadOnly(MemorySegment seg) {
+    if (seg.isReadOnly()) {
+      throw new ReadOnlyBufferException();
+    }
+  }
+
+  /**
+   * Return a segment that maps <code>buf[off:off+len]</code>, regardless of
+   * the position and limit of the buffer.
+   */
+  public static MemorySegment asSegment(ByteBuffer buf, int off, int len) {
+    return MemorySegment.ofBuffer(buf.duplicate().clear()).asSlice(off, len);
+  }
+
+  public static byte readByte(MemorySegment src, long srcOff) {
+    return src.get(ValueLayout.JAVA_BYTE, srcOff);
+  }
+
+  public static void writeByte(MemorySegment dest, long destOff, byte value) {
+    dest.set(ValueLayout.JAVA_BYTE, destOff, value);
+  }
+
+  public static void writeByte(MemorySegment dest, long destOff, int value) {
+    writeByte(dest, destOff, (byte) value);
+  }
+
+  public static long readLong(MemorySegment src, long srcOff) {
+    return src.get(LONG, srcOff);
+  }
+
+  public static void writeLong(MemorySegment dest, long destOff, long value) {
+    dest.set(LONG, destOff, value);
+  }
+
+  public static int readInt(MemorySegment src, long srcOff) {
+    return src.get(INT, srcOff);
+  }
+
+  public static void writeInt(MemorySegment dest, long destOff, int value) {
+    dest.set(INT, destOff, value);
+  }
+
+  public static short readShort(MemorySegment src, long srcOff) {
+    return src.get(SHORT, srcOff);
+  }
+
+  public static void writeShort(MemorySegment dest, long destOff, short value) {
+    dest.set(SHORT, destOff, value);
+  }
+
+  public static void arraycopy(MemorySegment src, long srcOff, MemorySegment dest, long destOff, long len) {
+    MemorySegment.copy(src, srcOff, dest, destOff, len);
+  }
+
+  public static int readInt(int[] src, int srcOff) {
+    return src[srcOff];
+  }
+
+  public static void writeInt(int[] dest, int destOff, long value) {
+    dest[destOff] = (int) value;
+  }
+
+  public static int readShort(short[] src, int srcOff) {
+    return src[srcOff] & 0xFFFF;
+  }
+
+  public static void writeShort(short[] dest, int destOff, long value) {
+    dest[destOff] = (short) value;
+  }
+
+  public static class Match {
+    public long start, ref;
+    public long len;
+
+    public void fix(long correction) {
+      start += correction;
+      ref += correction;
+      len -= correction;
+    }
+
+    public long end() {
+      return start + len;
+    }
+  }
+
+  public static void copyTo(Match m1, Match m2) {
+    m2.len = m1.len;
+    m2.start = m1.start;
+    m2.ref = m1.ref;
+  }
+
+}
@@ -0,0 +1,35 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.MemorySegment;
+
+// Java 22+ variant of src/java/net/jpountz/xxhash/XXHash32Base.java, keep both in sync.
+
+/**
+ * Superclass of {@link XXHash32} for the methods that depend on the Java
+ * version.
+ */
+abstract class XXHash32Base {
+
+  /**
+   * Compute the 32-bits hash of <code>seg[off:off+len]</code> using seed
+   * <code>seed</code>. Neither offsets nor lengths are limited to 2 GB.
+   */
+  public int hash(MemorySegment seg, long off, long len, int seed) {
+    return XXHash32MemorySegment.hash(seg, off, len, seed);
+  }
+
+}
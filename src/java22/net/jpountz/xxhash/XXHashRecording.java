@@ -0,0 +1,53 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.MemorySegment;
+
+import net.jpountz.util.Events;
+
+// Java 22+ variant of src/java/net/jpountz/xxhash/XXHashRecording.java, keep both in sync.
+
+/**
+ * Wraps hashes into subclasses of the XXHash*Recording classes that also
+ * record the MemorySegment methods, which the XXHash*Recording classes can't
+ * override.
+ */
+enum XXHashRecording {
+  ;
+
+  static XXHash32 hash32(XXHash32 hash) {
+    return new Hash32(hash);
+  }
+
+  private static final class Hash32 extends XXHash32Recording {
+
+    Hash32(XXHash32 hash) {
+      super(hash);
+    }
+
+    @Override
+    public int hash(MemorySegment seg, long off, long len, int seed) {
+      final Object event = Events.begin(Events.HASH, len);
+      final int h = hash.hash(seg, off, len, seed);
+      if (event != null) {
+        Events.commit(event, hash, null, len, 4);
+      }
+      return h;
+    }
+
+  }
+
+}
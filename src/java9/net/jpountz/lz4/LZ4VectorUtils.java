@@ -0,0 +1,70 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.Utils.NATIVE_BYTE_ORDER;
+import static net.jpountz.util.VarHandleUtils.readLong;
+import static net.jpountz.util.VarHandleUtils.writeLong;
+
+import java.nio.ByteOrder;
+
+/**
+ * Vector API variants of some of the {@link LZ4VarHandleUtils} methods. The
+ * Java 22+ version of this class enables them when the
+ * <code>jdk.incubator.vector</code> module is available. This version is
+ * never enabled and implements them with the same scalar code as
+ * {@link LZ4VarHandleUtils}.
+ */
+enum LZ4VectorUtils {
+  ;
+
+  // not a constant expression, so that callers are not compiled against its value
+  static final boolean ENABLED = Boolean.FALSE.booleanValue();
+
+  static void wildArraycopy(byte[] src, int srcOff, byte[] dest, int destOff, int len) {
+    for (int i = 0; i < len; i += 8) {
+      writeLong(dest, destOff + i, readLong(src, srcOff + i));
+    }
+  }
+
+  static void wildIncrementalCopy(byte[] dest, int matchOff, int dOff, int matchCopyEnd) {
+    while (dOff < matchCopyEnd) {
+      writeLong(dest, dOff, readLong(dest, matchOff));
+      dOff += 8;
+      matchOff += 8;
+    }
+  }
+
+  static int commonBytes(byte[] buf, int ref, int sOff, int srcLimit) {
+    int matchLen = 0;
+    while (sOff <= srcLimit - 8) {
+      final long diff = readLong(buf, sOff) ^ readLong(buf, ref);
+      if (diff != 0) {
+        final int zeroBits = NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN
+            ? Long.numberOfLeadingZeros(diff)
+            : Long.numberOfTrailingZeros(diff);
+        return matchLen + (zeroBits >>> 3);
+      }
+      matchLen += 8;
+      ref += 8;
+      sOff += 8;
+    }
+    while (sOff < srcLimit && buf[ref++] == buf[sOff++]) {
+      ++matchLen;
+    }
+    return matchLen;
+  }
+
+}
@@ -0,0 +1,184 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static java.lang.Integer.reverseBytes;
+import static net.jpountz.util.Utils.NATIVE_BYTE_ORDER;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Same accessors as UnsafeUtils, implemented with byte array and byte buffer
+ * view {@link VarHandle}s. Accesses are bounds-checked and may be unaligned.
+ * Buffers are accessed in native byte order whatever their own order, be
+ * they heap, direct or read-only buffers.
+ * <p>
+ * Only available on Java 9+.
+ */
+public enum VarHandleUtils {
+  ;
+
+  private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle(long[].class, NATIVE_BYTE_ORDER);
+  private static final VarHandle INT = MethodHandles.byteArrayViewVarHandle(int[].class, NATIVE_BYTE_ORDER);
+  private static final VarHandle SHORT = MethodHandles.byteArrayViewVarHandle(short[].class, NATIVE_BYTE_ORDER);
+  private static final VarHandle BUFFER_LONG = MethodHandles.byteBufferViewVarHandle(long[].class, NATIVE_BYTE_ORDER);
+  private static final VarHandle BUFFER_INT = MethodHandles.byteBufferViewVarHandle(int[].class, NATIVE_BYTE_ORDER);
+  private static final VarHandle BUFFER_SHORT = MethodHandles.byteBufferViewVarHandle(short[].class, NATIVE_BYTE_ORDER);
+
+  public static byte readByte(byte[] src, int srcOff) {
+    return src[srcOff];
+  }
+
+  public static void writeByte(byte[] src, int srcOff, byte value) {
+    src[srcOff] = value;
+  }
+
+  public static void writeByte(byte[] src, int srcOff, int value) {
+    writeByte(src, srcOff, (byte) value);
+  }
+
+  public static long readLong(byte[] src, int srcOff) {
+    return (long) LONG.get(src, srcOff);
+  }
+
+  public static long readLongLE(byte[] src, int srcOff) {
+    long l = readLong(src, srcOff);
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      l = Long.reverseBytes(l);
+    }
+    return l;
+  }
+
+  public static void writeLong(byte[] dest, int destOff, long value) {
+    LONG.set(dest, destOff, value);
+  }
+
+  public static int readInt(byte[] src, int srcOff) {
+    return (int) INT.get(src, srcOff);
+  }
+
+  public static int readIntLE(byte[] src, int srcOff) {
+    int i = readInt(src, srcOff);
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      i = reverseBytes(i);
+    }
+    return i;
+  }
+
+  public static void writeInt(byte[] dest, int destOff, int value) {
+    INT.set(dest, destOff, value);
+  }
+
+  public static short readShort(byte[] src, int srcOff) {
+    return (short) SHORT.get(src, srcOff);
+  }
+
+  public static void writeShort(byte[] dest, int destOff, short value) {
+    SHORT.set(dest, destOff, value);
+  }
+
+  public static byte readByte(ByteBuffer src, int srcOff) {
+    return src.get(srcOff);
+  }
+
+  public static void writeByte(ByteBuffer src, int srcOff, byte value) {
+    src.put(srcOff, value);
+  }
+
+  public static void writeByte(ByteBuffer src, int srcOff, int value) {
+    writeByte(src, srcOff, (byte) value);
+  }
+
+  public static long readLong(ByteBuffer src, int srcOff) {
+    return (long) BUFFER_LONG.get(src, srcOff);
+  }
+
+  public static long readLongLE(ByteBuffer src, int srcOff) {
+    long l = readLong(src, srcOff);
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      l = Long.reverseBytes(l);
+    }
+    return l;
+  }
+
+  public static void writeLong(ByteBuffer dest, int destOff, long value) {
+    BUFFER_LONG.set(dest, destOff, value);
+  }
+
+  public static int readInt(ByteBuffer src, int srcOff) {
+    return (int) BUFFER_INT.get(src, srcOff);
+  }
+
+  public static int readIntLE(ByteBuffer src, int srcOff) {
+    int i = readInt(src, srcOff);
+    if (NATIVE_BYTE_ORDER == ByteOrder.BIG_ENDIAN) {
+      i = reverseBytes(i);
+    }
+    return i;
+  }
+
+  public static void writeInt(ByteBuffer dest, int destOff, int value) {
+    BUFFER_INT.set(dest, destOff, value);
+  }
+
+  public static short readShort(ByteBuffer src, int srcOff) {
+    return (short) BUFFER_SHORT.get(src, srcOff);
+  }
+
+  public static void writeShort(ByteBuffer dest, int destOff, short value) {
+    BUFFER_SHORT.set(dest, destOff, value);
+  }
+
+  public static int readInt(int[] src, int srcOff) {
+    return src[srcOff];
+  }
+
+  public static void writeInt(int[] dest, int destOff, int value) {
+    dest[destOff] = value;
+  }
+
+  public static int readShort(short[] src, int srcOff) {
+    return src[srcOff] & 0xFFFF;
+  }
+
+  public static void writeShort(short[] dest, int destOff, int value) {
+    dest[destOff] = (short) value;
+  }
+
+  public static class Match {
+    public int start, ref;
+    public int len;
+
+    public void fix(int correction) {
+      start += correction;
+      ref += correction;
+      len -= correction;
+    }
+
+    public int end() {
+      return start + len;
+    }
+  }
+
+  public static void copyTo(Match m1, Match m2) {
+    m2.len = m1.len;
+    m2.start = m1.start;
+    m2.ref = m1.ref;
+  }
+
+}
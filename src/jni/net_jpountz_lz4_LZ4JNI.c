@@ -13,6 +13,7 @@
  */
 
 #include "lz4.h"
+#include "lz4hc.h"
 #include "net_jpountz_lz4_LZ4JNI.h"
 
 static jclass OutOfMemoryError;
@@ -306,3 +307,176 @@ JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compressBound
   return LZ4_compressBound(len);
 
 }
+
+/* number of source arrays whose local references are held at the same time */
+#define BATCH_CHUNK 64
+
+typedef int (*compress_function)(const char* source, char* dest, int inputSize, int maxOutputSize);
+
+/*
+ * Compress srcs[start:end] one after the other into destArray. Only
+ * a chunk of BATCH_CHUNK local references is held at a time, and they are
+ * fetched before entering the critical section since no other JNI function
+ * may be called while arrays are pinned.
+ * Return the compressed length, or -1 if maxDestLen is too small.
+ */
+static jint compress_batch
+  (JNIEnv *env, compress_function compress, jobjectArray srcs, jint start, jint end, jbyteArray destArray, jint destOff, jint maxDestLen, jintArray destOffsets) {
+
+  jbyteArray arrays[BATCH_CHUNK];
+  jint lengths[BATCH_CHUNK];
+  const jint destEnd = destOff + maxDestLen;
+  jint dOff = destOff;
+  jint i, j, n, compressed;
+  jint pinned = 1;
+  char* in;
+  char* out;
+  jint* offsets;
+
+  for (i = start; i < end; i += n) {
+    n = end - i < BATCH_CHUNK ? end - i : BATCH_CHUNK;
+    if ((*env)->PushLocalFrame(env, n) != 0) {
+      return 0; /* OutOfMemoryError pending */
+    }
+    for (j = 0; j < n; ++j) {
+      arrays[j] = (jbyteArray) (*env)->GetObjectArrayElement(env, srcs, i + j);
+      lengths[j] = (*env)->GetArrayLength(env, arrays[j]);
+    }
+
+    out = (char*) (*env)->GetPrimitiveArrayCritical(env, destArray, 0);
+    if (out == NULL) {
+      (*env)->PopLocalFrame(env, NULL);
+      throw_OOM(env);
+      return 0;
+    }
+    offsets = (jint*) (*env)->GetPrimitiveArrayCritical(env, destOffsets, 0);
+    if (offsets == NULL) {
+      (*env)->ReleasePrimitiveArrayCritical(env, destArray, out, 0);
+      (*env)->PopLocalFrame(env, NULL);
+      throw_OOM(env);
+      return 0;
+    }
+
+    for (j = 0; j < n; ++j) {
+      in = (char*) (*env)->GetPrimitiveArrayCritical(env, arrays[j], 0);
+      if (in == NULL) {
+        pinned = 0;
+        break;
+      }
+      compressed = compress(in, out + dOff, lengths[j], destEnd - dOff);
+      (*env)->ReleasePrimitiveArrayCritical(env, arrays[j], in, JNI_ABORT);
+      if (compressed <= 0) {
+        break;
+      }
+      dOff += compressed;
+      offsets[i + j + 1] = dOff;
+    }
+
+    (*env)->ReleasePrimitiveArrayCritical(env, destOffsets, offsets, 0);
+    (*env)->ReleasePrimitiveArrayCritical(env, destArray, out, 0);
+    (*env)->PopLocalFrame(env, NULL);
+
+    if (!pinned) {
+      throw_OOM(env);
+      return 0;
+    }
+    if (j < n) {
+      return -1;
+    }
+  }
+
+  return dOff - destOff;
+
+}
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compress_limitedOutput_batch
+ * Signature: ([[BII[BII[I)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compress_1limitedOutput_1batch
+  (JNIEnv *env, jclass cls, jobjectArray srcs, jint start, jint end, jbyteArray destArray, jint destOff, jint maxDestLen, jintArray destOffsets) {
+
+  return compress_batch(env, LZ4_compress_limitedOutput, srcs, start, end, destArray, destOff, maxDestLen, destOffsets);
+
+}
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_compressHC_batch
+ * Signature: ([[BII[BII[I)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1compressHC_1batch
+  (JNIEnv *env, jclass cls, jobjectArray srcs, jint start, jint end, jbyteArray destArray, jint destOff, jint maxDestLen, jintArray destOffsets) {
+
+  return compress_batch(env, LZ4_compressHC_limitedOutput, srcs, start, end, destArray, destOff, maxDestLen, destOffsets);
+
+}
+
+/*
+ * Class:     net_jpountz_lz4_LZ4JNI
+ * Method:    LZ4_decompress_safe_batch
+ * Signature: ([B[III[BII[I)I
+ *
+ * Decompress the blocks of srcArray delimited by srcOffsets[start:end+1].
+ * Return the decompressed length, or -(i+1) if the i-th block is malformed
+ * or does not fit.
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_lz4_LZ4JNI_LZ4_1decompress_1safe_1batch
+  (JNIEnv *env, jclass cls, jbyteArray srcArray, jintArray srcOffsets, jint start, jint end, jbyteArray destArray, jint destOff, jint maxDestLen, jintArray destOffsets) {
+
+  const jint destEnd = destOff + maxDestLen;
+  jint dOff = destOff;
+  jint i, decompressed;
+  char* in;
+  char* out;
+  jint* inOffsets;
+  jint* outOffsets;
+
+  in = (char*) (*env)->GetPrimitiveArrayCritical(env, srcArray, 0);
+  if (in == NULL) {
+    throw_OOM(env);
+    return 0;
+  }
+  out = (char*) (*env)->GetPrimitiveArrayCritical(env, destArray, 0);
+  if (out == NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, JNI_ABORT);
+    throw_OOM(env);
+    return 0;
+  }
+  inOffsets = (jint*) (*env)->GetPrimitiveArrayCritical(env, srcOffsets, 0);
+  if (inOffsets == NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, destArray, out, 0);
+    (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, JNI_ABORT);
+    throw_OOM(env);
+    return 0;
+  }
+  outOffsets = (jint*) (*env)->GetPrimitiveArrayCritical(env, destOffsets, 0);
+  if (outOffsets == NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, srcOffsets, inOffsets, JNI_ABORT);
+    (*env)->ReleasePrimitiveArrayCritical(env, destArray, out, 0);
+    (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, JNI_ABORT);
+    throw_OOM(env);
+    return 0;
+  }
+
+  for (i = start; i < end; ++i) {
+    if (inOffsets[i + 1] == inOffsets[i]) {
+      break;
+    }
+    decompressed = LZ4_decompress_safe(in + inOffsets[i], out + dOff, inOffsets[i + 1] - inOffsets[i], destEnd - dOff);
+    if (decompressed < 0) {
+      break;
+    }
+    dOff += decompressed;
+    outOffsets[i + 1] = dOff;
+  }
+
+  (*env)->ReleasePrimitiveArrayCritical(env, destOffsets, outOffsets, 0);
+  (*env)->ReleasePrimitiveArrayCritical(env, srcOffsets, inOffsets, JNI_ABORT);
+  (*env)->ReleasePrimitiveArrayCritical(env, destArray, out, 0);
+  (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, JNI_ABORT);
+
+  return i < end ? -(i + 1) : dOff - destOff;
+
+}
@@ -13,7 +13,10 @@
  */
 
 #include <stdlib.h>
+#include <string.h>
 #include "xxhash.h"
+#include "xxh3.h"
+#include "xxhash_batch.h"
 #include "net_jpountz_xxhash_XXHashJNI.h"
 
 static jclass OutOfMemoryError;
@@ -35,15 +38,19 @@ static void throw_OOM(JNIEnv *env) {
 /*
  * Class:     net_jpountz_xxhash_XXHashJNI
  * Method:    XXH32
- * Signature: ([BIII)I
+ * Signature: ([BLjava/nio/ByteBuffer;III)I
  */
 JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32
-  (JNIEnv *env, jclass cls, jbyteArray buf, jint off, jint len, jint seed) {
+  (JNIEnv *env, jclass cls, jbyteArray srcArray, jobject srcBuffer, jint off, jint len, jint seed) {
 
   char* in;
   jint h32;
 
-  in = (char*) (*env)->GetPrimitiveArrayCritical(env, buf, 0);
+  if (srcArray != NULL) {
+    in = (char*) (*env)->GetPrimitiveArrayCritical(env, srcArray, 0);
+  } else {
+    in = (char*) (*env)->GetDirectBufferAddress(env, srcBuffer);
+  }
   if (in == NULL) {
     throw_OOM(env);
     return 0;
@@ -51,76 +58,547 @@ JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32
 
   h32 = XXH32(in + off, len, seed);
 
-  (*env)->ReleasePrimitiveArrayCritical(env, buf, in, 0);
+  if (srcArray != NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, 0);
+  }
 
   return h32;
 }
 
 /*
  * Class:     net_jpountz_xxhash_XXHashJNI
- * Method:    XXH32_init
- * Signature: (I)J
+ * Method:    XXH32_sizeofState
+ * Signature: ()I
  */
-JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1init
-  (JNIEnv *env, jclass cls, jint seed) {
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1sizeofState
+  (JNIEnv *env, jclass cls) {
 
-  return (jlong) XXH32_init(seed);
+  return XXH32_sizeofState();
 
 }
 
 /*
  * Class:     net_jpountz_xxhash_XXHashJNI
- * Method:    XXH32_feed
- * Signature: (J[BII)V
+ * Method:    XXH32_resetState
+ * Signature: ([JI)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1resetState
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jint seed) {
+
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return;
+  }
+
+  XXH32_resetState(state, seed);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, 0);
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_update
+ * Signature: ([J[BLjava/nio/ByteBuffer;II)V
  */
 JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1update
-  (JNIEnv *env, jclass cls, jlong state, jbyteArray src, jint off, jint len) {
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jbyteArray srcArray, jobject srcBuffer, jint off, jint len) {
+
+  void* state;
+  char* in;
+
+  if (srcArray != NULL) {
+    in = (char*) (*env)->GetPrimitiveArrayCritical(env, srcArray, 0);
+  } else {
+    in = (char*) (*env)->GetDirectBufferAddress(env, srcBuffer);
+  }
+  if (in == NULL) {
+    throw_OOM(env);
+    return;
+  }
+  state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    if (srcArray != NULL) {
+      (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, 0);
+    }
+    throw_OOM(env);
+    return;
+  }
+
+  XXH32_update(state, in + off, len);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, 0);
+  if (srcArray != NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, srcArray, in, 0);
+  }
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_intermediateDigest
+ * Signature: ([J)I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1intermediateDigest
+  (JNIEnv *env, jclass cls, jlongArray stateArray) {
+
+  jint h;
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return 0;
+  }
+
+  h = XXH32_intermediateDigest(state);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, JNI_ABORT);
+
+  return h;
+
+}
+
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64
+ * Signature: ([BIIJ)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64
+  (JNIEnv *env, jclass cls, jbyteArray buf, jint off, jint len, jlong seed) {
+
+  char* in;
+  jlong h64;
+
+  in = (char*) (*env)->GetPrimitiveArrayCritical(env, buf, 0);
+  if (in == NULL) {
+    throw_OOM(env);
+    return 0;
+  }
+
+  h64 = XXH64(in + off, len, seed);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, buf, in, 0);
+
+  return h64;
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_sizeofState
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1sizeofState
+  (JNIEnv *env, jclass cls) {
+
+  return XXH64_sizeofState();
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_resetState
+ * Signature: ([JJ)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1resetState
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jlong seed) {
+
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return;
+  }
+
+  XXH64_resetState(state, seed);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, 0);
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_update
+ * Signature: ([J[BII)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1update
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jbyteArray src, jint off, jint len) {
 
+  void* state;
   char* in = (char*) (*env)->GetPrimitiveArrayCritical(env, src, 0);
   if (in == NULL) {
     throw_OOM(env);
     return;
   }
+  state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, src, in, 0);
+    throw_OOM(env);
+    return;
+  }
 
-  XXH32_update((void*) state, in + off, len);
+  XXH64_update(state, in + off, len);
 
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, 0);
   (*env)->ReleasePrimitiveArrayCritical(env, src, in, 0);
 
 }
 
 /*
  * Class:     net_jpountz_xxhash_XXHashJNI
- * Method:    XXH32_getIntermediateResult
- * Signature: (J)I
+ * Method:    XXH64_intermediateDigest
+ * Signature: ([J)J
  */
-JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1intermediateDigest
-  (JNIEnv *env, jclass cls, jlong state) {
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1intermediateDigest
+  (JNIEnv *env, jclass cls, jlongArray stateArray) {
+
+  jlong h;
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return 0;
+  }
+
+  h = XXH64_intermediateDigest(state);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, JNI_ABORT);
+
+  return h;
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_64
+ * Signature: ([BIIJ)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_164
+  (JNIEnv *env, jclass cls, jbyteArray buf, jint off, jint len, jlong seed) {
+
+  char* in;
+  jlong h64;
+
+  in = (char*) (*env)->GetPrimitiveArrayCritical(env, buf, 0);
+  if (in == NULL) {
+    throw_OOM(env);
+    return 0;
+  }
+
+  h64 = XXH3_64bits_withSeed(in + off, len, seed);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, buf, in, 0);
+
+  return h64;
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_128
+ * Signature: ([BIIJ[J)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1128
+  (JNIEnv *env, jclass cls, jbyteArray buf, jint off, jint len, jlong seed, jlongArray hash) {
+
+  char* in;
+  XXH128_hash_t h128;
+  jlong dest[2];
+
+  in = (char*) (*env)->GetPrimitiveArrayCritical(env, buf, 0);
+  if (in == NULL) {
+    throw_OOM(env);
+    return;
+  }
+
+  h128 = XXH3_128bits_withSeed(in + off, len, seed);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, buf, in, 0);
+
+  dest[0] = (jlong) h128.low64;
+  dest[1] = (jlong) h128.high64;
+  (*env)->SetLongArrayRegion(env, hash, 0, 2, dest);
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_sizeofState
+ * Signature: ()I
+ */
+JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1sizeofState
+  (JNIEnv *env, jclass cls) {
+
+  return XXH3_sizeofState();
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_resetState
+ * Signature: ([JJ)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1resetState
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jlong seed) {
+
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return;
+  }
+
+  XXH3_reset_withSeed(state, seed);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, 0);
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_update
+ * Signature: ([J[BII)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1update
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jbyteArray src, jint off, jint len) {
+
+  void* state;
+  char* in = (char*) (*env)->GetPrimitiveArrayCritical(env, src, 0);
+  if (in == NULL) {
+    throw_OOM(env);
+    return;
+  }
+  state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    (*env)->ReleasePrimitiveArrayCritical(env, src, in, 0);
+    throw_OOM(env);
+    return;
+  }
+
+  XXH3_update(state, in + off, len);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, 0);
+  (*env)->ReleasePrimitiveArrayCritical(env, src, in, 0);
+
+}
 
-  return XXH32_intermediateDigest((void*) state);
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH3_digest64
+ * Signature: ([J)J
+ */
+JNIEXPORT jlong JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1digest64
+  (JNIEnv *env, jclass cls, jlongArray stateArray) {
+
+  jlong h;
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return 0;
+  }
+
+  h = XXH3_64bits_digest(state);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, JNI_ABORT);
+
+  return h;
 
 }
 
 /*
  * Class:     net_jpountz_xxhash_XXHashJNI
- * Method:    XXH32_result
- * Signature: (J)I
+ * Method:    XXH3_digest128
+ * Signature: ([J[J)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH3_1digest128
+  (JNIEnv *env, jclass cls, jlongArray stateArray, jlongArray hash) {
+
+  XXH128_hash_t h128;
+  jlong dest[2];
+  void* state = (*env)->GetPrimitiveArrayCritical(env, stateArray, 0);
+  if (state == NULL) {
+    throw_OOM(env);
+    return;
+  }
+
+  h128 = XXH3_128bits_digest(state);
+
+  (*env)->ReleasePrimitiveArrayCritical(env, stateArray, state, JNI_ABORT);
+
+  dest[0] = (jlong) h128.low64;
+  dest[1] = (jlong) h128.high64;
+  (*env)->SetLongArrayRegion(env, hash, 0, 2, dest);
+
+}
+
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH32_batchIsVectorized
+ * Signature: ()Z
+ */
+JNIEXPORT jboolean JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1batchIsVectorized
+  (JNIEnv *env, jclass cls) {
+
+  return XXH32_batchIsVectorized() ? JNI_TRUE : JNI_FALSE;
+
+}
+
+/* number of inputs whose local references are held at the same time */
+#define BATCH_CHUNK 64
+
+/* values of ends[i] for inputs that are not packed, see XXHashJNI.Batch */
+#define BATCH_PINNED -1
+#define BATCH_SKIPPED -2
+
+/*
+ * Point ins and lengths to the inputs [start:start+n] of a batch that are not
+ * skipped, store their positions in the chunk in pos, and pin them. Packed
+ * inputs end at ends[j] in packed and pinned ones are fetched from srcs.
+ * Local references are fetched before entering the critical section since no
+ * other JNI function may be called while arrays are pinned.
+ * Return the number of inputs to hash, or -1 if an array could not be pinned,
+ * in which case none is left pinned.
  */
-JNIEXPORT jint JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1digest
-  (JNIEnv *env, jclass cls, jlong state) {
+static jint pin_chunk
+  (JNIEnv *env, jobjectArray srcs, jint start, jint n, jbyteArray packedArray, const jint* ends, jint* packedOff,
+   char** packed, jbyteArray* arrays, const void** ins, int* lengths, jint* pos) {
+
+  jint j, m = 0;
 
-  return XXH32_digest((void*) state);
+  for (j = 0; j < n; ++j) {
+    if (ends[j] != BATCH_SKIPPED) {
+      pos[m] = j;
+      arrays[m] = NULL;
+      if (ends[j] == BATCH_PINNED) {
+        arrays[m] = (jbyteArray) (*env)->GetObjectArrayElement(env, srcs, start + j);
+        lengths[m] = (*env)->GetArrayLength(env, arrays[m]);
+      }
+      ++m;
+    }
+  }
+
+  *packed = (char*) (*env)->GetPrimitiveArrayCritical(env, packedArray, 0);
+  if (*packed == NULL) {
+    return -1;
+  }
+  for (j = 0; j < m; ++j) {
+    if (arrays[j] == NULL) {
+      ins[j] = *packed + *packedOff;
+      lengths[j] = ends[pos[j]] - *packedOff;
+      *packedOff = ends[pos[j]];
+    } else {
+      ins[j] = (*env)->GetPrimitiveArrayCritical(env, arrays[j], 0);
+      if (ins[j] == NULL) {
+        while (--j >= 0) {
+          if (arrays[j] != NULL) {
+            (*env)->ReleasePrimitiveArrayCritical(env, arrays[j], (void*) ins[j], JNI_ABORT);
+          }
+        }
+        (*env)->ReleasePrimitiveArrayCritical(env, packedArray, *packed, JNI_ABORT);
+        return -1;
+      }
+    }
+  }
+
+  return m;
+
+}
+
+static void release_chunk
+  (JNIEnv *env, jint m, jbyteArray packedArray, char* packed, jbyteArray* arrays, const void** ins) {
+
+  jint j;
+
+  for (j = m - 1; j >= 0; --j) {
+    if (arrays[j] != NULL) {
+      (*env)->ReleasePrimitiveArrayCritical(env, arrays[j], (void*) ins[j], JNI_ABORT);
+    }
+  }
+  (*env)->ReleasePrimitiveArrayCritical(env, packedArray, packed, JNI_ABORT);
 
 }
 
 /*
  * Class:     net_jpountz_xxhash_XXHashJNI
- * Method:    XXH32_free
- * Signature: (J)V
+ * Method:    XXH32_batch
+ * Signature: ([[BII[B[II[I)V
  */
-JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1free
-  (JNIEnv *env, jclass cls, jlong state) {
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH32_1batch
+  (JNIEnv *env, jclass cls, jobjectArray srcs, jint start, jint end, jbyteArray packedArray, jintArray endsArray, jint seed, jintArray out) {
 
-  free((void*) state);
+  jbyteArray arrays[BATCH_CHUNK];
+  const void* ins[BATCH_CHUNK];
+  int lengths[BATCH_CHUNK];
+  jint ends[BATCH_CHUNK];
+  jint pos[BATCH_CHUNK];
+  unsigned int hashes[BATCH_CHUNK];
+  jint chunk[BATCH_CHUNK];
+  char* packed;
+  jint packedOff = 0;
+  jint i, j, n, m;
+
+  for (i = start; i < end; i += n) {
+    n = end - i < BATCH_CHUNK ? end - i : BATCH_CHUNK;
+    (*env)->GetIntArrayRegion(env, endsArray, i - start, n, ends);
+    if ((*env)->PushLocalFrame(env, n) != 0) {
+      return; /* OutOfMemoryError pending */
+    }
+    m = pin_chunk(env, srcs, i, n, packedArray, ends, &packedOff, &packed, arrays, ins, lengths, pos);
+    if (m < 0) {
+      (*env)->PopLocalFrame(env, NULL);
+      throw_OOM(env);
+      return;
+    }
+
+    XXH32_batch(ins, lengths, m, seed, hashes);
+
+    release_chunk(env, m, packedArray, packed, arrays, ins);
+    (*env)->PopLocalFrame(env, NULL);
+    memset(chunk, 0, sizeof(chunk));
+    for (j = 0; j < m; ++j) {
+      chunk[pos[j]] = (jint) hashes[j];
+    }
+    (*env)->SetIntArrayRegion(env, out, i, n, chunk);
+  }
 
 }
 
+/*
+ * Class:     net_jpountz_xxhash_XXHashJNI
+ * Method:    XXH64_batch
+ * Signature: ([[BII[B[IJ[J)V
+ */
+JNIEXPORT void JNICALL Java_net_jpountz_xxhash_XXHashJNI_XXH64_1batch
+  (JNIEnv *env, jclass cls, jobjectArray srcs, jint start, jint end, jbyteArray packedArray, jintArray endsArray, jlong seed, jlongArray out) {
+
+  jbyteArray arrays[BATCH_CHUNK];
+  const void* ins[BATCH_CHUNK];
+  int lengths[BATCH_CHUNK];
+  jint ends[BATCH_CHUNK];
+  jint pos[BATCH_CHUNK];
+  unsigned long long hashes[BATCH_CHUNK];
+  jlong chunk[BATCH_CHUNK];
+  char* packed;
+  jint packedOff = 0;
+  jint i, j, n, m;
+
+  for (i = start; i < end; i += n) {
+    n = end - i < BATCH_CHUNK ? end - i : BATCH_CHUNK;
+    (*env)->GetIntArrayRegion(env, endsArray, i - start, n, ends);
+    if ((*env)->PushLocalFrame(env, n) != 0) {
+      return; /* OutOfMemoryError pending */
+    }
+    m = pin_chunk(env, srcs, i, n, packedArray, ends, &packedOff, &packed, arrays, ins, lengths, pos);
+    if (m < 0) {
+      (*env)->PopLocalFrame(env, NULL);
+      throw_OOM(env);
+      return;
+    }
+
+    XXH64_batch(ins, lengths, m, seed, hashes);
+
+    release_chunk(env, m, packedArray, packed, arrays, ins);
+    (*env)->PopLocalFrame(env, NULL);
+    memset(chunk, 0, sizeof(chunk));
+    for (j = 0; j < m; ++j) {
+      chunk[pos[j]] = (jlong) hashes[j];
+    }
+    (*env)->SetLongArrayRegion(env, out, i, n, chunk);
+  }
+
+}
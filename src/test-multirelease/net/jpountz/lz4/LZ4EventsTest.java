@@ -0,0 +1,159 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.EventRecorder.named;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import net.jpountz.util.DataGenerator;
+import net.jpountz.util.EventRecorder;
+import net.jpountz.util.Events;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakFilters;
+
+@RunWith(RandomizedRunner.class)
+@ThreadLeakFilters(filters = EventRecorder.JfrThreads.class)
+public class LZ4EventsTest extends RandomizedTest {
+
+  private static void assertEvent(RecordedEvent event, Class<?> implementation, long inputSize, long outputSize,
+      double ratio) {
+    assertEquals(implementation.getName(), event.getClass("implementation").getName());
+    assertEquals(inputSize, event.getLong("inputSize"));
+    assertEquals(outputSize, event.getLong("outputSize"));
+    assertEquals(ratio, event.getDouble("ratio"), 1e-9);
+    assertTrue(event.getLong("throughput") > 0);
+  }
+
+  @Test
+  public void testCompressorEvents() throws IOException {
+    final LZ4Factory factory = LZ4Factory.safeInstance();
+    final LZ4Compressor compressor = new LZ4RecordingCompressor(factory.fastCompressor());
+    final LZ4FastDecompressor fastDecompressor = new LZ4RecordingFastDecompressor(factory.fastDecompressor());
+    final LZ4SafeDecompressor safeDecompressor = new LZ4RecordingSafeDecompressor(factory.safeDecompressor());
+    // safe decompressors compare the compressed length to the 64 KB threshold
+    final byte[] data = DataGenerator.generate(randomIntBetween(1 << 18, 1 << 20), randomInt(), 0.5);
+
+    final EventRecorder recorder = new EventRecorder("net.jpountz.LZ4Compress", "net.jpountz.LZ4Decompress");
+    final byte[] compressed = compressor.compress(data);
+    assertArrayEquals(data, fastDecompressor.decompress(compressed, data.length));
+    assertArrayEquals(data, safeDecompressor.decompress(compressed, data.length));
+    // less than the threshold
+    final byte[] small = new byte[100];
+    safeDecompressor.decompress(compressor.compress(small), small.length);
+    final List<RecordedEvent> events = recorder.stop();
+
+    final double ratio = (double) data.length / compressed.length;
+    final List<RecordedEvent> compressions = named(events, "net.jpountz.LZ4Compress");
+    assertEquals(1, compressions.size());
+    assertEvent(compressions.get(0), LZ4JavaSafeCompressor.class, data.length, compressed.length, ratio);
+    final List<RecordedEvent> decompressions = named(events, "net.jpountz.LZ4Decompress");
+    assertEquals(2, decompressions.size());
+    assertEvent(decompressions.get(0), LZ4JavaSafeFastDecompressor.class, compressed.length, data.length, ratio);
+    assertEvent(decompressions.get(1), LZ4JavaSafeSafeDecompressor.class, compressed.length, data.length, ratio);
+  }
+
+  @Test
+  public void testSegmentEvents() throws IOException {
+    final LZ4Factory factory = LZ4Factory.safeInstance();
+    final LZ4Compressor compressor = LZ4Recording.compressor(factory.fastCompressor());
+    final LZ4FastDecompressor fastDecompressor = LZ4Recording.fastDecompressor(factory.fastDecompressor());
+    final LZ4SafeDecompressor safeDecompressor = LZ4Recording.safeDecompressor(factory.safeDecompressor());
+    final byte[] data = DataGenerator.generate(randomIntBetween(1 << 18, 1 << 20), randomInt(), 0.5);
+    final MemorySegment src = MemorySegment.ofArray(data);
+    final MemorySegment compressed = MemorySegment.ofArray(new byte[compressor.maxCompressedLength(data.length)]);
+    final MemorySegment restored = MemorySegment.ofArray(new byte[data.length]);
+
+    final EventRecorder recorder = new EventRecorder("net.jpountz.LZ4Compress", "net.jpountz.LZ4Decompress");
+    final long compressedLen = compressor.compress(src, 0, data.length, compressed, 0, compressed.byteSize());
+    assertEquals(compressedLen, fastDecompressor.decompress(compressed, 0, restored, 0, data.length));
+    assertEquals(data.length, safeDecompressor.decompress(compressed, 0, compressedLen, restored, 0, data.length));
+    assertEquals(-1, src.mismatch(restored));
+    final List<RecordedEvent> events = recorder.stop();
+
+    final double ratio = (double) data.length / compressedLen;
+    final List<RecordedEvent> compressions = named(events, "net.jpountz.LZ4Compress");
+    assertEquals(1, compressions.size());
+    assertEvent(compressions.get(0), LZ4JavaSafeCompressor.class, data.length, compressedLen, ratio);
+    final List<RecordedEvent> decompressions = named(events, "net.jpountz.LZ4Decompress");
+    assertEquals(2, decompressions.size());
+    assertEvent(decompressions.get(0), LZ4JavaSafeFastDecompressor.class, compressedLen, data.length, ratio);
+    assertEvent(decompressions.get(1), LZ4JavaSafeSafeDecompressor.class, compressedLen, data.length, ratio);
+  }
+
+  @Test
+  public void testBlockStreamEvents() throws IOException {
+    final int blockSize = 1 << 16;
+    final int blocks = randomIntBetween(1, 5);
+    final byte[] data = DataGenerator.generate(blocks * blockSize - randomInt(blockSize - 1), randomInt(), 0.5);
+    final LZ4Factory factory = LZ4Factory.safeInstance();
+
+    final EventRecorder recorder = new EventRecorder("net.jpountz.LZ4BlockFlush", "net.jpountz.LZ4BlockRefill");
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    final LZ4BlockOutputStream os = new LZ4BlockOutputStream(out, blockSize, factory.fastCompressor());
+    os.write(data);
+    os.close();
+    final LZ4BlockInputStream is = new LZ4BlockInputStream(new ByteArrayInputStream(out.toByteArray()),
+        factory.fastDecompressor());
+    final byte[] restored = new byte[data.length];
+    int off = 0;
+    for (int n = is.read(restored, off, restored.length - off); n > 0; n = is.read(restored, off, restored.length - off)) {
+      off += n;
+    }
+    assertEquals(-1, is.read());
+    assertArrayEquals(data, restored);
+    is.close();
+    final List<RecordedEvent> events = recorder.stop();
+
+    // the end mark is neither flushed nor refilled
+    final long compressedLen = out.size() - LZ4BlockOutputStream.HEADER_LENGTH;
+    for (String name : new String[] { "net.jpountz.LZ4BlockFlush", "net.jpountz.LZ4BlockRefill" }) {
+      final boolean flush = name.equals("net.jpountz.LZ4BlockFlush");
+      final List<RecordedEvent> blockEvents = named(events, name);
+      assertEquals(name, blocks, blockEvents.size());
+      long uncompressed = 0, compressed = 0;
+      for (RecordedEvent event : blockEvents) {
+        assertEquals(System.identityHashCode(flush ? os : is), event.getInt("stream"));
+        assertEquals(flush ? LZ4JavaSafeCompressor.class.getName() : LZ4JavaSafeFastDecompressor.class.getName(),
+            event.getClass("implementation").getName());
+        uncompressed += event.getLong(flush ? "inputSize" : "outputSize");
+        compressed += event.getLong(flush ? "outputSize" : "inputSize");
+      }
+      assertEquals(data.length, uncompressed);
+      assertEquals(compressedLen, compressed);
+    }
+  }
+
+  @Test
+  public void testDisabled() {
+    // no recording enables the events
+    assertNull(Events.begin(Events.COMPRESS, 1 << 20));
+    assertNull(Events.begin(Events.BLOCK_FLUSH, 1 << 20));
+    // factories only return recording instances with -Dnet.jpountz.jfr=true
+    assertFalse(Events.enabled());
+    assertFalse(LZ4Factory.safeInstance().fastCompressor() instanceof LZ4RecordingCompressor);
+  }
+
+}
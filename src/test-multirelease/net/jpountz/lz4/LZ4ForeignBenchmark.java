@@ -0,0 +1,87 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Compares the {@link LZ4Factory#foreignInstance() foreign} and
+ * {@link LZ4Factory#nativeInstance() JNI} instances on byte arrays of
+ * increasing sizes, taken from calgary/book1. Run with
+ * <code>java -cp ... net.jpountz.lz4.LZ4ForeignBenchmark</code>.
+ */
+public class LZ4ForeignBenchmark {
+
+  private static final int[] SIZES = { 64, 256, 1 << 10, 4 << 10, 64 << 10, 1 << 20 };
+  private static final long NANOS_PER_RUN = 500L * 1000 * 1000;
+
+  private static int sink;
+
+  public static void main(String[] args) throws IOException {
+    final byte[] book1 = readResource("/calgary/book1");
+    final LZ4Factory[] factories = { LZ4Factory.nativeInstance(), LZ4Factory.foreignInstance() };
+    System.out.printf("%10s %-30s %14s %14s%n", "size", "instance", "compress ns", "decompress ns");
+    for (int size : SIZES) {
+      final byte[] data = new byte[size];
+      for (int i = 0; i < size; i += book1.length) {
+        System.arraycopy(book1, 0, data, i, Math.min(book1.length, size - i));
+      }
+      for (LZ4Factory lz4 : factories) {
+        final LZ4Compressor compressor = lz4.fastCompressor();
+        final LZ4SafeDecompressor decompressor = lz4.safeDecompressor();
+        final byte[] compressed = new byte[compressor.maxCompressedLength(size)];
+        final int compressedLen = compressor.compress(data, compressed);
+        final byte[] restored = new byte[size];
+        for (int round = 0; round < 2; ++round) { // the first round is warm-up
+          long iterations = 0;
+          long start = System.nanoTime(), elapsed;
+          do {
+            sink += compressor.compress(data, 0, size, compressed, 0, compressed.length);
+            ++iterations;
+          } while ((elapsed = System.nanoTime() - start) < NANOS_PER_RUN);
+          final double compressNanos = (double) elapsed / iterations;
+
+          iterations = 0;
+          start = System.nanoTime();
+          do {
+            sink += decompressor.decompress(compressed, 0, compressedLen, restored, 0);
+            ++iterations;
+          } while ((elapsed = System.nanoTime() - start) < NANOS_PER_RUN);
+          final double decompressNanos = (double) elapsed / iterations;
+
+          if (round == 1) {
+            System.out.printf("%10d %-30s %14.1f %14.1f%n", size, lz4, compressNanos, decompressNanos);
+          }
+        }
+      }
+    }
+  }
+
+  private static byte[] readResource(String resource) throws IOException {
+    final InputStream is = LZ4ForeignBenchmark.class.getResourceAsStream(resource);
+    try {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      final byte[] buf = new byte[4096];
+      for (int read; (read = is.read(buf)) != -1; ) {
+        out.write(buf, 0, read);
+      }
+      return out.toByteArray();
+    } finally {
+      is.close();
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class LZ4ForeignTest extends AbstractLZ4RoundtripTest {
+
+  @Override
+  protected boolean detectsUnderestimatedLength(LZ4SafeDecompressor decompressor) {
+    // downcalls run the same C implementation as JNI
+    return !(decompressor instanceof LZ4ForeignSafeDecompressor) && super.detectsUnderestimatedLength(decompressor);
+  }
+
+  @Test
+  public void testInstance() {
+    final LZ4Factory lz4 = LZ4Factory.foreignInstance();
+    assertEquals(LZ4ForeignCompressor.INSTANCE, lz4.fastCompressor());
+    assertEquals(LZ4HCForeignCompressor.INSTANCE, lz4.highCompressor());
+    assertEquals(LZ4ForeignFastDecompressor.INSTANCE, lz4.fastDecompressor());
+    assertEquals(LZ4ForeignSafeDecompressor.INSTANCE, lz4.safeDecompressor());
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testRoundTrip() {
+    final int len = randomBoolean() ? randomInt(1 << 10) : randomInt(1 << 18);
+    final byte[] data = randomArray(randomIntBetween(len, len + 100), 1 + randomInt(255));
+    final int off = randomInt(data.length - len);
+    final LZ4Factory lz4 = LZ4Factory.foreignInstance();
+    testRoundTrip(data, off, len, lz4);
+    for (LZ4Compressor compressor : Arrays.asList(lz4.fastCompressor(), lz4.highCompressor())) {
+      testRoundTrip(data, off, len, new LZ4MemorySegmentTest.NativeSegmentTester(compressor, lz4.fastDecompressor(), lz4.safeDecompressor()));
+      testRoundTrip(data, off, len, new LZ4MemorySegmentTest.HeapSegmentTester(compressor, lz4.fastDecompressor(), lz4.safeDecompressor()));
+    }
+  }
+
+  @Test
+  public void testRoundTripEmpty() {
+    testRoundTrip(new byte[0], 0, 0, LZ4Factory.foreignInstance());
+  }
+
+  @Test
+  public void testRoundTripBook1() throws IOException {
+    testRoundTrip(readResource("/calgary/book1"), 0, 768771, LZ4Factory.foreignInstance());
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testCompressedArrayEqualsJNI() {
+    final byte[] data = randomArray(randomInt(1 << 18), 1 + randomInt(255));
+    final LZ4Factory lz4 = LZ4Factory.foreignInstance();
+    final LZ4Factory ref = LZ4Factory.nativeInstance();
+    assertArrayEquals(ref.fastCompressor().compress(data), lz4.fastCompressor().compress(data));
+    assertArrayEquals(ref.highCompressor().compress(data), lz4.highCompressor().compress(data));
+  }
+
+  @Test
+  public void testReadOnlyBuffers() {
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 12), 10);
+    final LZ4Factory lz4 = LZ4Factory.foreignInstance();
+    final ByteBuffer compressed = ByteBuffer.allocate(lz4.fastCompressor().maxCompressedLength(data.length));
+    lz4.fastCompressor().compress(ByteBuffer.wrap(data).asReadOnlyBuffer(), compressed);
+    compressed.flip();
+    final ByteBuffer restored = ByteBuffer.allocateDirect(data.length);
+    lz4.fastDecompressor().decompress(compressed.asReadOnlyBuffer(), restored);
+    restored.flip();
+    final byte[] restoredBytes = new byte[data.length];
+    restored.get(restoredBytes);
+    assertArrayEquals(data, restoredBytes);
+    try {
+      lz4.safeDecompressor().decompress(compressed, 0, compressed.limit(), ByteBuffer.allocate(data.length).asReadOnlyBuffer(), 0, data.length);
+      fail();
+    } catch (ReadOnlyBufferException e) {
+      // ok
+    }
+  }
+
+  @Test
+  public void testNonByteHeapSegments() {
+    // downcalls access heap segments in place, whatever their element type
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 12), 10);
+    final long[] longs = new long[(data.length + 7) / 8];
+    MemorySegment.copy(MemorySegment.ofArray(data), 0, MemorySegment.ofArray(longs), 0, data.length);
+    final LZ4Factory lz4 = LZ4Factory.foreignInstance();
+    final MemorySegment compressed = Arena.ofAuto().allocate(lz4.fastCompressor().maxCompressedLength(data.length));
+    final long compressedLen = lz4.fastCompressor().compress(MemorySegment.ofArray(longs), 0, data.length, compressed, 0, compressed.byteSize());
+    final long[] restored = new long[longs.length];
+    assertEquals(data.length, lz4.safeDecompressor().decompress(compressed, 0, compressedLen, MemorySegment.ofArray(restored), 0, data.length));
+    assertArrayEquals(longs, restored);
+  }
+
+}
@@ -0,0 +1,313 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.lz4.Instances.COMPRESSORS;
+import static net.jpountz.lz4.Instances.FAST_DECOMPRESSORS;
+import static net.jpountz.lz4.Instances.SAFE_DECOMPRESSORS;
+
+import java.io.IOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class LZ4MemorySegmentTest extends AbstractLZ4RoundtripTest {
+
+  /** Segment wrapper whose equality is based on content. */
+  static final class Segment {
+    final MemorySegment seg;
+
+    Segment(MemorySegment seg) {
+      this.seg = seg;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Segment)) {
+        return false;
+      }
+      final MemorySegment other = ((Segment) obj).seg;
+      return seg.byteSize() == other.byteSize() && seg.mismatch(other) == -1;
+    }
+
+    @Override
+    public int hashCode() {
+      return 42;
+    }
+
+    @Override
+    public String toString() {
+      return Arrays.toString(seg.toArray(ValueLayout.JAVA_BYTE));
+    }
+  }
+
+  protected static abstract class MemorySegmentTester extends Tester<Segment> {
+      MemorySegmentTester(LZ4Compressor compressor, LZ4FastDecompressor decompressor, LZ4SafeDecompressor decompressor2) {
+        this.compressor = compressor;
+        this.decompressor = decompressor;
+        this.decompressor2 = decompressor2;
+      }
+
+      abstract MemorySegment allocateSegment(int len);
+
+      Segment allocate(int len) {
+        return new Segment(allocateSegment(len));
+      }
+
+      Segment copy(byte[] src) {
+        final Segment copy = allocate(src.length);
+        copy.seg.copyFrom(MemorySegment.ofArray(src));
+        return copy;
+      }
+
+      Segment slice(Segment src, int start, int end) {
+        return new Segment(src.seg.asSlice(start, end - start));
+      }
+
+      int size(Segment src) {
+        return (int) src.seg.byteSize();
+      }
+
+      void fillBuffer(Segment buf, byte v) {
+        buf.seg.fill(v);
+      }
+
+      byte[] bytes(Segment src, int len) {
+        return src.seg.asSlice(0, len).toArray(ValueLayout.JAVA_BYTE);
+      }
+
+      int compress(Segment src, int srcOff, int srcLen, Segment dst, int dstOff, int dstLen) {
+        return (int) compressor.compress(src.seg, srcOff, srcLen, dst.seg, dstOff, dstLen);
+      }
+      int decompress(Segment src, int srcOff, Segment dst, int dstOff, int dstLen) {
+        return (int) decompressor.decompress(src.seg, srcOff, dst.seg, dstOff, dstLen);
+      }
+      int decompressWithPrefix64k(Segment src, int srcOff, Segment dst, int dstOff, int dstLen) {
+        return (int) decompressor.decompressWithPrefix64k(src.seg, srcOff, dst.seg, dstOff, dstLen);
+      }
+      int decompress2(Segment src, int srcOff, int srcLen, Segment dst, int dstOff) {
+        return (int) decompressor2.decompress(src.seg, srcOff, srcLen, dst.seg, dstOff, dst.seg.byteSize() - dstOff);
+      }
+      int decompress2WithPrefix64k(Segment src, int srcOff, int srcLen, Segment dst, int dstOff) {
+        return (int) decompressor2.decompressWithPrefix64k(src.seg, srcOff, srcLen, dst.seg, dstOff, dst.seg.byteSize() - dstOff);
+      }
+      LZ4Compressor refCompressor() {
+        return compressor;    // Will be used on byte arrays.
+      }
+    }
+
+  protected static class NativeSegmentTester extends MemorySegmentTester {
+      NativeSegmentTester(LZ4Compressor compressor, LZ4FastDecompressor decompressor, LZ4SafeDecompressor decompressor2) {
+        super(compressor, decompressor, decompressor2);
+      }
+
+      MemorySegment allocateSegment(int len) {
+        return Arena.ofAuto().allocate(len);
+      }
+    }
+
+  protected static class HeapSegmentTester extends MemorySegmentTester {
+      HeapSegmentTester(LZ4Compressor compressor, LZ4FastDecompressor decompressor, LZ4SafeDecompressor decompressor2) {
+        super(compressor, decompressor, decompressor2);
+      }
+
+      MemorySegment allocateSegment(int len) {
+        // slices of larger arrays to make sure the array offset is honored
+        final int offset = randomInt(16);
+        return MemorySegment.ofArray(new byte[offset + len]).asSlice(offset);
+      }
+    }
+
+  public void testSegmentRoundTrip(byte[] data, int off, int len) {
+    for (LZ4Factory lz4 : Arrays.asList(
+        LZ4Factory.nativeInstance(),
+        LZ4Factory.unsafeInstance(),
+        LZ4Factory.safeInstance())) {
+      for (LZ4Compressor compressor : Arrays.asList(
+          lz4.fastCompressor(), lz4.highCompressor())) {
+        testRoundTrip(data, off, len, new NativeSegmentTester(compressor, lz4.fastDecompressor(), lz4.safeDecompressor()));
+        testRoundTrip(data, off, len, new HeapSegmentTester(compressor, lz4.fastDecompressor(), lz4.safeDecompressor()));
+      }
+    }
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testRoundTrip() {
+    final int len = randomInt(1 << 16);
+    final byte[] data = randomArray(randomIntBetween(len, len + 100), 1 + randomInt(255));
+    final int off = randomInt(data.length - len);
+    testSegmentRoundTrip(data, off, len);
+  }
+
+  @Test
+  public void testRoundTripEmpty() {
+    testSegmentRoundTrip(new byte[0], 0, 0);
+  }
+
+  @Test
+  public void testNonByteHeapSegments() {
+    // segments are accessed in place, whatever the type of their backing array
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 12), 10);
+    final long[] longs = new long[(data.length + 7) / 8];
+    MemorySegment.copy(MemorySegment.ofArray(data), 0, MemorySegment.ofArray(longs), 0, data.length);
+    final MemorySegment src = MemorySegment.ofArray(longs);
+
+    for (LZ4Compressor compressor : COMPRESSORS) {
+      final MemorySegment compressed = MemorySegment.ofArray(new int[(compressor.maxCompressedLength(data.length) + 3) / 4]);
+      final long compressedLen = compressor.compress(src, 0, data.length, compressed, 0, compressed.byteSize());
+      for (LZ4SafeDecompressor decompressor : SAFE_DECOMPRESSORS) {
+        final long[] restored = new long[longs.length];
+        assertEquals(data.length, decompressor.decompress(compressed, 0, compressedLen, MemorySegment.ofArray(restored), 0, data.length));
+        assertArrayEquals(longs, restored);
+      }
+      for (LZ4FastDecompressor decompressor : FAST_DECOMPRESSORS) {
+        final long[] restored = new long[longs.length];
+        assertEquals(compressedLen, decompressor.decompress(compressed, 0, MemorySegment.ofArray(restored), 0, data.length));
+        assertArrayEquals(longs, restored);
+      }
+    }
+  }
+
+  @Test
+  public void testSameOutputAsArrays() {
+    // segments are compressed with the algorithm of the compressor
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 17), 10);
+    for (LZ4Compressor compressor : Arrays.asList(
+        LZ4Factory.safeInstance().fastCompressor(),
+        LZ4Factory.safeInstance().highCompressor())) {
+      final byte[] expected = compressor.compress(data);
+      final MemorySegment compressed = Arena.ofAuto().allocate(compressor.maxCompressedLength(data.length));
+      final long compressedLen = compressor.compress(MemorySegment.ofArray(data), 0, data.length, compressed, 0, compressed.byteSize());
+      assertArrayEquals(expected, compressed.asSlice(0, compressedLen).toArray(ValueLayout.JAVA_BYTE));
+    }
+  }
+
+  @Test
+  public void testOffsetsBeyond2GB() throws IOException {
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 16), 10);
+    final long srcOff = (3L << 30) + randomInt(100);
+    final long compressedOff = srcOff + data.length;
+    final long restoredOff = compressedOff + LZ4Utils.maxCompressedLength(data.length);
+    final Path file = Files.createTempFile("lz4", ".bin");
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+        Arena arena = Arena.ofConfined()) {
+      // the file is sparse, only the pages that the test touches are allocated
+      final MemorySegment seg = channel.map(FileChannel.MapMode.READ_WRITE, 0, restoredOff + data.length, arena);
+      MemorySegment.copy(MemorySegment.ofArray(data), 0, seg, srcOff, data.length);
+      for (LZ4Compressor compressor : COMPRESSORS) {
+        final long compressedLen = compressor.compress(seg, srcOff, data.length, seg, compressedOff, restoredOff - compressedOff);
+        for (LZ4SafeDecompressor decompressor : SAFE_DECOMPRESSORS) {
+          seg.asSlice(restoredOff).fill((byte) 0);
+          assertEquals(data.length, decompressor.decompress(seg, compressedOff, compressedLen, seg, restoredOff, data.length));
+          assertArrayEquals(data, seg.asSlice(restoredOff).toArray(ValueLayout.JAVA_BYTE));
+        }
+        for (LZ4FastDecompressor decompressor : FAST_DECOMPRESSORS) {
+          seg.asSlice(restoredOff).fill((byte) 0);
+          assertEquals(compressedLen, decompressor.decompress(seg, compressedOff, seg, restoredOff, data.length));
+          assertArrayEquals(data, seg.asSlice(restoredOff).toArray(ValueLayout.JAVA_BYTE));
+        }
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  @Test
+  public void testReadOnly() {
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 12), 10);
+    final MemorySegment nativeSrc = Arena.ofAuto().allocate(data.length);
+    nativeSrc.copyFrom(MemorySegment.ofArray(data));
+
+    for (MemorySegment src : Arrays.asList(nativeSrc.asReadOnly(), MemorySegment.ofArray(data).asReadOnly())) {
+      for (LZ4Compressor compressor : COMPRESSORS) {
+        final MemorySegment compressed = Arena.ofAuto().allocate(compressor.maxCompressedLength(data.length));
+        final long compressedLen = compressor.compress(src, 0, data.length, compressed, 0, compressed.byteSize());
+        for (LZ4FastDecompressor decompressor : FAST_DECOMPRESSORS) {
+          final byte[] restored = new byte[data.length];
+          assertEquals(compressedLen, decompressor.decompress(compressed.asReadOnly(), 0, MemorySegment.ofArray(restored), 0, restored.length));
+          assertArrayEquals(data, restored);
+          try {
+            decompressor.decompress(compressed, 0, src, 0, data.length);
+            fail();
+          } catch (ReadOnlyBufferException e) {
+            // ok
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testOutOfBounds() {
+    final MemorySegment src = Arena.ofAuto().allocate(100);
+    final MemorySegment dest = Arena.ofAuto().allocate(LZ4Utils.maxCompressedLength(100));
+    for (LZ4Compressor compressor : COMPRESSORS) {
+      try {
+        compressor.compress(src, 1, 100, dest, 0, dest.byteSize());
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // ok
+      }
+      try {
+        compressor.compress(src, 0, 100, dest, -1, 10);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // ok
+      }
+    }
+    for (LZ4FastDecompressor decompressor : FAST_DECOMPRESSORS) {
+      try {
+        decompressor.decompress(dest, dest.byteSize(), src, 0, 100);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // ok
+      }
+    }
+  }
+
+  @Test
+  public void testDecompressWithPrefix64k() {
+    final MemorySegment compressed = MemorySegment.ofArray(new byte[] {
+      16, 42, 7,0, 80, 1,2,3,4,5
+    });
+    final byte[] original = new byte[] {
+        42,1,2,3,4,1,2,3,4,5
+    };
+    for (LZ4FastDecompressor decompressor : FAST_DECOMPRESSORS) {
+      final MemorySegment restored = Arena.ofAuto().allocate(16);
+      for (int i = 0; i < 5; ++i) {
+        restored.set(ValueLayout.JAVA_BYTE, i, (byte) (i + 1));
+      }
+      final long compressedLen = decompressor.decompressWithPrefix64k(compressed, 0, restored, 6, 10);
+      assertEquals(compressed.byteSize(), compressedLen);
+      assertArrayEquals(original, restored.asSlice(6).toArray(ValueLayout.JAVA_BYTE));
+    }
+  }
+
+}
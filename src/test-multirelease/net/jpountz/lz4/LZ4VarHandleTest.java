@@ -0,0 +1,123 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class LZ4VarHandleTest extends AbstractLZ4RoundtripTest {
+
+  @Test
+  public void testInstance() {
+    final LZ4Factory lz4 = LZ4Factory.varHandleInstance();
+    assertEquals(LZ4JavaVarHandleCompressor.INSTANCE, lz4.fastCompressor());
+    assertEquals(LZ4HCJavaVarHandleCompressor.INSTANCE, lz4.highCompressor());
+    assertEquals(LZ4JavaVarHandleFastDecompressor.INSTANCE, lz4.fastDecompressor());
+    assertEquals(LZ4JavaVarHandleSafeDecompressor.INSTANCE, lz4.safeDecompressor());
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testRoundTrip() {
+    final int len = randomInt(1 << 18);
+    final byte[] data = randomArray(randomIntBetween(len, len + 100), 1 + randomInt(255));
+    final int off = randomInt(data.length - len);
+    testRoundTrip(data, off, len, LZ4Factory.varHandleInstance());
+  }
+
+  @Test
+  public void testRoundTripBook1() throws IOException {
+    testRoundTrip(readResource("/calgary/book1"), 0, 768771, LZ4Factory.varHandleInstance());
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testCompressedArrayEqualsUnsafe() {
+    final byte[] data = randomArray(randomInt(1 << 18), 1 + randomInt(255));
+    final LZ4Factory lz4 = LZ4Factory.varHandleInstance();
+    final LZ4Factory ref = LZ4Factory.unsafeInstance();
+    assertArrayEquals(ref.fastCompressor().compress(data), lz4.fastCompressor().compress(data));
+    assertArrayEquals(ref.highCompressor().compress(data), lz4.highCompressor().compress(data));
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testBatchEqualsUnsafe() {
+    final byte[][] srcs = new byte[randomInt(100)][];
+    for (int i = 0; i < srcs.length; ++i) {
+      srcs[i] = randomArray(randomInt(2000), 1 + randomInt(255));
+    }
+    final LZ4BatchCompressor compressor = LZ4Factory.varHandleInstance().fastBatchCompressor();
+    final LZ4BatchCompressor ref = LZ4Factory.unsafeInstance().fastBatchCompressor();
+    final byte[] compressed = new byte[compressor.maxCompressedLength(srcs)];
+    final byte[] refCompressed = new byte[compressed.length];
+    assertArrayEquals(ref.compress(srcs, refCompressed, 0), compressor.compress(srcs, compressed, 0));
+    assertArrayEquals(refCompressed, compressed);
+  }
+
+  @Test
+  public void testDirectBuffers() {
+    final byte[] data = randomArray(randomInt(1 << 16), 1 + randomInt(255));
+    final LZ4Factory lz4 = LZ4Factory.varHandleInstance();
+    for (LZ4Compressor compressor : Arrays.asList(lz4.fastCompressor(), lz4.highCompressor())) {
+      final ByteBuffer src = ByteBuffer.allocateDirect(data.length);
+      src.put(data).flip();
+      final ByteBuffer compressed = ByteBuffer.allocate(compressor.maxCompressedLength(data.length));
+      compressor.compress(src.asReadOnlyBuffer(), compressed);
+      compressed.flip();
+      final ByteBuffer restored = ByteBuffer.allocateDirect(data.length);
+      lz4.safeDecompressor().decompress(compressed, restored);
+      restored.flip();
+      final byte[] restoredBytes = new byte[data.length];
+      restored.get(restoredBytes);
+      assertArrayEquals(data, restoredBytes);
+    }
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testDirectBuffersEqualUnsafe() {
+    final byte[] data = randomArray(randomInt(1 << 18), 1 + randomInt(255));
+    final ByteOrder order = randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    final ByteBuffer src = ByteBuffer.allocateDirect(data.length).order(order);
+    src.put(data).flip();
+    final LZ4Factory lz4 = LZ4Factory.varHandleInstance();
+    final byte[] expected = LZ4Factory.unsafeInstance().fastCompressor().compress(data);
+
+    final ByteBuffer compressed = ByteBuffer.allocateDirect(expected.length).order(order);
+    lz4.fastCompressor().compress(src, compressed);
+    compressed.flip();
+    final byte[] compressedBytes = new byte[expected.length];
+    compressed.duplicate().get(compressedBytes);
+    assertArrayEquals(expected, compressedBytes);
+
+    final ByteBuffer restored = ByteBuffer.allocateDirect(data.length).order(order);
+    assertEquals(expected.length, lz4.fastDecompressor().decompress(compressed.asReadOnlyBuffer(), 0, restored, 0, data.length));
+    assertEquals(data.length, lz4.safeDecompressor().decompress(compressed, 0, expected.length, restored, 0, data.length));
+    final byte[] restoredBytes = new byte[data.length];
+    restored.get(restoredBytes);
+    assertArrayEquals(data, restoredBytes);
+  }
+
+}
@@ -0,0 +1,78 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class LZ4VectorUtilsTest extends RandomizedTest {
+
+  @Test
+  public void testEnabled() {
+    // test-multirelease adds the module
+    assertEquals(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(), LZ4VectorUtils.ENABLED);
+  }
+
+  @Test
+  @Repeat(iterations=50)
+  public void testCommonBytes() {
+    assumeTrue(LZ4VectorUtils.ENABLED);
+    final byte[] buf = new byte[randomIntBetween(2, 200)];
+    final int ref = randomInt(buf.length / 2 - 1);
+    final int sOff = randomIntBetween(ref + 1, buf.length - 1);
+    final int srcLimit = randomIntBetween(sOff, buf.length);
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = (byte) (i < sOff ? randomInt(3) : buf[i - (sOff - ref)]);
+    }
+    if (randomBoolean() && srcLimit > sOff) {
+      buf[randomIntBetween(sOff, srcLimit - 1)] ^= 1;
+    }
+    int expected = 0;
+    while (sOff + expected < srcLimit && buf[ref + expected] == buf[sOff + expected]) {
+      ++expected;
+    }
+    assertEquals(expected, LZ4VectorUtils.commonBytes(buf, ref, sOff, srcLimit));
+  }
+
+  @Test
+  @Repeat(iterations=50)
+  public void testWildIncrementalCopy() {
+    assumeTrue(LZ4VectorUtils.ENABLED);
+    final int dist = randomIntBetween(LZ4Constants.COPY_LENGTH, 64);
+    final int len = randomInt(100);
+    final byte[] buf = randomArray(dist + len + 64, 256);
+    final byte[] expected = buf.clone();
+    for (int i = 0; i < len; ++i) {
+      expected[dist + i] = expected[i];
+    }
+    LZ4VectorUtils.wildIncrementalCopy(buf, 0, dist, dist + len);
+    for (int i = 0; i < dist + len; ++i) {
+      assertEquals(expected[i], buf[i]);
+    }
+  }
+
+  private static byte[] randomArray(int len, int n) {
+    final byte[] result = new byte[len];
+    for (int i = 0; i < len; ++i) {
+      result[i] = (byte) randomInt(n - 1);
+    }
+    return result;
+  }
+
+}
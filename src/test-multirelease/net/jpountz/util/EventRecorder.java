@@ -0,0 +1,83 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import com.carrotsearch.randomizedtesting.ThreadFilter;
+
+/**
+ * Records JFR events of the current thread, whatever their duration.
+ */
+public final class EventRecorder {
+
+  /** Ignores the threads that JFR starts with the first recording and never stops. */
+  public static final class JfrThreads implements ThreadFilter {
+    @Override
+    public boolean reject(Thread t) {
+      return t.getName().startsWith("JFR ");
+    }
+  }
+
+  private final Recording recording = new Recording();
+  private final long threadId = Thread.currentThread().getId();
+
+  public EventRecorder(String... events) {
+    for (String event : events) {
+      recording.enable(event).withThreshold(Duration.ZERO);
+    }
+    recording.start();
+  }
+
+  /** Stop recording and return the events of the current thread. */
+  public List<RecordedEvent> stop() throws IOException {
+    recording.stop();
+    final Path file = Files.createTempFile("lz4-java", ".jfr");
+    try {
+      recording.dump(file);
+      final List<RecordedEvent> events = new ArrayList<>();
+      for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+        if (event.getThread() != null && event.getThread().getJavaThreadId() == threadId) {
+          events.add(event);
+        }
+      }
+      return events;
+    } finally {
+      recording.close();
+      Files.delete(file);
+    }
+  }
+
+  /** Return the events named <code>name</code>. */
+  public static List<RecordedEvent> named(List<RecordedEvent> events, String name) {
+    final List<RecordedEvent> result = new ArrayList<>();
+    for (RecordedEvent event : events) {
+      if (event.getEventType().getName().equals(name)) {
+        result.add(event);
+      }
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,89 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.EventRecorder.named;
+
+import java.io.IOException;
+import java.lang.foreign.MemorySegment;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import jdk.jfr.consumer.RecordedEvent;
+import net.jpountz.util.EventRecorder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakFilters;
+
+@RunWith(RandomizedRunner.class)
+@ThreadLeakFilters(filters = EventRecorder.JfrThreads.class)
+public class XXHashEventsTest extends RandomizedTest {
+
+  @Test
+  public void testHashEvents() throws IOException {
+    final XXHashFactory factory = XXHashFactory.safeInstance();
+    final XXHash32 hash32 = new XXHash32Recording(factory.hash32());
+    final XXHash64 hash64 = new XXHash64Recording(factory.hash64());
+    final XXHash3 xxh3 = new XXHash3Recording(factory.xxh3());
+    final byte[] buf = new byte[randomIntBetween(1 << 16, 1 << 20)];
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = randomByte();
+    }
+    final int seed = randomInt();
+
+    final EventRecorder recorder = new EventRecorder("net.jpountz.XXHash");
+    assertEquals(factory.hash32().hash(buf, 0, buf.length, seed), hash32.hash(buf, 0, buf.length, seed));
+    assertEquals(factory.hash32().hash(buf, 0, buf.length, seed), hash32.hash(ByteBuffer.wrap(buf), 0, buf.length, seed));
+    assertEquals(factory.hash64().hash(buf, 0, buf.length, seed), hash64.hash(buf, 0, buf.length, seed));
+    assertEquals(factory.xxh3().hash64(buf, 0, buf.length, seed), xxh3.hash64(buf, 0, buf.length, seed));
+    assertEquals(factory.xxh3().hash128(buf, 0, buf.length, seed), xxh3.hash128(buf, 0, buf.length, seed));
+    // less than the threshold
+    hash32.hash(buf, 0, 100, seed);
+    final List<RecordedEvent> events = named(recorder.stop(), "net.jpountz.XXHash");
+
+    final Class<?>[] implementations = { XXHash32JavaSafe.class, XXHash32JavaSafe.class, XXHash64JavaSafe.class,
+        XXHash3JavaSafe.class, XXHash3JavaSafe.class };
+    assertEquals(implementations.length, events.size());
+    for (int i = 0; i < events.size(); ++i) {
+      assertEquals(implementations[i].getName(), events.get(i).getClass("implementation").getName());
+      assertEquals(buf.length, events.get(i).getLong("inputSize"));
+      assertTrue(events.get(i).getLong("throughput") > 0);
+    }
+  }
+
+  @Test
+  public void testSegmentHashEvents() throws IOException {
+    final XXHash32 hash32 = XXHashFactory.safeInstance().hash32();
+    final XXHash32 recording = XXHashRecording.hash32(hash32);
+    final byte[] buf = new byte[randomIntBetween(1 << 16, 1 << 20)];
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = randomByte();
+    }
+    final int seed = randomInt();
+
+    final EventRecorder recorder = new EventRecorder("net.jpountz.XXHash");
+    assertEquals(hash32.hash(buf, 0, buf.length, seed), recording.hash(MemorySegment.ofArray(buf), 0, buf.length, seed));
+    final List<RecordedEvent> events = named(recorder.stop(), "net.jpountz.XXHash");
+
+    assertEquals(1, events.size());
+    assertEquals(XXHash32JavaSafe.class.getName(), events.get(0).getClass("implementation").getName());
+    assertEquals(buf.length, events.get(0).getLong("inputSize"));
+  }
+
+}
@@ -0,0 +1,82 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class XXHashMemorySegmentTest extends RandomizedTest {
+
+  private static XXHash32[] INSTANCES = new XXHash32[] {
+    XXHashFactory.nativeInstance().hash32(),
+    XXHashFactory.unsafeInstance().hash32(),
+    XXHashFactory.safeInstance().hash32()
+  };
+
+  @Test
+  @Repeat(iterations=20)
+  public void testHash() {
+    final int len = randomBoolean() ? randomInt(20) : randomInt(1 << 16);
+    final int off = randomInt(10);
+    final byte[] buf = new byte[off + len + randomInt(10)];
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = randomByte();
+    }
+    final int seed = randomInt();
+    final int expected = XXHashFactory.safeInstance().hash32().hash(buf, off, len, seed);
+
+    final MemorySegment heap = MemorySegment.ofArray(buf);
+    final MemorySegment offHeap = Arena.ofAuto().allocate(buf.length);
+    offHeap.copyFrom(heap);
+    final long[] longs = new long[(buf.length + 7) / 8];
+    final MemorySegment longHeap = MemorySegment.ofArray(longs);
+    MemorySegment.copy(heap, 0, longHeap, 0, buf.length);
+
+    for (XXHash32 hash : INSTANCES) {
+      assertEquals(hash.toString(), expected, hash.hash(heap, off, len, seed));
+      assertEquals(hash.toString(), expected, hash.hash(offHeap, off, len, seed));
+      assertEquals(hash.toString(), expected, hash.hash(offHeap.asReadOnly(), off, len, seed));
+      assertEquals(hash.toString(), expected, hash.hash(longHeap, off, len, seed));
+    }
+  }
+
+  @Test
+  public void testOutOfBounds() {
+    final MemorySegment seg = Arena.ofAuto().allocate(16);
+    for (XXHash32 hash : INSTANCES) {
+      try {
+        hash.hash(seg, 1, 16, 0);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // ok
+      }
+      try {
+        hash.hash(seg, 0, -1, 0);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // ok
+      }
+    }
+  }
+
+}
@@ -0,0 +1,96 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class XXHashVarHandleTest extends RandomizedTest {
+
+  @Test
+  public void testInstance() {
+    assertEquals(XXHash32JavaVarHandle.INSTANCE, XXHashFactory.varHandleInstance().hash32());
+    assertEquals(XXHash64JavaVarHandle.INSTANCE, XXHashFactory.varHandleInstance().hash64());
+    assertEquals(XXHash3JavaVarHandle.INSTANCE, XXHashFactory.varHandleInstance().xxh3());
+  }
+
+  @Test
+  @Repeat(iterations=40)
+  public void testHash() {
+    final byte[] buf = new byte[randomInt(1 << randomInt(20))];
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = randomByte();
+    }
+    final int seed = randomInt();
+    final int off = randomIntBetween(0, Math.max(0, buf.length - 1));
+    final int len = randomIntBetween(0, buf.length - off);
+
+    final int ref = XXHashFactory.safeInstance().hash32().hash(buf, off, len, seed);
+    assertEquals(ref, XXHashFactory.varHandleInstance().hash32().hash(buf, off, len, seed));
+
+    final StreamingXXHash32 streaming = XXHashFactory.varHandleInstance().newStreamingHash32(seed);
+    int o = off;
+    while (o < off + len) {
+      final int l = randomIntBetween(0, off + len - o);
+      streaming.update(buf, o, l);
+      o += l;
+    }
+    assertEquals(ref, streaming.getValue());
+
+    final ByteBuffer direct = ByteBuffer.allocateDirect(buf.length);
+    direct.put(buf).clear();
+    assertEquals(ref, XXHashFactory.varHandleInstance().hash32().hash(direct, off, len, seed));
+    assertEquals(ref, XXHashFactory.varHandleInstance().hash32().hash(ByteBuffer.wrap(buf), off, len, seed));
+    streaming.reset();
+    streaming.update(direct, off, len);
+    assertEquals(ref, streaming.getValue());
+
+    final long seed64 = randomLong();
+    final long ref64 = XXHashFactory.safeInstance().hash64().hash(buf, off, len, seed64);
+    assertEquals(ref64, XXHashFactory.varHandleInstance().hash64().hash(buf, off, len, seed64));
+
+    final StreamingXXHash64 streaming64 = XXHashFactory.varHandleInstance().newStreamingHash64(seed64);
+    o = off;
+    while (o < off + len) {
+      final int l = randomIntBetween(0, off + len - o);
+      streaming64.update(buf, o, l);
+      o += l;
+    }
+    assertEquals(ref64, streaming64.getValue());
+
+    final long ref3 = XXHashFactory.safeInstance().xxh3().hash64(buf, off, len, seed64);
+    final Hash128 ref128 = XXHashFactory.safeInstance().xxh3().hash128(buf, off, len, seed64);
+    assertEquals(ref3, XXHashFactory.varHandleInstance().xxh3().hash64(buf, off, len, seed64));
+    assertEquals(ref128, XXHashFactory.varHandleInstance().xxh3().hash128(buf, off, len, seed64));
+
+    final StreamingXXHash3 streaming3 = XXHashFactory.varHandleInstance().newStreamingXXH3(seed64);
+    o = off;
+    while (o < off + len) {
+      final int l = randomIntBetween(0, off + len - o);
+      streaming3.update(buf, o, l);
+      o += l;
+    }
+    assertEquals(ref3, streaming3.getValue());
+    assertEquals(ref128, streaming3.getValue128());
+  }
+
+}
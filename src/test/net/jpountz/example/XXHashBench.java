@@ -0,0 +1,125 @@
+package net.jpountz.example;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.Arrays;
+import java.util.Random;
+
+import net.jpountz.xxhash.XXHash3;
+import net.jpountz.xxhash.XXHash32;
+import net.jpountz.xxhash.XXHash64;
+import net.jpountz.xxhash.XXHashFactory;
+
+/**
+ * Compares the throughput of XXH32, XXH64 and XXH3 over key sizes ranging
+ * from a single byte to 1MB.
+ */
+public class XXHashBench {
+
+  static final int[] SIZES = { 1, 4, 8, 16, 32, 64, 128, 240, 512, 1 << 10, 1 << 12, 1 << 16, 1 << 20 };
+  // amount of data to hash per measurement, capped for tiny keys
+  static final long BYTES_PER_RUN = 256L << 20;
+  static final long MAX_HASHES_PER_RUN = 32L << 20;
+  static final int RUNS = 5;
+
+  static long sink;
+
+  interface Hasher {
+    long hash(byte[] buf, int off, int len);
+  }
+
+  public static void main(String[] args) {
+    final byte[] buf = new byte[(1 << 20) + 4096];
+    new Random(0).nextBytes(buf);
+
+    for (XXHashFactory factory : Arrays.asList(
+        XXHashFactory.nativeInstance(), XXHashFactory.unsafeInstance(), XXHashFactory.safeInstance())) {
+      final XXHash32 hash32 = factory.hash32();
+      final XXHash64 hash64 = factory.hash64();
+      final XXHash3 xxh3 = factory.xxh3();
+      final Hasher[] hashers = new Hasher[] {
+        new Hasher() {
+          public long hash(byte[] buf, int off, int len) {
+            return hash32.hash(buf, off, len, 0);
+          }
+          public String toString() {
+            return "XXH32";
+          }
+        },
+        new Hasher() {
+          public long hash(byte[] buf, int off, int len) {
+            return hash64.hash(buf, off, len, 0);
+          }
+          public String toString() {
+            return "XXH64";
+          }
+        },
+        new Hasher() {
+          public long hash(byte[] buf, int off, int len) {
+            return xxh3.hash64(buf, off, len, 0);
+          }
+          public String toString() {
+            return "XXH3-64";
+          }
+        },
+        new Hasher() {
+          public long hash(byte[] buf, int off, int len) {
+            return xxh3.hash128(buf, off, len, 0).low64();
+          }
+          public String toString() {
+            return "XXH3-128";
+          }
+        }
+      };
+
+      System.out.format("%n%s%n%10s", factory, "size");
+      for (Hasher hasher : hashers) {
+        System.out.format("%22s", hasher);
+      }
+      System.out.println();
+      for (int size : SIZES) {
+        System.out.format("%10d", size);
+        for (Hasher hasher : hashers) {
+          final double ns = bench(hasher, buf, size);
+          System.out.format("%10.1f ns %7.0f MB/s", ns, size * 1e3 / ns);
+        }
+        System.out.println();
+      }
+    }
+    if (sink == 42) {
+      System.out.println();
+    }
+  }
+
+  /** Return the best time per hash in nanoseconds. */
+  static double bench(Hasher hasher, byte[] buf, int size) {
+    final long iterations = Math.min(MAX_HASHES_PER_RUN, BYTES_PER_RUN / size);
+    // vary the offset to defeat branch prediction on the data
+    final int offsetMask = size >= 4096 ? 0 : 4095;
+    double best = Double.MAX_VALUE;
+    for (int run = 0; run < RUNS; ++run) {
+      long h = 0;
+      final long start = System.nanoTime();
+      for (long i = 0; i < iterations; ++i) {
+        h += hasher.hash(buf, (int) (i * 61) & offsetMask, size);
+      }
+      final long time = System.nanoTime() - start;
+      sink += h;
+      best = Math.min(best, (double) time / iterations);
+    }
+    return best;
+  }
+
+}
@@ -143,6 +143,20 @@ public abstract class AbstractLZ4RoundtripTest extends AbstractLZ4Test {
       }
     }
 
+  protected static class SlicedHeapBufferTester extends ByteBufferTester {
+      SlicedHeapBufferTester(LZ4Compressor compressor, LZ4FastDecompressor decompressor, LZ4SafeDecompressor decompressor2) {
+        this.compressor = compressor;
+        this.decompressor = decompressor;
+        this.decompressor2 = decompressor2;
+      }
+
+      ByteBuffer allocate(int size) {
+        // non-zero arrayOffset
+        final int offset = 1 + randomInt(16);
+        return ((ByteBuffer) ByteBuffer.allocate(offset + size).position(offset)).slice();
+      }
+    }
+
   protected static class DirectBufferTester extends ByteBufferTester {
       DirectBufferTester(LZ4Compressor compressor, LZ4FastDecompressor decompressor, LZ4SafeDecompressor decompressor2) {
         this.compressor = compressor;
@@ -238,7 +252,7 @@ public abstract class AbstractLZ4RoundtripTest extends AbstractLZ4Test {
         // under-estimated compressed length
         try {
           final int decompressedLen = tester.decompress2(compressed, 0, compressedLen - 1, tester.allocate(len + 100), 0);
-          if (!(tester.decompressor2 instanceof LZ4JNISafeDecompressor)) {
+          if (detectsUnderestimatedLength(tester.decompressor2)) {
             fail("decompressedLen=" + decompressedLen);
           }
         } catch (LZ4Exception e) {
@@ -256,11 +270,17 @@ public abstract class AbstractLZ4RoundtripTest extends AbstractLZ4Test {
         }
       }
 
+  // the C implementation may not detect an under-estimated compressed length
+  protected boolean detectsUnderestimatedLength(LZ4SafeDecompressor decompressor) {
+    return !(decompressor instanceof LZ4JNISafeDecompressor);
+  }
+
   public void testRoundTrip(byte[] data, int off, int len,
       LZ4Compressor compressor, LZ4FastDecompressor decompressor, LZ4SafeDecompressor decompressor2) {
         for (Tester<?> allocator : Arrays.asList(
             new ByteArrayTester(compressor, decompressor, decompressor2),
             new HeapBufferTester(compressor, decompressor, decompressor2),
+            new SlicedHeapBufferTester(compressor, decompressor, decompressor2),
             new DirectBufferTester(compressor, decompressor, decompressor2))) {
           testRoundTrip(data, off, len, allocator);
         }
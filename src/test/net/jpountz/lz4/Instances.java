@@ -24,19 +24,28 @@ enum Instances {
     LZ4Factory.unsafeInstance().fastCompressor(),
     LZ4Factory.unsafeInstance().highCompressor(),
     LZ4Factory.safeInstance().fastCompressor(),
-    LZ4Factory.safeInstance().highCompressor()
+    LZ4Factory.safeInstance().highCompressor(),
+    // thresholds that the tests cross on both sides
+    new LZ4HybridCompressor(LZ4Factory.unsafeInstance().fastCompressor(),
+        LZ4Factory.nativeInstance().fastCompressor(), 1 << 10, 1 << 12),
+    new LZ4HybridCompressor(LZ4Factory.unsafeInstance().highCompressor(),
+        LZ4Factory.nativeInstance().highCompressor(), 1 << 12, 1 << 10)
   };
 
   static LZ4FastDecompressor[] FAST_DECOMPRESSORS = new LZ4FastDecompressor[] {
     LZ4Factory.nativeInstance().fastDecompressor(),
     LZ4Factory.unsafeInstance().fastDecompressor(),
-    LZ4Factory.safeInstance().fastDecompressor()
+    LZ4Factory.safeInstance().fastDecompressor(),
+    new LZ4HybridFastDecompressor(LZ4Factory.unsafeInstance().fastDecompressor(),
+        LZ4Factory.nativeInstance().fastDecompressor(), 1 << 10, 1 << 12)
   };
 
   static LZ4SafeDecompressor[] SAFE_DECOMPRESSORS = new LZ4SafeDecompressor[] {
     LZ4Factory.nativeInstance().safeDecompressor(),
     LZ4Factory.unsafeInstance().safeDecompressor(),
-    LZ4Factory.safeInstance().safeDecompressor()
+    LZ4Factory.safeInstance().safeDecompressor(),
+    new LZ4HybridSafeDecompressor(LZ4Factory.unsafeInstance().safeDecompressor(),
+        LZ4Factory.nativeInstance().safeDecompressor(), 1 << 10, 1 << 12)
   };
 
 }
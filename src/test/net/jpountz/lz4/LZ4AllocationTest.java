@@ -0,0 +1,235 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.lz4.LZ4Constants.HASH_TABLE_SIZE_HC;
+import static net.jpountz.lz4.LZ4Constants.MAX_DISTANCE;
+import static net.jpountz.lz4.LZ4Constants.MEMORY_USAGE;
+import static net.jpountz.util.Allocations.assertAllocatesAtMost;
+import static net.jpountz.util.Allocations.assertAllocationFree;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import net.jpountz.util.Allocations;
+import net.jpountz.util.Allocations.Operation;
+import net.jpountz.xxhash.XXHashFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Per-call allocations of compressors, decompressors and block streams:
+ * paths with a budget of 0 are allocation-free and must stay so, the other
+ * budgets are the known allocations of a path.
+ */
+public class LZ4AllocationTest extends AbstractLZ4Test {
+
+  private static final int LEN = 4096;
+
+  // the hash table of the Java compressors, allocated on every call
+  private static final long HASH_TABLE = (1 << MEMORY_USAGE) + 64;
+  // the hash and chain tables of the Java HC compressors, which use longs
+  // for offsets on 64-bits JVMs, and their 4 matches
+  private static final long HC_HASH_TABLE = 8L * HASH_TABLE_SIZE_HC + 2L * MAX_DISTANCE + 1024;
+  // the safe instance reads and writes direct buffers through duplicates
+  // in native byte order
+  private static final long DUPLICATES = 256;
+
+  private byte[] src, compressed, dest;
+  private ByteBuffer heapSrc, heapCompressed, heapDest;
+  private ByteBuffer directSrc, directCompressed, directDest;
+
+  @Before
+  public void setUp() {
+    assumeTrue("allocations cannot be counted on this JVM", Allocations.isSupported());
+    src = randomArray(LEN, 8);
+    compressed = LZ4Factory.nativeInstance().fastCompressor().compress(src);
+    dest = new byte[LZ4Utils.maxCompressedLength(LEN)];
+    heapSrc = ByteBuffer.wrap(src);
+    heapCompressed = ByteBuffer.wrap(compressed);
+    heapDest = ByteBuffer.wrap(dest);
+    directSrc = copyOf(src);
+    directCompressed = copyOf(compressed);
+    directDest = ByteBuffer.allocateDirect(dest.length);
+  }
+
+  private static ByteBuffer copyOf(byte[] bytes) {
+    final ByteBuffer buf = ByteBuffer.allocateDirect(bytes.length);
+    buf.put(bytes).clear();
+    return buf;
+  }
+
+  private static void check(String name, long budget, Operation op) throws Exception {
+    if (budget == 0) {
+      assertAllocationFree(name, op);
+    } else {
+      assertAllocatesAtMost(name, budget, op);
+    }
+  }
+
+  private void checkCompressor(final LZ4Compressor compressor, long budget, long directBudget) throws Exception {
+    check(compressor + " on arrays", budget, new Operation() {
+      @Override
+      public void run() {
+        compressor.compress(src, 0, LEN, dest, 0, dest.length);
+      }
+    });
+    check(compressor + " on heap buffers", budget, new Operation() {
+      @Override
+      public void run() {
+        compressor.compress(heapSrc, 0, LEN, heapDest, 0, dest.length);
+      }
+    });
+    check(compressor + " on direct buffers", directBudget, new Operation() {
+      @Override
+      public void run() {
+        compressor.compress(directSrc, 0, LEN, directDest, 0, dest.length);
+      }
+    });
+  }
+
+  @Test
+  public void testCompressors() throws Exception {
+    checkCompressor(LZ4Factory.nativeInstance().fastCompressor(), 0, 0);
+    checkCompressor(LZ4Factory.nativeInstance().highCompressor(), 0, 0);
+    checkCompressor(LZ4Factory.unsafeInstance().fastCompressor(), HASH_TABLE, HASH_TABLE);
+    checkCompressor(LZ4Factory.unsafeInstance().highCompressor(), HC_HASH_TABLE, HC_HASH_TABLE);
+    checkCompressor(LZ4Factory.safeInstance().fastCompressor(), HASH_TABLE, HASH_TABLE + DUPLICATES);
+    // the safe HC compressor copies direct buffers to arrays
+    checkCompressor(LZ4Factory.safeInstance().highCompressor(), HC_HASH_TABLE, HC_HASH_TABLE + LEN + dest.length + 64);
+  }
+
+  private void checkDecompressors(LZ4Factory factory, long directBudget) throws Exception {
+    final LZ4FastDecompressor fast = factory.fastDecompressor();
+    final LZ4SafeDecompressor safe = factory.safeDecompressor();
+    check(fast + " on arrays", 0, new Operation() {
+      @Override
+      public void run() {
+        fast.decompress(compressed, 0, dest, 0, LEN);
+      }
+    });
+    check(fast + " on heap buffers", 0, new Operation() {
+      @Override
+      public void run() {
+        fast.decompress(heapCompressed, 0, heapDest, 0, LEN);
+      }
+    });
+    check(fast + " on direct buffers", directBudget, new Operation() {
+      @Override
+      public void run() {
+        fast.decompress(directCompressed, 0, directDest, 0, LEN);
+      }
+    });
+    check(safe + " on arrays", 0, new Operation() {
+      @Override
+      public void run() {
+        safe.decompress(compressed, 0, compressed.length, dest, 0, dest.length);
+      }
+    });
+    check(safe + " on heap buffers", 0, new Operation() {
+      @Override
+      public void run() {
+        safe.decompress(heapCompressed, 0, compressed.length, heapDest, 0, dest.length);
+      }
+    });
+    check(safe + " on direct buffers", directBudget, new Operation() {
+      @Override
+      public void run() {
+        safe.decompress(directCompressed, 0, compressed.length, directDest, 0, dest.length);
+      }
+    });
+  }
+
+  @Test
+  public void testDecompressors() throws Exception {
+    checkDecompressors(LZ4Factory.nativeInstance(), 0);
+    checkDecompressors(LZ4Factory.unsafeInstance(), 0);
+    checkDecompressors(LZ4Factory.safeInstance(), DUPLICATES);
+  }
+
+  /** Discards what is written to it. */
+  private static class NullOutputStream extends OutputStream {
+    @Override
+    public void write(int b) {}
+
+    @Override
+    public void write(byte[] b, int off, int len) {}
+  }
+
+  /** Returns the same bytes over and over again. */
+  private static class RepeatingInputStream extends InputStream {
+    private final byte[] bytes;
+    private int off;
+
+    RepeatingInputStream(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    @Override
+    public int read() {
+      final int b = bytes[off] & 0xFF;
+      off = (off + 1) % bytes.length;
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+      len = Math.min(len, bytes.length - this.off);
+      System.arraycopy(bytes, this.off, b, off, len);
+      this.off = (this.off + len) % bytes.length;
+      return len;
+    }
+  }
+
+  private void checkStreams(LZ4Factory factory, long writeBudget) throws Exception {
+    // one block per call, once the streams have allocated their buffers
+    final LZ4BlockOutputStream out = new LZ4BlockOutputStream(new NullOutputStream(), LEN, factory.fastCompressor());
+    check("LZ4BlockOutputStream with " + factory, writeBudget, new Operation() {
+      @Override
+      public void run() throws IOException {
+        out.write(src);
+      }
+    });
+
+    // a single block, without the end mark, that the input stream reads forever
+    final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    final LZ4BlockOutputStream blockOut = new LZ4BlockOutputStream(block, LEN, factory.fastCompressor(),
+        XXHashFactory.fastestInstance().newStreamingHash32(LZ4BlockOutputStream.DEFAULT_SEED).asChecksum(), true);
+    blockOut.write(src);
+    blockOut.flush();
+    final RepeatingInputStream blockStream = new RepeatingInputStream(block.toByteArray());
+    final LZ4BlockInputStream in = new LZ4BlockInputStream(blockStream, factory.fastDecompressor());
+    final byte[] restored = new byte[LEN];
+    check("LZ4BlockInputStream with " + factory, 0, new Operation() {
+      @Override
+      public void run() throws IOException {
+        for (int read = 0; read < LEN; ) {
+          read += in.read(restored, read, LEN - read);
+        }
+      }
+    });
+  }
+
+  @Test
+  public void testBlockStreams() throws Exception {
+    checkStreams(LZ4Factory.nativeInstance(), 0);
+    checkStreams(LZ4Factory.unsafeInstance(), HASH_TABLE);
+  }
+
+}
@@ -0,0 +1,181 @@
+package net.jpountz.lz4;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class LZ4BatchTest extends AbstractLZ4Test {
+
+  private static final LZ4Factory[] FACTORIES = new LZ4Factory[] {
+    LZ4Factory.nativeInstance(),
+    LZ4Factory.unsafeInstance(),
+    LZ4Factory.safeInstance()
+  };
+
+  private byte[][] randomBatch() {
+    final byte[][] srcs = new byte[randomInt(200)][];
+    final int n = 1 + randomInt(255);
+    for (int i = 0; i < srcs.length; ++i) {
+      final int len;
+      switch (randomInt(9)) {
+        case 0:
+          len = 0;
+          break;
+        case 1:
+          len = randomIntBetween(1 << 16, 1 << 17);
+          break;
+        default:
+          len = randomInt(2000);
+          break;
+      }
+      srcs[i] = randomArray(len, n);
+    }
+    return srcs;
+  }
+
+  @Test
+  @Repeat(iterations=10)
+  public void testRoundTrip() {
+    final byte[][] srcs = randomBatch();
+    int totalLen = 0;
+    for (byte[] src : srcs) {
+      totalLen += src.length;
+    }
+    for (LZ4Factory factory : FACTORIES) {
+      for (LZ4BatchCompressor compressor : Arrays.asList(factory.fastBatchCompressor(), factory.highBatchCompressor())) {
+        final int destOff = randomInt(10);
+        final byte[] compressed = new byte[destOff + compressor.maxCompressedLength(srcs)];
+        final int[] offsets = new int[srcs.length + 1];
+        final int compressedLen = compressor.compress(srcs, compressed, destOff, compressed.length - destOff, offsets);
+        assertEquals(destOff, offsets[0]);
+        assertEquals(destOff + compressedLen, offsets[srcs.length]);
+        for (int i = 0; i < srcs.length; ++i) {
+          final byte[] restored = new byte[srcs[i].length];
+          assertEquals(compressor.toString(), offsets[i + 1] - offsets[i],
+              factory.fastDecompressor().decompress(compressed, offsets[i], restored, 0, restored.length));
+          assertArrayEquals(compressor.toString(), srcs[i], restored);
+        }
+
+        for (LZ4Factory factory2 : FACTORIES) {
+          final LZ4BatchDecompressor decompressor = factory2.batchDecompressor();
+          final byte[] restored = new byte[totalLen + 1];
+          final int[] restoredOffsets = new int[srcs.length + 1];
+          assertEquals(totalLen, decompressor.decompress(compressed, offsets, srcs.length, restored, 1, totalLen, restoredOffsets));
+          assertEquals(1, restoredOffsets[0]);
+          for (int i = 0; i < srcs.length; ++i) {
+            assertArrayEquals(decompressor.toString(), srcs[i], Arrays.copyOfRange(restored, restoredOffsets[i], restoredOffsets[i + 1]));
+          }
+        }
+      }
+    }
+  }
+
+  @Test
+  @Repeat(iterations=5)
+  public void testByteBufferRoundTrip() {
+    final byte[][] arrays = randomBatch();
+    final ByteBuffer[] srcs = new ByteBuffer[arrays.length];
+    for (int i = 0; i < arrays.length; ++i) {
+      final ByteBuffer src = randomBoolean() ? ByteBuffer.allocate(arrays[i].length + 3) : ByteBuffer.allocateDirect(arrays[i].length + 3);
+      src.position(3);
+      src.put(arrays[i]);
+      src.position(3);
+      srcs[i] = src;
+    }
+    for (LZ4Factory factory : FACTORIES) {
+      final LZ4BatchCompressor compressor = factory.fastBatchCompressor();
+      final ByteBuffer compressed = ByteBuffer.allocateDirect(compressor.maxCompressedLength(srcs));
+      final int[] offsets = new int[srcs.length + 1];
+      final int compressedLen = compressor.compress(srcs, compressed, 0, compressed.capacity(), offsets);
+      assertEquals(compressedLen, offsets[srcs.length]);
+      for (ByteBuffer src : srcs) {
+        assertEquals(3, src.position());
+      }
+
+      final ByteBuffer restored = ByteBuffer.allocate(compressor.maxCompressedLength(srcs));
+      final int[] restoredOffsets = new int[srcs.length + 1];
+      factory.batchDecompressor().decompress(compressed, offsets, srcs.length, restored, 0, restored.capacity(), restoredOffsets);
+      for (int i = 0; i < srcs.length; ++i) {
+        assertArrayEquals(arrays[i], Arrays.copyOfRange(restored.array(), restoredOffsets[i], restoredOffsets[i + 1]));
+      }
+    }
+  }
+
+  @Test
+  public void testDestTooSmall() {
+    final byte[][] srcs = new byte[][] { randomArray(100, 2), randomArray(1000, 256) };
+    for (LZ4Factory factory : FACTORIES) {
+      for (LZ4BatchCompressor compressor : Arrays.asList(factory.fastBatchCompressor(), factory.highBatchCompressor())) {
+        final byte[] compressed = new byte[compressor.maxCompressedLength(srcs)];
+        try {
+          compressor.compress(srcs, compressed, 0, 500, new int[srcs.length + 1]);
+          fail(compressor.toString());
+        } catch (LZ4Exception e) {
+          // ok
+        }
+      }
+
+      final int[] offsets = factory.fastBatchCompressor().compress(srcs, new byte[factory.fastBatchCompressor().maxCompressedLength(srcs)], 0);
+      final byte[] compressed = new byte[offsets[srcs.length]];
+      factory.fastBatchCompressor().compress(srcs, compressed, 0, compressed.length, offsets);
+      try {
+        factory.batchDecompressor().decompress(compressed, offsets, 2, new byte[1099], 0, 1099, new int[3]);
+        fail();
+      } catch (LZ4Exception e) {
+        // ok
+      }
+    }
+  }
+
+  @Test
+  public void testMalformed() {
+    final byte[] src = new byte[] { 0x10, 'a', 0x10, 'b', 0x10 };
+    for (LZ4Factory factory : FACTORIES) {
+      final LZ4BatchDecompressor decompressor = factory.batchDecompressor();
+      final byte[] dest = new byte[10];
+      assertArrayEquals(new int[] { 0, 1, 2 }, decompressor.decompress(src, new int[] { 0, 2, 4 }, dest, 0));
+      assertEquals('a', dest[0]);
+      assertEquals('b', dest[1]);
+      for (int[] offsets : Arrays.asList(new int[] { 0, 2, 2 }, new int[] { 0, 2, 5 })) {
+        try {
+          decompressor.decompress(src, offsets, dest, 0);
+          fail(decompressor.toString());
+        } catch (LZ4Exception e) {
+          // ok
+        }
+      }
+      for (int[] offsets : Arrays.asList(new int[] { 0, 2, 1 }, new int[] { 0, 6 }, new int[] { -1, 2 })) {
+        try {
+          decompressor.decompress(src, offsets, dest, 0);
+          fail(decompressor.toString());
+        } catch (IllegalArgumentException e) {
+          // ok
+        } catch (ArrayIndexOutOfBoundsException e) {
+          // ok
+        }
+      }
+    }
+  }
+
+}
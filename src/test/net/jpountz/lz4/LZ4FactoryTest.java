@@ -14,6 +14,8 @@ package net.jpountz.lz4;
  * limitations under the License.
  */
 
+import java.nio.ByteBuffer;
+
 import net.jpountz.util.UnsafeBase;
 import junit.framework.TestCase;
 
@@ -44,4 +46,35 @@ public class LZ4FactoryTest extends TestCase {
     }
   }
 
+  public void testHybrid() {
+    final LZ4Factory hybrid = LZ4Factory.hybridInstance();
+    assertSame(hybrid, LZ4Factory.hybridInstance());
+    assertTrue(hybrid.fastCompressor() instanceof LZ4HybridCompressor);
+    assertTrue(hybrid.highCompressor() instanceof LZ4HybridCompressor);
+    assertTrue(hybrid.fastDecompressor() instanceof LZ4HybridFastDecompressor);
+    assertTrue(hybrid.safeDecompressor() instanceof LZ4HybridSafeDecompressor);
+
+    final byte[] original = new byte[100000];
+    for (int i = 0; i < original.length; ++i) {
+      original[i] = (byte) (i % 251 < 100 ? i : 'a');
+    }
+    for (int len : new int[] {0, 10, 1000, 10000, original.length}) {
+      final byte[] compressed = hybrid.fastCompressor().compress(original, 0, len);
+      final byte[] restored = hybrid.safeDecompressor().decompress(compressed, len);
+      assertEquals(len, restored.length);
+      assertEquals(ByteBuffer.wrap(original, 0, len), ByteBuffer.wrap(restored));
+    }
+  }
+
+  public void testHybridThreshold() {
+    final ByteBuffer heap = ByteBuffer.allocate(10);
+    final ByteBuffer direct = ByteBuffer.allocateDirect(10);
+    final ByteBuffer readOnly = heap.asReadOnlyBuffer();
+    assertEquals(1, LZ4HybridThresholds.threshold(heap, heap, 1, 2));
+    assertEquals(1, LZ4HybridThresholds.threshold(heap, direct, 1, 2));
+    assertEquals(1, LZ4HybridThresholds.threshold(direct, heap, 1, 2));
+    assertEquals(2, LZ4HybridThresholds.threshold(direct, direct, 1, 2));
+    assertEquals(Integer.MAX_VALUE, LZ4HybridThresholds.threshold(readOnly, direct, 1, 2));
+  }
+
 }
@@ -315,4 +315,94 @@ public class LZ4Test extends AbstractLZ4RoundtripTest {
       assertTrue(original.equals(restored.duplicate().position(6)));
     }
   }
+
+  @Test
+  public void testStagedJNI() {
+    // the test target lowers the threshold so that this test stays fast
+    final int len = LZ4JNIStaging.CRITICAL_THRESHOLD + 1 + randomInt(1000);
+    final byte[] data = randomArray(len, 1 + randomInt(255));
+    final LZ4Factory lz4 = LZ4Factory.nativeInstance();
+    for (LZ4Compressor compressor : Arrays.asList(lz4.fastCompressor(), lz4.highCompressor())) {
+      final byte[] compressed = new byte[3 + compressor.maxCompressedLength(len)];
+      final int compressedLen = compressor.compress(data, 0, len, compressed, 3);
+      assertArrayEquals(compressor.compress(data), Arrays.copyOfRange(compressed, 3, 3 + compressedLen));
+
+      final ByteBuffer direct = ByteBuffer.allocateDirect(compressedLen);
+      assertEquals(compressedLen, compressor.compress(ByteBuffer.wrap(data), 0, len, direct, 0, compressedLen));
+
+      final byte[] restored = new byte[len + 2];
+      assertEquals(compressedLen, lz4.fastDecompressor().decompress(compressed, 3, restored, 2, len));
+      assertArrayEquals(data, Arrays.copyOfRange(restored, 2, restored.length));
+      Arrays.fill(restored, (byte) 0);
+      assertEquals(len, lz4.safeDecompressor().decompress(direct, 0, compressedLen, ByteBuffer.wrap(restored), 2));
+      assertArrayEquals(data, Arrays.copyOfRange(restored, 2, restored.length));
+    }
+
+    // a single match which copies the last 3 bytes of the prefix over and over
+    final ByteArrayOutputStream block = new ByteArrayOutputStream();
+    block.write(LZ4Constants.ML_MASK);
+    block.write(3);
+    block.write(0);
+    int matchLen = len - LZ4Constants.MIN_MATCH - LZ4Constants.ML_MASK;
+    for (; matchLen >= 255; matchLen -= 255) {
+      block.write(255);
+    }
+    block.write(matchLen);
+    block.write(LZ4Constants.LAST_LITERALS << LZ4Constants.ML_BITS);
+    for (int i = 0; i < LZ4Constants.LAST_LITERALS; ++i) {
+      block.write(i);
+    }
+    final byte[] compressed = block.toByteArray();
+    final int prefixLen = 1 + randomInt(100);
+    final byte[] expected = new byte[prefixLen + len + LZ4Constants.LAST_LITERALS];
+    for (int i = 0; i < expected.length; ++i) {
+      expected[i] = i < prefixLen ? (byte) randomInt(255) : i < prefixLen + len ? expected[i - 3] : (byte) (i - prefixLen - len);
+    }
+    final byte[] restored = Arrays.copyOf(expected, expected.length);
+    Arrays.fill(restored, prefixLen, restored.length, (byte) 0);
+    assertEquals(compressed.length, lz4.fastDecompressor().decompressWithPrefix64k(compressed, 0, restored, prefixLen, restored.length - prefixLen));
+    assertArrayEquals(expected, restored);
+    Arrays.fill(restored, prefixLen, restored.length, (byte) 0);
+    assertEquals(restored.length - prefixLen, lz4.safeDecompressor().decompressWithPrefix64k(compressed, 0, compressed.length, restored, prefixLen));
+    assertArrayEquals(expected, restored);
+  }
+
+  @Test
+  public void testStagedJNIBatchEnd() {
+    // blocks are only batched together if their output can't exceed the threshold
+    final int len = LZ4JNIStaging.CRITICAL_THRESHOLD / 510 + 1;
+    final int[] offsets = new int[] { 0, len, 2 * len, 3 * len };
+    assertEquals(1, LZ4JNIStaging.batchEnd(offsets, 0, 3, Integer.MAX_VALUE));
+    assertEquals(3, LZ4JNIStaging.batchEnd(offsets, 0, 3, LZ4JNIStaging.CRITICAL_THRESHOLD));
+  }
+
+  @Test
+  public void testByteBufferPositionsUnchanged() {
+    final byte[] data = randomArray(randomIntBetween(1, 1 << 12), 10);
+    for (boolean direct : Arrays.asList(false, true)) {
+      final ByteBuffer src = direct ? ByteBuffer.allocateDirect(data.length + 10) : ByteBuffer.allocate(data.length + 10);
+      src.position(5);
+      src.put(data);
+      src.position(3);
+      for (LZ4Compressor compressor : COMPRESSORS) {
+        final int maxCompressedLength = compressor.maxCompressedLength(data.length);
+        final ByteBuffer compressed = direct ? ByteBuffer.allocateDirect(maxCompressedLength + 10) : ByteBuffer.allocate(maxCompressedLength + 10);
+        compressed.position(1);
+        final int compressedLen = compressor.compress(src, 5, data.length, compressed, 10, maxCompressedLength);
+        assertEquals(compressor.toString(), 3, src.position());
+        assertEquals(compressor.toString(), src.capacity(), src.limit());
+        assertEquals(compressor.toString(), 1, compressed.position());
+        assertEquals(compressor.toString(), compressed.capacity(), compressed.limit());
+
+        for (LZ4SafeDecompressor decompressor : SAFE_DECOMPRESSORS) {
+          final ByteBuffer restored = ByteBuffer.allocate(data.length + 1);
+          restored.position(1);
+          assertEquals(data.length, decompressor.decompress(compressed, 10, compressedLen, restored, 1, data.length));
+          assertEquals(decompressor.toString(), 1, compressed.position());
+          assertEquals(decompressor.toString(), 1, restored.position());
+          assertEquals(ByteBuffer.wrap(data), restored);
+        }
+      }
+    }
+  }
 }
@@ -14,11 +14,17 @@ package net.jpountz.lz4;
  * limitations under the License.
  */
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
+import net.jpountz.util.DataGenerator;
 import net.jpountz.util.UnsafeBase;
+import net.jpountz.xxhash.StreamingXXHash64;
+import net.jpountz.xxhash.XXHashFactory;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -54,4 +60,67 @@ public class LZ4TestLarge extends AbstractLZ4RoundtripTest {
     assertEquals(v, v);
   }
 
+  /** What is written to it can be read back from {@link #in}. */
+  private static class Pipe extends ByteArrayOutputStream {
+
+    private int pos;
+
+    final InputStream in = new InputStream() {
+
+      @Override
+      public int read() {
+        final byte[] b = new byte[1];
+        return read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) {
+        if (pos == count) {
+          return -1;
+        }
+        len = Math.min(len, count - pos);
+        System.arraycopy(buf, pos, b, off, len);
+        pos += len;
+        if (pos == count) {
+          pos = 0;
+          Pipe.this.reset();
+        }
+        return len;
+      }
+
+    };
+
+  }
+
+  @Test
+  public void testStreamAbove4G() throws IOException {
+    // more than 2^32 bytes of generated data, chunk by chunk through a pipe
+    final long len = (4L << 30) + randomInt(1 << 20);
+    final DataGenerator data = new DataGenerator(randomInt(), randomDouble()).limit(len);
+    final Pipe pipe = new Pipe();
+    final LZ4BlockOutputStream out = new LZ4BlockOutputStream(pipe, 1 << randomIntBetween(10, 22),
+        LZ4Factory.fastestInstance().fastCompressor(),
+        XXHashFactory.fastestInstance().newStreamingHash32(LZ4BlockOutputStream.DEFAULT_SEED).asChecksum(), true);
+    final LZ4BlockInputStream in = new LZ4BlockInputStream(pipe.in, LZ4Factory.fastestInstance().fastDecompressor());
+    final StreamingXXHash64 written = XXHashFactory.fastestInstance().newStreamingHash64(0);
+    final StreamingXXHash64 read = XXHashFactory.fastestInstance().newStreamingHash64(0);
+    final byte[] chunk = new byte[1 << 20];
+    long total = 0;
+    for (int n = data.read(chunk); n != -1; n = data.read(chunk)) {
+      written.update(chunk, 0, n);
+      out.write(chunk, 0, n);
+      // the sync flush writes complete blocks for what the input stream reads
+      out.flush();
+      for (int off = 0; off < n; ) {
+        off += in.read(chunk, off, n - off);
+      }
+      read.update(chunk, 0, n);
+      total += n;
+    }
+    out.close();
+    assertEquals(-1, in.read());
+    assertEquals(len, total);
+    assertEquals(written.getValue(), read.getValue());
+  }
+
 }
@@ -0,0 +1,256 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.util.DataGenerator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakLingering;
+
+@RunWith(RandomizedRunner.class)
+// the compression threads may take a moment to exit
+@ThreadLeakLingering(linger = 5000)
+public class CompressTest extends RandomizedTest {
+
+  // what lz4 writes for an empty input with -B4: the magic number, FLG, BD,
+  // the header checksum, the end mark and the content checksum
+  private static final byte[] EMPTY_FRAME = new byte[] {
+    0x04, 0x22, 0x4D, 0x18, 0x64, 0x40, (byte) 0xA7, 0, 0, 0, 0, 0x05, 0x5D, (byte) 0xCC, 0x02 };
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(byte[] stdin, String... args) {
+    out.reset();
+    err.reset();
+    return Main.run(args, new ByteArrayInputStream(stdin), new PrintStream(out, true), new PrintStream(err, true));
+  }
+
+  private byte[] pipe(byte[] stdin, String... args) {
+    final int status = run(stdin, args);
+    assertEquals(err.toString(), 0, status);
+    return out.toByteArray();
+  }
+
+  private File newFile(byte[] data) throws IOException {
+    final File file = newTempFile();
+    final FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(data);
+    } finally {
+      os.close();
+    }
+    return file;
+  }
+
+  private static byte[] read(File file) throws IOException {
+    final InputStream is = new FileInputStream(file);
+    try {
+      return readFully(is);
+    } finally {
+      is.close();
+    }
+  }
+
+  private static byte[] readFully(InputStream is) throws IOException {
+    final ByteArrayOutputStream os = new ByteArrayOutputStream();
+    final byte[] buf = new byte[4096];
+    for (int n = is.read(buf); n != -1; n = is.read(buf)) {
+      os.write(buf, 0, n);
+    }
+    return os.toByteArray();
+  }
+
+  private byte[] randomData() {
+    final int len = randomBoolean() ? randomInt(1000) : randomIntBetween(1 << 16, 1 << 21);
+    // mixes compressible and incompressible blocks
+    return DataGenerator.generate(len, randomInt(), randomFrom(new Double[] { 0., 0.5, 0.9 }));
+  }
+
+  private String[] randomCompressOptions() {
+    final String format = randomFrom(new String[] { "frame", "block" });
+    final String level = randomFrom(new String[] { "-1", "-9" });
+    final String instance = randomFrom(new String[] { "JNI", "Unsafe", "Safe" });
+    final String threads = Integer.toString(randomIntBetween(1, 4));
+    if (format.equals("frame")) {
+      return new String[] { "--format", format, level, "-B" + randomIntBetween(4, 7),
+          randomFrom(new String[] { "-BX", "--no-frame-crc", "--content-size" }),
+          "--instance", instance, "--threads", threads };
+    } else {
+      return new String[] { "--format", format, level, "--block-size", Integer.toString(randomIntBetween(64, 1 << 17)),
+          "--instance", instance, "--threads", threads };
+    }
+  }
+
+  private static String[] concat(String[] a, String... b) {
+    final String[] result = Arrays.copyOf(a, a.length + b.length);
+    System.arraycopy(b, 0, result, a.length, b.length);
+    return result;
+  }
+
+  @Test
+  public void testUsage() {
+    assertEquals(0, run(new byte[0], "compress", "--help"));
+    assertTrue(out.toString().startsWith("Usage:"));
+    assertEquals(0, run(new byte[0], "decompress", "--help"));
+    assertTrue(out.toString().startsWith("Usage:"));
+  }
+
+  @Test
+  public void testPipeRoundTrip() {
+    final byte[] data = randomData();
+    final byte[] compressed = pipe(data, concat(new String[] { "compress" }, randomCompressOptions()));
+    final String threads = Integer.toString(randomIntBetween(1, 4));
+    assertArrayEquals(data, pipe(compressed, "decompress", "--threads", threads));
+  }
+
+  @Test
+  public void testFileRoundTrip() throws IOException {
+    final byte[] data = randomData();
+    final File file = newFile(data);
+    final File compressed = new File(file.getPath() + ".lz4");
+    assertEquals(err.toString(), 0, run(new byte[0], concat(new String[] { "compress" },
+        concat(randomCompressOptions(), file.getPath()))));
+    assertTrue(err.toString(), err.toString().startsWith("Compressed " + data.length + " bytes into "));
+    assertTrue(compressed.isFile());
+
+    // the output is derived from the input
+    assertTrue(file.delete());
+    assertEquals(err.toString(), 0, run(new byte[0], "decompress", compressed.getPath()));
+    assertArrayEquals(data, read(file));
+
+    // to a given file, and to standard output
+    final File other = newTempFile();
+    assertEquals(err.toString(), 0, run(new byte[0], "decompress", "-f", compressed.getPath(), other.getPath()));
+    assertArrayEquals(data, read(other));
+    assertArrayEquals(data, pipe(new byte[0], "decompress", "-c", compressed.getPath()));
+  }
+
+  @Test
+  public void testEmptyFrame() {
+    assertArrayEquals(EMPTY_FRAME, pipe(new byte[0], "compress", "-B4"));
+    assertArrayEquals(new byte[0], pipe(EMPTY_FRAME, "decompress"));
+  }
+
+  @Test
+  public void testConcatenatedFrames() throws IOException {
+    final byte[] data1 = randomData();
+    final byte[] data2 = randomData();
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    compressed.write(pipe(data1, "compress", "--content-size"));
+    // a skippable frame
+    compressed.write(new byte[] { 0x5A, 0x2A, 0x4D, 0x18, 3, 0, 0, 0, 1, 2, 3 });
+    compressed.write(pipe(data2, "compress", "--format", "block"));
+    final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    expected.write(data1);
+    expected.write(data2);
+    assertArrayEquals(expected.toByteArray(), pipe(compressed.toByteArray(), "decompress"));
+  }
+
+  @Test
+  public void testBlockStreamCompatibility() throws IOException {
+    final byte[] data = randomData();
+    final int blockSize = randomIntBetween(64, 1 << 17);
+
+    final byte[] compressed = pipe(data, "compress", "--format", "block", "--block-size", Integer.toString(blockSize));
+    final LZ4BlockInputStream is = new LZ4BlockInputStream(new ByteArrayInputStream(compressed));
+    assertArrayEquals(data, readFully(is));
+    is.close();
+
+    final ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+    final LZ4BlockOutputStream os = new LZ4BlockOutputStream(streamed, blockSize);
+    os.write(data);
+    os.close();
+    assertArrayEquals(data, pipe(streamed.toByteArray(), "decompress"));
+  }
+
+  @Test
+  public void testUnsupportedLevel() {
+    final byte[] data = randomData();
+    final int level = randomFrom(new Integer[] { 2, 3, 4, 5, 6, 7, 8, 10, 11, 12 });
+    final byte[] compressed = pipe(data, "compress", "-" + level);
+    assertTrue(err.toString(), err.toString().startsWith("Warning: level -" + level + " is not supported"));
+    assertArrayEquals(pipe(data, "compress", level >= 3 ? "-9" : "-1"), compressed);
+    assertArrayEquals(data, pipe(compressed, "decompress"));
+  }
+
+  @Test
+  public void testCorruption() {
+    final byte[] data = DataGenerator.generate(randomIntBetween(1000, 1 << 18), randomInt(), 0.5);
+    final String format = randomFrom(new String[] { "frame", "block" });
+    final byte[] compressed = pipe(data, "compress", "--format", format);
+
+    final byte[] truncated = Arrays.copyOf(compressed, randomInt(compressed.length - 1));
+    if (truncated.length > 0) {
+      assertEquals(2, run(truncated, "decompress"));
+    }
+
+    final byte[] corrupted = compressed.clone();
+    final int i = randomIntBetween(format.equals("frame") ? 7 : BlockFormat.MAGIC.length, corrupted.length - 1);
+    corrupted[i] ^= 1 << randomInt(7);
+    assertEquals(2, run(corrupted, "decompress"));
+    assertTrue(err.toString(), err.toString().startsWith("decompress failed: "));
+
+    // a compressed length above the bound of the block size is rejected before reading
+    final byte[] block = pipe(data, "compress", "--format", "block");
+    ByteBuffer.wrap(block).order(ByteOrder.LITTLE_ENDIAN).putInt(BlockFormat.MAGIC.length + 1, 1 << 30);
+    assertEquals(2, run(block, "decompress"));
+    assertTrue(err.toString(), err.toString().contains("Stream is corrupted"));
+
+    assertEquals(2, run(new byte[] { 1, 2, 3, 4, 5 }, "decompress"));
+    assertTrue(err.toString(), err.toString().contains("neither an LZ4 frame nor"));
+  }
+
+  @Test
+  public void testErrors() throws IOException {
+    final File file = newFile(new byte[16]);
+    final File compressed = newFile(new byte[0]);
+    assertEquals(1, run(new byte[0], "compress", file.getPath(), compressed.getPath()));
+    assertTrue(err.toString(), err.toString().contains("already exists, use -f"));
+    assertEquals(1, run(new byte[0], "compress", file.getPath(), file.getPath()));
+    assertEquals(1, run(new byte[0], "compress", "--block-size", "100K"));
+    assertTrue(err.toString(), err.toString().contains("must be 64K, 256K, 1M or 4M"));
+    assertEquals(1, run(new byte[0], "compress", "--format", "block", "-BX"));
+    assertEquals(1, run(new byte[0], "compress", "--format", "zip"));
+    assertEquals(1, run(new byte[0], "decompress", file.getPath()));
+    assertTrue(err.toString(), err.toString().contains("Can't guess the output"));
+    assertEquals(1, run(new byte[0], "decompress", new File(file.getPath() + ".nope").getPath(), "-"));
+    assertEquals(1, run(new byte[0], "compress", "a", "b", "c"));
+
+    // a failed command doesn't leave its output behind
+    final File output = new File(file.getPath() + ".out");
+    assertEquals(2, run(new byte[0], "decompress", file.getPath(), output.getPath()));
+    assertFalse(output.exists());
+  }
+
+}
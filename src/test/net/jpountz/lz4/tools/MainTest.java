@@ -0,0 +1,111 @@
+package net.jpountz.lz4.tools;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import net.jpountz.util.DataGenerator;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakLingering;
+
+@RunWith(RandomizedRunner.class)
+// the threads of bench may take a moment to exit
+@ThreadLeakLingering(linger = 5000)
+public class MainTest extends RandomizedTest {
+
+  private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+  private int run(String... args) {
+    out.reset();
+    err.reset();
+    return Main.run(args, new ByteArrayInputStream(new byte[0]), new PrintStream(out, true), new PrintStream(err, true));
+  }
+
+  private File newFile(byte[] data) throws IOException {
+    final File file = newTempFile();
+    final FileOutputStream os = new FileOutputStream(file);
+    try {
+      os.write(data);
+    } finally {
+      os.close();
+    }
+    return file;
+  }
+
+  @Test
+  public void testUsage() {
+    assertEquals(1, run());
+    assertTrue(err.toString().startsWith("Usage:"));
+    assertEquals(0, run("--help"));
+    assertTrue(out.toString().contains("bench"));
+    assertEquals(1, run("nope"));
+    assertTrue(err.toString().startsWith("Unknown command: nope"));
+  }
+
+  @Test
+  public void testBench() throws IOException {
+    final File file = newFile(DataGenerator.generate(randomIntBetween(1 << 16, 1 << 18), randomInt(), 0.9));
+    final int status = run("bench", "--instances", "JNI,Safe", "--compressors=fast,HC",
+        "--buffers", "array,direct", "--block-sizes", "1K,64K", "--threads", "1,2", "--time", "5", file.getPath());
+    assertEquals(err.toString(), 0, status);
+    final String[] lines = out.toString().split("\n");
+    // a header, then one row per combination
+    assertEquals(1 + 2 * 2 * 2 * 2 * 2, lines.length);
+    assertTrue(lines[0], lines[0].startsWith("file"));
+    for (int i = 1; i < lines.length; ++i) {
+      // the name of the file may contain spaces
+      assertTrue(lines[i], lines[i].startsWith(file.getName()));
+      final String[] columns = lines[i].substring(file.getName().length()).trim().split(" +");
+      assertEquals(lines[i], 8, columns.length);
+      assertTrue(lines[i], Double.parseDouble(columns[5]) > 1);
+      assertTrue(lines[i], Double.parseDouble(columns[6]) > 0);
+      assertTrue(lines[i], Double.parseDouble(columns[7]) > 0);
+    }
+  }
+
+  @Test
+  public void testBenchEmptyFile() throws IOException {
+    final File file = newFile(new byte[0]);
+    final int status = run("bench", "--instances", "Safe", "--time", "1", file.getPath());
+    assertEquals(err.toString(), 0, status);
+  }
+
+  @Test
+  public void testBenchErrors() throws IOException {
+    assertEquals(1, run("bench"));
+    assertTrue(err.toString().startsWith("No files to benchmark"));
+    final File file = newFile(new byte[16]);
+    assertEquals(1, run("bench", "--instances", "Turbo", file.getPath()));
+    assertEquals("Unknown instance: Turbo", err.toString().trim());
+    assertEquals(1, run("bench", "--threads", "0", file.getPath()));
+    assertEquals(1, run("bench", "--block-sizes", "64X", file.getPath()));
+    assertEquals(1, run("bench", "--nope", file.getPath()));
+    assertEquals("Unknown option: --nope", err.toString().trim());
+    assertEquals(1, run("bench", "--time"));
+    assertEquals("Missing value for --time", err.toString().trim());
+  }
+
+}
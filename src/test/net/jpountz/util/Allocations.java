@@ -0,0 +1,99 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Measures the heap memory that an operation allocates per call, with the
+ * per-thread allocation counters of HotSpot's
+ * <code>com.sun.management.ThreadMXBean</code>.
+ * <p>
+ * Operations are warmed up first so that one-time allocations, such as lazily
+ * created thread-local buffers, are not counted, and the result is the
+ * minimum over a few rounds so that allocations of the JVM itself on the test
+ * thread, such as by the JIT, don't make tests flaky. Since the escape
+ * analysis of the JIT may remove allocations of compiled code only, a path
+ * can only be allocation-free here if it is allocation-free in the
+ * interpreter too, or once compiled.
+ */
+public enum Allocations {
+  ;
+
+  public interface Operation {
+    void run() throws Exception;
+  }
+
+  private static final int WARMUP_CALLS = 1000;
+  private static final int CALLS = 200;
+  private static final int ROUNDS = 5;
+
+  private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN;
+  static {
+    final ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean
+        && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+      THREAD_MX_BEAN = (com.sun.management.ThreadMXBean) bean;
+      THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+    } else {
+      THREAD_MX_BEAN = null;
+    }
+  }
+
+  /** Whether the JVM can count allocations, tests should assume it. */
+  public static boolean isSupported() {
+    return THREAD_MX_BEAN != null;
+  }
+
+  /**
+   * Return the number of bytes that <code>op</code> allocates per call,
+   * rounded down so that the few bytes that reading the counter allocates on
+   * some JVMs don't count.
+   */
+  public static long bytesPerCall(Operation op) throws Exception {
+    final long thread = Thread.currentThread().getId();
+    for (int i = 0; i < WARMUP_CALLS; ++i) {
+      op.run();
+    }
+    long min = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; ++round) {
+      final long start = THREAD_MX_BEAN.getThreadAllocatedBytes(thread);
+      for (int i = 0; i < CALLS; ++i) {
+        op.run();
+      }
+      min = Math.min(min, (THREAD_MX_BEAN.getThreadAllocatedBytes(thread) - start) / CALLS);
+    }
+    return min;
+  }
+
+  /** Fail if <code>op</code>, which is marked allocation-free, allocates. */
+  public static void assertAllocationFree(String name, Operation op) throws Exception {
+    final long bytes = bytesPerCall(op);
+    assertTrue(name + " is marked allocation-free but allocates " + bytes + " bytes per call", bytes == 0);
+  }
+
+  /**
+   * Fail if <code>op</code>, which is known to allocate, allocates more than
+   * <code>maxBytes</code> per call.
+   */
+  public static void assertAllocatesAtMost(String name, long maxBytes, Operation op) throws Exception {
+    final long bytes = bytesPerCall(op);
+    assertTrue(name + " allocates " + bytes + " bytes per call, more than " + maxBytes, bytes <= maxBytes);
+  }
+
+}
@@ -0,0 +1,239 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.InputStream;
+
+/**
+ * Port of <code>programs/datagen.c</code> of LZ4: an endless stream of runs
+ * of literals and of copies of earlier bytes, from which inputs of any size
+ * and compressibility can be generated without shipping them.
+ * <p>
+ * Each run is a copy of an earlier byte sequence, from at most 32 KB back,
+ * with probability <code>compressibility</code>, or else a run of random
+ * literals. Runs are short, 0 to 13 bytes (4 more for copies), except with
+ * probability <code>longRunProbability</code>, when they are 15 to 526 bytes.
+ * Literals take <code>2<sup>literalBits</sup></code> distinct values. The
+ * defaults of datagen are a compressibility of 0.5, 6 bits of literals (the
+ * characters <code>'0'</code> to <code>'o'</code>) and long runs with
+ * probability 0.25, with which the output is the same as datagen's for the
+ * same seed and compressibility. A seed generates the same bytes whatever the
+ * sizes of the reads, which makes inputs reproducible from their parameters.
+ */
+public final class DataGenerator extends InputStream {
+
+  public static final double DEFAULT_COMPRESSIBILITY = 0.5;
+  public static final int DEFAULT_LITERAL_BITS = 6;
+  public static final double DEFAULT_LONG_RUN_PROBABILITY = 0.25;
+
+  private static final int PRIME1 = -1640531535; // 2654435761U
+  private static final int PRIME2 = -2048144777; // 2246822519U
+
+  private static final int WINDOW = 32 << 10;
+  private static final int BLOCK = 128 << 10;
+  // longest run, copies included
+  private static final int MAX_RUN = 511 + 15 + 4;
+  private static final int DATAGEN_LONG_RUN_THRESHOLD = (int) (65536 * DEFAULT_LONG_RUN_PROBABILITY);
+
+  /**
+   * Return <code>len</code> bytes that compress like the output of datagen
+   * with the given seed and compressibility.
+   */
+  public static byte[] generate(int len, int seed, double compressibility) {
+    final byte[] bytes = new byte[len];
+    new DataGenerator(seed, compressibility).fill(bytes, 0, len);
+    return bytes;
+  }
+
+  private final int matchThreshold;
+  private final int literalMask;
+  private final int longRunThreshold;
+  // the last WINDOW bytes of the previous block, then the current block
+  private final byte[] buf;
+  private int seed;
+  private int off, end;
+  private long remaining;
+
+  /**
+   * Create an endless generator.
+   *
+   * @param seed the seed, as the <code>-s</code> option of datagen
+   * @param compressibility the probability of a copy, from 0 to 1, as the
+   *        <code>-p</code> option of datagen divided by 100
+   * @param literalBits the entropy of literals in bits, from 0 to 8
+   * @param longRunProbability the probability of a long run, from 0 to 1
+   */
+  public DataGenerator(int seed, double compressibility, int literalBits, double longRunProbability) {
+    if (compressibility < 0 || compressibility > 1) {
+      throw new IllegalArgumentException("compressibility must be in [0, 1], got " + compressibility);
+    }
+    if (literalBits < 0 || literalBits > 8) {
+      throw new IllegalArgumentException("literalBits must be in [0, 8], got " + literalBits);
+    }
+    if (longRunProbability < 0 || longRunProbability > 1) {
+      throw new IllegalArgumentException("longRunProbability must be in [0, 1], got " + longRunProbability);
+    }
+    this.seed = seed;
+    this.matchThreshold = (int) (32768 * compressibility);
+    this.literalMask = (1 << literalBits) - 1;
+    this.longRunThreshold = (int) (65536 * longRunProbability);
+    this.remaining = Long.MAX_VALUE;
+    buf = new byte[WINDOW + BLOCK + MAX_RUN];
+    // the initial window, only ever read by copies: like datagen, its last
+    // run is not cut, the block overwrites what overflows
+    generate(0, WINDOW, buf.length);
+    generate(WINDOW, WINDOW + BLOCK, WINDOW + BLOCK);
+    off = WINDOW;
+    end = WINDOW + BLOCK;
+  }
+
+  /** Create an endless generator with the defaults of datagen. */
+  public DataGenerator(int seed, double compressibility) {
+    this(seed, compressibility, DEFAULT_LITERAL_BITS, DEFAULT_LONG_RUN_PROBABILITY);
+  }
+
+  /**
+   * Stop the stream after <code>length</code> more bytes.
+   *
+   * @return this instance
+   */
+  public DataGenerator limit(long length) {
+    if (length < 0) {
+      throw new IllegalArgumentException("length must be >= 0, got " + length);
+    }
+    remaining = length;
+    return this;
+  }
+
+  private int rand() {
+    int rand32 = seed;
+    rand32 *= PRIME1;
+    rand32 += PRIME2;
+    rand32 = Integer.rotateLeft(rand32, 13);
+    seed = rand32;
+    return rand32;
+  }
+
+  private int rand15Bits() {
+    return (rand() >>> 3) & 32767;
+  }
+
+  private int randLength() {
+    // datagen draws long runs when bits 7-8 are 0, which is kept for its
+    // probability of 0.25 so that the output is the same as datagen's, and
+    // generalized to bits 7-22 so that any other probability can be drawn
+    final boolean shortRun = longRunThreshold == DATAGEN_LONG_RUN_THRESHOLD
+        ? ((rand() >>> 7) & 3) != 0
+        : ((rand() >>> 7) & 0xFFFF) >= longRunThreshold;
+    if (shortRun) {
+      return (int) ((rand() & 0xFFFFFFFFL) % 14);
+    } else {
+      return (rand() & 511) + 15;
+    }
+  }
+
+  private byte randLiteral() {
+    return (byte) (((rand() >>> 9) & literalMask) + '0');
+  }
+
+  // fill buf[from:to] with runs, cut at limit, copies may go back to the
+  // beginning of buf
+  private void generate(int from, int to, int limit) {
+    int pos = from;
+    while (pos < to) {
+      if (rand15Bits() < matchThreshold) {
+        final int length = Math.min(randLength() + 4, limit - pos);
+        final int offset = Math.min(rand15Bits() + 1, pos);
+        // byte by byte: copies overlap when the offset is less than the length
+        for (int ref = pos - offset, d = pos + length; pos < d; ) {
+          buf[pos++] = buf[ref++];
+        }
+      } else {
+        final int length = Math.min(randLength(), limit - pos);
+        for (int d = pos + length; pos < d; ) {
+          buf[pos++] = randLiteral();
+        }
+      }
+    }
+  }
+
+  private void refill() {
+    System.arraycopy(buf, BLOCK, buf, 0, WINDOW);
+    generate(WINDOW, WINDOW + BLOCK, WINDOW + BLOCK);
+    off = WINDOW;
+    end = WINDOW + BLOCK;
+  }
+
+  /** Fill <code>bytes[off:off+len]</code>, ignoring the limit. */
+  public void fill(byte[] bytes, int off, int len) {
+    Utils.checkRange(bytes, off, len);
+    while (len > 0) {
+      if (this.off == end) {
+        refill();
+      }
+      final int n = Math.min(len, end - this.off);
+      System.arraycopy(buf, this.off, bytes, off, n);
+      this.off += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  @Override
+  public int read() {
+    if (remaining == 0) {
+      return -1;
+    }
+    if (off == end) {
+      refill();
+    }
+    --remaining;
+    return buf[off++] & 0xFF;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) {
+    Utils.checkRange(b, off, len);
+    if (len == 0) {
+      return 0;
+    }
+    if (remaining == 0) {
+      return -1;
+    }
+    final int n = (int) Math.min(len, remaining);
+    fill(b, off, n);
+    remaining -= n;
+    return n;
+  }
+
+  @Override
+  public long skip(long n) {
+    if (n <= 0) {
+      return 0;
+    }
+    final byte[] skipped = new byte[(int) Math.min(n, 1 << 16)];
+    long total = 0;
+    while (total < n && remaining > 0) {
+      total += read(skipped, 0, (int) Math.min(skipped.length, n - total));
+    }
+    return total;
+  }
+
+  @Override
+  public int available() {
+    return (int) Math.min(remaining, end - off);
+  }
+
+}
@@ -0,0 +1,117 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.xxhash.XXHashFactory;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+
+@RunWith(RandomizedRunner.class)
+public class DataGeneratorTest extends RandomizedTest {
+
+  private static final int LEN = 1 << 20;
+
+  @Test
+  public void testSameAsDatagen() throws IOException {
+    // datagen -g64 -s0
+    assertEquals("9DUaIJY?9SR[`SPDTTaREI08^`HBFP5Rl6lRT<RER8j><MQln9\\5BDQN=PHl=H0g",
+        new String(DataGenerator.generate(64, 0, 0.5), "US-ASCII"));
+    // XXH32 of datagen -g300000 -s2 -p80, which spans 3 blocks
+    final byte[] bytes = DataGenerator.generate(300000, 2, 0.8);
+    assertEquals(0x68d44076, XXHashFactory.safeInstance().hash32().hash(bytes, 0, bytes.length, 0));
+  }
+
+  @Test
+  public void testReproducible() throws IOException {
+    final int seed = randomInt();
+    final byte[] expected = DataGenerator.generate(LEN, seed, 0.5);
+    final DataGenerator generator = new DataGenerator(seed, 0.5).limit(LEN);
+    final byte[] actual = new byte[LEN];
+    for (int off = 0; off < LEN; ) {
+      if (randomBoolean()) {
+        actual[off++] = (byte) generator.read();
+      } else {
+        off += generator.read(actual, off, Math.min(randomIntBetween(1, 1 << 18), LEN - off));
+      }
+    }
+    assertEquals(-1, generator.read());
+    assertArrayEquals(expected, actual);
+
+    assertFalse(Arrays.equals(expected, DataGenerator.generate(LEN, seed + 1, 0.5)));
+  }
+
+  @Test
+  public void testLimit() throws IOException {
+    final int limit = randomInt(1 << 18);
+    final DataGenerator generator = new DataGenerator(randomInt(), randomDouble()).limit(limit);
+    final byte[] buf = new byte[randomIntBetween(1, 1 << 16)];
+    long total = generator.skip(limit / 2);
+    for (int read = generator.read(buf); read != -1; read = generator.read(buf)) {
+      total += read;
+    }
+    assertEquals(limit, total);
+    assertEquals(0, generator.available());
+  }
+
+  @Test
+  public void testCompressibility() {
+    final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    final int seed = randomInt();
+    int previous = Integer.MAX_VALUE;
+    for (int percent = 0; percent <= 100; percent += 25) {
+      final int compressedLen = compressor.compress(DataGenerator.generate(LEN, seed, percent / 100.)).length;
+      assertTrue(percent + "%: " + compressedLen + " >= " + previous, compressedLen < previous);
+      previous = compressedLen;
+    }
+  }
+
+  @Test
+  public void testLiteralBits() throws IOException {
+    for (int bits = 0; bits <= 8; ++bits) {
+      final DataGenerator generator = new DataGenerator(randomInt(), 0, bits, DataGenerator.DEFAULT_LONG_RUN_PROBABILITY);
+      final boolean[] seen = new boolean[256];
+      int distinct = 0;
+      for (int i = 0; i < LEN; ++i) {
+        final int b = generator.read();
+        if (!seen[b]) {
+          seen[b] = true;
+          ++distinct;
+        }
+      }
+      assertEquals(1 << bits, distinct);
+    }
+  }
+
+  @Test
+  public void testLongRuns() {
+    final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    final int seed = randomInt();
+    final byte[] shortRuns = new byte[LEN], longRuns = new byte[LEN];
+    new DataGenerator(seed, 0.9, 8, 0).fill(shortRuns, 0, LEN);
+    new DataGenerator(seed, 0.9, 8, 1).fill(longRuns, 0, LEN);
+    // longer copies need fewer sequences
+    assertTrue(compressor.compress(longRuns).length < compressor.compress(shortRuns).length);
+  }
+
+}
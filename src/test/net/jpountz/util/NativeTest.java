@@ -0,0 +1,227 @@
+package net.jpountz.util;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.ThreadLeakLingering;
+
+@RunWith(RandomizedRunner.class)
+public class NativeTest extends RandomizedTest {
+
+  private static byte[] read(File file) throws IOException {
+    final byte[] bytes = new byte[(int) file.length()];
+    final FileInputStream in = new FileInputStream(file);
+    try {
+      int off = 0;
+      while (off < bytes.length) {
+        off += in.read(bytes, off, bytes.length - off);
+      }
+    } finally {
+      in.close();
+    }
+    return bytes;
+  }
+
+  private File newDir() {
+    return new File(newTempDir(), "cache");
+  }
+
+  @Test
+  public void testLoaded() {
+    Native.load();
+    assertTrue(Native.isLoaded());
+  }
+
+  @Test
+  public void testVariants() {
+    final String v3 = "processor\t: 0\n"
+        + "flags\t\t: fpu sse sse2 avx avx2 bmi1 bmi2 f16c fma abm movbe xsave\n"
+        + "processor\t: 1\n";
+    assertEquals(Arrays.asList("x86-64-v3", ""), Native.variants("amd64", v3));
+    assertEquals(Arrays.asList("x86-64-v3", ""), Native.variants("x86_64", v3));
+    assertEquals(Arrays.asList(""), Native.variants("aarch64", v3));
+    // no BMI2
+    assertEquals(Arrays.asList(""), Native.variants("amd64", v3.replace(" bmi2", "")));
+    assertEquals(Arrays.asList(""), Native.variants("amd64", "flags\t\t: fpu sse sse2\n"));
+    // /proc/cpuinfo is not readable
+    assertEquals(Arrays.asList(""), Native.variants("amd64", null));
+  }
+
+  @Test
+  public void testExtract() throws IOException {
+    final File dir = newDir();
+    final byte[] library = new byte[randomIntBetween(1, 1 << 16)];
+    getRandom().nextBytes(library);
+
+    final File file = Native.extract(dir, library);
+    assertEquals(dir, file.getParentFile());
+    assertArrayEquals(library, read(file));
+    assertTrue(file.setLastModified(0));
+    assertEquals(file, Native.extract(dir, library));
+    // not extracted again
+    assertEquals(0, file.lastModified());
+
+    // another version goes to another file
+    final byte[] other = Arrays.copyOf(library, library.length);
+    ++other[0];
+    final File otherFile = Native.extract(dir, other);
+    assertFalse(file.equals(otherFile));
+    assertArrayEquals(other, read(otherFile));
+
+    // truncated files are replaced
+    assertTrue(file.delete());
+    assertTrue(file.createNewFile());
+    assertEquals(file, Native.extract(dir, library));
+    assertArrayEquals(library, read(file));
+
+    // so are files of the same length but another content
+    final byte[] planted = Arrays.copyOf(library, library.length);
+    planted[planted.length - 1] ^= 1;
+    final FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(planted);
+    } finally {
+      out.close();
+    }
+    assertEquals(file, Native.extract(dir, library));
+    assertArrayEquals(library, read(file));
+
+    // no temporary files are left behind
+    assertEquals(2, dir.list().length);
+  }
+
+  @Test
+  public void testExtractToSharedDir() throws IOException {
+    final File dir = newDir();
+    final byte[] library = new byte[randomIntBetween(1, 1 << 10)];
+    getRandom().nextBytes(library);
+    Native.extract(dir, library);
+    if (!System.getProperty("os.name").startsWith("Windows")) {
+      // created for the current user only
+      assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(dir.toPath()));
+      // other users could plant a library there
+      assertTrue(dir.setWritable(true, false));
+      try {
+        Native.extract(dir, library);
+        fail();
+      } catch (IOException e) {
+        // expected
+      }
+    }
+  }
+
+  @Test
+  @ThreadLeakLingering(linger = 5000) // pool threads may still be exiting after awaitTermination
+  public void testConcurrentExtract() throws Exception {
+    final File dir = newDir();
+    final byte[] library = new byte[1 << 20];
+    getRandom().nextBytes(library);
+    final ExecutorService executor = Executors.newFixedThreadPool(4);
+    try {
+      final List<Future<File>> futures = new ArrayList<Future<File>>();
+      for (int i = 0; i < 16; ++i) {
+        futures.add(executor.submit(new Callable<File>() {
+          @Override
+          public File call() throws IOException {
+            final File file = Native.extract(dir, library);
+            // whatever the interleaving, the file must be complete
+            assertArrayEquals(library, read(file));
+            return file;
+          }
+        }));
+      }
+      for (Future<File> future : futures) {
+        assertEquals(futures.get(0).get(), future.get());
+      }
+    } finally {
+      executor.shutdown();
+      assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+    }
+    assertEquals(1, dir.list().length);
+  }
+
+  private static Set<String> reflectedClasses() throws IOException {
+    final InputStream is = NativeTest.class.getResourceAsStream("/META-INF/native-image/net.jpountz.lz4/lz4/reflect-config.json");
+    assertNotNull(is);
+    final String config = new String(Native.readFully(is), "UTF-8");
+    final Set<String> classes = new HashSet<String>();
+    final Matcher matcher = Pattern.compile("\"name\": \"(net\\.jpountz\\.[^\"]+)\"").matcher(config);
+    while (matcher.find()) {
+      classes.add(matcher.group(1));
+    }
+    return classes;
+  }
+
+  @Test
+  public void testNativeImageReflectConfig() throws Exception {
+    final Set<String> classes = reflectedClasses();
+    // the classes that LZ4Factory and XXHashFactory load by name
+    final Set<String> loadedByName = new HashSet<String>();
+    for (String impl : Arrays.asList("JNI", "JavaSafe", "JavaUnsafe", "JavaUnsafeLong", "JavaVarHandle")) {
+      for (String cls : Arrays.asList("LZ4%sCompressor", "LZ4HC%sCompressor", "LZ4%sFastDecompressor", "LZ4%sSafeDecompressor")) {
+        loadedByName.add("net.jpountz.lz4." + String.format(cls, impl));
+      }
+    }
+    for (String impl : Arrays.asList("JNI", "JavaSafe", "JavaUnsafe", "JavaVarHandle")) {
+      for (String cls : Arrays.asList("XXHash32%s", "StreamingXXHash32%s$Factory", "XXHash64%s",
+          "StreamingXXHash64%s$Factory", "XXHash3%s", "StreamingXXHash3%s$Factory")) {
+        loadedByName.add("net.jpountz.xxhash." + String.format(cls, impl));
+      }
+    }
+    assertEquals(loadedByName, classes);
+
+    for (String cls : classes) {
+      final Class<?> c;
+      try {
+        c = Class.forName(cls);
+      } catch (ClassNotFoundException e) {
+        // VarHandle classes are only compiled on Java 9+
+        assertTrue(cls, cls.contains("VarHandle"));
+        continue;
+      }
+      final Field instance = c.getField("INSTANCE");
+      assertTrue(cls, Modifier.isStatic(instance.getModifiers()));
+      assertTrue(cls, instance.getType().isAssignableFrom(c));
+    }
+  }
+
+}
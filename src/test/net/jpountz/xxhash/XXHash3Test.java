@@ -0,0 +1,286 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.util.zip.Checksum;
+
+import net.jpountz.util.Utils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class XXHash3Test extends RandomizedTest {
+
+  private static abstract class StreamingXXHash3Adapter extends XXHash3 {
+
+    protected abstract StreamingXXHash3 streamingHash(long seed);
+
+    private StreamingXXHash3 update(byte[] buf, int off, int len, long seed) {
+      Utils.checkRange(buf, off, len);
+      int originalOff = off;
+      int remainingPasses = randomInt(5);
+      StreamingXXHash3 h = streamingHash(seed);
+      final int end = off + len;
+      while (off < end) {
+        // small updates exercise the internal buffer, large ones the bulk loop
+        final int l = randomBoolean() ? Math.min(randomInt(70), end - off) : randomIntBetween(off, end) - off;
+        h.update(buf, off, l);
+        off += l;
+        if (remainingPasses > 0 && randomInt(5) == 0) {
+          h.reset();
+          --remainingPasses;
+          off = originalOff;
+        }
+        if (randomBoolean()) {
+          h.getValue();
+        }
+      }
+      return h;
+    }
+
+    @Override
+    public long hash64(byte[] buf, int off, int len, long seed) {
+      return update(buf, off, len, seed).getValue();
+    }
+
+    @Override
+    public Hash128 hash128(byte[] buf, int off, int len, long seed) {
+      return update(buf, off, len, seed).getValue128();
+    }
+
+    public String toString() {
+      return streamingHash(0).toString();
+    }
+
+  }
+
+  private static XXHash3[] INSTANCES = new XXHash3[] {
+    XXHashFactory.nativeInstance().xxh3(),
+    XXHashFactory.unsafeInstance().xxh3(),
+    XXHashFactory.safeInstance().xxh3(),
+    new StreamingXXHash3Adapter() {
+      protected StreamingXXHash3 streamingHash(long seed) {
+        return XXHashFactory.nativeInstance().newStreamingXXH3(seed);
+      }
+    },
+    new StreamingXXHash3Adapter() {
+      protected StreamingXXHash3 streamingHash(long seed) {
+        return XXHashFactory.unsafeInstance().newStreamingXXH3(seed);
+      }
+    },
+    new StreamingXXHash3Adapter() {
+      protected StreamingXXHash3 streamingHash(long seed) {
+        return XXHashFactory.safeInstance().newStreamingXXH3(seed);
+      }
+    }
+  };
+
+  // { len, then for each of SANITY_SEEDS: hash64, low64 and high64 of hash128 }
+  private static final long[][] SANITY_HASHES = new long[][] {
+      { 0,
+        0x2D06800538D394C2L, 0x6001C324468D497FL, 0x99AA06D3014798D8L,
+        0xF702CA3814DE2125L, 0x5444F7869C671AB0L, 0x92220AE55E14AB50L,
+        0x602B0E2CD6662C8BL, 0x4CA5176998171787L, 0xD142977A2CCA554BL },
+      { 1,
+        0xC44BDFF4074EECDBL, 0xC44BDFF4074EECDBL, 0xA6CD5E9392000F6AL,
+        0xB53D5557E7F76F8DL, 0xB53D5557E7F76F8DL, 0x89B99554BA22467CL,
+        0x062B185E4E01441AL, 0x062B185E4E01441AL, 0xE366B8C99A31DF50L },
+      { 6,
+        0x45D2FBE1F7E1114AL, 0x29193CEAEACA8A78L, 0x0FD004998C4DD244L,
+        0xFF411AF0380D16C3L, 0xB1981D96F8B79571L, 0xC56A1134EA08D2E4L,
+        0x48BFC3AA411F3DB3L, 0xB47C8ABFED7E1B63L, 0x1DFD2FC31034CFC1L },
+      { 12,
+        0xD86915797539F3B7L, 0xA5B615289BE2B8D8L, 0x1AB0EA72FA4E5B59L,
+        0x6172B97B1B9FABFDL, 0xFE73EEC86F39E31FL, 0x52899C8D9B67775AL,
+        0xD6FD3F7B8ECD0492L, 0x872A55EFCD9CF515L, 0x46F84C499901AB4FL },
+      { 24,
+        0x776DFAC80F061E9DL, 0x2DDF557D645EC180L, 0xCA3B96F6659B4521L,
+        0xAC29198DEB377712L, 0x3B152C593FE4E5D5L, 0xEB3AD144C3B25E07L,
+        0x227ECB296079E87EL, 0x967F74F858E3B6ECL, 0x45A842BFDC7A3334L },
+      { 48,
+        0x0938EA06EF9A7E71L, 0x69F62688F95B6FB0L, 0x9E85A5877C50943AL,
+        0xA7132BCEA24E2F74L, 0x87E970489280CF80L, 0xC1862C1C2445AB14L,
+        0x32B48B2ECA002553L, 0x01A30764CE4BDF78L, 0xF3A281BBB28D8785L },
+      { 80,
+        0xAFF355D9C31F51D3L, 0x9FD9DC06DCBBAC3AL, 0xF000B4EBA10A68ADL,
+        0xA418BA209E73EFE5L, 0x2C3AFA9AFC913B2CL, 0xE28665C2EE91A300L,
+        0x0A47816BF4C710D9L, 0x2F13B44B8FCD71BFL, 0xED4A4670B5A2E80FL },
+      { 81,
+        0xA063E730C222FEBAL, 0x480539FB0753674CL, 0x6BBBF3DE3C690A7AL,
+        0xD778C55671F4093CL, 0xB03C148F4544570AL, 0xA42ED53252EFCF95L,
+        0x8BEB842B074F5DD1L, 0x32D23801E947379AL, 0xF826604C4BD59890L },
+      { 195,
+        0x87C4EF2CBBCFDD4DL, 0xAD4AC30C8BFCE7D2L, 0xFC262A6C8971FEB0L,
+        0xECFE62DF34EF482BL, 0xEBEBA83D09EEEACFL, 0x63000A94498EDB22L,
+        0xFC7272431D341C03L, 0xD5B12D492E9CDB35L, 0x0E71F15E570936D8L },
+      { 222,
+        0x9B2F7CB5305F5869L, 0x39A9658D7BF6B430L, 0x218687E4DA7400DFL,
+        0x0B86A7AA88F0D48AL, 0xBED03F2D25E31676L, 0xDEFACA0E6DC46399L,
+        0x1DC0DB39936B379AL, 0xA2D438B12C813CDCL, 0xE4D1A3011B58E339L },
+      { 403,
+        0xF5A0AD9D017049FCL, 0xF5A0AD9D017049FCL, 0x7750958985795700L,
+        0xD95FAA8A8B0BA1A3L, 0xD95FAA8A8B0BA1A3L, 0xB31A2D760ED2B6C7L,
+        0xBF5A80F9DB3066A0L, 0xBF5A80F9DB3066A0L, 0xE5DD1E61B8FA49A1L },
+      { 512,
+        0x2D76760174F4891CL, 0x2D76760174F4891CL, 0x71E37994202CF027L,
+        0x7EA6CCAD4982EAFAL, 0x7EA6CCAD4982EAFAL, 0xE059100CF7DDA2B9L,
+        0x3CCF26AEF1ACD4DCL, 0x3CCF26AEF1ACD4DCL, 0x4E2E03ED802C3B15L },
+      { 2048,
+        0xDB80523547BE040DL, 0xDB80523547BE040DL, 0x21D4645EA44A3B2BL,
+        0x16D3C9FA02FAB818L, 0x16D3C9FA02FAB818L, 0xF3BC905684B1C843L,
+        0x5F400E1D2158C1A9L, 0x5F400E1D2158C1A9L, 0x34CE27E3F0A6D825L },
+      { 2099,
+        0xAFFC1D4736A05FD0L, 0xAFFC1D4736A05FD0L, 0x42B696D678CC6056L,
+        0x45332213FF68F17BL, 0x45332213FF68F17BL, 0x7A330BD41211DE02L,
+        0xCFBEBC67B5D5C915L, 0xCFBEBC67B5D5C915L, 0x426D072888BEE6EEL },
+      { 2240,
+        0x1D008A88D8EA4077L, 0x1D008A88D8EA4077L, 0xC1D6D4F45CEB1BE2L,
+        0x31F0639A5DF1F1CEL, 0x31F0639A5DF1F1CEL, 0xDA20D01B2E4AF1A5L,
+        0x9E93FC14779E1126L, 0x9E93FC14779E1126L, 0x505CB22D06AD7E1FL },
+      { 2367,
+        0x299A8D0F0D5570DFL, 0x299A8D0F0D5570DFL, 0xAB0DCE07A4F18629L,
+        0xAB375F9787B09258L, 0xAB375F9787B09258L, 0x60139AACEB248C97L,
+        0x7F121905A896EF5EL, 0x7F121905A896EF5EL, 0x588A1D84F62A676CL },
+  };
+
+  private static final long[] SANITY_SEEDS = new long[] { 0, 2654435761L, 0x9E3779B97F4A7C15L };
+
+  static byte[] sanityBuffer(int len) {
+    // buffer of the sanity checks of the xxhsum tool of the reference implementation
+    final byte[] buf = new byte[len];
+    long byteGen = 2654435761L;
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = (byte) (byteGen >>> 56);
+      byteGen *= 0x9E3779B97F4A7C15L;
+    }
+    return buf;
+  }
+
+  @Test
+  public void testEmpty() {
+    final long seed = randomLong();
+    for (XXHash3 xxHash : INSTANCES) {
+      xxHash.hash64(new byte[0], 0, 0, seed);
+      xxHash.hash128(new byte[0], 0, 0, seed);
+    }
+  }
+
+  @Test
+  public void testSanity() {
+    // every length class: 0, 1-3, 4-8, 9-16, 17-128, 129-240, one or several blocks
+    final byte[] buf = sanityBuffer(2367);
+    for (XXHash3 xxHash : INSTANCES) {
+      for (long[] hashes : SANITY_HASHES) {
+        final int len = (int) hashes[0];
+        for (int i = 0; i < SANITY_SEEDS.length; ++i) {
+          final long seed = SANITY_SEEDS[i];
+          final String msg = xxHash + " len=" + len + " seed=" + seed;
+          assertEquals(msg, hashes[1 + 3 * i], xxHash.hash64(buf, 0, len, seed));
+          assertEquals(msg, new Hash128(hashes[2 + 3 * i], hashes[3 + 3 * i]), xxHash.hash128(buf, 0, len, seed));
+        }
+      }
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testAIOOBE() {
+    final long seed = randomLong();
+    final int max = randomBoolean() ? 64 : 1000;
+    final int bufLen = randomIntBetween(1, max);
+    final byte[] buf = new byte[bufLen];
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = randomByte();
+    }
+    final int off = randomInt(buf.length - 1);
+    final int len = randomInt(buf.length - off);
+    for (XXHash3 xxHash : INSTANCES) {
+      xxHash.hash64(buf, off, len, seed);
+      xxHash.hash128(buf, off, len, seed);
+    }
+  }
+
+  @Test
+  public void testOutOfBounds() {
+    final byte[] buf = new byte[16];
+    for (XXHash3 xxHash : INSTANCES) {
+      try {
+        xxHash.hash64(buf, 1, 16, 0);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // ok
+      }
+      try {
+        xxHash.hash128(buf, -1, 4, 0);
+        fail();
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // ok
+      }
+    }
+  }
+
+  @Test
+  @Repeat(iterations=40)
+  public void testInstances() {
+    final int maxLenLog = randomInt(20);
+    final int bufLen = randomBoolean() ? randomInt(300) : randomInt(1 << maxLenLog);
+    byte[] buf = new byte[bufLen];
+    for (int i = 0; i < bufLen; ++i) {
+      buf[i] = randomByte();
+    }
+    final long seed = randomBoolean() ? 0 : randomLong();
+    final int off = randomIntBetween(0, Math.max(0, bufLen - 1));
+    final int len = randomIntBetween(0, bufLen - off);
+
+    final long ref = XXHashFactory.nativeInstance().xxh3().hash64(buf, off, len, seed);
+    final Hash128 ref128 = XXHashFactory.nativeInstance().xxh3().hash128(buf, off, len, seed);
+    for (XXHash3 hash : INSTANCES) {
+      assertEquals(hash.toString(), ref, hash.hash64(buf, off, len, seed));
+      assertEquals(hash.toString(), ref128, hash.hash128(buf, off, len, seed));
+    }
+  }
+
+  @Test
+  public void testChecksum() {
+    final byte[] buf = sanityBuffer(randomIntBetween(0, 5000));
+    final long seed = randomLong();
+    final Checksum checksum = XXHashFactory.fastestInstance().newStreamingXXH3(seed).asChecksum();
+    for (byte b : buf) {
+      checksum.update(b);
+    }
+    assertEquals(XXHashFactory.safeInstance().xxh3().hash64(buf, 0, buf.length, seed), checksum.getValue());
+    checksum.reset();
+    checksum.update(buf, 0, buf.length);
+    assertEquals(XXHashFactory.safeInstance().xxh3().hash64(buf, 0, buf.length, seed), checksum.getValue());
+  }
+
+  @Test
+  public void testHash128() {
+    final Hash128 h = new Hash128(0x0123456789ABCDEFL, 0xFEDCBA9876543210L);
+    assertEquals(0x0123456789ABCDEFL, h.low64());
+    assertEquals(0xFEDCBA9876543210L, h.high64());
+    assertEquals("fedcba98765432100123456789abcdef", h.toString());
+    assertEquals("00000000000000010000000000000002", new Hash128(2, 1).toString());
+    assertEquals(h, new Hash128(0x0123456789ABCDEFL, 0xFEDCBA9876543210L));
+    assertEquals(h.hashCode(), new Hash128(0x0123456789ABCDEFL, 0xFEDCBA9876543210L).hashCode());
+    assertFalse(h.equals(new Hash128(0x0123456789ABCDEFL, 0)));
+  }
+
+}
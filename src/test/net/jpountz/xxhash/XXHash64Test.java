@@ -0,0 +1,281 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import net.jpountz.lz4.LZ4BlockInputStream;
+import net.jpountz.lz4.LZ4BlockOutputStream;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.util.Utils;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+import com.carrotsearch.randomizedtesting.annotations.Repeat;
+
+@RunWith(RandomizedRunner.class)
+public class XXHash64Test extends RandomizedTest {
+
+  private static abstract class StreamingXXHash64Adapter extends XXHash64 {
+
+    protected abstract StreamingXXHash64 streamingHash(long seed);
+
+    @Override
+    public long hash(byte[] buf, int off, int len, long seed) {
+      Utils.checkRange(buf, off, len);
+      int originalOff = off;
+      int remainingPasses = randomInt(5);
+      StreamingXXHash64 h = streamingHash(seed);
+      final int end = off + len;
+      while (off < end) {
+        final int l = randomIntBetween(off, end) - off;
+        h.update(buf, off, l);
+        off += l;
+        if (remainingPasses > 0 && randomInt(5) == 0) {
+          h.reset();
+          --remainingPasses;
+          off = originalOff;
+        }
+        if (randomBoolean()) {
+          h.getValue();
+        }
+      }
+      return h.getValue();
+    }
+
+    public String toString() {
+      return streamingHash(0).toString();
+    }
+
+  }
+
+  private static XXHash64[] INSTANCES = new XXHash64[] {
+    XXHashFactory.nativeInstance().hash64(),
+    XXHashFactory.unsafeInstance().hash64(),
+    XXHashFactory.safeInstance().hash64(),
+    new StreamingXXHash64Adapter() {
+      protected StreamingXXHash64 streamingHash(long seed) {
+        return XXHashFactory.nativeInstance().newStreamingHash64(seed);
+      }
+    },
+    new StreamingXXHash64Adapter() {
+      protected StreamingXXHash64 streamingHash(long seed) {
+        return XXHashFactory.unsafeInstance().newStreamingHash64(seed);
+      }
+    },
+    new StreamingXXHash64Adapter() {
+      protected StreamingXXHash64 streamingHash(long seed) {
+        return XXHashFactory.safeInstance().newStreamingHash64(seed);
+      }
+    }
+  };
+
+  @Test
+  public void testEmpty() {
+    final long seed = randomLong();
+    for (XXHash64 xxHash : INSTANCES) {
+      xxHash.hash(new byte[0], 0, 0, seed);
+    }
+  }
+
+  @Test
+  public void testSanity() {
+    // sanity checks of the xxhsum tool of the reference implementation
+    final byte[] buf = new byte[101];
+    int byteGen = -1640531535; // 2654435761
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = (byte) (byteGen >>> 24);
+      byteGen *= byteGen;
+    }
+    final long prime = 2654435761L;
+    for (XXHash64 xxHash : INSTANCES) {
+      assertEquals(xxHash.toString(), 0xEF46DB3751D8E999L, xxHash.hash(buf, 0, 0, 0));
+      assertEquals(xxHash.toString(), 0xAC75FDA2929B17EFL, xxHash.hash(buf, 0, 0, prime));
+      assertEquals(xxHash.toString(), 0x4FCE394CC88952D8L, xxHash.hash(buf, 0, 1, 0));
+      assertEquals(xxHash.toString(), 0x739840CB819FA723L, xxHash.hash(buf, 0, 1, prime));
+      assertEquals(xxHash.toString(), 0xCFFA8DB881BC3A3DL, xxHash.hash(buf, 0, 14, 0));
+      assertEquals(xxHash.toString(), 0x5B9611585EFCC9CBL, xxHash.hash(buf, 0, 14, prime));
+      assertEquals(xxHash.toString(), 0x0EAB543384F878ADL, xxHash.hash(buf, 0, 101, 0));
+      assertEquals(xxHash.toString(), 0xCAA65939306F1E21L, xxHash.hash(buf, 0, 101, prime));
+    }
+  }
+
+  @Test
+  @Repeat(iterations = 20)
+  public void testAIOOBE() {
+    final long seed = randomLong();
+    final int max = randomBoolean() ? 64 : 1000;
+    final int bufLen = randomIntBetween(1, max);
+    final byte[] buf = new byte[bufLen];
+    for (int i = 0; i < buf.length; ++i) {
+      buf[i] = randomByte();
+    }
+    final int off = randomInt(buf.length - 1);
+    final int len = randomInt(buf.length - off);
+    for (XXHash64 xxHash : INSTANCES) {
+      xxHash.hash(buf, off, len, seed);
+    }
+  }
+
+  @Test
+  @Repeat(iterations=40)
+  public void testInstances() {
+    final int maxLenLog = randomInt(20);
+    final int bufLen = randomInt(1 << maxLenLog);
+    byte[] buf = new byte[bufLen];
+    for (int i = 0; i < bufLen; ++i) {
+      buf[i] = randomByte();
+    }
+    final long seed = randomLong();
+    final int off = randomIntBetween(0, Math.max(0, bufLen - 1));
+    final int len = randomIntBetween(0, bufLen - off);
+
+    final long ref = XXHashFactory.nativeInstance().hash64().hash(buf, off, len, seed);
+    for (XXHash64 hash : INSTANCES) {
+      final long h = hash.hash(buf, off, len, seed);
+      assertEquals(hash.toString(), ref, h);
+    }
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testBatch() {
+    final byte[][] inputs = new byte[randomInt(200)][];
+    for (int i = 0; i < inputs.length; ++i) {
+      inputs[i] = new byte[randomBoolean() ? randomInt(200) : randomInt(5000)];
+      for (int j = 0; j < inputs[i].length; ++j) {
+        inputs[i][j] = randomByte();
+      }
+    }
+    final long seed = randomLong();
+    for (XXHash64 hash : INSTANCES) {
+      final long[] out = new long[inputs.length];
+      hash.hashBatch(inputs, seed, out);
+      for (int i = 0; i < inputs.length; ++i) {
+        assertEquals(hash.toString() + " " + i, hash.hash(inputs[i], 0, inputs[i].length, seed), out[i]);
+      }
+    }
+  }
+
+  private static byte[] littleEndian(long value, int len) {
+    final byte[] bytes = new byte[len];
+    for (int i = 0; i < len; ++i) {
+      bytes[i] = (byte) (value >>> (8 * i));
+    }
+    return bytes;
+  }
+
+  private static CharSequence randomChars(int maxChar) {
+    final StringBuilder chars = new StringBuilder();
+    final int len = randomBoolean() ? randomInt(40) : randomInt(1000);
+    for (int i = 0; i < len; ++i) {
+      chars.append((char) randomInt(maxChar));
+    }
+    return randomBoolean() ? chars.toString() : chars;
+  }
+
+  private static byte[] utf16LE(CharSequence chars) {
+    final byte[] bytes = new byte[2 * chars.length()];
+    for (int i = 0; i < chars.length(); ++i) {
+      bytes[2 * i] = (byte) chars.charAt(i);
+      bytes[2 * i + 1] = (byte) (chars.charAt(i) >>> 8);
+    }
+    return bytes;
+  }
+
+  private static byte[] latin1(CharSequence chars) {
+    final byte[] bytes = new byte[chars.length()];
+    for (int i = 0; i < chars.length(); ++i) {
+      bytes[i] = (byte) chars.charAt(i);
+    }
+    return bytes;
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testPrimitives() {
+    final long seed = randomLong();
+    final int i = randomInt();
+    final long l = randomLong();
+    // chars include unpaired surrogates; Latin-1 ones only their low byte
+    final CharSequence chars = randomChars(Character.MAX_VALUE + 1);
+    final CharSequence latin1Chars = randomChars(randomBoolean() ? 0x100 : Character.MAX_VALUE + 1);
+    for (XXHash64 hash : INSTANCES) {
+      assertEquals(hash.toString(), hash.hash(littleEndian(i, 4), 0, 4, seed), hash.hashInt(i, seed));
+      assertEquals(hash.toString(), hash.hash(littleEndian(l, 8), 0, 8, seed), hash.hashLong(l, seed));
+      final byte[] utf16 = utf16LE(chars);
+      assertEquals(hash.toString(), hash.hash(utf16, 0, utf16.length, seed), hash.hashChars(chars, seed));
+      final byte[] latin1 = latin1(latin1Chars);
+      assertEquals(hash.toString(), hash.hash(latin1, 0, latin1.length, seed), hash.hashLatin1(latin1Chars, seed));
+    }
+  }
+
+  @Test
+  public void test4GB() {
+    byte[] bytes = new byte[randomIntBetween(1 << 22, 1 << 26)];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = randomByte();
+    }
+    final int off = randomInt(5);
+    final int len = randomIntBetween(bytes.length - off - 1024, bytes.length - off);
+    long totalLen = 0;
+    final long seed = randomLong();
+    StreamingXXHash64 hash1 = XXHashFactory.nativeInstance().newStreamingHash64(seed);
+    StreamingXXHash64 hash2 = XXHashFactory.unsafeInstance().newStreamingHash64(seed);
+    StreamingXXHash64 hash3 = XXHashFactory.safeInstance().newStreamingHash64(seed);
+    while (totalLen < (1L << 33)) {
+      hash1.update(bytes, off, len);
+      hash2.update(bytes, off, len);
+      hash3.update(bytes, off, len);
+      assertEquals(hash2.toString() + " " + totalLen, hash1.getValue(), hash2.getValue());
+      assertEquals(hash3.toString() + " " + totalLen, hash1.getValue(), hash3.getValue());
+      totalLen += len;
+    }
+  }
+
+  @Test
+  public void testBlockChecksum() throws IOException {
+    final byte[] data = new byte[randomIntBetween(0, 1 << 17)];
+    for (int i = 0; i < data.length; ++i) {
+      data[i] = (byte) randomInt(3);
+    }
+    final long seed = randomLong();
+    final ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    final LZ4BlockOutputStream out = new LZ4BlockOutputStream(compressed, 1 << 12,
+        LZ4Factory.fastestInstance().fastCompressor(),
+        XXHashFactory.fastestInstance().newStreamingHash64(seed).asChecksum(), false);
+    out.write(data);
+    out.close();
+
+    final LZ4BlockInputStream in = new LZ4BlockInputStream(new ByteArrayInputStream(compressed.toByteArray()),
+        LZ4Factory.fastestInstance().fastDecompressor(),
+        XXHashFactory.safeInstance().newStreamingHash64(seed).asChecksum());
+    final byte[] restored = new byte[data.length + 1];
+    int off = 0;
+    for (int read; (read = in.read(restored, off, restored.length - off)) > 0; ) {
+      off += read;
+    }
+    in.close();
+    assertEquals(data.length, off);
+    assertArrayEquals(data, Arrays.copyOf(restored, off));
+  }
+
+}
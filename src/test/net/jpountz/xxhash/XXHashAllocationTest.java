@@ -0,0 +1,196 @@
+package net.jpountz.xxhash;
+
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import static net.jpountz.util.Allocations.assertAllocatesAtMost;
+import static net.jpountz.util.Allocations.assertAllocationFree;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Checksum;
+
+import net.jpountz.util.Allocations;
+import net.jpountz.util.Allocations.Operation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import com.carrotsearch.randomizedtesting.RandomizedRunner;
+import com.carrotsearch.randomizedtesting.RandomizedTest;
+
+/**
+ * Per-call allocations of hashes: the 32 and 64-bits hashes are
+ * allocation-free, except for the safe instance on direct buffers that reads
+ * them through a duplicate, and the Java XXH3 implementations allocate their
+ * accumulators.
+ */
+@RunWith(RandomizedRunner.class)
+public class XXHashAllocationTest extends RandomizedTest {
+
+  private static final int LEN = 4096;
+
+  // a duplicate of the buffer in little-endian order
+  private static final long DUPLICATE = 128;
+  // the 8 accumulators of XXH3, twice for streaming which also keeps them
+  // between calls, and the Hash128 result
+  private static final long ACCUMULATORS = 128;
+
+  private byte[] bytes;
+  private ByteBuffer heapBuf, directBuf;
+
+  @Before
+  public void setUp() {
+    assumeTrue("allocations cannot be counted on this JVM", Allocations.isSupported());
+    bytes = new byte[LEN];
+    getRandom().nextBytes(bytes);
+    heapBuf = ByteBuffer.wrap(bytes);
+    directBuf = ByteBuffer.allocateDirect(LEN);
+    directBuf.put(bytes).clear();
+  }
+
+  private static XXHashFactory[] factories() {
+    return new XXHashFactory[] {
+        XXHashFactory.nativeInstance(), XXHashFactory.unsafeInstance(), XXHashFactory.safeInstance() };
+  }
+
+  private static void check(String name, long budget, Operation op) throws Exception {
+    if (budget == 0) {
+      assertAllocationFree(name, op);
+    } else {
+      assertAllocatesAtMost(name, budget, op);
+    }
+  }
+
+  @Test
+  public void testHash32() throws Exception {
+    for (XXHashFactory factory : factories()) {
+      final XXHash32 hash = factory.hash32();
+      assertAllocationFree(hash + " on arrays", new Operation() {
+        @Override
+        public void run() {
+          hash.hash(bytes, 0, LEN, 0);
+        }
+      });
+      assertAllocationFree(hash + " on heap buffers", new Operation() {
+        @Override
+        public void run() {
+          hash.hash(heapBuf, 0, LEN, 0);
+        }
+      });
+      check(hash + " on direct buffers", factory == XXHashFactory.safeInstance() ? DUPLICATE : 0, new Operation() {
+        @Override
+        public void run() {
+          hash.hash(directBuf, 0, LEN, 0);
+        }
+      });
+      assertAllocationFree(hash + " on primitives", new Operation() {
+        @Override
+        public void run() {
+          hash.hashInt(42, 0);
+          hash.hashLong(42L, 0);
+          hash.hashChars("allocation-free", 0);
+          hash.hashLatin1("allocation-free", 0);
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testHash64() throws Exception {
+    for (XXHashFactory factory : factories()) {
+      final XXHash64 hash = factory.hash64();
+      assertAllocationFree(hash + " on arrays", new Operation() {
+        @Override
+        public void run() {
+          hash.hash(bytes, 0, LEN, 0);
+        }
+      });
+      assertAllocationFree(hash + " on primitives", new Operation() {
+        @Override
+        public void run() {
+          hash.hashInt(42, 0);
+          hash.hashLong(42L, 0);
+          hash.hashChars("allocation-free", 0);
+          hash.hashLatin1("allocation-free", 0);
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testStreamingHashes() throws Exception {
+    for (XXHashFactory factory : factories()) {
+      final StreamingXXHash32 hash32 = factory.newStreamingHash32(0);
+      assertAllocationFree(hash32.toString(), new Operation() {
+        @Override
+        public void run() {
+          hash32.reset();
+          hash32.update(bytes, 0, LEN);
+          hash32.getValue();
+        }
+      });
+      final StreamingXXHash64 hash64 = factory.newStreamingHash64(0);
+      assertAllocationFree(hash64.toString(), new Operation() {
+        @Override
+        public void run() {
+          hash64.reset();
+          hash64.update(bytes, 0, LEN);
+          hash64.getValue();
+        }
+      });
+      // update(int) wraps the byte in a new array
+      final Checksum checksum = factory.newStreamingHash32(0).asChecksum();
+      assertAllocationFree(checksum.toString(), new Operation() {
+        @Override
+        public void run() {
+          checksum.reset();
+          checksum.update(bytes, 0, LEN);
+          checksum.getValue();
+        }
+      });
+    }
+  }
+
+  @Test
+  public void testXXH3() throws Exception {
+    for (XXHashFactory factory : factories()) {
+      final boolean java = factory != XXHashFactory.nativeInstance();
+      final XXHash3 hash = factory.xxh3();
+      check(hash + " 64-bits", java ? ACCUMULATORS : 0, new Operation() {
+        @Override
+        public void run() {
+          hash.hash64(bytes, 0, LEN, 0);
+        }
+      });
+      // the result is a new object
+      assertAllocatesAtMost(hash + " 128-bits", ACCUMULATORS, new Operation() {
+        @Override
+        public void run() {
+          hash.hash128(bytes, 0, LEN, 0);
+        }
+      });
+      final StreamingXXHash3 streaming = factory.newStreamingXXH3(0);
+      check(streaming.toString(), java ? 2 * ACCUMULATORS : 0, new Operation() {
+        @Override
+        public void run() {
+          streaming.reset();
+          streaming.update(bytes, 0, LEN);
+          streaming.getValue();
+        }
+      });
+    }
+  }
+
+}
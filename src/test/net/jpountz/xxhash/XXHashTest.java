@@ -14,6 +14,10 @@ package net.jpountz.xxhash;
  * limitations under the License.
  */
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import net.jpountz.util.ByteBufferUtils;
 import net.jpountz.util.Utils;
 
 import org.junit.Test;
@@ -53,6 +57,19 @@ public class XXHashTest extends RandomizedTest {
       return h.getValue();
     }
 
+    @Override
+    public int hash(ByteBuffer buf, int off, int len, int seed) {
+      ByteBufferUtils.checkRange(buf, off, len);
+      StreamingXXHash32 h = streamingHash(seed);
+      final int end = off + len;
+      while (off < end) {
+        final int l = randomIntBetween(off, end) - off;
+        h.update(buf, off, l);
+        off += l;
+      }
+      return h.getValue();
+    }
+
     public String toString() {
       return streamingHash(0).toString();
     }
@@ -125,6 +142,166 @@ public class XXHashTest extends RandomizedTest {
     }
   }
 
+  private ByteBuffer randomBuffer(byte[] bytes) {
+    final int padding = randomInt(3);
+    ByteBuffer buf;
+    if (randomBoolean()) {
+      buf = ByteBuffer.allocateDirect(padding + bytes.length);
+    } else {
+      buf = ByteBuffer.allocate(padding + bytes.length);
+    }
+    buf.position(padding);
+    buf = buf.slice();
+    buf.put(bytes).clear();
+    if (randomBoolean()) {
+      buf = buf.asReadOnlyBuffer();
+    }
+    return buf.order(randomBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Test
+  @Repeat(iterations=40)
+  public void testByteBuffer() {
+    final int maxLenLog = randomInt(16);
+    final int bufLen = randomInt(1 << maxLenLog);
+    byte[] bytes = new byte[bufLen];
+    for (int i = 0; i < bufLen; ++i) {
+      bytes[i] = randomByte();
+    }
+    final int seed = randomInt();
+    final int off = randomIntBetween(0, Math.max(0, bufLen - 1));
+    final int len = randomIntBetween(0, bufLen - off);
+
+    final int ref = XXHashFactory.nativeInstance().hash32().hash(bytes, off, len, seed);
+    final ByteBuffer buf = randomBuffer(bytes);
+    final int position = randomInt(bufLen);
+    buf.position(position);
+    for (XXHash32 hash : INSTANCES) {
+      final int h = hash.hash(buf, off, len, seed);
+      assertEquals(hash.toString() + " " + buf, ref, h);
+      assertEquals(position, buf.position());
+      assertEquals(bufLen, buf.limit());
+    }
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testBatch() {
+    // more inputs than the JNI chunk, with lengths on both sides of the ones
+    // that are hashed in lockstep
+    final byte[][] inputs = new byte[randomInt(200)][];
+    final ByteBuffer[] buffers = new ByteBuffer[inputs.length];
+    for (int i = 0; i < inputs.length; ++i) {
+      inputs[i] = new byte[randomBoolean() ? randomInt(200) : randomInt(5000)];
+      for (int j = 0; j < inputs[i].length; ++j) {
+        inputs[i][j] = randomByte();
+      }
+      buffers[i] = randomBuffer(inputs[i]);
+    }
+    final int seed = randomInt();
+    for (XXHash32 hash : INSTANCES) {
+      final int[] out = new int[inputs.length + randomInt(2)];
+      hash.hashBatch(inputs, seed, out);
+      final int[] outBuffers = new int[inputs.length];
+      hash.hashBatch(buffers, seed, outBuffers);
+      for (int i = 0; i < inputs.length; ++i) {
+        final int ref = hash.hash(inputs[i], 0, inputs[i].length, seed);
+        assertEquals(hash.toString() + " " + i, ref, out[i]);
+        assertEquals(hash.toString() + " " + i, ref, outBuffers[i]);
+        assertEquals(0, buffers[i].position());
+      }
+    }
+  }
+
+  @Test
+  public void testBatchOutTooSmall() {
+    final byte[][] inputs = new byte[randomIntBetween(1, 10)][];
+    for (int i = 0; i < inputs.length; ++i) {
+      inputs[i] = new byte[randomInt(100)];
+    }
+    for (XXHash32 hash : INSTANCES) {
+      try {
+        hash.hashBatch(inputs, 0, new int[inputs.length - 1]);
+        fail();
+      } catch (IllegalArgumentException e) {
+        // OK
+      }
+    }
+  }
+
+  private static byte[] littleEndian(long value, int len) {
+    final byte[] bytes = new byte[len];
+    for (int i = 0; i < len; ++i) {
+      bytes[i] = (byte) (value >>> (8 * i));
+    }
+    return bytes;
+  }
+
+  private static CharSequence randomChars(int maxChar) {
+    final StringBuilder chars = new StringBuilder();
+    final int len = randomBoolean() ? randomInt(40) : randomInt(1000);
+    for (int i = 0; i < len; ++i) {
+      chars.append((char) randomInt(maxChar));
+    }
+    return randomBoolean() ? chars.toString() : chars;
+  }
+
+  private static byte[] utf16LE(CharSequence chars) {
+    final byte[] bytes = new byte[2 * chars.length()];
+    for (int i = 0; i < chars.length(); ++i) {
+      bytes[2 * i] = (byte) chars.charAt(i);
+      bytes[2 * i + 1] = (byte) (chars.charAt(i) >>> 8);
+    }
+    return bytes;
+  }
+
+  private static byte[] latin1(CharSequence chars) {
+    final byte[] bytes = new byte[chars.length()];
+    for (int i = 0; i < chars.length(); ++i) {
+      bytes[i] = (byte) chars.charAt(i);
+    }
+    return bytes;
+  }
+
+  @Test
+  @Repeat(iterations=20)
+  public void testPrimitives() {
+    final int seed = randomInt();
+    final int i = randomInt();
+    final long l = randomLong();
+    // chars include unpaired surrogates; Latin-1 ones only their low byte
+    final CharSequence chars = randomChars(Character.MAX_VALUE + 1);
+    final CharSequence latin1Chars = randomChars(randomBoolean() ? 0x100 : Character.MAX_VALUE + 1);
+    for (XXHash32 hash : INSTANCES) {
+      assertEquals(hash.toString(), hash.hash(littleEndian(i, 4), 0, 4, seed), hash.hashInt(i, seed));
+      assertEquals(hash.toString(), hash.hash(littleEndian(l, 8), 0, 8, seed), hash.hashLong(l, seed));
+      final byte[] utf16 = utf16LE(chars);
+      assertEquals(hash.toString(), hash.hash(utf16, 0, utf16.length, seed), hash.hashChars(chars, seed));
+      final byte[] latin1 = latin1(latin1Chars);
+      assertEquals(hash.toString(), hash.hash(latin1, 0, latin1.length, seed), hash.hashLatin1(latin1Chars, seed));
+    }
+  }
+
+  @Test
+  public void testStreamingAcrossGCs() {
+    // the JNI state is a Java array which the GC may move between calls
+    final byte[] bytes = new byte[randomIntBetween(100, 1000)];
+    for (int i = 0; i < bytes.length; ++i) {
+      bytes[i] = randomByte();
+    }
+    final int seed = randomInt();
+    final int ref = XXHashFactory.safeInstance().hash32().hash(bytes, 0, bytes.length, seed);
+    final StreamingXXHash32 h = XXHashFactory.nativeInstance().newStreamingHash32(seed);
+    int off = 0;
+    while (off < bytes.length) {
+      final int l = randomIntBetween(0, bytes.length - off);
+      h.update(bytes, off, l);
+      off += l;
+      System.gc();
+    }
+    assertEquals(ref, h.getValue());
+  }
+
   @Test
   public void test4GB() {
     byte[] bytes = new byte[randomIntBetween(1 << 22, 1 << 26)];
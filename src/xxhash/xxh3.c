@@ -0,0 +1,703 @@
+/*
+XXH3 - 64 and 128-bits hash functions
+Portable scalar implementation of XXH3 from xxHash 0.8,
+Copyright (C) 2019-2020, Yann Collet.
+BSD 2-Clause License (http://www.opensource.org/licenses/bsd-license.php)
+
+Redistribution and use in source and binary forms, with or without
+modification, are permitted provided that the following conditions are
+met:
+
+* Redistributions of source code must retain the above copyright
+notice, this list of conditions and the following disclaimer.
+* Redistributions in binary form must reproduce the above
+copyright notice, this list of conditions and the following disclaimer
+in the documentation and/or other materials provided with the
+distribution.
+
+THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+"AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+(INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+You can contact the author at :
+- xxHash source repository : https://github.com/Cyan4973/xxHash
+*/
+
+
+//**************************************
+// Compiler Specific Options
+//**************************************
+#ifdef _MSC_VER    // Visual Studio
+#  define FORCE_INLINE static __forceinline
+#else
+#  ifdef __GNUC__
+#    define FORCE_INLINE static inline __attribute__((always_inline))
+#  else
+#    define FORCE_INLINE static inline
+#  endif
+#endif
+
+
+//**************************************
+// Includes
+//**************************************
+#include <stdlib.h>
+#include <string.h>
+#include "xxh3.h"
+
+
+//**************************************
+// Basic Types
+//**************************************
+#if defined (__STDC_VERSION__) && __STDC_VERSION__ >= 199901L   // C99
+# include <stdint.h>
+  typedef uint8_t  BYTE;
+  typedef uint32_t U32;
+  typedef uint64_t U64;
+#else
+  typedef unsigned char      BYTE;
+  typedef unsigned int       U32;
+  typedef unsigned long long U64;
+#endif
+
+
+//**************************************
+// Memory reads
+//**************************************
+// memcpy() is turned into a single load by compilers, whatever the alignment
+static const int one = 1;
+#define XXH_CPU_LITTLE_ENDIAN (*(const char*)(&one))
+
+#if defined(_MSC_VER)
+#  define XXH_swap32 _byteswap_ulong
+#  define XXH_swap64 _byteswap_uint64
+#  define XXH_rotl32(x,r) _rotl(x,r)
+#  define XXH_rotl64(x,r) _rotl64(x,r)
+#else
+#  define XXH_swap32 __builtin_bswap32
+#  define XXH_swap64 __builtin_bswap64
+#  define XXH_rotl32(x,r) (((x) << (r)) | ((x) >> (32 - (r))))
+#  define XXH_rotl64(x,r) (((x) << (r)) | ((x) >> (64 - (r))))
+#endif
+
+FORCE_INLINE U32 XXH_readLE32(const void* ptr)
+{
+    U32 v;
+    memcpy(&v, ptr, sizeof(v));
+    return XXH_CPU_LITTLE_ENDIAN ? v : XXH_swap32(v);
+}
+
+FORCE_INLINE U64 XXH_readLE64(const void* ptr)
+{
+    U64 v;
+    memcpy(&v, ptr, sizeof(v));
+    return XXH_CPU_LITTLE_ENDIAN ? v : XXH_swap64(v);
+}
+
+FORCE_INLINE void XXH_writeLE64(void* dst, U64 v)
+{
+    if (!XXH_CPU_LITTLE_ENDIAN) v = XXH_swap64(v);
+    memcpy(dst, &v, sizeof(v));
+}
+
+
+//**************************************
+// Constants
+//**************************************
+#define PRIME32_1 0x9E3779B1U
+#define PRIME32_2 0x85EBCA77U
+#define PRIME32_3 0xC2B2AE3DU
+
+#define PRIME64_1 0x9E3779B185EBCA87ULL
+#define PRIME64_2 0xC2B2AE3D27D4EB4FULL
+#define PRIME64_3 0x165667B19E3779F9ULL
+#define PRIME64_4 0x85EBCA77C2B2AE63ULL
+#define PRIME64_5 0x27D4EB2F165667C5ULL
+
+#define PRIME_MX1 0x165667919E3779F9ULL
+#define PRIME_MX2 0x9FB21C651E98DF25ULL
+
+#define SECRET_SIZE          192
+#define SECRET_SIZE_MIN      136
+#define STRIPE_LEN            64
+#define SECRET_CONSUME_RATE    8
+#define ACC_NB                 8
+#define STRIPES_PER_BLOCK    ((SECRET_SIZE - STRIPE_LEN) / SECRET_CONSUME_RATE)
+#define BLOCK_LEN            (STRIPE_LEN * STRIPES_PER_BLOCK)
+#define SECRET_LASTACC_START   7
+#define SECRET_MERGEACCS_START 11
+#define MIDSIZE_MAX          240
+#define MIDSIZE_STARTOFFSET    3
+#define MIDSIZE_LASTOFFSET    17
+#define INTERNALBUFFER_SIZE  256
+
+static const BYTE kSecret[SECRET_SIZE] = {
+    0xb8, 0xfe, 0x6c, 0x39, 0x23, 0xa4, 0x4b, 0xbe, 0x7c, 0x01, 0x81, 0x2c, 0xf7, 0x21, 0xad, 0x1c,
+    0xde, 0xd4, 0x6d, 0xe9, 0x83, 0x90, 0x97, 0xdb, 0x72, 0x40, 0xa4, 0xa4, 0xb7, 0xb3, 0x67, 0x1f,
+    0xcb, 0x79, 0xe6, 0x4e, 0xcc, 0xc0, 0xe5, 0x78, 0x82, 0x5a, 0xd0, 0x7d, 0xcc, 0xff, 0x72, 0x21,
+    0xb8, 0x08, 0x46, 0x74, 0xf7, 0x43, 0x24, 0x8e, 0xe0, 0x35, 0x90, 0xe6, 0x81, 0x3a, 0x26, 0x4c,
+    0x3c, 0x28, 0x52, 0xbb, 0x91, 0xc3, 0x00, 0xcb, 0x88, 0xd0, 0x65, 0x8b, 0x1b, 0x53, 0x2e, 0xa3,
+    0x71, 0x64, 0x48, 0x97, 0xa2, 0x0d, 0xf9, 0x4e, 0x38, 0x19, 0xef, 0x46, 0xa9, 0xde, 0xac, 0xd8,
+    0xa8, 0xfa, 0x76, 0x3f, 0xe3, 0x9c, 0x34, 0x3f, 0xf9, 0xdc, 0xbb, 0xc7, 0xc7, 0x0b, 0x4f, 0x1d,
+    0x8a, 0x51, 0xe0, 0x4b, 0xcd, 0xb4, 0x59, 0x31, 0xc8, 0x9f, 0x7e, 0xc9, 0xd9, 0x78, 0x73, 0x64,
+    0xea, 0xc5, 0xac, 0x83, 0x34, 0xd3, 0xeb, 0xc3, 0xc5, 0x81, 0xa0, 0xff, 0xfa, 0x13, 0x63, 0xeb,
+    0x17, 0x0d, 0xdd, 0x51, 0xb7, 0xf0, 0xda, 0x49, 0xd3, 0x16, 0x55, 0x26, 0x29, 0xd4, 0x68, 0x9e,
+    0x2b, 0x16, 0xbe, 0x58, 0x7d, 0x47, 0xa1, 0xfc, 0x8f, 0xf8, 0xb8, 0xd1, 0x7a, 0xd0, 0x31, 0xce,
+    0x45, 0xcb, 0x3a, 0x8f, 0x95, 0x16, 0x04, 0x28, 0xaf, 0xd7, 0xfb, 0xca, 0xbb, 0x4b, 0x40, 0x7e,
+};
+
+
+//**************************************
+// Arithmetic
+//**************************************
+#if defined(__SIZEOF_INT128__)
+FORCE_INLINE XXH128_hash_t XXH_mult64to128(U64 lhs, U64 rhs)
+{
+    __uint128_t const product = (__uint128_t)lhs * (__uint128_t)rhs;
+    XXH128_hash_t r128;
+    r128.low64  = (U64)product;
+    r128.high64 = (U64)(product >> 64);
+    return r128;
+}
+#else
+FORCE_INLINE XXH128_hash_t XXH_mult64to128(U64 lhs, U64 rhs)
+{
+    U64 const lo_lo = (U64)(U32)lhs * (U32)rhs;
+    U64 const hi_lo = (lhs >> 32) * (U32)rhs;
+    U64 const lo_hi = (U64)(U32)lhs * (rhs >> 32);
+    U64 const hi_hi = (lhs >> 32) * (rhs >> 32);
+    U64 const cross = (lo_lo >> 32) + (hi_lo & 0xFFFFFFFF) + lo_hi;
+    XXH128_hash_t r128;
+    r128.low64  = (cross << 32) | (lo_lo & 0xFFFFFFFF);
+    r128.high64 = (hi_lo >> 32) + (cross >> 32) + hi_hi;
+    return r128;
+}
+#endif
+
+FORCE_INLINE U64 XXH3_mul128_fold64(U64 lhs, U64 rhs)
+{
+    XXH128_hash_t const product = XXH_mult64to128(lhs, rhs);
+    return product.low64 ^ product.high64;
+}
+
+FORCE_INLINE U64 XXH64_avalanche(U64 h64)
+{
+    h64 ^= h64 >> 33;
+    h64 *= PRIME64_2;
+    h64 ^= h64 >> 29;
+    h64 *= PRIME64_3;
+    h64 ^= h64 >> 32;
+    return h64;
+}
+
+FORCE_INLINE U64 XXH3_avalanche(U64 h64)
+{
+    h64 ^= h64 >> 37;
+    h64 *= PRIME_MX1;
+    h64 ^= h64 >> 32;
+    return h64;
+}
+
+FORCE_INLINE U64 XXH3_rrmxmx(U64 h64, U64 len)
+{
+    h64 ^= XXH_rotl64(h64, 49) ^ XXH_rotl64(h64, 24);
+    h64 *= PRIME_MX2;
+    h64 ^= (h64 >> 35) + len;
+    h64 *= PRIME_MX2;
+    h64 ^= h64 >> 28;
+    return h64;
+}
+
+FORCE_INLINE U64 XXH3_mix16B(const BYTE* input, const BYTE* secret, U64 seed)
+{
+    U64 const input_lo = XXH_readLE64(input);
+    U64 const input_hi = XXH_readLE64(input + 8);
+    return XXH3_mul128_fold64(
+        input_lo ^ (XXH_readLE64(secret) + seed),
+        input_hi ^ (XXH_readLE64(secret + 8) - seed));
+}
+
+FORCE_INLINE XXH128_hash_t XXH128_mix32B(XXH128_hash_t acc, const BYTE* input_1, const BYTE* input_2, const BYTE* secret, U64 seed)
+{
+    acc.low64  += XXH3_mix16B(input_1, secret, seed);
+    acc.low64  ^= XXH_readLE64(input_2) + XXH_readLE64(input_2 + 8);
+    acc.high64 += XXH3_mix16B(input_2, secret + 16, seed);
+    acc.high64 ^= XXH_readLE64(input_1) + XXH_readLE64(input_1 + 8);
+    return acc;
+}
+
+
+//**************************************
+// Long inputs
+//**************************************
+FORCE_INLINE void XXH3_accumulate_512(U64* acc, const BYTE* input, const BYTE* secret)
+{
+    int i;
+    for (i = 0; i < ACC_NB; i++) {
+        U64 const data_val = XXH_readLE64(input + 8 * i);
+        U64 const data_key = data_val ^ XXH_readLE64(secret + 8 * i);
+        acc[i ^ 1] += data_val;
+        acc[i] += (U64)(U32)data_key * (data_key >> 32);
+    }
+}
+
+FORCE_INLINE void XXH3_scramble(U64* acc, const BYTE* secret)
+{
+    int i;
+    for (i = 0; i < ACC_NB; i++) {
+        U64 acc64 = acc[i];
+        acc64 ^= acc64 >> 47;
+        acc64 ^= XXH_readLE64(secret + 8 * i);
+        acc64 *= PRIME32_1;
+        acc[i] = acc64;
+    }
+}
+
+FORCE_INLINE void XXH3_accumulate(U64* acc, const BYTE* input, const BYTE* secret, size_t nbStripes)
+{
+    size_t n;
+    for (n = 0; n < nbStripes; n++) {
+        XXH3_accumulate_512(acc, input + n * STRIPE_LEN, secret + n * SECRET_CONSUME_RATE);
+    }
+}
+
+static void XXH3_initAcc(U64* acc)
+{
+    acc[0] = PRIME32_3;
+    acc[1] = PRIME64_1;
+    acc[2] = PRIME64_2;
+    acc[3] = PRIME64_3;
+    acc[4] = PRIME64_4;
+    acc[5] = PRIME32_2;
+    acc[6] = PRIME64_5;
+    acc[7] = PRIME32_1;
+}
+
+static void XXH3_hashLong_internal_loop(U64* acc, const BYTE* input, size_t len, const BYTE* secret)
+{
+    size_t const nb_blocks = (len - 1) / BLOCK_LEN;
+    size_t n;
+
+    for (n = 0; n < nb_blocks; n++) {
+        XXH3_accumulate(acc, input + n * BLOCK_LEN, secret, STRIPES_PER_BLOCK);
+        XXH3_scramble(acc, secret + SECRET_SIZE - STRIPE_LEN);
+    }
+
+    {   // last partial block
+        size_t const nbStripes = ((len - 1) - (BLOCK_LEN * nb_blocks)) / STRIPE_LEN;
+        XXH3_accumulate(acc, input + nb_blocks * BLOCK_LEN, secret, nbStripes);
+        // last stripe
+        XXH3_accumulate_512(acc, input + len - STRIPE_LEN, secret + SECRET_SIZE - STRIPE_LEN - SECRET_LASTACC_START);
+    }
+}
+
+static U64 XXH3_mergeAccs(const U64* acc, const BYTE* secret, U64 start)
+{
+    U64 result64 = start;
+    int i;
+    for (i = 0; i < 4; i++) {
+        result64 += XXH3_mul128_fold64(
+            acc[2 * i] ^ XXH_readLE64(secret + 16 * i),
+            acc[2 * i + 1] ^ XXH_readLE64(secret + 16 * i + 8));
+    }
+    return XXH3_avalanche(result64);
+}
+
+static void XXH3_initCustomSecret(BYTE* customSecret, U64 seed)
+{
+    int i;
+    for (i = 0; i < SECRET_SIZE / 16; i++) {
+        XXH_writeLE64(customSecret + 16 * i,     XXH_readLE64(kSecret + 16 * i)     + seed);
+        XXH_writeLE64(customSecret + 16 * i + 8, XXH_readLE64(kSecret + 16 * i + 8) - seed);
+    }
+}
+
+
+//**************************************
+// 64-bits hash
+//**************************************
+FORCE_INLINE U64 XXH3_len_1to3_64b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    BYTE const c1 = input[0];
+    BYTE const c2 = input[len >> 1];
+    BYTE const c3 = input[len - 1];
+    U32 const combined = ((U32)c1 << 16) | ((U32)c2 << 24) | ((U32)c3 << 0) | ((U32)len << 8);
+    U64 const bitflip = (XXH_readLE32(secret) ^ XXH_readLE32(secret + 4)) + seed;
+    return XXH64_avalanche((U64)combined ^ bitflip);
+}
+
+FORCE_INLINE U64 XXH3_len_4to8_64b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    seed ^= (U64)XXH_swap32((U32)seed) << 32;
+    {   U32 const input1 = XXH_readLE32(input);
+        U32 const input2 = XXH_readLE32(input + len - 4);
+        U64 const bitflip = (XXH_readLE64(secret + 8) ^ XXH_readLE64(secret + 16)) - seed;
+        U64 const input64 = input2 + (((U64)input1) << 32);
+        return XXH3_rrmxmx(input64 ^ bitflip, len);
+    }
+}
+
+FORCE_INLINE U64 XXH3_len_9to16_64b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    U64 const bitflip1 = (XXH_readLE64(secret + 24) ^ XXH_readLE64(secret + 32)) + seed;
+    U64 const bitflip2 = (XXH_readLE64(secret + 40) ^ XXH_readLE64(secret + 48)) - seed;
+    U64 const input_lo = XXH_readLE64(input) ^ bitflip1;
+    U64 const input_hi = XXH_readLE64(input + len - 8) ^ bitflip2;
+    U64 const acc = len + XXH_swap64(input_lo) + input_hi + XXH3_mul128_fold64(input_lo, input_hi);
+    return XXH3_avalanche(acc);
+}
+
+FORCE_INLINE U64 XXH3_len_0to16_64b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    if (len > 8) return XXH3_len_9to16_64b(input, len, secret, seed);
+    if (len >= 4) return XXH3_len_4to8_64b(input, len, secret, seed);
+    if (len) return XXH3_len_1to3_64b(input, len, secret, seed);
+    return XXH64_avalanche(seed ^ (XXH_readLE64(secret + 56) ^ XXH_readLE64(secret + 64)));
+}
+
+FORCE_INLINE U64 XXH3_len_17to128_64b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    U64 acc = len * PRIME64_1;
+    if (len > 32) {
+        if (len > 64) {
+            if (len > 96) {
+                acc += XXH3_mix16B(input + 48, secret + 96, seed);
+                acc += XXH3_mix16B(input + len - 64, secret + 112, seed);
+            }
+            acc += XXH3_mix16B(input + 32, secret + 64, seed);
+            acc += XXH3_mix16B(input + len - 48, secret + 80, seed);
+        }
+        acc += XXH3_mix16B(input + 16, secret + 32, seed);
+        acc += XXH3_mix16B(input + len - 32, secret + 48, seed);
+    }
+    acc += XXH3_mix16B(input + 0, secret + 0, seed);
+    acc += XXH3_mix16B(input + len - 16, secret + 16, seed);
+    return XXH3_avalanche(acc);
+}
+
+static U64 XXH3_len_129to240_64b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    int const nbRounds = (int)len / 16;
+    U64 acc = len * PRIME64_1;
+    int i;
+    for (i = 0; i < 8; i++) {
+        acc += XXH3_mix16B(input + 16 * i, secret + 16 * i, seed);
+    }
+    acc = XXH3_avalanche(acc);
+    for (i = 8; i < nbRounds; i++) {
+        acc += XXH3_mix16B(input + 16 * i, secret + 16 * (i - 8) + MIDSIZE_STARTOFFSET, seed);
+    }
+    // last bytes
+    acc += XXH3_mix16B(input + len - 16, secret + SECRET_SIZE_MIN - MIDSIZE_LASTOFFSET, seed);
+    return XXH3_avalanche(acc);
+}
+
+static U64 XXH3_hashLong_64b(const BYTE* input, size_t len, const BYTE* secret)
+{
+    U64 acc[ACC_NB];
+    XXH3_initAcc(acc);
+    XXH3_hashLong_internal_loop(acc, input, len, secret);
+    return XXH3_mergeAccs(acc, secret + SECRET_MERGEACCS_START, (U64)len * PRIME64_1);
+}
+
+unsigned long long XXH3_64bits_withSeed(const void* input, size_t len, unsigned long long seed)
+{
+    const BYTE* const p = (const BYTE*)input;
+    if (len <= 16) return XXH3_len_0to16_64b(p, len, kSecret, seed);
+    if (len <= 128) return XXH3_len_17to128_64b(p, len, kSecret, seed);
+    if (len <= MIDSIZE_MAX) return XXH3_len_129to240_64b(p, len, kSecret, seed);
+    if (seed == 0) return XXH3_hashLong_64b(p, len, kSecret);
+    {   BYTE secret[SECRET_SIZE];
+        XXH3_initCustomSecret(secret, seed);
+        return XXH3_hashLong_64b(p, len, secret);
+    }
+}
+
+
+//**************************************
+// 128-bits hash
+//**************************************
+FORCE_INLINE XXH128_hash_t XXH3_len_1to3_128b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    BYTE const c1 = input[0];
+    BYTE const c2 = input[len >> 1];
+    BYTE const c3 = input[len - 1];
+    U32 const combinedl = ((U32)c1 << 16) | ((U32)c2 << 24) | ((U32)c3 << 0) | ((U32)len << 8);
+    U32 const combinedh = XXH_rotl32(XXH_swap32(combinedl), 13);
+    U64 const bitflipl = (XXH_readLE32(secret) ^ XXH_readLE32(secret + 4)) + seed;
+    U64 const bitfliph = (XXH_readLE32(secret + 8) ^ XXH_readLE32(secret + 12)) - seed;
+    XXH128_hash_t h128;
+    h128.low64  = XXH64_avalanche((U64)combinedl ^ bitflipl);
+    h128.high64 = XXH64_avalanche((U64)combinedh ^ bitfliph);
+    return h128;
+}
+
+FORCE_INLINE XXH128_hash_t XXH3_len_4to8_128b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    seed ^= (U64)XXH_swap32((U32)seed) << 32;
+    {   U32 const input_lo = XXH_readLE32(input);
+        U32 const input_hi = XXH_readLE32(input + len - 4);
+        U64 const input_64 = input_lo + ((U64)input_hi << 32);
+        U64 const bitflip = (XXH_readLE64(secret + 16) ^ XXH_readLE64(secret + 24)) + seed;
+        U64 const keyed = input_64 ^ bitflip;
+        XXH128_hash_t m128 = XXH_mult64to128(keyed, PRIME64_1 + (len << 2));
+        m128.high64 += (m128.low64 << 1);
+        m128.low64  ^= (m128.high64 >> 3);
+        m128.low64  ^= m128.low64 >> 35;
+        m128.low64  *= PRIME_MX2;
+        m128.low64  ^= m128.low64 >> 28;
+        m128.high64  = XXH3_avalanche(m128.high64);
+        return m128;
+    }
+}
+
+FORCE_INLINE XXH128_hash_t XXH3_len_9to16_128b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    U64 const bitflipl = (XXH_readLE64(secret + 32) ^ XXH_readLE64(secret + 40)) - seed;
+    U64 const bitfliph = (XXH_readLE64(secret + 48) ^ XXH_readLE64(secret + 56)) + seed;
+    U64 const input_lo = XXH_readLE64(input);
+    U64       input_hi = XXH_readLE64(input + len - 8);
+    XXH128_hash_t m128 = XXH_mult64to128(input_lo ^ input_hi ^ bitflipl, PRIME64_1);
+    m128.low64 += (U64)(len - 1) << 54;
+    input_hi   ^= bitfliph;
+    m128.high64 += input_hi + (U64)(U32)input_hi * (PRIME32_2 - 1);
+    m128.low64  ^= XXH_swap64(m128.high64);
+    {   XXH128_hash_t h128 = XXH_mult64to128(m128.low64, PRIME64_2);
+        h128.high64 += m128.high64 * PRIME64_2;
+        h128.low64   = XXH3_avalanche(h128.low64);
+        h128.high64  = XXH3_avalanche(h128.high64);
+        return h128;
+    }
+}
+
+FORCE_INLINE XXH128_hash_t XXH3_len_0to16_128b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    if (len > 8) return XXH3_len_9to16_128b(input, len, secret, seed);
+    if (len >= 4) return XXH3_len_4to8_128b(input, len, secret, seed);
+    if (len) return XXH3_len_1to3_128b(input, len, secret, seed);
+    {   XXH128_hash_t h128;
+        h128.low64  = XXH64_avalanche(seed ^ XXH_readLE64(secret + 64) ^ XXH_readLE64(secret + 72));
+        h128.high64 = XXH64_avalanche(seed ^ XXH_readLE64(secret + 80) ^ XXH_readLE64(secret + 88));
+        return h128;
+    }
+}
+
+FORCE_INLINE XXH128_hash_t XXH3_finalize_128b(XXH128_hash_t acc, size_t len, U64 seed)
+{
+    XXH128_hash_t h128;
+    h128.low64  = acc.low64 + acc.high64;
+    h128.high64 = (acc.low64 * PRIME64_1) + (acc.high64 * PRIME64_4) + ((len - seed) * PRIME64_2);
+    h128.low64  = XXH3_avalanche(h128.low64);
+    h128.high64 = (U64)0 - XXH3_avalanche(h128.high64);
+    return h128;
+}
+
+FORCE_INLINE XXH128_hash_t XXH3_len_17to128_128b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    XXH128_hash_t acc;
+    acc.low64 = len * PRIME64_1;
+    acc.high64 = 0;
+    if (len > 32) {
+        if (len > 64) {
+            if (len > 96) {
+                acc = XXH128_mix32B(acc, input + 48, input + len - 64, secret + 96, seed);
+            }
+            acc = XXH128_mix32B(acc, input + 32, input + len - 48, secret + 64, seed);
+        }
+        acc = XXH128_mix32B(acc, input + 16, input + len - 32, secret + 32, seed);
+    }
+    acc = XXH128_mix32B(acc, input, input + len - 16, secret, seed);
+    return XXH3_finalize_128b(acc, len, seed);
+}
+
+static XXH128_hash_t XXH3_len_129to240_128b(const BYTE* input, size_t len, const BYTE* secret, U64 seed)
+{
+    int const nbRounds = (int)len / 32;
+    XXH128_hash_t acc;
+    int i;
+    acc.low64 = len * PRIME64_1;
+    acc.high64 = 0;
+    for (i = 0; i < 4; i++) {
+        acc = XXH128_mix32B(acc, input + 32 * i, input + 32 * i + 16, secret + 32 * i, seed);
+    }
+    acc.low64 = XXH3_avalanche(acc.low64);
+    acc.high64 = XXH3_avalanche(acc.high64);
+    for (i = 4; i < nbRounds; i++) {
+        acc = XXH128_mix32B(acc, input + 32 * i, input + 32 * i + 16, secret + MIDSIZE_STARTOFFSET + 32 * (i - 4), seed);
+    }
+    // last bytes
+    acc = XXH128_mix32B(acc, input + len - 16, input + len - 32, secret + SECRET_SIZE_MIN - MIDSIZE_LASTOFFSET - 16, (U64)0 - seed);
+    return XXH3_finalize_128b(acc, len, seed);
+}
+
+static XXH128_hash_t XXH3_mergeAccs_128b(const U64* acc, const BYTE* secret, size_t len)
+{
+    XXH128_hash_t h128;
+    h128.low64  = XXH3_mergeAccs(acc, secret + SECRET_MERGEACCS_START, (U64)len * PRIME64_1);
+    h128.high64 = XXH3_mergeAccs(acc, secret + SECRET_SIZE - STRIPE_LEN - SECRET_MERGEACCS_START, ~((U64)len * PRIME64_2));
+    return h128;
+}
+
+static XXH128_hash_t XXH3_hashLong_128b(const BYTE* input, size_t len, const BYTE* secret)
+{
+    U64 acc[ACC_NB];
+    XXH3_initAcc(acc);
+    XXH3_hashLong_internal_loop(acc, input, len, secret);
+    return XXH3_mergeAccs_128b(acc, secret, len);
+}
+
+XXH128_hash_t XXH3_128bits_withSeed(const void* input, size_t len, unsigned long long seed)
+{
+    const BYTE* const p = (const BYTE*)input;
+    if (len <= 16) return XXH3_len_0to16_128b(p, len, kSecret, seed);
+    if (len <= 128) return XXH3_len_17to128_128b(p, len, kSecret, seed);
+    if (len <= MIDSIZE_MAX) return XXH3_len_129to240_128b(p, len, kSecret, seed);
+    if (seed == 0) return XXH3_hashLong_128b(p, len, kSecret);
+    {   BYTE secret[SECRET_SIZE];
+        XXH3_initCustomSecret(secret, seed);
+        return XXH3_hashLong_128b(p, len, secret);
+    }
+}
+
+
+//**************************************
+// Streaming
+//**************************************
+struct XXH3_state_s
+{
+    U64 acc[ACC_NB];
+    BYTE customSecret[SECRET_SIZE];
+    BYTE buffer[INTERNALBUFFER_SIZE];
+    U64 seed;
+    U64 totalLen;
+    size_t bufferedSize;
+    size_t nbStripesSoFar;
+};
+
+void* XXH3_createState(void)
+{
+    return malloc(sizeof(struct XXH3_state_s));
+}
+
+void XXH3_freeState(void* state)
+{
+    free(state);
+}
+
+int XXH3_sizeofState(void)
+{
+    return sizeof(struct XXH3_state_s);
+}
+
+void XXH3_reset_withSeed(void* state_in, unsigned long long seed)
+{
+    struct XXH3_state_s* const state = (struct XXH3_state_s*) state_in;
+    XXH3_initAcc(state->acc);
+    XXH3_initCustomSecret(state->customSecret, seed);
+    state->seed = seed;
+    state->totalLen = 0;
+    state->bufferedSize = 0;
+    state->nbStripesSoFar = 0;
+}
+
+// consume nbStripes stripes, scrambling at block boundaries
+static void XXH3_consumeStripes(U64* acc, size_t* nbStripesSoFarPtr, const BYTE* input, size_t nbStripes, const BYTE* secret)
+{
+    if (STRIPES_PER_BLOCK - *nbStripesSoFarPtr <= nbStripes) {
+        size_t const nbStripesToEndofBlock = STRIPES_PER_BLOCK - *nbStripesSoFarPtr;
+        size_t const nbStripesAfterBlock = nbStripes - nbStripesToEndofBlock;
+        XXH3_accumulate(acc, input, secret + *nbStripesSoFarPtr * SECRET_CONSUME_RATE, nbStripesToEndofBlock);
+        XXH3_scramble(acc, secret + SECRET_SIZE - STRIPE_LEN);
+        XXH3_accumulate(acc, input + nbStripesToEndofBlock * STRIPE_LEN, secret, nbStripesAfterBlock);
+        *nbStripesSoFarPtr = nbStripesAfterBlock;
+    } else {
+        XXH3_accumulate(acc, input, secret + *nbStripesSoFarPtr * SECRET_CONSUME_RATE, nbStripes);
+        *nbStripesSoFarPtr += nbStripes;
+    }
+}
+
+void XXH3_update(void* state_in, const void* input, size_t len)
+{
+    struct XXH3_state_s* const state = (struct XXH3_state_s*) state_in;
+    const BYTE* p = (const BYTE*)input;
+    const BYTE* const bEnd = p + len;
+
+    state->totalLen += len;
+
+    if (state->bufferedSize + len <= INTERNALBUFFER_SIZE) {   // fill in tmp buffer
+        memcpy(state->buffer + state->bufferedSize, input, len);
+        state->bufferedSize += len;
+        return;
+    }
+
+    // the last stripe is always kept in the buffer for the digest
+    if (state->bufferedSize) {   // some data left from previous update
+        size_t const loadSize = INTERNALBUFFER_SIZE - state->bufferedSize;
+        memcpy(state->buffer + state->bufferedSize, p, loadSize);
+        p += loadSize;
+        XXH3_consumeStripes(state->acc, &state->nbStripesSoFar, state->buffer, INTERNALBUFFER_SIZE / STRIPE_LEN, state->customSecret);
+        state->bufferedSize = 0;
+    }
+
+    if (p + INTERNALBUFFER_SIZE < bEnd) {
+        const BYTE* const limit = bEnd - INTERNALBUFFER_SIZE;
+        do {
+            XXH3_consumeStripes(state->acc, &state->nbStripesSoFar, p, INTERNALBUFFER_SIZE / STRIPE_LEN, state->customSecret);
+            p += INTERNALBUFFER_SIZE;
+        } while (p < limit);
+        // for the last partial stripe
+        memcpy(state->buffer + INTERNALBUFFER_SIZE - STRIPE_LEN, p - STRIPE_LEN, STRIPE_LEN);
+    }
+
+    memcpy(state->buffer, p, (size_t)(bEnd - p));
+    state->bufferedSize = (size_t)(bEnd - p);
+}
+
+static void XXH3_digestLong(U64* acc, const struct XXH3_state_s* state)
+{
+    memcpy(acc, state->acc, sizeof(state->acc));
+    if (state->bufferedSize >= STRIPE_LEN) {
+        size_t const nbStripes = (state->bufferedSize - 1) / STRIPE_LEN;
+        size_t nbStripesSoFar = state->nbStripesSoFar;
+        XXH3_consumeStripes(acc, &nbStripesSoFar, state->buffer, nbStripes, state->customSecret);
+        XXH3_accumulate_512(acc, state->buffer + state->bufferedSize - STRIPE_LEN,
+            state->customSecret + SECRET_SIZE - STRIPE_LEN - SECRET_LASTACC_START);
+    } else {   // the last stripe overlaps the previous buffer
+        BYTE lastStripe[STRIPE_LEN];
+        size_t const catchupSize = STRIPE_LEN - state->bufferedSize;
+        memcpy(lastStripe, state->buffer + INTERNALBUFFER_SIZE - catchupSize, catchupSize);
+        memcpy(lastStripe + catchupSize, state->buffer, state->bufferedSize);
+        XXH3_accumulate_512(acc, lastStripe,
+            state->customSecret + SECRET_SIZE - STRIPE_LEN - SECRET_LASTACC_START);
+    }
+}
+
+unsigned long long XXH3_64bits_digest(const void* state_in)
+{
+    const struct XXH3_state_s* const state = (const struct XXH3_state_s*) state_in;
+    if (state->totalLen > MIDSIZE_MAX) {
+        U64 acc[ACC_NB];
+        XXH3_digestLong(acc, state);
+        return XXH3_mergeAccs(acc, state->customSecret + SECRET_MERGEACCS_START, state->totalLen * PRIME64_1);
+    }
+    return XXH3_64bits_withSeed(state->buffer, (size_t)state->totalLen, state->seed);
+}
+
+XXH128_hash_t XXH3_128bits_digest(const void* state_in)
+{
+    const struct XXH3_state_s* const state = (const struct XXH3_state_s*) state_in;
+    if (state->totalLen > MIDSIZE_MAX) {
+        U64 acc[ACC_NB];
+        XXH3_digestLong(acc, state);
+        return XXH3_mergeAccs_128b(acc, state->customSecret, (size_t)state->totalLen);
+    }
+    return XXH3_128bits_withSeed(state->buffer, (size_t)state->totalLen, state->seed);
+}
@@ -0,0 +1,82 @@
+/*
+   XXH3 - 64 and 128-bits hash functions
+   Header File
+   Portable scalar implementation of XXH3 from xxHash 0.8,
+   Copyright (C) 2019-2020, Yann Collet.
+   BSD 2-Clause License (http://www.opensource.org/licenses/bsd-license.php)
+
+   Redistribution and use in source and binary forms, with or without
+   modification, are permitted provided that the following conditions are
+   met:
+
+       * Redistributions of source code must retain the above copyright
+   notice, this list of conditions and the following disclaimer.
+       * Redistributions in binary form must reproduce the above
+   copyright notice, this list of conditions and the following disclaimer
+   in the documentation and/or other materials provided with the
+   distribution.
+
+   THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+   "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+   LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+   A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+   OWNER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+   SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+   LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+   DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+   THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+   (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+   OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+   You can contact the author at :
+   - xxHash source repository : https://github.com/Cyan4973/xxHash
+*/
+
+#pragma once
+
+#include <stddef.h>
+
+#if defined (__cplusplus)
+extern "C" {
+#endif
+
+
+//****************************
+// Simple Hash Functions
+//****************************
+
+typedef struct {
+    unsigned long long low64;
+    unsigned long long high64;
+} XXH128_hash_t;
+
+unsigned long long XXH3_64bits_withSeed (const void* input, size_t len, unsigned long long seed);
+XXH128_hash_t      XXH3_128bits_withSeed(const void* input, size_t len, unsigned long long seed);
+/*
+Return the 64 and 128-bits XXH3 hashes of "input", as defined by xxHash 0.8.
+Their results are identical on all platforms.
+*/
+
+
+//****************************
+// Streaming Functions
+//****************************
+
+void*              XXH3_createState (void);
+void               XXH3_freeState (void* state);
+int                XXH3_sizeofState (void);
+void               XXH3_reset_withSeed (void* state, unsigned long long seed);
+void               XXH3_update (void* state, const void* input, size_t len);
+unsigned long long XXH3_64bits_digest (const void* state);
+XXH128_hash_t      XXH3_128bits_digest (const void* state);
+/*
+The same state can produce both the 64 and the 128-bits hash of the data
+it has been fed with, and digests do not modify it.
+XXH3_sizeofState() is the size of the state, for callers that allocate it
+themselves; such memory must be aligned for 'long long' fields.
+*/
+
+
+#if defined (__cplusplus)
+}
+#endif
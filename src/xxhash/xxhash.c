@@ -125,12 +125,14 @@ FORCE_INLINE void* XXH_memcpy(void* dest, const void* src, size_t size) { return
 #endif
 
 typedef struct _U32_S { U32 v; } _PACKED U32_S;
+typedef struct _U64_S { U64 v; } _PACKED U64_S;
 
 #if !defined(XXH_USE_UNALIGNED_ACCESS) && !defined(__GNUC__)
 #  pragma pack(pop)
 #endif
 
 #define A32(x) (((U32_S *)(x))->v)
+#define A64(x) (((U64_S *)(x))->v)
 
 
 //***************************************
@@ -141,20 +143,33 @@ typedef struct _U32_S { U32 v; } _PACKED U32_S;
 // Note : although _rotl exists for minGW (GCC under windows), performance seems poor
 #if defined(_MSC_VER)
 #  define XXH_rotl32(x,r) _rotl(x,r)
+#  define XXH_rotl64(x,r) _rotl64(x,r)
 #else
 #  define XXH_rotl32(x,r) ((x << r) | (x >> (32 - r)))
+#  define XXH_rotl64(x,r) ((x << r) | (x >> (64 - r)))
 #endif
 
 #if defined(_MSC_VER)     // Visual Studio
 #  define XXH_swap32 _byteswap_ulong
+#  define XXH_swap64 _byteswap_uint64
 #elif GCC_VERSION >= 403
 #  define XXH_swap32 __builtin_bswap32
+#  define XXH_swap64 __builtin_bswap64
 #else
 static inline U32 XXH_swap32 (U32 x) {
     return  ((x << 24) & 0xff000000 ) |
         ((x <<  8) & 0x00ff0000 ) |
         ((x >>  8) & 0x0000ff00 ) |
         ((x >> 24) & 0x000000ff );}
+static inline U64 XXH_swap64 (U64 x) {
+    return  ((x << 56) & 0xff00000000000000ULL) |
+        ((x << 40) & 0x00ff000000000000ULL) |
+        ((x << 24) & 0x0000ff0000000000ULL) |
+        ((x << 8)  & 0x000000ff00000000ULL) |
+        ((x >> 8)  & 0x00000000ff000000ULL) |
+        ((x >> 24) & 0x0000000000ff0000ULL) |
+        ((x >> 40) & 0x000000000000ff00ULL) |
+        ((x >> 56) & 0x00000000000000ffULL);}
 #endif
 
 
@@ -167,6 +182,12 @@ static inline U32 XXH_swap32 (U32 x) {
 #define PRIME32_4    668265263U
 #define PRIME32_5    374761393U
 
+#define PRIME64_1 11400714785074694791ULL
+#define PRIME64_2 14029467366897019727ULL
+#define PRIME64_3  1609587929392839161ULL
+#define PRIME64_4  9650029242287828579ULL
+#define PRIME64_5  2870177450012600261ULL
+
 
 //**************************************
 // Architecture Macros
@@ -199,6 +220,16 @@ FORCE_INLINE U32 XXH_readLE32_align(const U32* ptr, XXH_endianess endian, XXH_al
 
 FORCE_INLINE U32 XXH_readLE32(const U32* ptr, XXH_endianess endian) { return XXH_readLE32_align(ptr, endian, XXH_unaligned); }
 
+FORCE_INLINE U64 XXH_readLE64_align(const U64* ptr, XXH_endianess endian, XXH_alignment align)
+{
+    if (align==XXH_unaligned)
+        return endian==XXH_littleEndian ? A64(ptr) : XXH_swap64(A64(ptr));
+    else
+        return endian==XXH_littleEndian ? *ptr : XXH_swap64(*ptr);
+}
+
+FORCE_INLINE U64 XXH_readLE64(const U64* ptr, XXH_endianess endian) { return XXH_readLE64_align(ptr, endian, XXH_unaligned); }
+
 
 //****************************
 // Simple Hash Functions
@@ -473,3 +504,283 @@ U32 XXH32_digest (void* state_in)
 
     return h32;
 }
+
+
+//****************************
+// 64-bits Hash Functions
+//****************************
+
+FORCE_INLINE U64 XXH64_round(U64 acc, U64 input)
+{
+    acc += input * PRIME64_2;
+    acc  = XXH_rotl64(acc, 31);
+    acc *= PRIME64_1;
+    return acc;
+}
+
+FORCE_INLINE U64 XXH64_mergeRound(U64 h64, U64 v)
+{
+    v    = XXH64_round(0, v);
+    h64 ^= v;
+    h64  = h64 * PRIME64_1 + PRIME64_4;
+    return h64;
+}
+
+FORCE_INLINE U64 XXH64_finalize(U64 h64, const BYTE* p, const BYTE* bEnd, XXH_endianess endian, XXH_alignment align)
+{
+    while (p+8<=bEnd)
+    {
+        h64 ^= XXH64_round(0, XXH_readLE64_align((const U64*)p, endian, align));
+        h64  = XXH_rotl64(h64, 27) * PRIME64_1 + PRIME64_4;
+        p+=8;
+    }
+
+    if (p+4<=bEnd)
+    {
+        h64 ^= (U64)(XXH_readLE32_align((const U32*)p, endian, align)) * PRIME64_1;
+        h64  = XXH_rotl64(h64, 23) * PRIME64_2 + PRIME64_3;
+        p+=4;
+    }
+
+    while (p<bEnd)
+    {
+        h64 ^= (*p) * PRIME64_5;
+        h64  = XXH_rotl64(h64, 11) * PRIME64_1;
+        p++;
+    }
+
+    h64 ^= h64 >> 33;
+    h64 *= PRIME64_2;
+    h64 ^= h64 >> 29;
+    h64 *= PRIME64_3;
+    h64 ^= h64 >> 32;
+
+    return h64;
+}
+
+FORCE_INLINE U64 XXH64_endian_align(const void* input, int len, U64 seed, XXH_endianess endian, XXH_alignment align)
+{
+    const BYTE* p = (const BYTE*)input;
+    const BYTE* const bEnd = p + len;
+    U64 h64;
+
+#ifdef XXH_ACCEPT_NULL_INPUT_POINTER
+    if (p==NULL) { len=0; p=(const BYTE*)(size_t)32; }
+#endif
+
+    if (len>=32)
+    {
+        const BYTE* const limit = bEnd - 32;
+        U64 v1 = seed + PRIME64_1 + PRIME64_2;
+        U64 v2 = seed + PRIME64_2;
+        U64 v3 = seed + 0;
+        U64 v4 = seed - PRIME64_1;
+
+        do
+        {
+            v1 = XXH64_round(v1, XXH_readLE64_align((const U64*)p, endian, align)); p+=8;
+            v2 = XXH64_round(v2, XXH_readLE64_align((const U64*)p, endian, align)); p+=8;
+            v3 = XXH64_round(v3, XXH_readLE64_align((const U64*)p, endian, align)); p+=8;
+            v4 = XXH64_round(v4, XXH_readLE64_align((const U64*)p, endian, align)); p+=8;
+        } while (p<=limit);
+
+        h64 = XXH_rotl64(v1, 1) + XXH_rotl64(v2, 7) + XXH_rotl64(v3, 12) + XXH_rotl64(v4, 18);
+        h64 = XXH64_mergeRound(h64, v1);
+        h64 = XXH64_mergeRound(h64, v2);
+        h64 = XXH64_mergeRound(h64, v3);
+        h64 = XXH64_mergeRound(h64, v4);
+    }
+    else
+    {
+        h64  = seed + PRIME64_5;
+    }
+
+    h64 += (U64) len;
+
+    return XXH64_finalize(h64, p, bEnd, endian, align);
+}
+
+
+unsigned long long XXH64(const void* input, int len, unsigned long long seed)
+{
+    XXH_endianess endian_detected = (XXH_endianess)XXH_CPU_LITTLE_ENDIAN;
+
+#  if !defined(XXH_USE_UNALIGNED_ACCESS)
+    if ((((size_t)input) & 7)==0)   // Input is aligned, let's leverage the speed advantage
+    {
+        if ((endian_detected==XXH_littleEndian) || XXH_FORCE_NATIVE_FORMAT)
+            return XXH64_endian_align(input, len, seed, XXH_littleEndian, XXH_aligned);
+        else
+            return XXH64_endian_align(input, len, seed, XXH_bigEndian, XXH_aligned);
+    }
+#  endif
+
+    if ((endian_detected==XXH_littleEndian) || XXH_FORCE_NATIVE_FORMAT)
+        return XXH64_endian_align(input, len, seed, XXH_littleEndian, XXH_unaligned);
+    else
+        return XXH64_endian_align(input, len, seed, XXH_bigEndian, XXH_unaligned);
+}
+
+
+struct XXH_state64_t
+{
+    U64 total_len;
+    U64 seed;
+    U64 v1;
+    U64 v2;
+    U64 v3;
+    U64 v4;
+    int memsize;
+    char memory[32];
+};
+
+
+int XXH64_sizeofState()
+{
+    XXH_STATIC_ASSERT(XXH64_SIZEOFSTATE >= sizeof(struct XXH_state64_t));   // A compilation error here means XXH64_SIZEOFSTATE is not large enough
+    return sizeof(struct XXH_state64_t);
+}
+
+
+XXH_errorcode XXH64_resetState(void* state_in, unsigned long long seed)
+{
+    struct XXH_state64_t * state = (struct XXH_state64_t *) state_in;
+    state->seed = seed;
+    state->v1 = seed + PRIME64_1 + PRIME64_2;
+    state->v2 = seed + PRIME64_2;
+    state->v3 = seed + 0;
+    state->v4 = seed - PRIME64_1;
+    state->total_len = 0;
+    state->memsize = 0;
+    return XXH_OK;
+}
+
+
+void* XXH64_init (unsigned long long seed)
+{
+    void* state = XXH_malloc (sizeof(struct XXH_state64_t));
+    if (state != NULL) XXH64_resetState(state, seed);
+    return state;
+}
+
+
+FORCE_INLINE XXH_errorcode XXH64_update_endian (void* state_in, const void* input, int len, XXH_endianess endian)
+{
+    struct XXH_state64_t * state = (struct XXH_state64_t *) state_in;
+    const BYTE* p = (const BYTE*)input;
+    const BYTE* const bEnd = p + len;
+
+#ifdef XXH_ACCEPT_NULL_INPUT_POINTER
+    if (input==NULL) return XXH_ERROR;
+#endif
+
+    state->total_len += len;
+
+    if (state->memsize + len < 32)   // fill in tmp buffer
+    {
+        XXH_memcpy(state->memory + state->memsize, input, len);
+        state->memsize += len;
+        return XXH_OK;
+    }
+
+    if (state->memsize)   // some data left from previous update
+    {
+        XXH_memcpy(state->memory + state->memsize, input, 32-state->memsize);
+        {
+            const U64* p64 = (const U64*)state->memory;
+            state->v1 = XXH64_round(state->v1, XXH_readLE64(p64, endian)); p64++;
+            state->v2 = XXH64_round(state->v2, XXH_readLE64(p64, endian)); p64++;
+            state->v3 = XXH64_round(state->v3, XXH_readLE64(p64, endian)); p64++;
+            state->v4 = XXH64_round(state->v4, XXH_readLE64(p64, endian)); p64++;
+        }
+        p += 32-state->memsize;
+        state->memsize = 0;
+    }
+
+    if (p+32 <= bEnd)
+    {
+        const BYTE* const limit = bEnd - 32;
+        U64 v1 = state->v1;
+        U64 v2 = state->v2;
+        U64 v3 = state->v3;
+        U64 v4 = state->v4;
+
+        do
+        {
+            v1 = XXH64_round(v1, XXH_readLE64((const U64*)p, endian)); p+=8;
+            v2 = XXH64_round(v2, XXH_readLE64((const U64*)p, endian)); p+=8;
+            v3 = XXH64_round(v3, XXH_readLE64((const U64*)p, endian)); p+=8;
+            v4 = XXH64_round(v4, XXH_readLE64((const U64*)p, endian)); p+=8;
+        } while (p<=limit);
+
+        state->v1 = v1;
+        state->v2 = v2;
+        state->v3 = v3;
+        state->v4 = v4;
+    }
+
+    if (p < bEnd)
+    {
+        XXH_memcpy(state->memory, p, bEnd-p);
+        state->memsize = (int)(bEnd-p);
+    }
+
+    return XXH_OK;
+}
+
+XXH_errorcode XXH64_update (void* state_in, const void* input, int len)
+{
+    XXH_endianess endian_detected = (XXH_endianess)XXH_CPU_LITTLE_ENDIAN;
+
+    if ((endian_detected==XXH_littleEndian) || XXH_FORCE_NATIVE_FORMAT)
+        return XXH64_update_endian(state_in, input, len, XXH_littleEndian);
+    else
+        return XXH64_update_endian(state_in, input, len, XXH_bigEndian);
+}
+
+
+FORCE_INLINE U64 XXH64_intermediateDigest_endian (void* state_in, XXH_endianess endian)
+{
+    struct XXH_state64_t * state = (struct XXH_state64_t *) state_in;
+    const BYTE * p = (const BYTE*)state->memory;
+    const BYTE* bEnd = (const BYTE*)state->memory + state->memsize;
+    U64 h64;
+
+    if (state->total_len >= 32)
+    {
+        h64 = XXH_rotl64(state->v1, 1) + XXH_rotl64(state->v2, 7) + XXH_rotl64(state->v3, 12) + XXH_rotl64(state->v4, 18);
+        h64 = XXH64_mergeRound(h64, state->v1);
+        h64 = XXH64_mergeRound(h64, state->v2);
+        h64 = XXH64_mergeRound(h64, state->v3);
+        h64 = XXH64_mergeRound(h64, state->v4);
+    }
+    else
+    {
+        h64  = state->seed + PRIME64_5;
+    }
+
+    h64 += (U64) state->total_len;
+
+    return XXH64_finalize(h64, p, bEnd, endian, XXH_unaligned);
+}
+
+
+unsigned long long XXH64_intermediateDigest (void* state_in)
+{
+    XXH_endianess endian_detected = (XXH_endianess)XXH_CPU_LITTLE_ENDIAN;
+
+    if ((endian_detected==XXH_littleEndian) || XXH_FORCE_NATIVE_FORMAT)
+        return XXH64_intermediateDigest_endian(state_in, XXH_littleEndian);
+    else
+        return XXH64_intermediateDigest_endian(state_in, XXH_bigEndian);
+}
+
+
+unsigned long long XXH64_digest (void* state_in)
+{
+    U64 h64 = XXH64_intermediateDigest(state_in);
+
+    XXH_free(state_in);
+
+    return h64;
+}
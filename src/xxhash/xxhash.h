@@ -148,6 +148,34 @@ To free memory context, use XXH32_digest(), or free().
 
 
 
+//****************************
+// 64-bits Hash Functions
+//****************************
+
+unsigned long long XXH64 (const void* input, int len, unsigned long long seed);
+/*
+XXH64() :
+    Calculate the 64-bits hash of sequence of length "len" stored at memory address "input".
+    Faster than XXH32() on 64-bits systems.
+    Note that "len" is type "int", which means it is limited to 2^31-1.
+*/
+
+void*              XXH64_init   (unsigned long long seed);
+XXH_errorcode      XXH64_update (void* state, const void* input, int len);
+unsigned long long XXH64_intermediateDigest (void* state);
+unsigned long long XXH64_digest (void* state);
+/*
+Same as the XXH32 advanced functions, for the 64-bits hash.
+Memory is freed by XXH64_digest().
+*/
+
+int           XXH64_sizeofState(void);
+XXH_errorcode XXH64_resetState(void* state, unsigned long long seed);
+
+#define       XXH64_SIZEOFSTATE 88
+typedef struct { long long ll[(XXH64_SIZEOFSTATE+(sizeof(long long)-1))/sizeof(long long)]; } XXH64_stateSpace_t;
+
+
 //****************************
 // Deprecated function names
 //****************************
@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#include <string.h>
+#include "xxhash.h"
+#include "xxhash_batch.h"
+
+typedef unsigned char BYTE;
+typedef unsigned int U32;
+
+#define PRIME32_1 2654435761U
+#define PRIME32_2 2246822519U
+#define PRIME32_3 3266489917U
+#define PRIME32_4  668265263U
+#define PRIME32_5  374761393U
+
+#define XXH_rotl32(x,r) (((x) << (r)) | ((x) >> (32 - (r))))
+
+/* SSE2 has no 32-bits vector multiplication, and emulating it is slower than
+   the scalar code */
+#if defined(__GNUC__) && !defined(__INTEL_COMPILER) \
+    && (defined(__SSE4_1__) || defined(__ARM_NEON) || defined(__aarch64__))
+
+/* the 4 accumulators of an input */
+typedef U32 v4u32 __attribute__((vector_size(16)));
+
+/* number of inputs hashed in lockstep */
+#define GROUP 8
+/* shorter inputs are hashed one by one: refilling a slot every few stripes
+   costs more than it saves */
+#define MIN_VECTOR_LEN 128
+
+static int is_little_endian(void) {
+  const union { U32 i; BYTE c[4]; } one = { 1 };
+  return one.c[0];
+}
+
+static U32 read32(const BYTE* p) {
+  U32 v;
+  memcpy(&v, p, sizeof(v));
+  return v;
+}
+
+/* Finish the hash of an input of len >= 16 bytes whose stripes have been
+   consumed up to p, with the 4 accumulators in v. Little-endian only. */
+static U32 XXH32_finish(const BYTE* p, const BYTE* bEnd, int len, const U32* v) {
+  U32 v1 = v[0], v2 = v[1], v3 = v[2], v4 = v[3];
+  U32 h32;
+
+  while (p <= bEnd - 16) {
+    v1 += read32(p) * PRIME32_2; v1 = XXH_rotl32(v1, 13); v1 *= PRIME32_1; p += 4;
+    v2 += read32(p) * PRIME32_2; v2 = XXH_rotl32(v2, 13); v2 *= PRIME32_1; p += 4;
+    v3 += read32(p) * PRIME32_2; v3 = XXH_rotl32(v3, 13); v3 *= PRIME32_1; p += 4;
+    v4 += read32(p) * PRIME32_2; v4 = XXH_rotl32(v4, 13); v4 *= PRIME32_1; p += 4;
+  }
+
+  h32 = XXH_rotl32(v1, 1) + XXH_rotl32(v2, 7) + XXH_rotl32(v3, 12) + XXH_rotl32(v4, 18);
+  h32 += (U32) len;
+
+  while (p + 4 <= bEnd) {
+    h32 += read32(p) * PRIME32_3;
+    h32 = XXH_rotl32(h32, 17) * PRIME32_4;
+    p += 4;
+  }
+
+  while (p < bEnd) {
+    h32 += (*p) * PRIME32_5;
+    h32 = XXH_rotl32(h32, 11) * PRIME32_1;
+    p++;
+  }
+
+  h32 ^= h32 >> 15;
+  h32 *= PRIME32_2;
+  h32 ^= h32 >> 13;
+  h32 *= PRIME32_3;
+  h32 ^= h32 >> 16;
+
+  return h32;
+}
+
+/* Hash inputs from next on until one has at least MIN_VECTOR_LEN bytes, and
+   return its index, or n if there is none. */
+static int XXH32_skipShort(const void* const* inputs, const int* lengths, int n, int next, U32 seed, U32* out) {
+  for (; next < n && lengths[next] < MIN_VECTOR_LEN; ++next) {
+    out[next] = XXH32(inputs[next], lengths[next], seed);
+  }
+  return next;
+}
+
+/* Each of the GROUP slots hashes an input of at least MIN_VECTOR_LEN bytes with its 4
+   accumulators in a vector, and the GROUP vectors are updated in the same loop
+   so that their multiplications overlap. When the input of a slot runs out of
+   stripes, it is finished and the slot moves on to the next input; once there
+   are not enough inputs left to fill all slots, the remaining ones are
+   finished one by one. */
+void XXH32_batch(const void* const* inputs, const int* lengths, int n, unsigned int seed, unsigned int* out) {
+  const v4u32 init = { seed + PRIME32_1 + PRIME32_2, seed + PRIME32_2, seed, seed - PRIME32_1 };
+  const v4u32 prime1 = { PRIME32_1, PRIME32_1, PRIME32_1, PRIME32_1 };
+  const v4u32 prime2 = { PRIME32_2, PRIME32_2, PRIME32_2, PRIME32_2 };
+  v4u32 acc[GROUP];
+  const BYTE* p[GROUP];
+  int index[GROUP];
+  int stripes[GROUP];
+  int filled, next, i;
+
+  if (!is_little_endian()) {
+    for (i = 0; i < n; ++i) {
+      out[i] = XXH32(inputs[i], lengths[i], seed);
+    }
+    return;
+  }
+
+  next = 0;
+  for (filled = 0; filled < GROUP; ++filled) {
+    next = XXH32_skipShort(inputs, lengths, n, next, seed, out);
+    if (next == n) {
+      break;
+    }
+    index[filled] = next;
+    p[filled] = (const BYTE*) inputs[next];
+    stripes[filled] = lengths[next] / 16;
+    acc[filled] = init;
+    ++next;
+  }
+
+  while (filled == GROUP) {
+    int steps = stripes[0];
+    int off;
+    for (i = 1; i < GROUP; ++i) {
+      if (stripes[i] < steps) {
+        steps = stripes[i];
+      }
+    }
+
+    for (off = 0; off < steps * 16; off += 16) {
+      for (i = 0; i < GROUP; ++i) {
+        v4u32 in;
+        memcpy(&in, p[i] + off, sizeof(in));
+        acc[i] += in * prime2;
+        acc[i] = (acc[i] << 13) | (acc[i] >> 19);
+        acc[i] *= prime1;
+      }
+    }
+
+    for (i = 0; i < filled; ++i) {
+      p[i] += off;
+      stripes[i] -= steps;
+      if (stripes[i] == 0) {
+        U32 lanes[4];
+        memcpy(lanes, &acc[i], sizeof(lanes));
+        out[index[i]] = XXH32_finish(p[i], (const BYTE*) inputs[index[i]] + lengths[index[i]], lengths[index[i]], lanes);
+
+        next = XXH32_skipShort(inputs, lengths, n, next, seed, out);
+        if (next == n) {
+          /* move the last slot here and stop filling */
+          --filled;
+          index[i] = index[filled];
+          p[i] = p[filled];
+          stripes[i] = stripes[filled];
+          acc[i] = acc[filled];
+          --i;
+          continue;
+        }
+        index[i] = next;
+        p[i] = (const BYTE*) inputs[next];
+        stripes[i] = lengths[next] / 16;
+        acc[i] = init;
+        ++next;
+      }
+    }
+  }
+
+  for (i = 0; i < filled; ++i) {
+    U32 lanes[4];
+    memcpy(lanes, &acc[i], sizeof(lanes));
+    out[index[i]] = XXH32_finish(p[i], (const BYTE*) inputs[index[i]] + lengths[index[i]], lengths[index[i]], lanes);
+  }
+}
+
+int XXH32_batchIsVectorized(void) {
+  return is_little_endian();
+}
+
+#else
+
+void XXH32_batch(const void* const* inputs, const int* lengths, int n, unsigned int seed, unsigned int* out) {
+  int i;
+  for (i = 0; i < n; ++i) {
+    out[i] = XXH32(inputs[i], lengths[i], seed);
+  }
+}
+
+int XXH32_batchIsVectorized(void) {
+  return 0;
+}
+
+#endif
+
+void XXH64_batch(const void* const* inputs, const int* lengths, int n, unsigned long long seed, unsigned long long* out) {
+  int i;
+  for (i = 0; i < n; ++i) {
+    out[i] = XXH64(inputs[i], lengths[i], seed);
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#pragma once
+
+#if defined (__cplusplus)
+extern "C" {
+#endif
+
+/*
+Hash n independent inputs: out[i] = XXH32(inputs[i], lengths[i], seed).
+With GCC or clang on little-endian CPUs with 32-bits vector multiplications
+(SSE4.1, such as the x86-64-v3 build, or NEON), up to 8 inputs of at least
+128 bytes are hashed in lockstep with vector instructions, and an input that
+runs out of stripes is replaced with the next one. Other inputs are hashed one
+by one.
+*/
+void XXH32_batch(const void* const* inputs, const int* lengths, int n, unsigned int seed, unsigned int* out);
+
+/* Whether XXH32_batch hashes inputs in lockstep with vector instructions. */
+int XXH32_batchIsVectorized(void);
+
+/*
+Hash n independent inputs: out[i] = XXH64(inputs[i], lengths[i], seed).
+There is no vectorized variant: 64-bits vector multiplications need AVX-512.
+*/
+void XXH64_batch(const void* const* inputs, const int* lengths, int n, unsigned long long seed, unsigned long long* out);
+
+#if defined (__cplusplus)
+}
+#endif